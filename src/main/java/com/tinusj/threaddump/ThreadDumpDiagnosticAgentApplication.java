@@ -2,12 +2,16 @@ package com.tinusj.threaddump;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Thread Dump Diagnostic Agent.
  * Spring Boot 3 MCP-enabled diagnostic agent for Java thread dumps.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class ThreadDumpDiagnosticAgentApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,257 @@
+package com.tinusj.threaddump.capture;
+
+import com.sun.tools.attach.AttachNotSupportedException;
+import com.sun.tools.attach.VirtualMachine;
+import com.tinusj.threaddump.config.ThreadDumpCaptureProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Captures thread dumps in-process through the {@code jdk.attach} module, without spawning a JVM.
+ * <p>
+ * The agent attaches to the target, starts its local management agent and invokes the
+ * {@code Thread.print -l} diagnostic command over JMX, which produces the same text as
+ * {@code jstack -l}. The JMX connection is kept per PID and reused by later captures, so only the
+ * first capture of a process pays for attaching. A cached connection is dropped when the process
+ * behind the PID has a different start time (PID reuse), when it fails, or when more than
+ * {@code thread-dump.capture.max-attachments} processes are cached (least recently used first).
+ * The agent's own process is dumped through the platform MBean server.
+ */
+@Component
+@Slf4j
+public class AttachThreadDumpCapture implements ThreadDumpCapture {
+
+    private static final String ATTACH_MODULE = "jdk.attach";
+    private static final String DIAGNOSTIC_COMMAND_MBEAN = "com.sun.management:type=DiagnosticCommand";
+    private static final String THREAD_PRINT_OPERATION = "threadPrint";
+    private static final String[] THREAD_PRINT_ARGUMENTS = {"-l"};
+    private static final String[] THREAD_PRINT_SIGNATURE = {String[].class.getName()};
+
+    /**
+     * Number of locks that serialize attaching to the same PID.
+     */
+    private static final int ATTACH_LOCK_STRIPES = 64;
+
+    private final boolean enabled;
+    private final Map<Long, Attachment> attachments;
+    private final Lock[] attachLocks = new Lock[ATTACH_LOCK_STRIPES];
+
+    /**
+     * Creates an enabled capture with the default attachment cache size.
+     */
+    public AttachThreadDumpCapture() {
+        this(new ThreadDumpCaptureProperties());
+    }
+
+    /**
+     * Creates a capture configured by the {@code thread-dump.capture} properties.
+     */
+    @Autowired
+    public AttachThreadDumpCapture(ThreadDumpCaptureProperties properties) {
+        this.enabled = properties.isAttachEnabled();
+        for (int i = 0; i < attachLocks.length; i++) {
+            attachLocks[i] = new ReentrantLock();
+        }
+        int maxAttachments = properties.getMaxAttachments();
+        this.attachments = new LinkedHashMap<>(maxAttachments, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Attachment> eldest) {
+                if (size() <= maxAttachments) {
+                    return false;
+                }
+                eldest.getValue().close();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "attach";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled && ModuleLayer.boot().findModule(ATTACH_MODULE).isPresent();
+    }
+
+    @Override
+    public String capture(long pid) {
+        if (pid == ProcessHandle.current().pid()) {
+            return threadPrint(ManagementFactory.getPlatformMBeanServer(), pid);
+        }
+        Attachment attachment = attachment(pid);
+        try {
+            return threadPrint(attachment.connection(), pid);
+        } catch (ThreadDumpCaptureException e) {
+            if (!attachment.reused()) {
+                evict(pid, attachment);
+                throw e;
+            }
+            // The cached connection may have gone stale (e.g. the target restarted its agent); attach again once
+            log.debug("Cached attachment to PID {} failed, re-attaching: {}", pid, e.getMessage());
+            evict(pid, attachment);
+            Attachment fresh = attachment(pid);
+            try {
+                return threadPrint(fresh.connection(), pid);
+            } catch (ThreadDumpCaptureException retryFailure) {
+                evict(pid, fresh);
+                throw retryFailure;
+            }
+        }
+    }
+
+    /**
+     * Closes all cached connections.
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<Attachment> open;
+        synchronized (attachments) {
+            open = new ArrayList<>(attachments.values());
+            attachments.clear();
+        }
+        open.forEach(Attachment::close);
+    }
+
+    /**
+     * Returns the cached attachment for the PID, attaching first if there is none or the cached one
+     * belongs to an earlier process with the same PID. Attaching holds the lock of the PID's stripe but
+     * not the cache lock, so first captures of different processes attach concurrently. Captures through
+     * cached connections are served by a cache lookup before the stripe lock is taken, so a slow first
+     * attach never holds them up. The stripe locks are not monitors, so virtual threads waiting for an
+     * attachment do not pin their carrier threads.
+     */
+    private Attachment attachment(long pid) {
+        Instant startTime = ProcessHandle.of(pid)
+                .map(process -> process.info().startInstant().orElse(Instant.EPOCH))
+                .orElseThrow(() -> new ThreadDumpCaptureException("No process with PID " + pid));
+        synchronized (attachments) {
+            Attachment cached = attachments.get(pid);
+            if (cached != null && cached.startTime().equals(startTime)) {
+                return cached.reuse();
+            }
+        }
+        // Checked again under the stripe lock, as another capture may have attached in the meantime
+        Lock attachLock = attachLocks[Math.floorMod(Long.hashCode(pid), attachLocks.length)];
+        attachLock.lock();
+        try {
+            Attachment cached;
+            synchronized (attachments) {
+                cached = attachments.get(pid);
+                if (cached != null && cached.startTime().equals(startTime)) {
+                    return cached.reuse();
+                }
+                if (cached != null) {
+                    attachments.remove(pid);
+                }
+            }
+            if (cached != null) {
+                log.debug("PID {} now belongs to a different process, dropping cached attachment", pid);
+                cached.close();
+            }
+            Attachment attachment = attach(pid, startTime);
+            synchronized (attachments) {
+                attachments.put(pid, attachment);
+            }
+            return attachment;
+        } finally {
+            attachLock.unlock();
+        }
+    }
+
+    private void evict(long pid, Attachment attachment) {
+        synchronized (attachments) {
+            Attachment cached = attachments.get(pid);
+            if (cached != null && cached.connector() == attachment.connector()) {
+                attachments.remove(pid);
+            }
+        }
+        attachment.close();
+    }
+
+    private static Attachment attach(long pid, Instant startTime) {
+        String id = String.valueOf(pid);
+        // Listing reads the JVMs' perf data files; attaching to a non-JVM would block until the attach timeout
+        if (VirtualMachine.list().stream().noneMatch(descriptor -> descriptor.id().equals(id))) {
+            throw new ThreadDumpCaptureException("PID " + pid + " is not an attachable Java process");
+        }
+        String address;
+        try {
+            VirtualMachine vm = VirtualMachine.attach(id);
+            try {
+                address = vm.startLocalManagementAgent();
+            } finally {
+                vm.detach();
+            }
+        } catch (AttachNotSupportedException | IOException e) {
+            throw new ThreadDumpCaptureException("Cannot attach to PID " + pid + ": " + e.getMessage(), e);
+        }
+        try {
+            JMXConnector connector = JMXConnectorFactory.connect(new JMXServiceURL(address));
+            log.debug("Attached to PID {} via {}", pid, address);
+            return new Attachment(connector, connector.getMBeanServerConnection(), startTime, false);
+        } catch (IOException e) {
+            throw new ThreadDumpCaptureException("Cannot connect to management agent of PID " + pid + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private static String threadPrint(MBeanServerConnection connection, long pid) {
+        try {
+            return (String) connection.invoke(diagnosticCommand(), THREAD_PRINT_OPERATION,
+                    new Object[]{THREAD_PRINT_ARGUMENTS}, THREAD_PRINT_SIGNATURE);
+        } catch (JMException | IOException e) {
+            throw new ThreadDumpCaptureException("Thread.print failed for PID " + pid + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static ObjectName diagnosticCommand() {
+        try {
+            return new ObjectName(DIAGNOSTIC_COMMAND_MBEAN);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An open management connection to a target process.
+     *
+     * @param startTime start time of the process the connection belongs to, to detect PID reuse
+     * @param reused whether the connection was taken from the cache
+     */
+    private record Attachment(JMXConnector connector, MBeanServerConnection connection, Instant startTime,
+                              boolean reused) {
+
+        Attachment reuse() {
+            return new Attachment(connector, connection, startTime, true);
+        }
+
+        void close() {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                log.debug("Failed to close management connection: {}", e.getMessage());
+            }
+        }
+    }
+}
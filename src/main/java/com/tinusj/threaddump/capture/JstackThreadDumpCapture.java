@@ -0,0 +1,186 @@
+package com.tinusj.threaddump.capture;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Captures thread dumps by running the {@code jstack} tool in a child process.
+ * <p>
+ * Whether jstack is installed is probed by running {@code jstack -h} when the scheduler starts and
+ * then every {@code thread-dump.capture.availability-refresh}; {@link #isAvailable()} only reads the
+ * result of the last probe. The dump is streamed from jstack's output to the consumer as it is written.
+ */
+@Component
+@Slf4j
+public class JstackThreadDumpCapture implements ThreadDumpCapture {
+
+    private static final String JSTACK_COMMAND = "jstack";
+
+    /**
+     * Exit code of a shell for a command that is not installed.
+     */
+    private static final int COMMAND_NOT_FOUND = 127;
+
+    /**
+     * Most characters of jstack's standard error kept for the error message.
+     */
+    private static final int MAX_ERROR_OUTPUT_CHARS = 4096;
+    private static final int DRAIN_BUFFER_SIZE = 1024;
+    private static final String ERROR_DRAIN_THREAD_PREFIX = "jstack-stderr-";
+
+    private volatile Boolean available;
+    private volatile Instant lastProbe;
+
+    @Override
+    public String name() {
+        return "jstack";
+    }
+
+    /**
+     * Returns the result of the last availability probe, probing first if there has been none yet.
+     */
+    @Override
+    public boolean isAvailable() {
+        Boolean result = available;
+        return result != null ? result : refreshAvailability();
+    }
+
+    /**
+     * Returns when availability was last probed, or null if it has not been probed yet.
+     */
+    public Instant lastProbe() {
+        return lastProbe;
+    }
+
+    /**
+     * Probes whether jstack can be run and publishes the result.
+     *
+     * @return whether jstack is available
+     */
+    @Scheduled(fixedDelayString = "${thread-dump.capture.availability-refresh:5m}")
+    public boolean refreshAvailability() {
+        boolean result = probe();
+        available = result;
+        lastProbe = Instant.now();
+        return result;
+    }
+
+    private boolean probe() {
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(JSTACK_COMMAND, "-h");
+            Process process = processBuilder.start();
+            int exitCode = process.waitFor();
+
+            // jstack -h typically exits with code 0 or 1 but should not exit with command not found (127)
+            boolean available = exitCode != COMMAND_NOT_FOUND;
+            log.debug("Thread dump generation availability check: jstack available = {}", available);
+            return available;
+
+        } catch (IOException e) {
+            log.debug("Thread dump generation not available: {}", e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted while checking jstack availability");
+            return false;
+        }
+    }
+
+    @Override
+    public String capture(long pid) {
+        return capture(pid, JstackThreadDumpCapture::readFully);
+    }
+
+    /**
+     * Runs jstack and hands its standard output to the consumer while jstack is still writing it.
+     * Standard error is drained on a separate thread at the same time, so neither pipe can fill up
+     * and stall jstack; only its first {@value #MAX_ERROR_OUTPUT_CHARS} characters are kept for the
+     * error message. Output the consumer leaves unread is discarded before waiting for jstack to exit.
+     */
+    @Override
+    public <T> T capture(long pid, Function<Reader, T> consumer) {
+        Process process;
+        try {
+            process = new ProcessBuilder(JSTACK_COMMAND, String.valueOf(pid)).start();
+        } catch (IOException e) {
+            log.error("Error running jstack command for PID: {}", pid, e);
+            throw new ThreadDumpCaptureException("Failed to generate thread dump for PID " + pid + ": " + e.getMessage(), e);
+        }
+        StringBuilder errorOutput = new StringBuilder();
+        Thread errorDrain = Thread.ofPlatform()
+                .name(ERROR_DRAIN_THREAD_PREFIX + pid)
+                .daemon()
+                .start(() -> drain(process.getErrorStream(), errorOutput));
+
+        try {
+            T result;
+            try (Reader reader = new InputStreamReader(process.getInputStream())) {
+                result = consumer.apply(reader);
+                reader.transferTo(Writer.nullWriter());
+            }
+
+            // Wait for process completion
+            int exitCode = process.waitFor();
+            errorDrain.join();
+
+            if (exitCode != 0) {
+                String errorMsg;
+                synchronized (errorOutput) {
+                    errorMsg = errorOutput.length() > 0 ? errorOutput.toString() : "Unknown error";
+                }
+                log.error("jstack command failed with exit code: {}, error: {}", exitCode, errorMsg);
+                throw new ThreadDumpCaptureException("Failed to generate thread dump for PID " + pid + ": " + errorMsg);
+            }
+            return result;
+
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error reading jstack output for PID: {}", pid, e);
+            throw new ThreadDumpCaptureException("Failed to generate thread dump for PID " + pid + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThreadDumpCaptureException("Interrupted while generating thread dump for PID " + pid, e);
+        } finally {
+            if (process.isAlive()) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Reads a stream to its end, keeping at most {@value #MAX_ERROR_OUTPUT_CHARS} characters.
+     */
+    private static void drain(InputStream stream, StringBuilder output) {
+        char[] buffer = new char[DRAIN_BUFFER_SIZE];
+        try (Reader reader = new InputStreamReader(stream)) {
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                synchronized (output) {
+                    output.append(buffer, 0, Math.min(read, MAX_ERROR_OUTPUT_CHARS - output.length()));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read jstack error output: {}", e.getMessage());
+        }
+    }
+
+    private static String readFully(Reader reader) {
+        StringWriter threadDump = new StringWriter();
+        try {
+            reader.transferTo(threadDump);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return threadDump.toString();
+    }
+}
@@ -0,0 +1,366 @@
+package com.tinusj.threaddump.capture;
+
+import com.tinusj.threaddump.config.ThreadDumpCaptureProperties;
+import com.tinusj.threaddump.model.ThreadCpuSample;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the CPU time each native thread of a local process consumes while a thread dump is taken,
+ * from the {@code utime} and {@code stime} fields of {@code /proc/<pid>/task/<tid>/stat} on Linux.
+ * <p>
+ * A {@link #snapshot(long)} is taken before the capture and compared by {@link #since(Snapshot)} with a
+ * second one taken after it. Each stat file is read into a reused buffer and parsed in place, and the
+ * times are kept in primitive arrays sorted by task id, so sampling 10,000 threads allocates little
+ * beyond the directory listing. The cost is dominated by the kernel formatting each stat file, so
+ * processes with many threads are read in chunks on a dedicated fork/join pool. The pool is started by
+ * the first snapshot of such a process and stopped by {@link #close()}; a closed sampler reads
+ * sequentially.
+ * <p>
+ * If the capture finished faster than {@code cpu-sampling-window}, the second snapshot waits for the
+ * rest of the window, since the kernel counts CPU time in clock ticks and a shorter window would leave
+ * most deltas at 0.
+ */
+@Component
+@Slf4j
+public class ThreadCpuSampler implements AutoCloseable {
+
+    /**
+     * USER_HZ, the unit of {@code utime} and {@code stime}; 100 on every mainstream Linux architecture.
+     */
+    private static final int CLOCK_TICKS_PER_SECOND = 100;
+    private static final double MILLIS_PER_TICK = 1000.0 / CLOCK_TICKS_PER_SECOND;
+
+    /**
+     * Fields after the closing parenthesis of the command name up to {@code utime} (field 14 of stat).
+     */
+    private static final int FIELDS_BEFORE_UTIME = 11;
+
+    /**
+     * Large enough for any stat line, whose command name is at most 16 bytes.
+     */
+    private static final int STAT_BUFFER_SIZE = 1024;
+    private static final String STAT_FILE = "stat";
+    private static final int STAT_PATH_SUFFIX_CAPACITY = 32;
+
+    /**
+     * Thread count from which stat files are read on the worker pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Chunks per worker thread, so that slow reads in one chunk still keep every worker busy.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final boolean enabled;
+    private final Duration window;
+    private final Path procRoot;
+    private final int parallelism;
+    private ForkJoinPool pool;
+    private boolean closed;
+
+    /**
+     * Creates an enabled sampler with the default window.
+     */
+    public ThreadCpuSampler() {
+        this(new ThreadDumpCaptureProperties());
+    }
+
+    /**
+     * Creates a sampler configured by the {@code thread-dump.capture} properties.
+     */
+    @Autowired
+    public ThreadCpuSampler(ThreadDumpCaptureProperties properties) {
+        this(properties.isCpuSamplingEnabled(), properties.getCpuSamplingWindow(), Path.of("/proc"),
+                properties.effectiveCpuSamplingParallelism());
+    }
+
+    ThreadCpuSampler(boolean enabled, Duration window, Path procRoot, int parallelism) {
+        this.enabled = enabled;
+        this.window = window;
+        this.procRoot = procRoot;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Stops the worker pool, if a snapshot started it.
+     */
+    @PreDestroy
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Checks whether per-thread CPU times can be read on this system.
+     */
+    public boolean isAvailable() {
+        return enabled && Files.isDirectory(procRoot.resolve("self").resolve("task"));
+    }
+
+    /**
+     * Reads the CPU times of all threads of a process.
+     *
+     * @param pid the process ID
+     * @return the snapshot, or null if sampling is unavailable or the process cannot be read
+     */
+    public Snapshot snapshot(long pid) {
+        if (!isAvailable()) {
+            return null;
+        }
+        long takenAt = System.nanoTime();
+        String taskDirectory = procRoot.resolve(Long.toString(pid)).resolve("task").toString();
+        String[] taskNames = new File(taskDirectory).list();
+        if (taskNames == null) {
+            log.debug("Cannot list threads of PID {}", pid);
+            return null;
+        }
+
+        long[] taskIds = new long[taskNames.length];
+        long[] ticks = new long[taskNames.length];
+        if (!readInParallel(taskDirectory, taskNames, taskIds, ticks)) {
+            readTasks(taskDirectory, taskNames, 0, taskNames.length, taskIds, ticks);
+        }
+
+        // Drop entries that are not tasks or whose thread ended while the directory was read
+        int count = 0;
+        for (int i = 0; i < taskNames.length; i++) {
+            if (taskIds[i] >= 0 && ticks[i] >= 0) {
+                taskIds[count] = taskIds[i];
+                ticks[count] = ticks[i];
+                count++;
+            }
+        }
+        return Snapshot.sorted(pid, takenAt, Arrays.copyOf(taskIds, count), Arrays.copyOf(ticks, count));
+    }
+
+    /**
+     * Reads the stat files in chunks on the worker pool, starting it on first use.
+     *
+     * @return false if the process has too few threads or the sampler is closed
+     */
+    private boolean readInParallel(String taskDirectory, String[] taskNames, long[] taskIds, long[] ticks) {
+        ForkJoinPool workers = taskNames.length >= PARALLEL_THRESHOLD ? workers() : null;
+        if (workers == null) {
+            return false;
+        }
+        int chunkCount = parallelism * CHUNKS_PER_WORKER;
+        try {
+            workers.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> readTasks(taskDirectory,
+                    taskNames, taskNames.length * chunk / chunkCount, taskNames.length * (chunk + 1) / chunkCount,
+                    taskIds, ticks))).join();
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Closed concurrently
+            return false;
+        }
+    }
+
+    private synchronized ForkJoinPool workers() {
+        if (pool == null && !closed && enabled && parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    private static void readTasks(String taskDirectory, String[] taskNames, int from, int to,
+                                  long[] taskIds, long[] ticks) {
+        byte[] buffer = new byte[STAT_BUFFER_SIZE];
+        StringBuilder path = new StringBuilder(taskDirectory.length() + STAT_PATH_SUFFIX_CAPACITY)
+                .append(taskDirectory).append(File.separatorChar);
+        int prefixLength = path.length();
+        for (int i = from; i < to; i++) {
+            taskIds[i] = parseTaskId(taskNames[i]);
+            if (taskIds[i] >= 0) {
+                path.setLength(prefixLength);
+                path.append(taskNames[i]).append(File.separatorChar).append(STAT_FILE);
+                ticks[i] = readTicks(path.toString(), buffer);
+            }
+        }
+    }
+
+    /**
+     * Takes a second snapshot of the process and returns the CPU time each thread consumed since the
+     * first one. Threads that appear in only one of the snapshots are left out.
+     *
+     * @param before the snapshot taken before the capture
+     * @return the CPU time per native thread, or null if the process cannot be read any more
+     */
+    public ThreadCpuSample since(Snapshot before) {
+        awaitWindow(before.takenAtNanos());
+        Snapshot after = snapshot(before.pid());
+        if (after == null) {
+            return null;
+        }
+
+        long[] nativeIds = new long[Math.min(before.taskIds().length, after.taskIds().length)];
+        double[] cpuMillis = new double[nativeIds.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < before.taskIds().length && j < after.taskIds().length) {
+            long beforeId = before.taskIds()[i];
+            long afterId = after.taskIds()[j];
+            if (beforeId < afterId) {
+                i++;
+            } else if (beforeId > afterId) {
+                j++;
+            } else {
+                nativeIds[count] = beforeId;
+                cpuMillis[count] = Math.max(0, after.ticks()[j] - before.ticks()[i]) * MILLIS_PER_TICK;
+                count++;
+                i++;
+                j++;
+            }
+        }
+        long windowMillis = TimeUnit.NANOSECONDS.toMillis(after.takenAtNanos() - before.takenAtNanos());
+        return ThreadCpuSample.of(Arrays.copyOf(nativeIds, count), Arrays.copyOf(cpuMillis, count), windowMillis);
+    }
+
+    private void awaitWindow(long startNanos) {
+        long remainingNanos = window.toNanos() - (System.nanoTime() - startNanos);
+        if (remainingNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads {@code utime + stime} from a stat file, or returns -1 if it cannot be read.
+     */
+    private static long readTicks(String statFile, byte[] buffer) {
+        int length = 0;
+        try (FileInputStream in = new FileInputStream(statFile)) {
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return parseTicks(buffer, length);
+    }
+
+    /**
+     * Parses {@code utime + stime} from the content of a stat file. The command name in parentheses may
+     * contain spaces and parentheses itself, so fields are counted from the last closing parenthesis.
+     *
+     * @return the CPU time in clock ticks, or -1 if the content is malformed
+     */
+    static long parseTicks(byte[] stat, int length) {
+        int position = length - 1;
+        while (position >= 0 && stat[position] != ')') {
+            position--;
+        }
+        if (position < 0) {
+            return -1;
+        }
+        for (int field = 0; field < FIELDS_BEFORE_UTIME; field++) {
+            position = nextField(stat, position, length);
+            if (position < 0) {
+                return -1;
+            }
+        }
+        int utimeStart = nextField(stat, position, length);
+        int stimeStart = utimeStart >= 0 ? nextField(stat, utimeStart, length) : -1;
+        if (stimeStart < 0) {
+            return -1;
+        }
+        return parseLong(stat, utimeStart, length) + parseLong(stat, stimeStart, length);
+    }
+
+    /**
+     * Returns the index of the first character of the field after the one at {@code from}, or -1.
+     */
+    private static int nextField(byte[] stat, int from, int length) {
+        int i = from;
+        while (i < length && stat[i] != ' ') {
+            i++;
+        }
+        return i + 1 < length ? i + 1 : -1;
+    }
+
+    private static long parseLong(byte[] stat, int from, int length) {
+        long value = 0;
+        for (int i = from; i < length && stat[i] >= '0' && stat[i] <= '9'; i++) {
+            value = value * 10 + (stat[i] - '0');
+        }
+        return value;
+    }
+
+    private static long parseTaskId(String name) {
+        if (name.isEmpty()) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * CPU times of the threads of one process at one point in time, sorted by task id.
+     *
+     * @param pid the process ID
+     * @param takenAtNanos the {@link System#nanoTime()} at which reading started
+     * @param taskIds the task (native thread) ids, ascending
+     * @param ticks the {@code utime + stime} of each task, in clock ticks
+     */
+    public record Snapshot(long pid, long takenAtNanos, long[] taskIds, long[] ticks) {
+
+        static Snapshot sorted(long pid, long takenAtNanos, long[] taskIds, long[] ticks) {
+            if (isAscending(taskIds)) {
+                return new Snapshot(pid, takenAtNanos, taskIds, ticks);
+            }
+            Integer[] order = new Integer[taskIds.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(taskIds[a], taskIds[b]));
+            long[] sortedIds = new long[taskIds.length];
+            long[] sortedTicks = new long[ticks.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = taskIds[order[i]];
+                sortedTicks[i] = ticks[order[i]];
+            }
+            return new Snapshot(pid, takenAtNanos, sortedIds, sortedTicks);
+        }
+
+        private static boolean isAscending(long[] values) {
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] <= values[i - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
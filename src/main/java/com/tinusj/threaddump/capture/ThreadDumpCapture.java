@@ -0,0 +1,45 @@
+package com.tinusj.threaddump.capture;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.function.Function;
+
+/**
+ * A way of taking a jstack-style thread dump ({@code Thread.print -l}) from a running Java process.
+ */
+public interface ThreadDumpCapture {
+
+    /**
+     * Returns the backend name, used in logs.
+     */
+    String name();
+
+    /**
+     * Checks whether this backend can be used on this system.
+     */
+    boolean isAvailable();
+
+    /**
+     * Captures a thread dump of the given process.
+     *
+     * @param pid the process ID of the Java process
+     * @return the thread dump text
+     * @throws ThreadDumpCaptureException if the dump cannot be taken with this backend
+     */
+    String capture(long pid);
+
+    /**
+     * Captures a thread dump of the given process and hands its text to the consumer as a character
+     * stream. Backends that receive the dump in one piece pass a reader over it; backends that read
+     * the dump from a child process pass the output as it arrives, so the consumer can process it
+     * while it is still being produced. The reader is closed after the consumer returns.
+     *
+     * @param pid the process ID of the Java process
+     * @param consumer reads the thread dump text and produces the result
+     * @return the result of the consumer
+     * @throws ThreadDumpCaptureException if the dump cannot be taken with this backend
+     */
+    default <T> T capture(long pid, Function<Reader, T> consumer) {
+        return consumer.apply(new StringReader(capture(pid)));
+    }
+}
@@ -0,0 +1,15 @@
+package com.tinusj.threaddump.capture;
+
+/**
+ * Thrown when a {@link ThreadDumpCapture} backend fails to take a thread dump.
+ */
+public class ThreadDumpCaptureException extends RuntimeException {
+
+    public ThreadDumpCaptureException(String message) {
+        super(message);
+    }
+
+    public ThreadDumpCaptureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
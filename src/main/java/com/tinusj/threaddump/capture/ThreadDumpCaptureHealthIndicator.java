@@ -0,0 +1,43 @@
+package com.tinusj.threaddump.capture;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes which thread dump capture backends are available as the {@code threadDumpCapture}
+ * health component. Reads the cached availability only; it never starts a process itself once
+ * jstack has been probed.
+ * <p>
+ * Reports UP if at least one backend can capture dumps, and {@code UNAVAILABLE} otherwise. The latter
+ * is not a failure of the agent, which can still analyze uploaded dumps, so it does not turn the
+ * aggregate health DOWN.
+ */
+@Component
+public class ThreadDumpCaptureHealthIndicator implements HealthIndicator {
+
+    static final Status UNAVAILABLE = new Status("UNAVAILABLE", "No thread dump capture backend is available");
+
+    private final AttachThreadDumpCapture attachCapture;
+    private final JstackThreadDumpCapture jstackCapture;
+
+    public ThreadDumpCaptureHealthIndicator(AttachThreadDumpCapture attachCapture,
+                                            JstackThreadDumpCapture jstackCapture) {
+        this.attachCapture = attachCapture;
+        this.jstackCapture = jstackCapture;
+    }
+
+    @Override
+    public Health health() {
+        boolean attachAvailable = attachCapture.isAvailable();
+        boolean jstackAvailable = jstackCapture.isAvailable();
+        Health.Builder health = attachAvailable || jstackAvailable ? Health.up() : Health.status(UNAVAILABLE);
+        health.withDetail(attachCapture.name(), attachAvailable)
+                .withDetail(jstackCapture.name(), jstackAvailable);
+        if (jstackCapture.lastProbe() != null) {
+            health.withDetail("lastProbe", jstackCapture.lastProbe().toString());
+        }
+        return health.build();
+    }
+}
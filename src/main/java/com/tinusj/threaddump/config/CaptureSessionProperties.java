@@ -0,0 +1,55 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.sessions} configuration namespace,
+ * which controls multi-sample capture sessions.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.sessions")
+public class CaptureSessionProperties {
+
+    /**
+     * Threads that trigger the samples of all sessions on schedule. They only hand work off, so few are needed.
+     */
+    @Min(1)
+    private int schedulerPoolSize = 2;
+
+    /**
+     * Threads that capture and parse samples, shared by all sessions.
+     */
+    @Min(1)
+    private int capturePoolSize = 8;
+
+    /**
+     * Maximum number of sessions running at the same time.
+     */
+    @Min(1)
+    private int maxActiveSessions = 64;
+
+    /**
+     * Maximum number of samples a single session may request.
+     */
+    @Min(1)
+    private int maxSamples = 100;
+
+    /**
+     * Shortest interval allowed between two samples of a session.
+     */
+    @NotNull
+    private Duration minInterval = Duration.ofMillis(100);
+
+    /**
+     * How long a finished session and its samples are kept before they are discarded.
+     */
+    @NotNull
+    private Duration retention = Duration.ofMinutes(30);
+}
@@ -0,0 +1,43 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.fleet} configuration namespace,
+ * which controls capturing many local processes in one call.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.fleet")
+public class FleetCaptureProperties {
+
+    /**
+     * Maximum number of captures running at the same time, across all fleet requests.
+     */
+    @Min(1)
+    private int maxConcurrency = 32;
+
+    /**
+     * Time allowed to capture and analyze one process when the request does not set one.
+     */
+    @NotNull
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * Longest per-process timeout a request may ask for.
+     */
+    @NotNull
+    private Duration maxTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of processes a single request may select.
+     */
+    @Min(1)
+    private int maxProcesses = 256;
+}
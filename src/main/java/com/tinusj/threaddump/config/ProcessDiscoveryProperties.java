@@ -0,0 +1,30 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.discovery} configuration namespace,
+ * which controls how running Java processes are found.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.discovery")
+public class ProcessDiscoveryProperties {
+
+    /**
+     * Whether Java processes are discovered from /proc and the perf data directories on Linux
+     * before falling back to jps.
+     */
+    private boolean procfsEnabled = true;
+
+    /**
+     * How long a discovered process table is served from cache.
+     */
+    @NotNull
+    private Duration cacheTtl = Duration.ofSeconds(2);
+}
@@ -0,0 +1,61 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.profiling} configuration namespace,
+ * which controls the stack-sampling profiler.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.profiling")
+public class ProfilingProperties {
+
+    /**
+     * Threads that trigger the samples of all profiles on schedule. They only hand work off, so few are needed.
+     */
+    @Min(1)
+    private int schedulerPoolSize = 1;
+
+    /**
+     * Threads that capture samples and fold them into the call trees, shared by all profiles.
+     */
+    @Min(1)
+    private int capturePoolSize = 4;
+
+    /**
+     * Maximum number of profiles running at the same time.
+     */
+    @Min(1)
+    private int maxActiveProfiles = 8;
+
+    /**
+     * Shortest interval allowed between two samples of a profile.
+     */
+    @NotNull
+    private Duration minInterval = Duration.ofMillis(10);
+
+    /**
+     * Longest a single profile may run.
+     */
+    @NotNull
+    private Duration maxDuration = Duration.ofMinutes(30);
+
+    /**
+     * Maximum number of call tree nodes (distinct call paths) kept per profile.
+     */
+    @Min(1)
+    private int maxNodes = 200_000;
+
+    /**
+     * How long a finished profile and its call tree are kept before they are discarded.
+     */
+    @NotNull
+    private Duration retention = Duration.ofMinutes(30);
+}
@@ -0,0 +1,43 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.reports.cache} configuration namespace,
+ * which controls the cache of reports by dump content.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.reports.cache")
+public class ReportCacheProperties {
+
+    /**
+     * Whether a dump submitted again returns the report of its first analysis.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Total size of the cached dumps and their formatted reports; the parsed dumps kept for them are
+     * proportional to it.
+     */
+    @NotNull
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * Largest formatted report kept per format; larger reports are streamed without being kept.
+     */
+    @NotNull
+    private DataSize maxFormattedSize = DataSize.ofMegabytes(8);
+
+    /**
+     * How long a report is cached after its analysis.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,22 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe binding for the {@code thread-dump.reports.store} configuration namespace,
+ * which controls how many analyzed dumps are kept for later comparison.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.reports.store")
+public class ReportStoreProperties {
+
+    /**
+     * Number of most recently analyzed dumps kept in parsed form, by report id; 0 keeps none.
+     */
+    @Min(0)
+    private int maxEntries = 32;
+}
@@ -0,0 +1,29 @@
+package com.tinusj.threaddump.config;
+
+import com.tinusj.threaddump.model.RuleConfiguration;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-only actuator endpoint ({@code /actuator/ruleconfig}) showing the active diagnostic rule configuration.
+ * The configuration is reloaded from the rules config file by {@link RuleConfigurationProvider}, not over HTTP.
+ */
+@Component
+@Endpoint(id = "ruleconfig")
+public class RuleConfigurationEndpoint {
+
+    private final RuleConfigurationProvider provider;
+
+    public RuleConfigurationEndpoint(RuleConfigurationProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Returns the active configuration snapshot.
+     */
+    @ReadOperation
+    public RuleConfiguration configuration() {
+        return provider.current();
+    }
+}
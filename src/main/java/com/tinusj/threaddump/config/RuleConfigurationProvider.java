@@ -0,0 +1,164 @@
+package com.tinusj.threaddump.config;
+
+import com.tinusj.threaddump.model.RuleConfiguration;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.bind.handler.IgnoreTopLevelConverterNotFoundBindHandler;
+import org.springframework.boot.context.properties.bind.validation.ValidationBindHandler;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link RuleConfiguration} snapshot, compiled from {@link ThreadDumpAnalysisProperties}.
+ * <p>
+ * The snapshot is replaced atomically by {@link #refresh()}, which rebinds {@code thread-dump.analysis}
+ * from the {@link Environment} overlaid with the optional {@code thread-dump.analysis.rules.config-file};
+ * analyses read the reference once and never see a partly updated configuration. The config file is
+ * checked for changes periodically, so editing it reloads the thresholds without a restart. Only the
+ * rule thresholds are refreshed; parser and rule pool settings apply at startup.
+ */
+@Component
+@Slf4j
+public class RuleConfigurationProvider {
+
+    static final String PREFIX = "thread-dump.analysis";
+    static final String DEADLOCK_RULE = "deadlock";
+
+    private final Environment environment;
+    private final Validator validator;
+    private final Path configFile;
+    private final AtomicReference<RuleConfiguration> current;
+    private volatile FileTime configFileModified;
+
+    public RuleConfigurationProvider(ThreadDumpAnalysisProperties properties, Environment environment,
+                                     Validator validator) {
+        this.environment = environment;
+        this.validator = validator;
+        this.configFile = properties.getRules().getConfigFile();
+        this.current = new AtomicReference<>(compile(properties));
+        checkConfigFile();
+    }
+
+    /**
+     * Returns the current snapshot.
+     */
+    public RuleConfiguration current() {
+        return current.get();
+    }
+
+    /**
+     * Rebinds the analysis properties from the environment and the config file and swaps in the new
+     * snapshot. If the new properties are invalid, the current snapshot is kept.
+     *
+     * @return the new snapshot
+     * @throws org.springframework.boot.context.properties.bind.BindException if the properties are invalid
+     * @throws UncheckedIOException if the config file cannot be read
+     */
+    public RuleConfiguration refresh() {
+        ThreadDumpAnalysisProperties properties = binder().bindOrCreate(PREFIX,
+                Bindable.of(ThreadDumpAnalysisProperties.class),
+                new ValidationBindHandler(new IgnoreTopLevelConverterNotFoundBindHandler(),
+                        new SpringValidatorAdapter(validator)));
+        RuleConfiguration refreshed = compile(properties);
+        current.set(refreshed);
+        log.info("Refreshed diagnostic rule configuration: {}", refreshed);
+        return refreshed;
+    }
+
+    /**
+     * Refreshes the snapshot if the config file was created, changed or deleted since the last check.
+     * A file that cannot be read or holds invalid values is logged and the current snapshot is kept.
+     */
+    @Scheduled(fixedDelayString = "${thread-dump.analysis.rules.config-file-check-interval:10s}")
+    public void checkConfigFile() {
+        if (configFile == null) {
+            return;
+        }
+        FileTime modified = lastModified(configFile);
+        if (Objects.equals(modified, configFileModified)) {
+            return;
+        }
+        configFileModified = modified;
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Rule config file {} was not applied, keeping the current configuration: {}",
+                    configFile, e.getMessage());
+        }
+    }
+
+    private Binder binder() {
+        if (configFile == null || !(environment instanceof ConfigurableEnvironment configurable)) {
+            return Binder.get(environment);
+        }
+        MutablePropertySources sources = new MutablePropertySources(configurable.getPropertySources());
+        loadConfigFile().forEach(sources::addFirst);
+        return new Binder(ConfigurationPropertySources.from(sources), new PropertySourcesPlaceholdersResolver(sources));
+    }
+
+    private List<PropertySource<?>> loadConfigFile() {
+        if (!Files.isRegularFile(configFile)) {
+            return List.of();
+        }
+        String fileName = configFile.getFileName().toString();
+        PropertySourceLoader loader = fileName.endsWith(".yml") || fileName.endsWith(".yaml")
+                ? new YamlPropertySourceLoader() : new PropertiesPropertySourceLoader();
+        try {
+            return loader.load("rule config file [" + configFile + "]", new FileSystemResource(configFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read rule config file " + configFile, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compiles bound properties into an immutable snapshot.
+     */
+    static RuleConfiguration compile(ThreadDumpAnalysisProperties properties) {
+        Set<String> disabledRules = new LinkedHashSet<>(properties.getDisabledRules());
+        if (!properties.isDeadlockDetection()) {
+            disabledRules.add(DEADLOCK_RULE);
+        }
+        return new RuleConfiguration(
+                properties.getMaxThreadsWarning(),
+                properties.getBlockedThreadsThreshold(),
+                properties.getBlockedThreadsHighThreshold(),
+                properties.getWaitingThreadsThreshold(),
+                properties.getWaitingThreadsHighThreshold(),
+                properties.getHttpThreadsThreshold(),
+                properties.getBlockingRatioThreshold(),
+                disabledRules
+        );
+    }
+}
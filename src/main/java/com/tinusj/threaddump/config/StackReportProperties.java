@@ -0,0 +1,35 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe binding for the {@code thread-dump.reports.stacks} configuration namespace,
+ * which controls the collapsed-stack and flame graph report formats.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.reports.stacks")
+public class StackReportProperties {
+
+    /**
+     * Maximum number of call tree nodes (distinct call paths) the stacks of one dump are folded into.
+     */
+    @Min(1)
+    private int maxNodes = 200_000;
+
+    /**
+     * Width of a flame graph, in pixels.
+     */
+    @Min(200)
+    private int flameGraphWidth = 1200;
+
+    /**
+     * Frames narrower than this many pixels are left out of a flame graph, together with their callees.
+     */
+    @PositiveOrZero
+    private double minFrameWidth = 0.1;
+}
@@ -0,0 +1,22 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe binding for the {@code thread-dump.reports.text} configuration namespace,
+ * which controls the plain-text report format.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.reports.text")
+public class TextReportProperties {
+
+    /**
+     * Affected threads listed per finding before the rest are summarized as "+N more"; 0 lists all.
+     */
+    @Min(0)
+    private int maxAffectedThreads = 20;
+}
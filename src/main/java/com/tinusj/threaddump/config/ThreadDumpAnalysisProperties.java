@@ -0,0 +1,208 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.convert.DurationUnit;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Type-safe binding for the {@code thread-dump.analysis} configuration namespace.
+ * The rule thresholds are not read from here during analysis; they are compiled into an immutable
+ * {@link com.tinusj.threaddump.model.RuleConfiguration} by the {@link RuleConfigurationProvider}.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.analysis")
+public class ThreadDumpAnalysisProperties {
+
+    /**
+     * Total thread count above which HIGH_THREAD_COUNT is reported.
+     */
+    @Min(1)
+    private int maxThreadsWarning = 1000;
+
+    /**
+     * Whether the deadlock rule runs at all.
+     */
+    private boolean deadlockDetection = true;
+
+    /**
+     * BLOCKED thread count above which HIGH_BLOCKED_THREADS is reported.
+     */
+    @Min(0)
+    private int blockedThreadsThreshold = 10;
+
+    /**
+     * BLOCKED thread count above which HIGH_BLOCKED_THREADS is raised to HIGH severity.
+     */
+    @Min(0)
+    private int blockedThreadsHighThreshold = 50;
+
+    /**
+     * WAITING and TIMED_WAITING thread count above which HIGH_WAITING_THREADS is reported.
+     */
+    @Min(0)
+    private int waitingThreadsThreshold = 50;
+
+    /**
+     * Waiting thread count above which HIGH_WAITING_THREADS is raised to MEDIUM severity.
+     */
+    @Min(0)
+    private int waitingThreadsHighThreshold = 200;
+
+    /**
+     * HTTP/Web thread count above which EXCESSIVE_HTTP_THREADS is reported.
+     */
+    @Min(0)
+    private int httpThreadsThreshold = 200;
+
+    /**
+     * Fraction of BLOCKED threads above which EXCESSIVE_BLOCKING is reported.
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double blockingRatioThreshold = 0.3;
+
+    /**
+     * Names of diagnostic rules that are not run (e.g. {@code hotspots}).
+     */
+    @NotNull
+    private Set<String> disabledRules = new LinkedHashSet<>();
+
+    @Valid
+    private Parser parser = new Parser();
+
+    @Valid
+    private Rules rules = new Rules();
+
+    @Valid
+    private Classifier classifier = new Classifier();
+
+    @Valid
+    private Series series = new Series();
+
+    /**
+     * Tuning of the thread dump parser.
+     */
+    @Data
+    public static class Parser {
+
+        /**
+         * Number of worker threads used for parallel parsing; 0 uses all available processors.
+         */
+        @Min(0)
+        private int parallelism = 0;
+
+        /**
+         * Minimum dump size at which parsing is split across worker threads.
+         */
+        @NotNull
+        private DataSize parallelThreshold = DataSize.ofMegabytes(8);
+
+        /**
+         * Returns the effective number of parser worker threads.
+         */
+        public int effectiveParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /**
+     * Execution of the diagnostic rules.
+     */
+    @Data
+    public static class Rules {
+
+        /**
+         * Number of worker threads running rules concurrently.
+         */
+        @Min(1)
+        private int poolSize = 4;
+
+        /**
+         * Rules waiting for a worker, across all analyses; rules submitted to a full queue are rejected
+         * and contribute no findings.
+         */
+        @Min(0)
+        private int queueCapacity = 256;
+
+        /**
+         * Maximum time a single rule may take once it starts running; findings of slower rules are dropped.
+         */
+        @NotNull
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration timeout = Duration.ofSeconds(10);
+
+        /**
+         * Optional properties or YAML file whose {@code thread-dump.analysis} thresholds override the
+         * application configuration; edits to it are applied while the agent runs.
+         */
+        private Path configFile;
+
+        /**
+         * How often the config file is checked for changes.
+         */
+        @NotNull
+        private Duration configFileCheckInterval = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Categorization of threads by name.
+     */
+    @Data
+    public static class Classifier {
+
+        /**
+         * Additional categories and their name keywords (matched case-insensitively), in priority order.
+         * They take precedence over the built-in categories; keywords given for a built-in category
+         * are added to it.
+         */
+        @NotNull
+        private Map<String, List<String>> categories = new LinkedHashMap<>();
+
+        /**
+         * Whether the built-in categories (GC, HTTP/Web, Database, ...) are used.
+         */
+        private boolean builtInCategories = true;
+    }
+
+    /**
+     * Analysis across the samples of a capture session.
+     */
+    @Data
+    public static class Series {
+
+        /**
+         * Minimum number of consecutive samples with an unchanged stack for STUCK_THREAD.
+         */
+        @Min(2)
+        private int stuckMinSamples = 3;
+
+        /**
+         * Minimum time a runnable or blocked thread must keep the same stack for STUCK_THREAD.
+         */
+        @NotNull
+        private Duration stuckMinDuration = Duration.ofSeconds(5);
+
+        /**
+         * Minimum time a contended lock must stay with the same owner for LONG_HELD_LOCK.
+         */
+        @NotNull
+        private Duration lockMinDuration = Duration.ofSeconds(5);
+    }
+}
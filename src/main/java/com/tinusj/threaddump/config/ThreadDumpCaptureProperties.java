@@ -0,0 +1,60 @@
+package com.tinusj.threaddump.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe binding for the {@code thread-dump.capture} configuration namespace,
+ * which controls how thread dumps are taken from running Java processes.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "thread-dump.capture")
+public class ThreadDumpCaptureProperties {
+
+    /**
+     * Whether dumps are captured in-process through the Attach API before falling back to jstack.
+     */
+    private boolean attachEnabled = true;
+
+    /**
+     * Maximum number of target JVMs whose management connection is kept open between captures.
+     */
+    @Min(1)
+    private int maxAttachments = 16;
+
+    /**
+     * Interval at which the availability of the jstack tool is probed again in the background.
+     */
+    @NotNull
+    private Duration availabilityRefresh = Duration.ofMinutes(5);
+
+    /**
+     * Whether the CPU time of each thread is read from {@code /proc} around captures of local processes.
+     */
+    private boolean cpuSamplingEnabled = true;
+
+    /**
+     * Shortest time between the two CPU readings of a capture; the kernel counts CPU time in 10 ms ticks.
+     */
+    @NotNull
+    private Duration cpuSamplingWindow = Duration.ofMillis(100);
+
+    /**
+     * Number of threads reading per-thread CPU times of large processes in parallel; 0 uses all available processors.
+     */
+    @Min(0)
+    private int cpuSamplingParallelism = 0;
+
+    /**
+     * Returns the configured CPU sampling parallelism, resolving 0 to the number of available processors.
+     */
+    public int effectiveCpuSamplingParallelism() {
+        return cpuSamplingParallelism > 0 ? cpuSamplingParallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,120 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.model.CaptureSessionRequest;
+import com.tinusj.threaddump.model.CaptureSessionSummary;
+import com.tinusj.threaddump.model.SeriesAnalysis;
+import com.tinusj.threaddump.service.CaptureSessionService;
+import com.tinusj.threaddump.service.SampleSeriesAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for multi-sample capture sessions.
+ */
+@RestController
+@RequestMapping("/thread-dump/sessions")
+@Slf4j
+public class CaptureSessionController {
+
+    private final CaptureSessionService captureSessionService;
+    private final SampleSeriesAnalyzer sampleSeriesAnalyzer;
+
+    public CaptureSessionController(CaptureSessionService captureSessionService,
+                                    SampleSeriesAnalyzer sampleSeriesAnalyzer) {
+        this.captureSessionService = captureSessionService;
+        this.sampleSeriesAnalyzer = sampleSeriesAnalyzer;
+    }
+
+    /**
+     * Starts capturing a series of thread dumps from a process. Returns immediately; poll the
+     * session for its samples.
+     *
+     * @param request the process ID, number of samples and interval in milliseconds
+     * @return the started session, including its id
+     */
+    @PostMapping
+    public ResponseEntity<?> startSession(@RequestBody CaptureSessionRequest request) {
+        log.info("Starting capture session for PID {}: {} samples every {} ms", request.pid(), request.count(),
+                request.intervalMillis());
+
+        try {
+            CaptureSessionSummary session = captureSessionService.startSession(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(session);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid capture session request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body("Invalid request: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("Capture session rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error starting capture session for PID: {}", request.pid(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the running sessions and the finished ones that are still retained.
+     *
+     * @return the sessions, most recently started first
+     */
+    @GetMapping
+    public ResponseEntity<List<CaptureSessionSummary>> getSessions() {
+        return ResponseEntity.ok(captureSessionService.getSessions());
+    }
+
+    /**
+     * Gets the progress and samples of a session.
+     *
+     * @param id the session id
+     * @return the session, or 404 if it does not exist or has expired
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CaptureSessionSummary> getSession(@PathVariable String id) {
+        return captureSessionService.getSession(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Analyzes the samples captured so far for stuck threads and long-held locks.
+     *
+     * @param id the session id
+     * @return per-thread progress, long-held locks and findings, or 404 if the session does not exist
+     */
+    @GetMapping("/{id}/analysis")
+    public ResponseEntity<SeriesAnalysis> analyzeSession(@PathVariable String id) {
+        log.info("Analyzing samples of capture session {}", id);
+        return captureSessionService.getSamples(id)
+                .map(sampleSeriesAnalyzer::analyze)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancels a running session, keeping the samples captured so far.
+     *
+     * @param id the session id
+     * @return the session, or 404 if it does not exist or has expired
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<CaptureSessionSummary> cancelSession(@PathVariable String id) {
+        log.info("Cancelling capture session {}", id);
+        return captureSessionService.cancelSession(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,58 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.model.FleetCaptureRequest;
+import com.tinusj.threaddump.model.FleetCaptureSummary;
+import com.tinusj.threaddump.service.FleetCaptureService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for capturing many local processes at once.
+ */
+@RestController
+@RequestMapping("/thread-dump")
+@Slf4j
+public class FleetCaptureController {
+
+    private final FleetCaptureService fleetCaptureService;
+
+    public FleetCaptureController(FleetCaptureService fleetCaptureService) {
+        this.fleetCaptureService = fleetCaptureService;
+    }
+
+    /**
+     * Captures and analyzes thread dumps of many local Java processes concurrently and returns once
+     * all of them have finished or timed out.
+     *
+     * @param request the PIDs or main class pattern selecting the processes, and the per-process timeout
+     * @return the result of each process and their combined summary
+     */
+    @PostMapping("/generate-all")
+    public ResponseEntity<?> generateAll(@RequestBody FleetCaptureRequest request) {
+        log.info("Capturing all processes matching PIDs {} and main class pattern {}", request.pids(),
+                request.mainClassPattern());
+
+        try {
+            FleetCaptureSummary summary = fleetCaptureService.captureAll(request);
+            return ResponseEntity.ok(summary);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fleet capture request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body("Invalid request: " + e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            log.warn("Fleet capture unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error capturing processes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ProfileRequest;
+import com.tinusj.threaddump.model.ProfileSummary;
+import com.tinusj.threaddump.service.ProfilingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for stack-sampling profiles.
+ */
+@RestController
+@RequestMapping("/thread-dump/profiles")
+@Slf4j
+public class ProfilingController {
+
+    private final ProfilingService profilingService;
+
+    public ProfilingController(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    /**
+     * Starts sampling the thread stacks of a process. Returns immediately; the merged profile can be
+     * read while it is still running.
+     *
+     * @param request the process ID, interval and duration in milliseconds, and thread selection
+     * @return the started profile, including its id
+     */
+    @PostMapping
+    public ResponseEntity<?> startProfile(@RequestBody ProfileRequest request) {
+        log.info("Starting profile of PID {}: every {} ms for {} ms", request.pid(), request.intervalMillis(),
+                request.durationMillis());
+
+        try {
+            ProfileSummary profile = profilingService.startProfile(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(profile);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid profile request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body("Invalid request: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("Profile rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            log.warn("Profiling unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error starting profile of PID: {}", request.pid(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the running profiles and the finished ones that are still retained.
+     *
+     * @return the profiles, most recently started first
+     */
+    @GetMapping
+    public ResponseEntity<List<ProfileSummary>> getProfiles() {
+        return ResponseEntity.ok(profilingService.getProfiles());
+    }
+
+    /**
+     * Gets the progress of a profile.
+     *
+     * @param id the profile id
+     * @return the profile, or 404 if it does not exist or has expired
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ProfileSummary> getProfile(@PathVariable String id) {
+        return profilingService.getProfile(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the merged profile in collapsed-stack format, as read by flame graph tools.
+     *
+     * @param id the profile id
+     * @return one {@code root;...;leaf count} line per call path, or 404 if the profile does not exist
+     */
+    @GetMapping(value = "/{id}/collapsed", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getCollapsedStacks(@PathVariable String id) {
+        return profilingService.getCollapsedStacks(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the methods the sampled threads were executing most often.
+     *
+     * @param id the profile id
+     * @return the hotspot findings, or 404 if the profile does not exist
+     */
+    @GetMapping("/{id}/hotspots")
+    public ResponseEntity<List<DiagnosticFinding>> getHotspots(@PathVariable String id) {
+        return profilingService.getHotspots(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stops a running profile, keeping the samples merged so far.
+     *
+     * @param id the profile id
+     * @return the profile, or 404 if it does not exist or has expired
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ProfileSummary> stopProfile(@PathVariable String id) {
+        log.info("Stopping profile {}", id);
+        return profilingService.stopProfile(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,89 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.formatter.ReportFormatter;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response bodies of the endpoints that stream reports. Spring only streams a body when the handler
+ * declares {@code ResponseEntity<StreamingResponseBody>}, so their error messages are streamed too.
+ */
+final class ReportResponses {
+
+    private static final Map<ReportFormat, MediaType> MEDIA_TYPES = new EnumMap<>(ReportFormat.class);
+
+    static {
+        for (ReportFormat format : ReportFormat.values()) {
+            MEDIA_TYPES.put(format, MediaType.parseMediaType(format.getContentType()));
+        }
+    }
+
+    private ReportResponses() {
+    }
+
+    /**
+     * Chooses the report format: the {@code format} parameter if given, otherwise the first format the
+     * {@code Accept} header allows, by quality and then header order. Formats sharing a media type are
+     * tried in declaration order, so {@code application/json} selects the indented JSON. Without a
+     * usable header, or if it allows no format, the report is JSON as before negotiation existed.
+     *
+     * @param requested the {@code format} parameter, or null
+     * @param accept the {@code Accept} header, or null
+     * @return the format to write
+     */
+    static ReportFormat negotiate(ReportFormat requested, String accept) {
+        if (requested != null) {
+            return requested;
+        }
+        if (accept == null || accept.isBlank()) {
+            return ReportFormat.JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return ReportFormat.JSON;
+        }
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() <= 0) {
+                break;
+            }
+            for (ReportFormat format : ReportFormat.values()) {
+                if (mediaType.includes(MEDIA_TYPES.get(format))) {
+                    return format;
+                }
+            }
+        }
+        return ReportFormat.JSON;
+    }
+
+    /**
+     * Returns a body that formats the report straight into the response stream once the handler has returned.
+     */
+    static StreamingResponseBody report(ReportFormatter formatter, DiagnosticReport report) {
+        return out -> formatter.writeTo(report, out);
+    }
+
+    /**
+     * Returns a plain-text error response.
+     */
+    static ResponseEntity<StreamingResponseBody> error(HttpStatusCode status, String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(body));
+    }
+}
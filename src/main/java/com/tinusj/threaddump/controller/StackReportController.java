@@ -0,0 +1,84 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.formatter.StackReportFormatter;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * REST controller for the stacks of recently analyzed thread dumps, as collapsed stacks or flame graphs.
+ */
+@RestController
+@RequestMapping("/thread-dump/reports")
+@Slf4j
+public class StackReportController {
+
+    private final ParsedDumpStore parsedDumpStore;
+    private final Map<ReportFormat, StackReportFormatter> stackFormatters;
+
+    /**
+     * Takes the stack formatter beans directly; the formatters of the report formatter service may be
+     * wrapped by the report cache.
+     */
+    public StackReportController(ParsedDumpStore parsedDumpStore, List<StackReportFormatter> stackFormatters) {
+        this.parsedDumpStore = parsedDumpStore;
+        this.stackFormatters = stackFormatters.stream()
+                .collect(Collectors.toMap(StackReportFormatter::getFormat, Function.identity()));
+    }
+
+    /**
+     * Gets the stacks of the dump a report was made from, folded into a call tree.
+     *
+     * @param id the report id
+     * @param format COLLAPSED or FLAMEGRAPH (default)
+     * @param state only include threads in this state
+     * @param group only include threads in this logical group
+     * @return the stacks, 400 for other formats, or 404 if the dump of the report is no longer stored
+     */
+    @GetMapping("/{id}/stacks")
+    public ResponseEntity<StreamingResponseBody> getStacks(
+            @PathVariable String id,
+            @RequestParam(name = "format", defaultValue = "FLAMEGRAPH") ReportFormat format,
+            @RequestParam(name = "state", required = false) ThreadState state,
+            @RequestParam(name = "group", required = false) String group) {
+
+        log.info("Getting stacks of report {}, format: {}, state: {}, group: {}", id, format, state, group);
+
+        try {
+            StackReportFormatter stackFormatter = stackFormatters.get(format);
+            if (stackFormatter == null) {
+                return ReportResponses.error(HttpStatus.BAD_REQUEST,
+                        "Format " + format + " does not show stacks. Supported formats: COLLAPSED, FLAMEGRAPH");
+            }
+            if (parsedDumpStore.get(id).isEmpty()) {
+                return ReportResponses.error(HttpStatus.NOT_FOUND, "Report " + id + " is unknown or no longer stored");
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
+
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(out -> stackFormatter.writeStacks(id, state, group, out));
+
+        } catch (Exception e) {
+            log.error("Error getting stacks of report {}", id, e);
+            return ReportResponses.error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tinusj.threaddump.controller;
 
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.model.JavaProcess;
 import com.tinusj.threaddump.enums.ReportFormat;
@@ -16,12 +17,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -54,24 +58,27 @@ public class ThreadDumpController {
      * Analyzes thread dump content provided as text.
      * 
      * @param threadDumpContent the thread dump content as text
-     * @param format the desired output format (default: JSON)
+     * @param requestedFormat the desired output format (default: negotiated from the Accept header, else JSON)
+     * @param accept the Accept header
      * @return diagnostic report in the specified format
      */
     @PostMapping("/analyze-text")
-    public ResponseEntity<String> analyzeThreadDumpText(
+    public ResponseEntity<StreamingResponseBody> analyzeThreadDumpText(
             @RequestBody String threadDumpContent,
-            @RequestParam(defaultValue = "JSON") ReportFormat format) {
+            @RequestParam(name = "format", required = false) ReportFormat requestedFormat,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        ReportFormat format = ReportResponses.negotiate(requestedFormat, accept);
         
         log.info("Analyzing thread dump from text input, format: {}", format);
         
         try {
             if (threadDumpContent == null || threadDumpContent.trim().isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body("Thread dump content cannot be empty");
+                return ReportResponses.error(HttpStatus.BAD_REQUEST, "Thread dump content cannot be empty");
             }
             
             DiagnosticReport report = diagnosticService.analyzeThreadDump(threadDumpContent, "text-input");
-            String formattedReport = reportFormatterService.formatReport(report, format);
+            StreamingResponseBody formattedReport = ReportResponses.report(reportFormatterService.getFormatter(format), report);
             
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
@@ -82,12 +89,10 @@ public class ThreadDumpController {
                     
         } catch (IllegalArgumentException e) {
             log.warn("Invalid format requested: {}", format, e);
-            return ResponseEntity.badRequest()
-                    .body("Unsupported format: " + format);
+            return ReportResponses.error(HttpStatus.BAD_REQUEST, "Unsupported format: " + format);
         } catch (Exception e) {
             log.error("Error analyzing thread dump from text", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Internal server error: " + e.getMessage());
+            return ReportResponses.error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error: " + e.getMessage());
         }
     }
     
@@ -95,27 +100,37 @@ public class ThreadDumpController {
      * Analyzes thread dump content provided as file upload.
      * 
      * @param file the thread dump file
-     * @param format the desired output format (default: JSON)
+     * @param requestedFormat the desired output format (default: negotiated from the Accept header, else JSON)
+     * @param accept the Accept header
      * @return diagnostic report in the specified format
      */
     @PostMapping("/analyze-file")
-    public ResponseEntity<String> analyzeThreadDumpFile(
+    public ResponseEntity<StreamingResponseBody> analyzeThreadDumpFile(
             @RequestParam("file") MultipartFile file,
-            @RequestParam(name = "format", defaultValue = "JSON") ReportFormat format) {
+            @RequestParam(name = "format", required = false) ReportFormat requestedFormat,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        ReportFormat format = ReportResponses.negotiate(requestedFormat, accept);
         
         log.info("Analyzing thread dump from file: {}, format: {}", file.getOriginalFilename(), format);
         
         try {
             if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body("File cannot be empty");
+                return ReportResponses.error(HttpStatus.BAD_REQUEST, "File cannot be empty");
             }
             
-            String threadDumpContent = new String(file.getBytes(), StandardCharsets.UTF_8);
             String filename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "uploaded-file";
             
-            DiagnosticReport report = diagnosticService.analyzeThreadDump(threadDumpContent, filename);
-            String formattedReport = reportFormatterService.formatReport(report, format);
+            // Spool the upload to disk (a move for uploads Spring already buffered to disk) and memory-map it
+            DiagnosticReport report;
+            Path spooledDump = Files.createTempFile("thread-dump-", ".txt");
+            try {
+                file.transferTo(spooledDump);
+                report = diagnosticService.analyzeThreadDump(spooledDump, filename);
+            } finally {
+                Files.deleteIfExists(spooledDump);
+            }
+            StreamingResponseBody formattedReport = ReportResponses.report(reportFormatterService.getFormatter(format), report);
             
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
@@ -128,12 +143,10 @@ public class ThreadDumpController {
                     
         } catch (IllegalArgumentException e) {
             log.warn("Invalid format requested: {}", format, e);
-            return ResponseEntity.badRequest()
-                    .body("Unsupported format: " + format);
+            return ReportResponses.error(HttpStatus.BAD_REQUEST, "Unsupported format: " + format);
         } catch (Exception e) {
             log.error("Error analyzing thread dump from file: {}", file.getOriginalFilename(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Internal server error: " + e.getMessage());
+            return ReportResponses.error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error: " + e.getMessage());
         }
     }
     
@@ -316,29 +329,33 @@ public class ThreadDumpController {
      * Generates a thread dump for the specified Java process PID and immediately analyzes it.
      * 
      * @param pid the process ID of the Java process
-     * @param format the desired output format for the analysis (default: JSON)
+     * @param requestedFormat the desired output format (default: negotiated from the Accept header, else JSON)
+     * @param accept the Accept header
      * @return diagnostic report in the specified format
      */
     @PostMapping("/generate-and-analyze/{pid}")
-    public ResponseEntity<String> generateAndAnalyzeThreadDump(
+    public ResponseEntity<StreamingResponseBody> generateAndAnalyzeThreadDump(
             @PathVariable long pid,
-            @RequestParam(defaultValue = "JSON") ReportFormat format) {
+            @RequestParam(name = "format", required = false) ReportFormat requestedFormat,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        ReportFormat format = ReportResponses.negotiate(requestedFormat, accept);
         
         log.info("Generating and analyzing thread dump for PID: {}, format: {}", pid, format);
         
         try {
             if (!threadDumpGenerationService.isAvailable()) {
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body("Thread dump generation is not available on this system");
+                return ReportResponses.error(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Thread dump generation is not available on this system");
             }
             
-            // Generate thread dump
-            String threadDump = threadDumpGenerationService.generateThreadDump(pid);
+            // Generate thread dump, measuring the CPU time of its threads meanwhile
+            CapturedThreadDump capture = threadDumpGenerationService.captureThreadDump(pid);
             
             // Analyze thread dump
             String source = "pid-" + pid;
-            DiagnosticReport report = diagnosticService.analyzeThreadDump(threadDump, source);
-            String formattedReport = reportFormatterService.formatReport(report, format);
+            DiagnosticReport report = diagnosticService.analyzeThreadDump(capture, source);
+            StreamingResponseBody formattedReport = ReportResponses.report(reportFormatterService.getFormatter(format), report);
             
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
@@ -351,12 +368,11 @@ public class ThreadDumpController {
                     
         } catch (IllegalArgumentException e) {
             log.warn("Invalid PID for thread dump generation and analysis: {}", pid, e);
-            return ResponseEntity.badRequest()
-                    .body("Invalid PID: " + e.getMessage());
+            return ReportResponses.error(HttpStatus.BAD_REQUEST, "Invalid PID: " + e.getMessage());
         } catch (Exception e) {
             log.error("Error generating and analyzing thread dump for PID: {}", pid, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to generate and analyze thread dump: " + e.getMessage());
+            return ReportResponses.error(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Failed to generate and analyze thread dump: " + e.getMessage());
         }
     }
     
@@ -429,4 +445,41 @@ public class ThreadDumpController {
                     .body("Error: " + e.getMessage());
         }
     }
+    
+    /**
+     * MCP skill endpoint for generating and analyzing thread dumps of many processes at once.
+     * This provides MCP-compatible functionality via REST API.
+     * 
+     * @param arguments the MCP arguments containing pids, mainClassPattern, timeoutMillis and format
+     * @return combined summary of the processes
+     */
+    @PostMapping("/mcp-generate-all")
+    public ResponseEntity<String> mcpGenerateAllThreadDumps(@RequestBody Map<String, Object> arguments) {
+        log.info("MCP endpoint: Generating thread dumps of many processes");
+        
+        try {
+            String result = mcpSkill.handleGenerateAllThreadDumps(arguments);
+            
+            // Check if result is an error
+            if (result.startsWith("Error:")) {
+                return ResponseEntity.badRequest().body(result);
+            }
+            
+            // Determine content type based on format argument
+            String formatStr = (String) arguments.getOrDefault("format", "JSON");
+            ReportFormat format = ReportFormat.valueOf(formatStr.toUpperCase());
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
+            
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(result);
+                    
+        } catch (Exception e) {
+            log.error("MCP endpoint: Error generating thread dumps of many processes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ThreadDumpDiffRequest;
+import com.tinusj.threaddump.service.ReportFormatterService;
+import com.tinusj.threaddump.service.ThreadDumpDiffService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for comparing two thread dumps.
+ */
+@RestController
+@RequestMapping("/thread-dump")
+@Slf4j
+public class ThreadDumpDiffController {
+
+    private final ThreadDumpDiffService threadDumpDiffService;
+    private final ReportFormatterService reportFormatterService;
+
+    public ThreadDumpDiffController(ThreadDumpDiffService threadDumpDiffService,
+                                    ReportFormatterService reportFormatterService) {
+        this.threadDumpDiffService = threadDumpDiffService;
+        this.reportFormatterService = reportFormatterService;
+    }
+
+    /**
+     * Compares a baseline thread dump with a current one. Each side is given either as dump text or
+     * as the id of a recently analyzed report.
+     *
+     * @param request the two dumps or report ids
+     * @param requestedFormat the desired output format (default: negotiated from the Accept header, else JSON)
+     * @param accept the Accept header
+     * @return a report whose statistics are deltas (current minus baseline) and whose findings are the changes
+     */
+    @PostMapping("/diff")
+    public ResponseEntity<StreamingResponseBody> diffThreadDumps(
+            @RequestBody ThreadDumpDiffRequest request,
+            @RequestParam(name = "format", required = false) ReportFormat requestedFormat,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        ReportFormat format = ReportResponses.negotiate(requestedFormat, accept);
+
+        log.info("Comparing thread dumps, format: {}", format);
+
+        try {
+            DiagnosticReport report = threadDumpDiffService.diff(request);
+            StreamingResponseBody formattedReport = ReportResponses.report(reportFormatterService.getFormatter(format), report);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.CONTENT_TYPE, format.getContentType());
+
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(formattedReport);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid diff request: {}", e.getMessage());
+            return ReportResponses.error(HttpStatus.BAD_REQUEST, "Invalid request: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error comparing thread dumps", e);
+            return ReportResponses.error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error: " + e.getMessage());
+        }
+    }
+}
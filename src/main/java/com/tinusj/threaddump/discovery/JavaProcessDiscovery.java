@@ -0,0 +1,28 @@
+package com.tinusj.threaddump.discovery;
+
+import com.tinusj.threaddump.model.JavaProcess;
+
+import java.util.List;
+
+/**
+ * A way of listing the Java processes running on this host.
+ */
+public interface JavaProcessDiscovery {
+
+    /**
+     * Returns the backend name, used in logs.
+     */
+    String name();
+
+    /**
+     * Checks whether this backend can be used on this system.
+     */
+    boolean isAvailable();
+
+    /**
+     * Lists the running Java processes.
+     *
+     * @return the Java processes found, empty if there are none
+     */
+    List<JavaProcess> discover();
+}
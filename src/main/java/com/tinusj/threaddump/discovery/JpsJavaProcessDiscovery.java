@@ -0,0 +1,138 @@
+package com.tinusj.threaddump.discovery;
+
+import com.tinusj.threaddump.model.JavaProcess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists Java processes by running the JPS (Java Process Status) tool, {@code jps -v}.
+ * Portable, but forks a JVM for every call.
+ */
+@Component
+@Slf4j
+public class JpsJavaProcessDiscovery implements JavaProcessDiscovery {
+
+    private static final String JPS_COMMAND = "jps";
+
+    @Override
+    public String name() {
+        return "jps";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public List<JavaProcess> discover() {
+        List<JavaProcess> processes = new ArrayList<>();
+        
+        try {
+            // Use jps -v to get detailed information including JVM arguments
+            ProcessBuilder processBuilder = new ProcessBuilder(JPS_COMMAND, "-v");
+            Process process = processBuilder.start();
+            
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JavaProcess javaProcess = parseJpsLine(line);
+                    if (javaProcess != null) {
+                        processes.add(javaProcess);
+                    }
+                }
+            }
+            
+            // Wait for process completion
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                log.warn("jps command exited with code: {}", exitCode);
+            }
+            
+        } catch (IOException e) {
+            log.error("Error running jps command to detect Java processes", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while running jps command to detect Java processes", e);
+        }
+        
+        return processes;
+    }
+    
+    /**
+     * Parses a line from jps -v output to extract process information.
+     * 
+     * Expected format: "PID MainClass JVMArgs"
+     * Example: "12345 com.example.MyApp -Xmx1g -Dfile.encoding=UTF-8"
+     */
+    static JavaProcess parseJpsLine(String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return null;
+        }
+        
+        try {
+            line = line.trim();
+            
+            // Skip jps process itself (contains "Jps" or "sun.tools.jps.Jps")
+            if (line.contains("Jps") || line.contains("sun.tools.jps.Jps")) {
+                return null;
+            }
+            
+            // Split by space, first part is PID
+            String[] parts = line.split("\\s+", 2);
+            if (parts.length < 2) {
+                return null;
+            }
+            
+            long pid = Long.parseLong(parts[0]);
+            String remaining = parts[1];
+            
+            // Extract main class and arguments
+            String[] classParts = remaining.split("\\s+", 2);
+            String mainClass = classParts[0];
+            String arguments = classParts.length > 1 ? classParts[1] : "";
+            
+            // Separate JVM arguments from application arguments
+            String jvmArguments = "";
+            String applicationArguments = "";
+            
+            if (!arguments.isEmpty()) {
+                // JVM arguments typically start with -
+                StringBuilder jvmArgs = new StringBuilder();
+                StringBuilder appArgs = new StringBuilder();
+                
+                String[] args = arguments.split("\\s+");
+                for (String arg : args) {
+                    if (arg.startsWith("-D") || arg.startsWith("-X") || arg.startsWith("-XX") 
+                        || arg.startsWith("-server") || arg.startsWith("-client")
+                        || arg.startsWith("-javaagent")) {
+                        if (jvmArgs.length() > 0) jvmArgs.append(" ");
+                        jvmArgs.append(arg);
+                    } else {
+                        if (appArgs.length() > 0) appArgs.append(" ");
+                        appArgs.append(arg);
+                    }
+                }
+                
+                jvmArguments = jvmArgs.toString();
+                applicationArguments = appArgs.toString();
+            }
+            
+            return new JavaProcess(pid, mainClass, JavaProcess.displayNameOf(mainClass), jvmArguments,
+                    applicationArguments);
+            
+        } catch (NumberFormatException e) {
+            log.warn("Failed to parse PID from jps line: {}", line);
+            return null;
+        } catch (Exception e) {
+            log.warn("Failed to parse jps line: {}", line, e);
+            return null;
+        }
+    }
+}
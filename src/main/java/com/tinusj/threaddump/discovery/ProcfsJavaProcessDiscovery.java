@@ -0,0 +1,249 @@
+package com.tinusj.threaddump.discovery;
+
+import com.tinusj.threaddump.config.ProcessDiscoveryProperties;
+import com.tinusj.threaddump.model.JavaProcess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lists Java processes on Linux from the file system, without spawning a process.
+ * <p>
+ * Candidate PIDs are the JVMs that publish perf data ({@code <tmpdir>/hsperfdata_<user>/<pid>}, the
+ * source {@code jps} uses) and every process whose executable is named {@code java} (which also
+ * covers JVMs started with {@code -XX:-UsePerfData}). Whichever source found it, a candidate is only
+ * listed if {@code /proc/<pid>} shows a {@code java} executable (by {@code comm}, the {@code exe} link or
+ * the first {@code cmdline} argument), so a stale perf data file whose PID was reused by another process
+ * is ignored. Each candidate's {@code /proc/<pid>/cmdline} is then split into JVM options, main class (or
+ * jar) and application arguments.
+ */
+@Component
+@Slf4j
+public class ProcfsJavaProcessDiscovery implements JavaProcessDiscovery {
+
+    private static final String PERF_DATA_DIRECTORY_GLOB = "hsperfdata_*";
+    private static final String JAVA_EXECUTABLE = "java";
+    private static final String JPS_MAIN_CLASS = "sun.tools.jps.Jps";
+
+    /**
+     * Digits of the largest PID that fits a long, to reject other numeric file names cheaply.
+     */
+    private static final int MAX_PID_DIGITS = 18;
+
+    /**
+     * Launcher options whose value is the next argument.
+     */
+    private static final Set<String> OPTIONS_WITH_VALUE = Set.of(
+            "-cp", "-classpath", "--class-path", "-p", "--module-path", "--upgrade-module-path",
+            "--add-modules", "--limit-modules", "--add-reads", "--add-exports", "--add-opens",
+            "--patch-module", "--source");
+
+    /**
+     * Launcher options whose value is the class path, which is left out of the JVM arguments as jps does.
+     */
+    private static final Set<String> CLASS_PATH_OPTIONS = Set.of("-cp", "-classpath", "--class-path");
+
+    private final boolean enabled;
+    private final Path procRoot;
+    private final Path tempDirectory;
+
+    /**
+     * Creates an enabled discovery reading {@code /proc} and the JVM temp directory.
+     */
+    public ProcfsJavaProcessDiscovery() {
+        this(new ProcessDiscoveryProperties());
+    }
+
+    /**
+     * Creates a discovery configured by the {@code thread-dump.discovery} properties.
+     */
+    @Autowired
+    public ProcfsJavaProcessDiscovery(ProcessDiscoveryProperties properties) {
+        this(properties.isProcfsEnabled(), Path.of("/proc"), Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    ProcfsJavaProcessDiscovery(boolean enabled, Path procRoot, Path tempDirectory) {
+        this.enabled = enabled;
+        this.procRoot = procRoot;
+        this.tempDirectory = tempDirectory;
+    }
+
+    @Override
+    public String name() {
+        return "procfs";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled && Files.isReadable(procRoot.resolve("self").resolve("cmdline"));
+    }
+
+    @Override
+    public List<JavaProcess> discover() {
+        Set<Long> candidates = new TreeSet<>();
+        addPerfDataPids(candidates);
+        addJavaExecutablePids(candidates);
+
+        List<JavaProcess> processes = new ArrayList<>(candidates.size());
+        for (long pid : candidates) {
+            List<String> commandLine = readCommandLine(pid);
+            if (commandLine.isEmpty() || !isJavaProcess(procRoot.resolve(Long.toString(pid)), commandLine)) {
+                // Stale perf data file of a JVM that did not exit cleanly (its PID possibly reused), or a
+                // process that just exited
+                continue;
+            }
+            JavaProcess process = parseCommandLine(pid, commandLine);
+            if (!JPS_MAIN_CLASS.equals(process.mainClass())) {
+                processes.add(process);
+            }
+        }
+        return processes;
+    }
+
+    /**
+     * Splits a JVM command line (including the executable) into JVM options, main class and application arguments.
+     */
+    static JavaProcess parseCommandLine(long pid, List<String> commandLine) {
+        List<String> jvmArguments = new ArrayList<>();
+        String mainClass = null;
+        int i = 1;
+        while (i < commandLine.size() && mainClass == null) {
+            String argument = commandLine.get(i++);
+            if (argument.equals("-jar") || argument.equals("-m") || argument.equals("--module")) {
+                mainClass = i < commandLine.size() ? commandLine.get(i++) : "";
+            } else if (OPTIONS_WITH_VALUE.contains(argument)) {
+                if (!CLASS_PATH_OPTIONS.contains(argument)) {
+                    jvmArguments.add(argument);
+                    if (i < commandLine.size()) {
+                        jvmArguments.add(commandLine.get(i));
+                    }
+                }
+                i++;
+            } else if (argument.startsWith("-")) {
+                jvmArguments.add(argument);
+            } else {
+                mainClass = argument;
+            }
+        }
+        if (mainClass == null) {
+            mainClass = "Unknown";
+        }
+        String applicationArguments = String.join(" ", commandLine.subList(Math.min(i, commandLine.size()),
+                commandLine.size()));
+        return new JavaProcess(pid, mainClass, JavaProcess.displayNameOf(mainClass),
+                String.join(" ", jvmArguments), applicationArguments);
+    }
+
+    private void addPerfDataPids(Set<Long> pids) {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(tempDirectory, PERF_DATA_DIRECTORY_GLOB)) {
+            for (Path directory : directories) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                    for (Path file : files) {
+                        addIfPid(pids, file.getFileName().toString());
+                    }
+                } catch (IOException e) {
+                    log.debug("Cannot list perf data directory {}: {}", directory, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot list perf data directories in {}: {}", tempDirectory, e.getMessage());
+        }
+    }
+
+    private void addJavaExecutablePids(Set<Long> pids) {
+        try (DirectoryStream<Path> processes = Files.newDirectoryStream(procRoot)) {
+            for (Path process : processes) {
+                String name = process.getFileName().toString();
+                if (isPid(name) && isJavaExecutable(process)) {
+                    pids.add(Long.parseLong(name));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot list {}: {}", procRoot, e.getMessage());
+        }
+    }
+
+    private static boolean isJavaExecutable(Path process) {
+        try {
+            String comm = Files.readString(process.resolve("comm"), StandardCharsets.UTF_8).trim();
+            return comm.equals(JAVA_EXECUTABLE);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the process runs a {@code java} executable, by name, executable link or launch command.
+     */
+    private static boolean isJavaProcess(Path process, List<String> commandLine) {
+        return isJavaExecutable(process)
+                || isJavaPath(readExecutable(process))
+                || isJavaPath(commandLine.get(0));
+    }
+
+    private static String readExecutable(Path process) {
+        try {
+            return Files.readSymbolicLink(process.resolve("exe")).toString();
+        } catch (IOException | UnsupportedOperationException e) {
+            // Not permitted for processes of other users; the other checks still apply
+            return null;
+        }
+    }
+
+    private static boolean isJavaPath(String path) {
+        if (path == null) {
+            return false;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.equals(JAVA_EXECUTABLE) || name.equals(JAVA_EXECUTABLE + " (deleted)");
+    }
+
+    private List<String> readCommandLine(long pid) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(procRoot.resolve(Long.toString(pid)).resolve("cmdline"));
+        } catch (IOException e) {
+            return List.of();
+        }
+        List<String> arguments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                arguments.add(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        if (start < bytes.length) {
+            arguments.add(new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8));
+        }
+        return arguments;
+    }
+
+    private static void addIfPid(Set<Long> pids, String name) {
+        if (isPid(name)) {
+            pids.add(Long.parseLong(name));
+        }
+    }
+
+    private static boolean isPid(String name) {
+        if (name.isEmpty() || name.length() > MAX_PID_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package com.tinusj.threaddump.enums;
+
+/**
+ * Enumeration representing the status of a multi-sample capture session.
+ */
+public enum CaptureSessionStatus {
+    RUNNING, COMPLETED, FAILED, CANCELLED
+}
@@ -0,0 +1,8 @@
+package com.tinusj.threaddump.enums;
+
+/**
+ * Enumeration representing the outcome of capturing one process of a fleet capture.
+ */
+public enum FleetCaptureOutcome {
+    SUCCEEDED, FAILED, TIMED_OUT
+}
@@ -4,16 +4,23 @@ package com.tinusj.threaddump.enums;
  * Enumeration representing the available output formats for diagnostic reports.
  */
 public enum ReportFormat {
-    JSON("application/json", ".json"),
-    XML("application/xml", ".xml"),
-    TEXT("text/plain", ".txt");
+    JSON("application/json", ".json", false),
+    XML("application/xml", ".xml", false),
+    TEXT("text/plain", ".txt", false),
+    JSON_COMPACT("application/json", ".json", false),
+    CBOR("application/cbor", ".cbor", true),
+    SMILE("application/x-jackson-smile", ".smile", true),
+    COLLAPSED("text/plain", ".collapsed", false),
+    FLAMEGRAPH("image/svg+xml", ".svg", false);
 
     private final String contentType;
     private final String fileExtension;
+    private final boolean binary;
 
-    ReportFormat(String contentType, String fileExtension) {
+    ReportFormat(String contentType, String fileExtension, boolean binary) {
         this.contentType = contentType;
         this.fileExtension = fileExtension;
+        this.binary = binary;
     }
 
     public String getContentType() {
@@ -23,4 +30,12 @@ public enum ReportFormat {
     public String getFileExtension() {
         return fileExtension;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns whether reports in this format are bytes rather than text, so they can only be
+     * written to a stream and not returned as a string.
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+}
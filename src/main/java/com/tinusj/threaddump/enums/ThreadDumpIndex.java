@@ -0,0 +1,15 @@
+package com.tinusj.threaddump.enums;
+
+/**
+ * Indexes of a parsed thread dump that diagnostic rules can request to have prepared before they run.
+ */
+public enum ThreadDumpIndex {
+    /** Threads grouped by {@link ThreadState}. */
+    STATE,
+    /** Threads grouped by the lock they are waiting on. */
+    LOCK,
+    /** Threads grouped by logical thread group. */
+    GROUP,
+    /** Threads and occurrence counts by method key of their stack frames. */
+    FRAME
+}
@@ -0,0 +1,46 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tinusj.threaddump.model.DiagnosticReport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Base class for formatters that encode reports in a binary Jackson data format. The report is
+ * serialized through a writer that is built once, with the serializers for the report already
+ * resolved, and can only be written to a stream.
+ */
+public abstract class BinaryReportFormatter implements ReportFormatter {
+    
+    private final ObjectWriter writer;
+    
+    /**
+     * Creates a formatter that writes with the given mapper of the binary format.
+     */
+    protected BinaryReportFormatter(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = mapper.writerFor(DiagnosticReport.class);
+    }
+    
+    /**
+     * Not supported: a binary report is not text.
+     * 
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public String format(DiagnosticReport report) {
+        throw new UnsupportedOperationException(getFormat() + " reports can only be written to a stream");
+    }
+    
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        writer.writeValue(out, report);
+    }
+}
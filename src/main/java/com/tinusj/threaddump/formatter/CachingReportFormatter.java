@@ -0,0 +1,127 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.store.ReportCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Keeps the bytes of cached reports in the {@link ReportCache}, so a report that is requested again in a
+ * format it was written in before (e.g. after a retry) costs a lookup instead of a rendering. Reports
+ * that are not cached, such as diffs or live captures, are written by the wrapped formatter directly.
+ * <p>
+ * The first time a cached report is written in a format, the bytes are streamed to the caller as they
+ * are rendered and copied aside; the copy is dropped as soon as it grows beyond the cache's
+ * {@code max-formatted-size}, so a large report never costs more than that in extra memory.
+ */
+public class CachingReportFormatter implements ReportFormatter {
+
+    private final ReportFormatter delegate;
+    private final ReportCache reportCache;
+
+    /**
+     * Wraps a formatter.
+     *
+     * @param delegate the formatter rendering the reports
+     * @param reportCache the cache to keep the rendered bytes in
+     */
+    public CachingReportFormatter(ReportFormatter delegate, ReportCache reportCache) {
+        this.delegate = delegate;
+        this.reportCache = reportCache;
+    }
+
+    @Override
+    public String format(DiagnosticReport report) {
+        if (delegate.getFormat().isBinary() || reportCache.getByReportId(report.id()).isEmpty()) {
+            return delegate.format(report);
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            writeTo(report, buffer);
+        } catch (IOException e) {
+            // Written to memory, so this does not happen; let the formatter report its own error
+            return delegate.format(report);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        Optional<ReportCache.CachedReport> cached = reportCache.getByReportId(report.id());
+        if (cached.isEmpty()) {
+            delegate.writeTo(report, out);
+            return;
+        }
+        ReportFormat format = delegate.getFormat();
+        byte[] bytes = cached.get().formatted().get(format);
+        reportCache.recordFormattedLookup(bytes != null);
+        if (bytes != null) {
+            out.write(bytes);
+            out.flush();
+            return;
+        }
+        CopyingOutputStream copying = new CopyingOutputStream(out, reportCache.maxFormattedBytes());
+        delegate.writeTo(report, copying);
+        if (copying.copy != null) {
+            reportCache.putFormatted(report.id(), format, copying.copy.toByteArray());
+        }
+    }
+
+    @Override
+    public ReportFormat getFormat() {
+        return delegate.getFormat();
+    }
+
+    /**
+     * Writes through to the response while keeping a copy of at most {@code limit} bytes.
+     */
+    private static final class CopyingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CopyingOutputStream(OutputStream out, long limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (keep(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (keep(len)) {
+                copy.write(b, off, len);
+            }
+        }
+
+        private boolean keep(int len) {
+            if (copy != null && copy.size() + (long) len > limit) {
+                copy = null;
+            }
+            return copy != null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.tinusj.threaddump.enums.ReportFormat;
+import org.springframework.stereotype.Component;
+
+/**
+ * Formats diagnostic reports as CBOR (RFC 8949).
+ */
+@Component
+public class CborReportFormatter extends BinaryReportFormatter {
+    
+    public CborReportFormatter() {
+        super(new CBORMapper());
+    }
+    
+    @Override
+    public ReportFormat getFormat() {
+        return ReportFormat.CBOR;
+    }
+}
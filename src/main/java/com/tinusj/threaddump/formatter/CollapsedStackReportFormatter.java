@@ -0,0 +1,44 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.StackReportProperties;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.model.CallTree;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Formats the stacks of an analyzed dump in the collapsed-stack format read by flame graph tools
+ * ({@code flamegraph.pl}, speedscope, ...): one line per call path, methods from the thread's entry
+ * point down separated by {@code ;}, followed by the number of threads whose stack ended there.
+ */
+@Component
+public class CollapsedStackReportFormatter extends StackReportFormatter {
+
+    /**
+     * Creates a formatter with the default settings.
+     */
+    public CollapsedStackReportFormatter(ParsedDumpStore parsedDumpStore) {
+        this(parsedDumpStore, new StackReportProperties());
+    }
+
+    /**
+     * Creates a formatter configured by the {@code thread-dump.reports.stacks} properties.
+     */
+    @Autowired
+    public CollapsedStackReportFormatter(ParsedDumpStore parsedDumpStore, StackReportProperties properties) {
+        super(parsedDumpStore, properties);
+    }
+
+    @Override
+    protected void write(CallTree tree, String title, Appendable out) throws IOException {
+        tree.writeCollapsed(out);
+    }
+
+    @Override
+    public ReportFormat getFormat() {
+        return ReportFormat.COLLAPSED;
+    }
+}
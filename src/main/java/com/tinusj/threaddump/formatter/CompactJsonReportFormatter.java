@@ -0,0 +1,52 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.enums.ReportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Formats diagnostic reports as JSON without indentation, for machine consumers.
+ */
+@Component
+@Slf4j
+public class CompactJsonReportFormatter implements ReportFormatter {
+    
+    private final ObjectWriter writer;
+    
+    public CompactJsonReportFormatter() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = objectMapper.writerFor(DiagnosticReport.class);
+    }
+    
+    @Override
+    public String format(DiagnosticReport report) {
+        try {
+            return writer.writeValueAsString(report);
+        } catch (Exception e) {
+            log.error("Error formatting report as compact JSON", e);
+            return "{\"error\": \"Failed to format report as JSON: " + e.getMessage() + "\"}";
+        }
+    }
+    
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        writer.writeValue(out, report);
+    }
+    
+    @Override
+    public ReportFormat getFormat() {
+        return ReportFormat.JSON_COMPACT;
+    }
+}
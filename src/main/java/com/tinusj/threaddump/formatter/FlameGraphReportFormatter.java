@@ -0,0 +1,228 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.StackReportProperties;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.model.CallTree;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Renders the stacks of an analyzed dump as a self-contained SVG flame graph: one box per call path,
+ * callers below callees, each as wide as the number of threads whose stack passed through it. Hovering a
+ * box shows its method and thread count; the SVG needs no script and no external resources.
+ * <p>
+ * The call tree is laid out in two depth-first passes, one to find the height of the graph and one to
+ * write the boxes, keeping the next free x position per depth instead of sorting or measuring subtrees.
+ * Boxes narrower than {@code min-frame-width} are left out together with their callees, which bounds the
+ * size of the graph for dumps with many distinct stacks.
+ */
+@Component
+public class FlameGraphReportFormatter extends StackReportFormatter {
+
+    private static final int FRAME_HEIGHT = 16;
+    private static final int PADDING = 10;
+    private static final int TITLE_HEIGHT = 40;
+    private static final int TEXT_INSET = 3;
+    /**
+     * Average glyph width of the 12px font, used to decide how much of a method name fits in a box.
+     */
+    private static final double CHAR_WIDTH = 7.0;
+    private static final int MIN_LABEL_CHARS = 3;
+    private static final String ROOT_LABEL = "all";
+
+    private final int width;
+    private final double minFrameWidth;
+
+    /**
+     * Creates a formatter with the default settings.
+     */
+    public FlameGraphReportFormatter(ParsedDumpStore parsedDumpStore) {
+        this(parsedDumpStore, new StackReportProperties());
+    }
+
+    /**
+     * Creates a formatter configured by the {@code thread-dump.reports.stacks} properties.
+     */
+    @Autowired
+    public FlameGraphReportFormatter(ParsedDumpStore parsedDumpStore, StackReportProperties properties) {
+        super(parsedDumpStore, properties);
+        this.width = properties.getFlameGraphWidth();
+        this.minFrameWidth = properties.getMinFrameWidth();
+    }
+
+    @Override
+    protected void write(CallTree tree, String title, Appendable out) throws IOException {
+        long samples = tree.stackCount();
+        double scale = samples == 0 ? 0 : (width - 2.0 * PADDING) / samples;
+
+        int[] maxDepth = new int[1];
+        if (samples > 0) {
+            tree.visit((depth, method, totalSamples, selfSamples) -> {
+                if (totalSamples * scale < minFrameWidth) {
+                    return false;
+                }
+                maxDepth[0] = Math.max(maxDepth[0], depth + 1);
+                return true;
+            });
+        }
+        int height = TITLE_HEIGHT + (maxDepth[0] + 1) * FRAME_HEIGHT + PADDING;
+
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"")
+                .append(Integer.toString(width)).append("\" height=\"").append(Integer.toString(height))
+                .append("\" viewBox=\"0 0 ").append(Integer.toString(width)).append(' ')
+                .append(Integer.toString(height)).append("\">\n");
+        out.append("<style>text{font-family:Verdana,sans-serif;font-size:12px}"
+                + "g:hover rect{stroke:#000;stroke-width:0.5}</style>\n");
+        out.append("<rect width=\"100%\" height=\"100%\" fill=\"#f8f8f8\"/>\n");
+        out.append("<text x=\"").append(Integer.toString(width / 2))
+                .append("\" y=\"24\" text-anchor=\"middle\" style=\"font-size:17px\">Flame Graph: ");
+        appendEscaped(out, title, 0, title.length());
+        out.append("</text>\n");
+
+        if (samples == 0) {
+            out.append("<text x=\"").append(Integer.toString(width / 2)).append("\" y=\"")
+                    .append(Integer.toString(TITLE_HEIGHT + FRAME_HEIGHT - 4))
+                    .append("\" text-anchor=\"middle\">No stacks</text>\n");
+        } else {
+            FrameWriter frames = new FrameWriter(out, samples, scale, height);
+            frames.frame(-1, ROOT_LABEL, 0, samples);
+            try {
+                tree.visit(frames);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        out.append("</svg>\n");
+    }
+
+    @Override
+    public ReportFormat getFormat() {
+        return ReportFormat.FLAMEGRAPH;
+    }
+
+    /**
+     * Writes the box of each visited node, placing it at the next free x position of its depth.
+     */
+    private final class FrameWriter implements CallTree.NodeVisitor {
+
+        private final Appendable out;
+        private final long samples;
+        private final double scale;
+        private final int height;
+        /**
+         * Next free x position per depth, in samples.
+         */
+        private long[] nextOffsets = new long[64];
+
+        private FrameWriter(Appendable out, long samples, double scale, int height) {
+            this.out = out;
+            this.samples = samples;
+            this.scale = scale;
+            this.height = height;
+        }
+
+        @Override
+        public boolean visit(int depth, String method, long totalSamples, long selfSamples) {
+            if (depth + 1 >= nextOffsets.length) {
+                nextOffsets = Arrays.copyOf(nextOffsets, nextOffsets.length * 2);
+            }
+            long offset = nextOffsets[depth];
+            nextOffsets[depth] = offset + totalSamples;
+            if (totalSamples * scale < minFrameWidth) {
+                return false;
+            }
+            // Callees start at the left edge of their caller
+            nextOffsets[depth + 1] = offset;
+            try {
+                frame(depth, method, offset, totalSamples);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+
+        /**
+         * Writes one box; depth -1 is the root below all call paths.
+         */
+        private void frame(int depth, String method, long offset, long totalSamples) throws IOException {
+            double x = PADDING + offset * scale;
+            double boxWidth = totalSamples * scale;
+            int y = height - PADDING - (depth + 2) * FRAME_HEIGHT;
+
+            out.append("<g><title>");
+            appendEscaped(out, method, 0, method.length());
+            out.append(" (").append(Long.toString(totalSamples)).append(totalSamples == 1 ? " thread, " : " threads, ");
+            appendDecimal(out, 100.0 * totalSamples / samples);
+            out.append("%)</title><rect x=\"");
+            appendDecimal(out, x);
+            out.append("\" y=\"").append(Integer.toString(y)).append("\" width=\"");
+            appendDecimal(out, boxWidth);
+            out.append("\" height=\"").append(Integer.toString(FRAME_HEIGHT - 1)).append("\" fill=\"");
+            appendColor(out, method);
+            out.append("\"/>");
+
+            int labelChars = (int) ((boxWidth - 2 * TEXT_INSET) / CHAR_WIDTH);
+            if (labelChars >= MIN_LABEL_CHARS) {
+                out.append("<text x=\"");
+                appendDecimal(out, x + TEXT_INSET);
+                out.append("\" y=\"").append(Integer.toString(y + FRAME_HEIGHT - 4)).append("\">");
+                if (method.length() <= labelChars) {
+                    appendEscaped(out, method, 0, method.length());
+                } else {
+                    appendEscaped(out, method, 0, labelChars - 2);
+                    out.append("..");
+                }
+                out.append("</text>");
+            }
+            out.append("</g>\n");
+        }
+    }
+
+    /**
+     * Appends a warm colour derived from the method name, so a method has the same colour in every graph.
+     */
+    private static void appendColor(Appendable out, String method) throws IOException {
+        int hash = method.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        int red = 205 + (hash & 0xFF) * 50 / 255;
+        int green = ((hash >>> 8) & 0xFF) * 230 / 255;
+        int blue = ((hash >>> 16) & 0xFF) * 55 / 255;
+        out.append("rgb(").append(Integer.toString(red)).append(',').append(Integer.toString(green)).append(',')
+                .append(Integer.toString(blue)).append(')');
+    }
+
+    /**
+     * Appends a non-negative number rounded to two decimals, without trailing zeros.
+     */
+    private static void appendDecimal(Appendable out, double value) throws IOException {
+        long hundredths = Math.round(value * 100);
+        out.append(Long.toString(hundredths / 100));
+        int fraction = (int) (hundredths % 100);
+        if (fraction != 0) {
+            out.append('.');
+            if (fraction < 10) {
+                out.append('0');
+            }
+            out.append(Integer.toString(fraction % 10 == 0 ? fraction / 10 : fraction));
+        }
+    }
+
+    private static void appendEscaped(Appendable out, String text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
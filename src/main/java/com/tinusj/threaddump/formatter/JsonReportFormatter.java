@@ -1,6 +1,8 @@
 package com.tinusj.threaddump.formatter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.tinusj.threaddump.model.DiagnosticReport;
@@ -8,6 +10,9 @@ import com.tinusj.threaddump.enums.ReportFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Formats diagnostic reports as JSON.
  */
@@ -16,24 +21,33 @@ import org.springframework.stereotype.Component;
 public class JsonReportFormatter implements ReportFormatter {
     
     private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
     
     public JsonReportFormatter() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = objectMapper.writerFor(DiagnosticReport.class);
     }
     
     @Override
     public String format(DiagnosticReport report) {
         try {
-            return objectMapper.writeValueAsString(report);
+            return writer.writeValueAsString(report);
         } catch (Exception e) {
             log.error("Error formatting report as JSON", e);
             return "{\"error\": \"Failed to format report as JSON: " + e.getMessage() + "\"}";
         }
     }
     
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        // The generator fills its own fixed-size buffer and hands it to the stream whenever it is full
+        writer.writeValue(out, report);
+    }
+    
     @Override
     public ReportFormat getFormat() {
         return ReportFormat.JSON;
@@ -3,6 +3,9 @@ package com.tinusj.threaddump.formatter;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.enums.ReportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Interface for formatting diagnostic reports in different output formats.
  */
@@ -16,10 +19,21 @@ public interface ReportFormatter {
      */
     String format(DiagnosticReport report);
     
+    /**
+     * Writes the diagnostic report to a stream as it is formatted, through a buffer of fixed size, so the
+     * memory used does not grow with the size of the report. Text formats are written as UTF-8.
+     * The stream is flushed but not closed.
+     * 
+     * @param report the diagnostic report to format
+     * @param out the destination
+     * @throws IOException if writing to the stream fails
+     */
+    void writeTo(DiagnosticReport report, OutputStream out) throws IOException;
+    
     /**
      * Returns the format type this formatter handles.
      * 
      * @return the report format
      */
     ReportFormat getFormat();
-}
\ No newline at end of file
+}
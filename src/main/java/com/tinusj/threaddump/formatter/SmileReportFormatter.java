@@ -0,0 +1,26 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tinusj.threaddump.enums.ReportFormat;
+import org.springframework.stereotype.Component;
+
+/**
+ * Formats diagnostic reports as Smile, Jackson's binary JSON. Repeated property names and short
+ * string values, such as thread states, are written once and then referenced.
+ */
+@Component
+public class SmileReportFormatter extends BinaryReportFormatter {
+    
+    public SmileReportFormatter() {
+        super(new SmileMapper(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()));
+    }
+    
+    @Override
+    public ReportFormat getFormat() {
+        return ReportFormat.SMILE;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.StackReportProperties;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.CallTree;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class of the formats that show the stacks of the analyzed dump rather than its findings. The stacks
+ * are folded into a {@link CallTree} of methods, so the output grows with the number of distinct call paths
+ * and not with the number of threads.
+ * <p>
+ * The parsed dump is taken from the {@link ParsedDumpStore}. A report whose dump is no longer stored, or that
+ * was not made from a single dump (e.g. a diff), is written without stacks.
+ */
+@Slf4j
+public abstract class StackReportFormatter implements ReportFormatter {
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private final ParsedDumpStore parsedDumpStore;
+    private final int maxNodes;
+
+    protected StackReportFormatter(ParsedDumpStore parsedDumpStore, StackReportProperties properties) {
+        this.parsedDumpStore = parsedDumpStore;
+        this.maxNodes = properties.getMaxNodes();
+    }
+
+    @Override
+    public String format(DiagnosticReport report) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            StackSource stacks = stacksOf(report.id(), null, null);
+            write(stacks.tree(), stacks.title(), sb);
+            return sb.toString();
+
+        } catch (Exception e) {
+            log.error("Error formatting report as {}", getFormat(), e);
+            return "Error: Failed to format report as " + getFormat() + ": " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        writeStacks(report.id(), null, null, out);
+    }
+
+    /**
+     * Writes the stacks of the dump a report was made from, optionally only those of the threads in one
+     * state and/or logical group.
+     *
+     * @param reportId the report id
+     * @param state the state of the threads to include, or null for every state
+     * @param group the logical group of the threads to include, or null for every group
+     * @param out the destination, written as UTF-8, flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeStacks(String reportId, ThreadState state, String group, OutputStream out) throws IOException {
+        StackSource stacks = stacksOf(reportId, state, group);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        write(stacks.tree(), stacks.title(), writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes a call tree in this format.
+     *
+     * @param tree the folded stacks
+     * @param title a description of the stacks, e.g. the report and the threads they were taken from
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    protected abstract void write(CallTree tree, String title, Appendable out) throws IOException;
+
+    private StackSource stacksOf(String reportId, ThreadState state, String group) {
+        StringBuilder title = new StringBuilder("Report ").append(reportId);
+        return parsedDumpStore.get(reportId)
+                .map(stored -> {
+                    title.append(" (").append(stored.source()).append(')');
+                    if (state != null) {
+                        title.append(", ").append(state).append(" threads");
+                    }
+                    if (group != null) {
+                        title.append(", group ").append(group);
+                    }
+                    return new StackSource(stored.dump().callTree(state, group, maxNodes), title.toString());
+                })
+                .orElseGet(() -> {
+                    log.debug("No parsed dump stored for report {}, writing it without stacks", reportId);
+                    return new StackSource(new CallTree(1), title.append(", stacks not available").toString());
+                });
+    }
+
+    private record StackSource(CallTree tree, String title) {
+    }
+}
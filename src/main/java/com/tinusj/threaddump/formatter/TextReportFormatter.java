@@ -1,108 +1,259 @@
 package com.tinusj.threaddump.formatter;
 
+import com.tinusj.threaddump.config.TextReportProperties;
 import com.tinusj.threaddump.model.DiagnosticFinding;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.enums.ThreadState;
 import com.tinusj.threaddump.model.ThreadStatistics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Formats diagnostic reports as plain text.
+ * <p>
+ * Text reports are rendered at a high rate (e.g. for chat alerts), so the renderer appends every value
+ * straight to the destination, numbers digit by digit, instead of building intermediate strings with
+ * {@code String.format}. The destination is sized once from an estimate of the report length, and the
+ * affected threads of a finding are listed up to {@code max-affected-threads}, followed by "+N more".
  */
 @Component
 @Slf4j
 public class TextReportFormatter implements ReportFormatter {
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int WRITE_BUFFER_SIZE = 8192;
+    
+    /**
+     * Upper bounds of the characters the renderer adds around the strings of a report, for the size estimate.
+     */
+    private static final int FIXED_LENGTH = 320;
+    private static final int STATISTICS_LENGTH = 192;
+    private static final int STATE_LINE_LENGTH = 32;
+    private static final int FINDING_LENGTH = 112;
+    private static final int AFFECTED_THREAD_SEPARATOR_LENGTH = 2;
+    private static final int MORE_THREADS_LENGTH = 24;
+    private static final int FIX_LENGTH = 16;
+    
+    private final int maxAffectedThreads;
+    
+    /**
+     * Creates a formatter with the default settings.
+     */
+    public TextReportFormatter() {
+        this(new TextReportProperties());
+    }
+    
+    /**
+     * Creates a formatter configured by the {@code thread-dump.reports.text} properties.
+     */
+    @Autowired
+    public TextReportFormatter(TextReportProperties properties) {
+        this.maxAffectedThreads = properties.getMaxAffectedThreads();
+    }
     
     @Override
     public String format(DiagnosticReport report) {
         try {
-            StringBuilder sb = new StringBuilder();
-            
-            // Header
-            sb.append("THREAD DUMP DIAGNOSTIC REPORT\n");
-            sb.append("============================\n\n");
-            
-            // Basic info
-            sb.append("Report ID: ").append(report.id()).append("\n");
-            sb.append("Timestamp: ").append(report.timestamp().format(DATE_FORMATTER)).append("\n");
-            sb.append("Source: ").append(report.source()).append("\n");
-            sb.append("Status: ").append(report.status()).append("\n\n");
+            StringBuilder sb = new StringBuilder(estimateLength(report));
+            render(report, sb);
+            return sb.toString();
             
-            // Summary
-            sb.append("SUMMARY\n");
-            sb.append("-------\n");
-            sb.append(report.summary()).append("\n\n");
+        } catch (Exception e) {
+            log.error("Error formatting report as text", e);
+            return "Error: Failed to format report as text: " + e.getMessage();
+        }
+    }
+    
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        int bufferSize = Math.min(estimateLength(report), WRITE_BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+        render(report, writer);
+        writer.flush();
+    }
+    
+    /**
+     * Estimates the length of the text report from the lengths of its strings. The estimate is an upper
+     * bound, so a destination sized by it is never resized.
+     *
+     * @param report the diagnostic report
+     * @return the estimated number of characters
+     */
+    int estimateLength(DiagnosticReport report) {
+        int length = FIXED_LENGTH + lengthOf(report.id()) + lengthOf(report.source()) + lengthOf(report.summary());
+        
+        ThreadStatistics stats = report.statistics();
+        if (stats != null) {
+            length += STATISTICS_LENGTH;
+            if (stats.threadsByState() != null) {
+                length += stats.threadsByState().size() * STATE_LINE_LENGTH;
+            }
+        }
+        
+        if (report.findings() != null) {
+            for (DiagnosticFinding finding : report.findings()) {
+                length += FINDING_LENGTH + lengthOf(finding.type()) + lengthOf(finding.description())
+                        + lengthOf(finding.recommendation());
+                List<String> threads = finding.affectedThreads();
+                if (threads != null) {
+                    int listed = listedThreads(threads);
+                    for (int i = 0; i < listed; i++) {
+                        length += lengthOf(threads.get(i)) + AFFECTED_THREAD_SEPARATOR_LENGTH;
+                    }
+                    if (listed < threads.size()) {
+                        length += MORE_THREADS_LENGTH;
+                    }
+                }
+            }
+        }
+        
+        if (report.suggestedFixes() != null) {
+            for (String fix : report.suggestedFixes()) {
+                length += FIX_LENGTH + lengthOf(fix);
+            }
+        }
+        return length;
+    }
+    
+    /**
+     * Appends the text report section by section, so a {@link Writer} destination never holds more than its buffer.
+     */
+    private void render(DiagnosticReport report, Appendable sb) throws IOException {
+        // Header
+        sb.append("THREAD DUMP DIAGNOSTIC REPORT\n");
+        sb.append("============================\n\n");
+        
+        // Basic info
+        sb.append("Report ID: ").append(report.id()).append('\n');
+        sb.append("Timestamp: ");
+        DATE_FORMATTER.formatTo(report.timestamp(), sb);
+        sb.append('\n');
+        sb.append("Source: ").append(report.source()).append('\n');
+        sb.append("Status: ").append(String.valueOf(report.status())).append("\n\n");
+        
+        // Summary
+        sb.append("SUMMARY\n");
+        sb.append("-------\n");
+        sb.append(report.summary()).append("\n\n");
+        
+        // Statistics
+        if (report.statistics() != null) {
+            ThreadStatistics stats = report.statistics();
+            sb.append("THREAD STATISTICS\n");
+            sb.append("-----------------\n");
+            appendNumber(sb.append("Total Threads: "), stats.totalThreads()).append('\n');
+            appendNumber(sb.append("Daemon Threads: "), stats.daemonThreads()).append('\n');
+            appendNumber(sb.append("Runnable Threads: "), stats.runnableThreads()).append('\n');
+            appendNumber(sb.append("Blocked Threads: "), stats.blockedThreads()).append('\n');
+            appendNumber(sb.append("Waiting Threads: "), stats.waitingThreads()).append("\n\n");
             
-            // Statistics
-            if (report.statistics() != null) {
-                ThreadStatistics stats = report.statistics();
-                sb.append("THREAD STATISTICS\n");
-                sb.append("-----------------\n");
-                sb.append("Total Threads: ").append(stats.totalThreads()).append("\n");
-                sb.append("Daemon Threads: ").append(stats.daemonThreads()).append("\n");
-                sb.append("Runnable Threads: ").append(stats.runnableThreads()).append("\n");
-                sb.append("Blocked Threads: ").append(stats.blockedThreads()).append("\n");
-                sb.append("Waiting Threads: ").append(stats.waitingThreads()).append("\n\n");
-                
-                if (stats.threadsByState() != null && !stats.threadsByState().isEmpty()) {
-                    sb.append("Threads by State:\n");
-                    stats.threadsByState().forEach((state, count) ->
-                            sb.append("  ").append(state).append(": ").append(count).append("\n"));
-                    sb.append("\n");
+            if (stats.threadsByState() != null && !stats.threadsByState().isEmpty()) {
+                sb.append("Threads by State:\n");
+                for (Map.Entry<ThreadState, Integer> entry : stats.threadsByState().entrySet()) {
+                    sb.append("  ").append(String.valueOf(entry.getKey())).append(": ");
+                    appendNumber(sb, entry.getValue()).append('\n');
                 }
+                sb.append('\n');
             }
+        }
+        
+        // Findings
+        if (report.findings() != null && !report.findings().isEmpty()) {
+            sb.append("DIAGNOSTIC FINDINGS\n");
+            sb.append("-------------------\n");
             
-            // Findings
-            if (report.findings() != null && !report.findings().isEmpty()) {
-                sb.append("DIAGNOSTIC FINDINGS\n");
-                sb.append("-------------------\n");
+            for (int i = 0; i < report.findings().size(); i++) {
+                DiagnosticFinding finding = report.findings().get(i);
+                appendNumber(sb, i + 1).append(". ").append(finding.type())
+                        .append(" [").append(String.valueOf(finding.severity())).append("]\n");
+                sb.append("   Description: ").append(finding.description()).append('\n');
                 
-                for (int i = 0; i < report.findings().size(); i++) {
-                    DiagnosticFinding finding = report.findings().get(i);
-                    sb.append(String.format("%d. %s [%s]\n", i + 1, finding.type(), finding.severity()));
-                    sb.append("   Description: ").append(finding.description()).append("\n");
-                    
-                    if (finding.affectedThreads() != null && !finding.affectedThreads().isEmpty()) {
-                        sb.append("   Affected Threads: ").append(String.join(", ", finding.affectedThreads())).append("\n");
+                List<String> threads = finding.affectedThreads();
+                if (threads != null && !threads.isEmpty()) {
+                    sb.append("   Affected Threads: ");
+                    int listed = listedThreads(threads);
+                    for (int j = 0; j < listed; j++) {
+                        if (j > 0) {
+                            sb.append(", ");
+                        }
+                        sb.append(threads.get(j));
                     }
-                    
-                    if (finding.recommendation() != null) {
-                        sb.append("   Recommendation: ").append(finding.recommendation()).append("\n");
+                    if (listed < threads.size()) {
+                        appendNumber(sb.append(", +"), threads.size() - listed).append(" more");
                     }
-                    
-                    sb.append("\n");
+                    sb.append('\n');
                 }
-            }
-            
-            // Suggested fixes
-            if (report.suggestedFixes() != null && !report.suggestedFixes().isEmpty()) {
-                sb.append("SUGGESTED FIXES\n");
-                sb.append("---------------\n");
                 
-                for (int i = 0; i < report.suggestedFixes().size(); i++) {
-                    sb.append(String.format("%d. %s\n", i + 1, report.suggestedFixes().get(i)));
+                if (finding.recommendation() != null) {
+                    sb.append("   Recommendation: ").append(finding.recommendation()).append('\n');
                 }
-                sb.append("\n");
+                
+                sb.append('\n');
             }
+        }
+        
+        // Suggested fixes
+        if (report.suggestedFixes() != null && !report.suggestedFixes().isEmpty()) {
+            sb.append("SUGGESTED FIXES\n");
+            sb.append("---------------\n");
             
-            // Footer
-            sb.append("End of Report\n");
-            
-            return sb.toString();
-            
-        } catch (Exception e) {
-            log.error("Error formatting report as text", e);
-            return "Error: Failed to format report as text: " + e.getMessage();
+            for (int i = 0; i < report.suggestedFixes().size(); i++) {
+                appendNumber(sb, i + 1).append(". ").append(report.suggestedFixes().get(i)).append('\n');
+            }
+            sb.append('\n');
         }
+        
+        // Footer
+        sb.append("End of Report\n");
+    }
+    
+    private int listedThreads(List<String> threads) {
+        return maxAffectedThreads > 0 ? Math.min(threads.size(), maxAffectedThreads) : threads.size();
+    }
+    
+    /**
+     * Appends a number in decimal without converting it to a string first.
+     */
+    private static Appendable appendNumber(Appendable out, int number) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            return sb.append(number);
+        }
+        long value = number;
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+        return out;
+    }
+    
+    /**
+     * Returns the length of a string as appended, where null is appended as "null".
+     */
+    private static int lengthOf(String value) {
+        return value != null ? value.length() : 4;
     }
     
     @Override
     public ReportFormat getFormat() {
         return ReportFormat.TEXT;
     }
-}
\ No newline at end of file
+}
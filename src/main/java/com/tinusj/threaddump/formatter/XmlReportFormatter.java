@@ -1,5 +1,7 @@
 package com.tinusj.threaddump.formatter;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -8,6 +10,9 @@ import com.tinusj.threaddump.enums.ReportFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Formats diagnostic reports as XML.
  */
@@ -16,24 +21,32 @@ import org.springframework.stereotype.Component;
 public class XmlReportFormatter implements ReportFormatter {
     
     private final XmlMapper xmlMapper;
+    private final ObjectWriter writer;
     
     public XmlReportFormatter() {
         this.xmlMapper = new XmlMapper();
         this.xmlMapper.registerModule(new JavaTimeModule());
         this.xmlMapper.enable(SerializationFeature.INDENT_OUTPUT);
         this.xmlMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.xmlMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.writer = xmlMapper.writerFor(DiagnosticReport.class);
     }
     
     @Override
     public String format(DiagnosticReport report) {
         try {
-            return xmlMapper.writeValueAsString(report);
+            return writer.writeValueAsString(report);
         } catch (Exception e) {
             log.error("Error formatting report as XML", e);
             return "<error>Failed to format report as XML: " + e.getMessage() + "</error>";
         }
     }
     
+    @Override
+    public void writeTo(DiagnosticReport report, OutputStream out) throws IOException {
+        writer.writeValue(out, report);
+    }
+    
     @Override
     public ReportFormat getFormat() {
         return ReportFormat.XML;
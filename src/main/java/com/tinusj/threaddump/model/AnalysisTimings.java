@@ -0,0 +1,20 @@
+package com.tinusj.threaddump.model;
+
+import java.util.Map;
+
+/**
+ * Time spent in each stage of a thread dump analysis, in milliseconds,
+ * including the execution time of each diagnostic rule by rule name.
+ */
+public record AnalysisTimings(
+    long parseMillis,
+    long statisticsMillis,
+    long findingsMillis,
+    long totalMillis,
+    Map<String, Long> ruleMillis
+) {
+
+    public AnalysisTimings(long parseMillis, long statisticsMillis, long findingsMillis, long totalMillis) {
+        this(parseMillis, statisticsMillis, findingsMillis, totalMillis, Map.of());
+    }
+}
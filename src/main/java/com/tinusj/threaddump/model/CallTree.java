@@ -0,0 +1,341 @@
+package com.tinusj.threaddump.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Call tree aggregating many sampled stacks, as used by a sampling profiler. Each node is one method
+ * on one call path from the root, so memory grows with the number of distinct call paths and not with
+ * the number of stacks added.
+ * <p>
+ * Methods are interned once into a tree-wide {@link FrameTable} and nodes are kept in primitive arrays:
+ * the parent, method id and sample counts of a node, plus an open-addressing table from
+ * {@code (parent, method id)} to child node. Adding a stack translates its frame ids through a cache
+ * that is built once per source {@link FrameTable} (i.e. once per sampled dump), so folding a stack
+ * costs one lookup per frame and allocates nothing once its path exists.
+ * <p>
+ * At most {@code maxNodes} nodes are created. A stack whose path would need more is counted at the
+ * deepest node that already exists and reported by {@link #truncatedStacks()}.
+ * Instances are not thread-safe.
+ */
+public final class CallTree {
+
+    private static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String FRAME_SEPARATOR = ";";
+
+    private final int maxNodes;
+    private final FrameTable methods = new FrameTable();
+
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] methodIds = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private long[] totalCounts = new long[INITIAL_CAPACITY];
+    private long[] selfCounts = new long[INITIAL_CAPACITY];
+    /**
+     * Open-addressing hash slots holding child node + 1, or 0 for an empty slot.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+    private long stackCount;
+    private long truncatedStacks;
+
+    private FrameTable cachedSource;
+    private int[] cachedTranslation;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param maxNodes the most nodes the tree may hold, including the root
+     * @throws IllegalArgumentException if {@code maxNodes} is less than 1
+     */
+    public CallTree(int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("A call tree needs room for at least its root");
+        }
+        this.maxNodes = maxNodes;
+        parents[ROOT] = -1;
+        methodIds[ROOT] = -1;
+        firstChildren[ROOT] = -1;
+        nextSiblings[ROOT] = -1;
+        size = 1;
+    }
+
+    /**
+     * Adds one sampled stack. Empty stacks are ignored.
+     *
+     * @param stack the stack, top of stack first
+     * @return false if the stack did not fit and was counted at a shorter path, true otherwise
+     */
+    public boolean add(FrameStack stack) {
+        if (stack.isEmpty()) {
+            return true;
+        }
+        int[] translation = translation(stack.table());
+        stackCount++;
+        totalCounts[ROOT]++;
+        int node = ROOT;
+        for (int i = stack.size() - 1; i >= 0; i--) {
+            int frameId = stack.frameId(i);
+            if (translation[frameId] < 0) {
+                String method = stack.table().frame(frameId).methodKey();
+                translation[frameId] = methods.intern(method, 0, method.length());
+            }
+            int child = child(node, translation[frameId]);
+            if (child < 0) {
+                selfCounts[node]++;
+                truncatedStacks++;
+                return false;
+            }
+            node = child;
+            totalCounts[node]++;
+        }
+        selfCounts[node]++;
+        return true;
+    }
+
+    /**
+     * Returns the number of stacks added.
+     */
+    public long stackCount() {
+        return stackCount;
+    }
+
+    /**
+     * Returns the number of stacks that were counted at a shorter path because the tree was full.
+     */
+    public long truncatedStacks() {
+        return truncatedStacks;
+    }
+
+    /**
+     * Returns the number of nodes, including the root.
+     */
+    public int nodeCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct methods in the tree.
+     */
+    public int methodCount() {
+        return methods.size();
+    }
+
+    /**
+     * Writes the tree in collapsed-stack format, as read by flame graph tools: one line per call path
+     * that ended a sampled stack, with the methods from the root down separated by {@code ;} and
+     * followed by a space and the number of stacks that ended there.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeCollapsed(Appendable out) throws IOException {
+        StringBuilder path = new StringBuilder();
+        int[] pathLengths = new int[INITIAL_CAPACITY];
+        int depth = 0;
+        int node = firstChildren[ROOT];
+        while (node >= 0) {
+            // Enter node
+            if (depth == pathLengths.length) {
+                pathLengths = Arrays.copyOf(pathLengths, depth * 2);
+            }
+            pathLengths[depth++] = path.length();
+            if (path.length() > 0) {
+                path.append(FRAME_SEPARATOR);
+            }
+            path.append(methods.frame(methodIds[node]).text());
+            if (selfCounts[node] > 0) {
+                out.append(path).append(' ').append(Long.toString(selfCounts[node])).append('\n');
+            }
+            if (firstChildren[node] >= 0) {
+                node = firstChildren[node];
+                continue;
+            }
+            // Leave the node and every ancestor that has no further sibling
+            while (node >= 0 && nextSiblings[node] < 0) {
+                path.setLength(pathLengths[--depth]);
+                node = parents[node] == ROOT ? -1 : parents[node];
+            }
+            if (node >= 0) {
+                path.setLength(pathLengths[--depth]);
+                node = nextSiblings[node];
+            }
+        }
+    }
+
+    /**
+     * Visits every node below the root depth first, each node before its children, e.g. to lay out a
+     * flame graph. Siblings are visited in a stable but unspecified order.
+     *
+     * @param visitor the visitor; when it returns false for a node, the children of that node are skipped
+     */
+    public void visit(NodeVisitor visitor) {
+        int depth = 0;
+        int node = firstChildren[ROOT];
+        while (node >= 0) {
+            boolean descend = visitor.visit(depth, methods.frame(methodIds[node]).text(), totalCounts[node],
+                    selfCounts[node]);
+            if (descend && firstChildren[node] >= 0) {
+                node = firstChildren[node];
+                depth++;
+                continue;
+            }
+            while (node >= 0 && nextSiblings[node] < 0) {
+                node = parents[node] == ROOT ? -1 : parents[node];
+                depth--;
+            }
+            if (node >= 0) {
+                node = nextSiblings[node];
+            }
+        }
+    }
+
+    /**
+     * Returns the sample counts per method, most self samples first. Self samples are the stacks the
+     * method was on top of; total samples are the stacks it appeared in anywhere, counted once per
+     * stack even when the method recurses.
+     *
+     * @return the counts of every method that appears in the tree
+     */
+    public List<MethodSamples> methodSamples() {
+        long[] self = new long[methods.size()];
+        long[] total = new long[methods.size()];
+        // Nodes of a method that are already on the path from the root, to count recursion once
+        int[] onPath = new int[methods.size()];
+        int node = firstChildren[ROOT];
+        while (node >= 0) {
+            int methodId = methodIds[node];
+            self[methodId] += selfCounts[node];
+            if (onPath[methodId]++ == 0) {
+                total[methodId] += totalCounts[node];
+            }
+            if (firstChildren[node] >= 0) {
+                node = firstChildren[node];
+                continue;
+            }
+            while (node >= 0 && nextSiblings[node] < 0) {
+                onPath[methodIds[node]]--;
+                node = parents[node] == ROOT ? -1 : parents[node];
+            }
+            if (node >= 0) {
+                onPath[methodIds[node]]--;
+                node = nextSiblings[node];
+            }
+        }
+
+        List<MethodSamples> samples = new ArrayList<>(methods.size());
+        for (int methodId = 0; methodId < methods.size(); methodId++) {
+            samples.add(new MethodSamples(methods.frame(methodId).text(), self[methodId], total[methodId]));
+        }
+        samples.sort(Comparator.comparingLong(MethodSamples::selfSamples).reversed()
+                .thenComparing(Comparator.comparingLong(MethodSamples::totalSamples).reversed()));
+        return samples;
+    }
+
+    /**
+     * Returns the translation of frame ids of the given table to method ids, reusing the previous one
+     * while stacks of the same dump are added. A dump that is parsed while it is folded keeps adding
+     * frames to its table, so the translation grows along with it.
+     */
+    private int[] translation(FrameTable source) {
+        if (source != cachedSource) {
+            cachedSource = source;
+            cachedTranslation = new int[source.size()];
+            Arrays.fill(cachedTranslation, -1);
+        } else if (cachedTranslation.length < source.size()) {
+            int known = cachedTranslation.length;
+            cachedTranslation = Arrays.copyOf(cachedTranslation, Math.max(source.size(), known * 2));
+            Arrays.fill(cachedTranslation, known, cachedTranslation.length, -1);
+        }
+        return cachedTranslation;
+    }
+
+    /**
+     * Returns the child of the node for the method, creating it if needed, or -1 if the tree is full.
+     */
+    private int child(int parent, int methodId) {
+        int hash = mix(31 * parent + methodId);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int node = slots[slot] - 1;
+            if (node < 0) {
+                return size < maxNodes ? add(parent, methodId, slot) : -1;
+            }
+            if (parents[node] == parent && methodIds[node] == methodId) {
+                return node;
+            }
+        }
+    }
+
+    private int add(int parent, int methodId, int slot) {
+        if (size == parents.length) {
+            int capacity = size * 2;
+            parents = Arrays.copyOf(parents, capacity);
+            methodIds = Arrays.copyOf(methodIds, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            totalCounts = Arrays.copyOf(totalCounts, capacity);
+            selfCounts = Arrays.copyOf(selfCounts, capacity);
+        }
+        int node = size++;
+        parents[node] = parent;
+        methodIds[node] = methodId;
+        firstChildren[node] = -1;
+        nextSiblings[node] = firstChildren[parent];
+        firstChildren[parent] = node;
+        slots[slot] = node + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int node = ROOT + 1; node < size; node++) {
+            int slot = mix(31 * parents[node] + methodIds[node]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = node + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Receives the nodes of a tree from {@link #visit(NodeVisitor)}.
+     */
+    @FunctionalInterface
+    public interface NodeVisitor {
+
+        /**
+         * Visits one node.
+         *
+         * @param depth the depth of the node, 0 for the children of the root
+         * @param method the fully qualified method of the node
+         * @param totalSamples stacks that passed through the node
+         * @param selfSamples stacks that ended at the node
+         * @return whether to visit the children of the node
+         */
+        boolean visit(int depth, String method, long totalSamples, long selfSamples);
+    }
+
+    /**
+     * Sample counts of one method.
+     *
+     * @param method the fully qualified method
+     * @param selfSamples stacks the method was on top of
+     * @param totalSamples stacks the method appeared in
+     */
+    public record MethodSamples(String method, long selfSamples, long totalSamples) {}
+}
@@ -0,0 +1,14 @@
+package com.tinusj.threaddump.model;
+
+/**
+ * Request to capture a series of thread dumps from one process.
+ *
+ * @param pid the process ID of the Java process
+ * @param count number of thread dumps to capture
+ * @param intervalMillis time between the starts of consecutive captures
+ */
+public record CaptureSessionRequest(
+    long pid,
+    int count,
+    long intervalMillis
+) {}
@@ -0,0 +1,49 @@
+package com.tinusj.threaddump.model;
+
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress and results of a capture session, as returned by the session API.
+ *
+ * @param id the session id
+ * @param pid the process ID being sampled
+ * @param status the session status
+ * @param requestedSamples number of samples requested
+ * @param intervalMillis time between the starts of consecutive captures
+ * @param startedAt when the session started
+ * @param finishedAt when the session finished, null while running
+ * @param samples the samples captured so far, in sequence order
+ * @param errors one message per sample that could not be captured
+ */
+public record CaptureSessionSummary(
+    String id,
+    long pid,
+    CaptureSessionStatus status,
+    int requestedSamples,
+    long intervalMillis,
+    Instant startedAt,
+    Instant finishedAt,
+    List<Sample> samples,
+    List<String> errors
+) {
+
+    /**
+     * A captured sample without its thread details.
+     *
+     * @param sequence position of the sample in the session, starting at 0
+     * @param scheduledAt when the sample was due
+     * @param capturedAt when the capture started
+     * @param captureMillis how long capturing and parsing took
+     * @param threadCount number of threads in the dump
+     */
+    public record Sample(
+        int sequence,
+        Instant scheduledAt,
+        Instant capturedAt,
+        long captureMillis,
+        int threadCount
+    ) {}
+}
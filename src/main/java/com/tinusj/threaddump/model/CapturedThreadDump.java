@@ -0,0 +1,21 @@
+package com.tinusj.threaddump.model;
+
+/**
+ * A thread dump captured from a local process, with the CPU time its threads consumed during the capture.
+ * A dump that was parsed while it was being captured carries the parsed form and keeps its text only if
+ * the caller asked for it.
+ *
+ * @param content the thread dump text, or null if it was parsed during the capture and not kept
+ * @param dump the parsed thread dump, or null if only the text was captured
+ * @param cpuSample the CPU time per native thread, or null if it could not be measured
+ */
+public record CapturedThreadDump(
+    String content,
+    ParsedThreadDump dump,
+    ThreadCpuSample cpuSample
+) {
+
+    public CapturedThreadDump(String content, ThreadCpuSample cpuSample) {
+        this(content, null, cpuSample);
+    }
+}
@@ -11,14 +11,25 @@ import java.util.List;
  */
 public record DiagnosticReport(
     String id,
-    
+
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     LocalDateTime timestamp,
-    
+
     String source,
     ThreadStatistics statistics,
     List<DiagnosticFinding> findings,
     List<String> suggestedFixes,
     ReportStatus status,
-    String summary
-) {}
\ No newline at end of file
+    String summary,
+    AnalysisTimings timings
+) {
+
+    /**
+     * Creates a report without stage timings.
+     */
+    public DiagnosticReport(String id, LocalDateTime timestamp, String source, ThreadStatistics statistics,
+                            List<DiagnosticFinding> findings, List<String> suggestedFixes,
+                            ReportStatus status, String summary) {
+        this(id, timestamp, source, statistics, findings, suggestedFixes, status, summary, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.tinusj.threaddump.model;
+
+import java.util.List;
+
+/**
+ * Request to capture and analyze thread dumps of many local processes at once.
+ *
+ * @param pids the process IDs to capture; if empty, every running Java process is selected
+ * @param mainClassPattern regular expression that must be found in a process' main class or jar, or null for all
+ * @param timeoutMillis time allowed to capture and analyze one process, or 0 for the configured default
+ */
+public record FleetCaptureRequest(
+    List<Long> pids,
+    String mainClassPattern,
+    long timeoutMillis
+) {}
@@ -0,0 +1,65 @@
+package com.tinusj.threaddump.model;
+
+import com.tinusj.threaddump.enums.FleetCaptureOutcome;
+import com.tinusj.threaddump.enums.Severity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combined result of capturing and analyzing many local processes at once.
+ *
+ * @param startedAt when the captures started
+ * @param wallMillis time from the start of the first capture to the end of the last one
+ * @param slowestMillis time taken by the slowest single process
+ * @param processCount number of processes selected
+ * @param succeeded number of processes captured and analyzed
+ * @param failed number of processes whose capture or analysis failed
+ * @param timedOut number of processes that did not finish within the timeout
+ * @param processesBySeverity number of analyzed processes by the highest severity among their findings
+ * @param processesByFindingType number of analyzed processes with at least one finding of each type
+ * @param processes the result of each process, in the order they were selected
+ */
+public record FleetCaptureSummary(
+    Instant startedAt,
+    long wallMillis,
+    long slowestMillis,
+    int processCount,
+    int succeeded,
+    int failed,
+    int timedOut,
+    Map<Severity, Integer> processesBySeverity,
+    Map<String, Integer> processesByFindingType,
+    List<ProcessResult> processes
+) {
+
+    /**
+     * Result of capturing and analyzing one process.
+     *
+     * @param pid the process ID
+     * @param mainClass the main class or jar of the process, null if it is not a known Java process
+     * @param outcome whether the process was analyzed
+     * @param millis time taken to capture and analyze the process, including waiting for a free slot
+     * @param reportId the id of the diagnostic report, null unless analyzed
+     * @param totalThreads number of threads in the dump
+     * @param blockedThreads number of BLOCKED threads in the dump
+     * @param highestSeverity the highest severity among the findings, null if there are none
+     * @param findingTypes the distinct finding types, in report order
+     * @param summary the report summary, null unless analyzed
+     * @param error why the process was not analyzed, null if it was
+     */
+    public record ProcessResult(
+        long pid,
+        String mainClass,
+        FleetCaptureOutcome outcome,
+        long millis,
+        String reportId,
+        int totalThreads,
+        int blockedThreads,
+        Severity highestSeverity,
+        List<String> findingTypes,
+        String summary,
+        String error
+    ) {}
+}
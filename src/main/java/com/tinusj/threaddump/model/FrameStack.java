@@ -0,0 +1,106 @@
+package com.tinusj.threaddump.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable stack trace stored as frame ids into a shared {@link FrameTable}.
+ * As a {@code List<String>} it exposes the frame lines, top of stack first; the strings are
+ * shared with every other stack containing the same frame.
+ */
+public final class FrameStack extends AbstractList<String> implements RandomAccess {
+
+    private static final FrameStack EMPTY = new FrameStack(new FrameTable(), new int[0]);
+
+    private final FrameTable table;
+    private final int[] frameIds;
+
+    private FrameStack(FrameTable table, int[] frameIds) {
+        this.table = table;
+        this.frameIds = frameIds;
+    }
+
+    /**
+     * Creates a stack over frames of the given table. The array is not copied and must not be
+     * modified afterwards.
+     *
+     * @param table the table the frame ids refer to
+     * @param frameIds the frame ids, top of stack first
+     * @return the stack
+     */
+    public static FrameStack of(FrameTable table, int[] frameIds) {
+        return new FrameStack(table, frameIds);
+    }
+
+    /**
+     * Interns the given frame lines into a table of their own.
+     *
+     * @param frames the frame lines, top of stack first
+     * @return the stack
+     */
+    public static FrameStack copyOf(List<String> frames) {
+        if (frames.isEmpty()) {
+            return EMPTY;
+        }
+        FrameTable table = new FrameTable();
+        int[] frameIds = new int[frames.size()];
+        for (int i = 0; i < frameIds.length; i++) {
+            String frame = frames.get(i);
+            frameIds[i] = table.intern(frame, 0, frame.length());
+        }
+        return new FrameStack(table, frameIds);
+    }
+
+    /**
+     * Returns the table the frame ids refer to.
+     */
+    public FrameTable table() {
+        return table;
+    }
+
+    /**
+     * Returns the id of the frame at the given depth.
+     */
+    public int frameId(int index) {
+        return frameIds[index];
+    }
+
+    /**
+     * Returns a copy of the frame ids, top of stack first.
+     */
+    public int[] frameIds() {
+        return frameIds.clone();
+    }
+
+    /**
+     * Returns the frame at the given depth.
+     */
+    public StackFrame frame(int index) {
+        return table.frame(frameIds[index]);
+    }
+
+    @Override
+    public String get(int index) {
+        return frame(index).text();
+    }
+
+    @Override
+    public int size() {
+        return frameIds.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof FrameStack other && other.table == table) {
+            return Arrays.equals(frameIds, other.frameIds);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
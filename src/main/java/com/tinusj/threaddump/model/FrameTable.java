@@ -0,0 +1,154 @@
+package com.tinusj.threaddump.model;
+
+import java.util.Arrays;
+
+/**
+ * Per-dump symbol table of distinct stack frames. Threads of a dump share most of their frames,
+ * so each distinct frame line is stored once and stacks refer to frames by integer id
+ * (see {@link FrameStack}). Frame ids are dense, starting at 0, in order of first appearance.
+ * <p>
+ * Frames are interned directly from the parser's line buffer: a frame line is only turned into
+ * a String the first time it is seen. A table is appended to by a single thread while a dump is
+ * parsed and is read-only afterwards.
+ */
+public final class FrameTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private StackFrame[] frames = new StackFrame[INITIAL_CAPACITY];
+    /**
+     * Lookup keys, i.e. the frame characters as seen by {@link CharSequence#charAt(int)} of the
+     * interned source. Usually the same instance as the frame text.
+     */
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    /**
+     * Open-addressing hash slots holding frame id + 1, or 0 for an empty slot.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Returns the id of the frame {@code source[start, end)}, adding it to the table if it is new.
+     *
+     * @param source the text containing the frame line
+     * @param start the start of the trimmed frame line
+     * @param end the end of the trimmed frame line
+     * @return the frame id
+     */
+    public int intern(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                String text = source.subSequence(start, end).toString();
+                String key = keyOf(source, start, end, text);
+                return add(StackFrame.parse(text), key, hash, slot);
+            }
+            if (hashes[id] == hash && contentEquals(keys[id], source, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the id of a frame of another table, adding it to this table if it is new.
+     * Used to merge tables built for separately parsed parts of a dump.
+     *
+     * @param other the table the frame belongs to
+     * @param frameId the id of the frame in the other table
+     * @return the id of the same frame in this table
+     */
+    public int intern(FrameTable other, int frameId) {
+        String key = other.keys[frameId];
+        int hash = other.hashes[frameId];
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(other.frames[frameId], key, hash, slot);
+            }
+            if (hashes[id] == hash && keys[id].equals(key)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Returns the frame with the given id.
+     */
+    public StackFrame frame(int frameId) {
+        if (frameId < 0 || frameId >= size) {
+            throw new IndexOutOfBoundsException("Unknown frame id " + frameId);
+        }
+        return frames[frameId];
+    }
+
+    /**
+     * Returns the number of distinct frames.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(StackFrame frame, String key, int hash, int slot) {
+        if (size == frames.length) {
+            frames = Arrays.copyOf(frames, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        frames[id] = frame;
+        keys[id] = key;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static String keyOf(CharSequence source, int start, int end, String text) {
+        if (contentEquals(text, source, start, end)) {
+            return text;
+        }
+        // The source exposes raw bytes rather than decoded characters (memory-mapped input)
+        StringBuilder key = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            key.append(source.charAt(i));
+        }
+        return key.toString();
+    }
+
+    private static boolean contentEquals(String key, CharSequence source, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
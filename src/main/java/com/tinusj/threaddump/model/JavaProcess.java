@@ -9,4 +9,20 @@ public record JavaProcess(
     String displayName,
     String jvmArguments,
     String applicationArguments
-) {}
\ No newline at end of file
+) {
+
+    /**
+     * Returns the name to display for a main class or jar path: the jar file name without its
+     * directory, or the main class itself.
+     */
+    public static String displayNameOf(String mainClass) {
+        if (mainClass.endsWith(".jar")) {
+            // Extract jar name without path
+            int lastSlash = mainClass.lastIndexOf('/');
+            if (lastSlash >= 0) {
+                return mainClass.substring(lastSlash + 1);
+            }
+        }
+        return mainClass;
+    }
+}
\ No newline at end of file
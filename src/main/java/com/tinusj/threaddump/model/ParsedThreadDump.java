@@ -0,0 +1,399 @@
+package com.tinusj.threaddump.model;
+
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Parsed representation of a thread dump that is built once per analysis and shared by
+ * every analysis stage, together with indexes of its threads by state, lock, group and method.
+ * All threads share one {@link FrameTable}; the method index maps each frame id to a method id
+ * once, so stack-based analysis works on integer ids rather than on frame strings.
+ * <p>
+ * Indexes are built on first use, or up front with {@link #prepare(Set)}, so an analysis only
+ * pays for the indexes its rules need. Instances are immutable and safe to share between threads.
+ * <p>
+ * A dump captured from a local process may carry a {@link ThreadCpuSample}, in which case every thread
+ * sampled by the operating system has its {@link ThreadInfo#cpuDeltaMillis()} set.
+ */
+public final class ParsedThreadDump {
+
+    private final List<ThreadInfo> threads;
+    private final FrameTable frameTable;
+    private final Function<ThreadInfo, String> groupClassifier;
+    private final ThreadCpuSample cpuSample;
+    private final Lazy<Map<ThreadState, List<ThreadInfo>>> threadsByState = new Lazy<>(this::indexByState);
+    private final Lazy<Map<String, List<ThreadInfo>>> threadsByLock = new Lazy<>(this::indexByLock);
+    private final Lazy<String[]> groupByThread = new Lazy<>(this::classifyThreads);
+    private final Lazy<Map<String, List<ThreadInfo>>> threadsByGroup = new Lazy<>(this::indexByGroup);
+    private final Lazy<MethodIndex> methodIndex = new Lazy<>(this::indexByMethod);
+
+    private ParsedThreadDump(List<ThreadInfo> threads, Function<ThreadInfo, String> groupClassifier,
+                             ThreadCpuSample cpuSample) {
+        this.threads = List.copyOf(withSharedFrameTable(threads));
+        this.frameTable = this.threads.isEmpty() ? new FrameTable() : this.threads.get(0).frames().table();
+        this.groupClassifier = groupClassifier;
+        this.cpuSample = cpuSample;
+    }
+
+    /**
+     * Builds a parsed dump from already parsed threads.
+     *
+     * @param threads the parsed threads, in dump order
+     * @param groupClassifier function assigning each thread to a logical group
+     * @return the indexed thread dump
+     */
+    public static ParsedThreadDump of(List<ThreadInfo> threads, Function<ThreadInfo, String> groupClassifier) {
+        return new ParsedThreadDump(threads, groupClassifier, null);
+    }
+
+    /**
+     * Returns a copy of this dump whose threads carry the CPU time measured for their native thread id.
+     * Threads the sample does not cover keep a {@code cpuDeltaMillis} of -1.
+     *
+     * @param sample the CPU times measured around the capture, or null
+     * @return the dump with CPU times, or this dump if the sample is null
+     */
+    public ParsedThreadDump withCpuSample(ThreadCpuSample sample) {
+        if (sample == null) {
+            return this;
+        }
+        List<ThreadInfo> sampled = new ArrayList<>(threads.size());
+        for (ThreadInfo thread : threads) {
+            sampled.add(thread.withCpuDelta(thread.nid() != 0 ? sample.cpuMillis(thread.nid()) : -1));
+        }
+        return new ParsedThreadDump(sampled, groupClassifier, sample);
+    }
+
+    /**
+     * Returns the CPU times measured around the capture of this dump, if any.
+     */
+    public Optional<ThreadCpuSample> cpuSample() {
+        return Optional.ofNullable(cpuSample);
+    }
+
+    /**
+     * Builds the given indexes now, so that concurrent readers do not wait on each other to build them.
+     *
+     * @param indexes the indexes to build
+     * @return this dump
+     */
+    public ParsedThreadDump prepare(Set<ThreadDumpIndex> indexes) {
+        for (ThreadDumpIndex index : indexes) {
+            switch (index) {
+                case STATE -> threadsByState.get();
+                case LOCK -> threadsByLock.get();
+                case GROUP -> threadsByGroup.get();
+                case FRAME -> methodIndex.get();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns all parsed threads in dump order.
+     */
+    public List<ThreadInfo> threads() {
+        return threads;
+    }
+
+    /**
+     * Returns the number of parsed threads.
+     */
+    public int size() {
+        return threads.size();
+    }
+
+    /**
+     * Returns the threads in the given state, or an empty list if there are none.
+     */
+    public List<ThreadInfo> threadsInState(ThreadState state) {
+        return threadsByState().getOrDefault(state, List.of());
+    }
+
+    /**
+     * Returns the number of threads in the given state.
+     */
+    public int countInState(ThreadState state) {
+        return threadsInState(state).size();
+    }
+
+    /**
+     * Returns the threads grouped by state.
+     */
+    public Map<ThreadState, List<ThreadInfo>> threadsByState() {
+        return threadsByState.get();
+    }
+
+    /**
+     * Returns the threads grouped by the lock they are waiting on.
+     */
+    public Map<String, List<ThreadInfo>> threadsByLock() {
+        return threadsByLock.get();
+    }
+
+    /**
+     * Returns the threads grouped by logical group (e.g. "HTTP/Web", "Database").
+     */
+    public Map<String, List<ThreadInfo>> threadsByGroup() {
+        return threadsByGroup.get();
+    }
+
+    /**
+     * Returns the logical group of the thread at the given position in {@link #threads()}.
+     * Each thread is classified once per dump.
+     */
+    public String groupOf(int threadIndex) {
+        return groupByThread.get()[threadIndex];
+    }
+
+    /**
+     * Returns the threads in the given logical group, or an empty list if there are none.
+     */
+    public List<ThreadInfo> threadsInGroup(String group) {
+        return threadsByGroup().getOrDefault(group, List.of());
+    }
+
+    /**
+     * Folds the stacks of this dump into a call tree of methods, optionally only those of the threads
+     * in one state and/or logical group. Costs one lookup per frame.
+     *
+     * @param state the state of the threads to include, or null for every state
+     * @param group the logical group of the threads to include, or null for every group
+     * @param maxNodes the most nodes the tree may hold, including the root
+     * @return the call tree
+     */
+    public CallTree callTree(ThreadState state, String group, int maxNodes) {
+        CallTree tree = new CallTree(maxNodes);
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadInfo thread = threads.get(i);
+            if ((state == null || thread.state() == state) && (group == null || group.equals(groupOf(i)))) {
+                tree.add(thread.frames());
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Returns the table of distinct stack frames shared by all threads of this dump.
+     */
+    public FrameTable frameTable() {
+        return frameTable;
+    }
+
+    /**
+     * Returns the key of the method executing the given frame (see {@link StackFrame#methodKey()}).
+     */
+    public String methodKeyOf(int frameId) {
+        MethodIndex index = methodIndex.get();
+        return index.methodKeys().get(index.methodIdByFrame()[frameId]);
+    }
+
+    /**
+     * Returns the threads grouped by each method key appearing in their stacks. A thread is listed
+     * once per method, however often the method appears in its stack, in dump order.
+     */
+    public Map<String, List<ThreadInfo>> threadsByMethod() {
+        return methodIndex.get().threadsByMethod();
+    }
+
+    /**
+     * Returns the threads whose stack contains the given method, or an empty list if there are none.
+     */
+    public List<ThreadInfo> threadsWithMethod(String methodKey) {
+        return threadsByMethod().getOrDefault(methodKey, List.of());
+    }
+
+    /**
+     * Counts how often each method appears in the stacks of the threads in the given state.
+     *
+     * @return occurrences per method key, for methods that appear at least once
+     */
+    public Map<String, Long> methodOccurrences(ThreadState state) {
+        MethodIndex index = methodIndex.get();
+        long[] counts = new long[index.methodKeys().size()];
+        for (ThreadInfo thread : threadsInState(state)) {
+            FrameStack frames = thread.frames();
+            for (int i = 0; i < frames.size(); i++) {
+                counts[index.methodIdByFrame()[frames.frameId(i)]]++;
+            }
+        }
+        Map<String, Long> occurrences = new LinkedHashMap<>();
+        for (int methodId = 0; methodId < counts.length; methodId++) {
+            if (counts[methodId] > 0) {
+                occurrences.put(index.methodKeys().get(methodId), counts[methodId]);
+            }
+        }
+        return Collections.unmodifiableMap(occurrences);
+    }
+
+    /**
+     * Sums the measured CPU time of the threads per method at the top of their stack, i.e. the method
+     * that was executing. Threads without a measured CPU time are skipped.
+     *
+     * @return CPU milliseconds per method key, for methods with a positive total
+     */
+    public Map<String, Double> topMethodCpuMillis() {
+        MethodIndex index = methodIndex.get();
+        double[] cpuMillis = new double[index.methodKeys().size()];
+        for (ThreadInfo thread : threads) {
+            if (thread.cpuDeltaMillis() > 0 && !thread.frames().isEmpty()) {
+                cpuMillis[index.methodIdByFrame()[thread.frames().frameId(0)]] += thread.cpuDeltaMillis();
+            }
+        }
+        Map<String, Double> byMethod = new LinkedHashMap<>();
+        for (int methodId = 0; methodId < cpuMillis.length; methodId++) {
+            if (cpuMillis[methodId] > 0) {
+                byMethod.put(index.methodKeys().get(methodId), cpuMillis[methodId]);
+            }
+        }
+        return Collections.unmodifiableMap(byMethod);
+    }
+
+    private Map<ThreadState, List<ThreadInfo>> indexByState() {
+        Map<ThreadState, List<ThreadInfo>> byState = new EnumMap<>(ThreadState.class);
+        for (ThreadInfo thread : threads) {
+            byState.computeIfAbsent(thread.state(), s -> new ArrayList<>()).add(thread);
+        }
+        return freeze(byState);
+    }
+
+    private Map<String, List<ThreadInfo>> indexByLock() {
+        Map<String, List<ThreadInfo>> byLock = new LinkedHashMap<>();
+        for (ThreadInfo thread : threads) {
+            if (thread.lockName() != null) {
+                byLock.computeIfAbsent(thread.lockName(), l -> new ArrayList<>()).add(thread);
+            }
+        }
+        return freeze(byLock);
+    }
+
+    private String[] classifyThreads() {
+        String[] groups = new String[threads.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = groupClassifier.apply(threads.get(i));
+        }
+        return groups;
+    }
+
+    private Map<String, List<ThreadInfo>> indexByGroup() {
+        String[] groups = groupByThread.get();
+        Map<String, List<ThreadInfo>> byGroup = new LinkedHashMap<>();
+        for (int i = 0; i < groups.length; i++) {
+            byGroup.computeIfAbsent(groups[i], g -> new ArrayList<>()).add(threads.get(i));
+        }
+        return freeze(byGroup);
+    }
+
+    private MethodIndex indexByMethod() {
+        Map<String, Integer> methodIds = new HashMap<>();
+        List<String> methodKeys = new ArrayList<>();
+        int[] methodIdByFrame = new int[frameTable.size()];
+        for (int frameId = 0; frameId < methodIdByFrame.length; frameId++) {
+            methodIdByFrame[frameId] = methodIds.computeIfAbsent(frameTable.frame(frameId).methodKey(), key -> {
+                methodKeys.add(key);
+                return methodKeys.size() - 1;
+            });
+        }
+
+        List<List<ThreadInfo>> byMethod = new ArrayList<>(methodKeys.size());
+        for (int methodId = 0; methodId < methodKeys.size(); methodId++) {
+            byMethod.add(new ArrayList<>());
+        }
+        int[] lastThread = new int[methodKeys.size()];
+        Arrays.fill(lastThread, -1);
+        for (int threadIndex = 0; threadIndex < threads.size(); threadIndex++) {
+            ThreadInfo thread = threads.get(threadIndex);
+            FrameStack frames = thread.frames();
+            for (int i = 0; i < frames.size(); i++) {
+                int methodId = methodIdByFrame[frames.frameId(i)];
+                if (lastThread[methodId] != threadIndex) {
+                    lastThread[methodId] = threadIndex;
+                    byMethod.get(methodId).add(thread);
+                }
+            }
+        }
+        Map<String, List<ThreadInfo>> threadsByMethod = new LinkedHashMap<>();
+        for (int methodId = 0; methodId < methodKeys.size(); methodId++) {
+            if (!byMethod.get(methodId).isEmpty()) {
+                threadsByMethod.put(methodKeys.get(methodId), byMethod.get(methodId));
+            }
+        }
+        return new MethodIndex(methodIdByFrame, List.copyOf(methodKeys), freeze(threadsByMethod));
+    }
+
+    /**
+     * Re-interns the stacks of threads that were not parsed together into a new, common table.
+     */
+    private static List<ThreadInfo> withSharedFrameTable(List<ThreadInfo> threads) {
+        if (threads.isEmpty()) {
+            return threads;
+        }
+        FrameTable first = threads.get(0).frames().table();
+        if (threads.stream().allMatch(thread -> thread.frames().table() == first)) {
+            return threads;
+        }
+        FrameTable frameTable = new FrameTable();
+        List<ThreadInfo> shared = new ArrayList<>(threads.size());
+        for (ThreadInfo thread : threads) {
+            FrameStack frames = thread.frames();
+            int[] frameIds = new int[frames.size()];
+            for (int i = 0; i < frameIds.length; i++) {
+                frameIds[i] = frameTable.intern(frames.table(), frames.frameId(i));
+            }
+            shared.add(thread.withFrames(FrameStack.of(frameTable, frameIds)));
+        }
+        return shared;
+    }
+
+    private static <K> Map<K, List<ThreadInfo>> freeze(Map<K, List<ThreadInfo>> index) {
+        index.replaceAll((key, list) -> List.copyOf(list));
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Method ids per frame id, method keys per method id and the inverted method index.
+     */
+    private record MethodIndex(int[] methodIdByFrame, List<String> methodKeys,
+                               Map<String, List<ThreadInfo>> threadsByMethod) {
+    }
+
+    /**
+     * Thread-safe value that is computed once, on first access.
+     */
+    private static final class Lazy<T> {
+
+        private final Supplier<T> supplier;
+        private volatile T value;
+
+        Lazy(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        T get() {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = supplier.get();
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tinusj.threaddump.model;
+
+/**
+ * Request to profile one process by sampling its thread stacks at a fixed interval.
+ *
+ * @param pid the process ID of the Java process
+ * @param intervalMillis time between the starts of consecutive samples
+ * @param durationMillis how long to keep sampling
+ * @param allThreads whether to sample threads in every state (wall-clock profile) rather than only
+ *                   RUNNABLE ones (CPU profile)
+ */
+public record ProfileRequest(
+    long pid,
+    long intervalMillis,
+    long durationMillis,
+    boolean allThreads
+) {}
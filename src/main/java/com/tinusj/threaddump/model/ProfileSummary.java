@@ -0,0 +1,44 @@
+package com.tinusj.threaddump.model;
+
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+
+import java.time.Instant;
+
+/**
+ * Progress of a stack-sampling profile, as returned by the profiling API.
+ *
+ * @param id the profile id
+ * @param pid the process ID being sampled
+ * @param status the profile status
+ * @param intervalMillis time between the starts of consecutive samples
+ * @param durationMillis how long the profile samples
+ * @param allThreads whether threads in every state are sampled rather than only RUNNABLE ones
+ * @param startedAt when the profile started
+ * @param finishedAt when the profile finished, null while running
+ * @param samples number of dumps folded into the call tree
+ * @param skippedSamples number of samples skipped because the previous capture was still running
+ * @param failedSamples number of samples whose capture failed
+ * @param stacks number of thread stacks folded into the call tree
+ * @param truncatedStacks stacks counted at a shorter call path because the call tree was full
+ * @param nodes number of call tree nodes, i.e. distinct call paths
+ * @param averageSampleMillis average time to capture and fold one sample
+ * @param lastError message of the most recent failed sample, null if none failed
+ */
+public record ProfileSummary(
+    String id,
+    long pid,
+    CaptureSessionStatus status,
+    long intervalMillis,
+    long durationMillis,
+    boolean allThreads,
+    Instant startedAt,
+    Instant finishedAt,
+    int samples,
+    int skippedSamples,
+    int failedSamples,
+    long stacks,
+    long truncatedStacks,
+    int nodes,
+    double averageSampleMillis,
+    String lastError
+) {}
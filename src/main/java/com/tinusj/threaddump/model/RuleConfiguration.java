@@ -0,0 +1,45 @@
+package com.tinusj.threaddump.model;
+
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the diagnostic rule thresholds. A snapshot is taken once per analysis,
+ * so every rule and the suggested fixes of one report see the same values even if the
+ * configuration is refreshed while the analysis runs.
+ *
+ * @param maxThreadsWarning total thread count above which HIGH_THREAD_COUNT is reported
+ * @param blockedThreadsThreshold BLOCKED thread count above which HIGH_BLOCKED_THREADS is reported
+ * @param blockedThreadsHighThreshold BLOCKED thread count above which HIGH_BLOCKED_THREADS is HIGH severity
+ * @param waitingThreadsThreshold waiting thread count above which HIGH_WAITING_THREADS is reported
+ * @param waitingThreadsHighThreshold waiting thread count above which HIGH_WAITING_THREADS is MEDIUM severity
+ * @param httpThreadsThreshold HTTP/Web thread count above which EXCESSIVE_HTTP_THREADS is reported
+ * @param blockingRatioThreshold fraction of BLOCKED threads above which EXCESSIVE_BLOCKING is reported
+ * @param disabledRules names of the rules that are not run
+ */
+public record RuleConfiguration(
+    int maxThreadsWarning,
+    int blockedThreadsThreshold,
+    int blockedThreadsHighThreshold,
+    int waitingThreadsThreshold,
+    int waitingThreadsHighThreshold,
+    int httpThreadsThreshold,
+    double blockingRatioThreshold,
+    Set<String> disabledRules
+) {
+
+    /**
+     * The built-in defaults, matching {@code application.yml}.
+     */
+    public static final RuleConfiguration DEFAULTS = new RuleConfiguration(1000, 10, 50, 50, 200, 200, 0.3, Set.of());
+
+    public RuleConfiguration {
+        disabledRules = Set.copyOf(disabledRules);
+    }
+
+    /**
+     * Returns whether the rule with the given name runs.
+     */
+    public boolean isEnabled(String ruleName) {
+        return !disabledRules.contains(ruleName);
+    }
+}
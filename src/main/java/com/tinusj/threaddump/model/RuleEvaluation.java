@@ -0,0 +1,17 @@
+package com.tinusj.threaddump.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of running the diagnostic rules against a thread dump.
+ *
+ * @param findings the findings of all rules, in rule order
+ * @param ruleMillis execution time of each enabled rule by rule name, in rule order
+ * @param configuration the rule configuration snapshot the rules ran with
+ */
+public record RuleEvaluation(
+    List<DiagnosticFinding> findings,
+    Map<String, Long> ruleMillis,
+    RuleConfiguration configuration
+) {}
@@ -0,0 +1,69 @@
+package com.tinusj.threaddump.model;
+
+import com.tinusj.threaddump.enums.ThreadState;
+
+import java.util.List;
+
+/**
+ * Result of analyzing a series of thread dumps of one JVM, with threads joined across samples.
+ *
+ * @param sampleCount number of samples analyzed
+ * @param spanMillis time between the first and the last sample
+ * @param threads every thread seen in the series, those unchanged for longest first
+ * @param heldLocks locks that stayed with the same owner for at least the configured time
+ * @param findings STUCK_THREAD and LONG_HELD_LOCK findings
+ */
+public record SeriesAnalysis(
+    int sampleCount,
+    long spanMillis,
+    List<ThreadProgress> threads,
+    List<HeldLock> heldLocks,
+    List<DiagnosticFinding> findings
+) {
+
+    /**
+     * How much one thread progressed over the series.
+     *
+     * @param name the thread name
+     * @param tid the JVM thread address, 0 if unknown
+     * @param nid the native thread id, 0 if unknown
+     * @param samplesSeen number of samples the thread appears in
+     * @param stackStability fraction of consecutive sample pairs in which the stack did not change
+     * @param unchangedSamples longest run of consecutive samples with the same stack and state
+     * @param unchangedMillis time spanned by that run
+     * @param state the thread state during that run
+     * @param topFrame the top frame during that run, or null for an empty stack
+     * @param stuck whether the run qualifies as STUCK_THREAD
+     */
+    public record ThreadProgress(
+        String name,
+        long tid,
+        long nid,
+        int samplesSeen,
+        double stackStability,
+        int unchangedSamples,
+        long unchangedMillis,
+        ThreadState state,
+        String topFrame,
+        boolean stuck
+    ) {}
+
+    /**
+     * A lock held by the same thread over consecutive samples.
+     *
+     * @param lock the lock id
+     * @param owner the name of the owning thread
+     * @param samples number of consecutive samples the lock was held in
+     * @param heldMillis time spanned by those samples
+     * @param maxWaiters most threads waiting for the lock in any of those samples
+     * @param waitingThreads names of all threads that waited for the lock in those samples
+     */
+    public record HeldLock(
+        String lock,
+        String owner,
+        int samples,
+        long heldMillis,
+        int maxWaiters,
+        List<String> waitingThreads
+    ) {}
+}
@@ -0,0 +1,67 @@
+package com.tinusj.threaddump.model;
+
+/**
+ * A distinct stack frame of a thread dump, as interned in a {@link FrameTable}.
+ *
+ * @param text the trimmed frame line, e.g. {@code at com.example.Service.run(Service.java:42)}
+ * @param methodKey the fully qualified method, including any module prefix, used to group frames
+ * @param className the declaring class, or null if the frame could not be parsed
+ * @param methodName the method name, or null if the frame could not be parsed
+ * @param fileName the source file, or null if unknown
+ * @param lineNumber the source line, -1 if unknown or -2 for a native method (as in StackTraceElement)
+ */
+public record StackFrame(
+    String text,
+    String methodKey,
+    String className,
+    String methodName,
+    String fileName,
+    int lineNumber
+) {
+
+    private static final String FRAME_PREFIX = "at ";
+    private static final String NATIVE_METHOD = "Native Method";
+    private static final String UNKNOWN_SOURCE = "Unknown Source";
+
+    /**
+     * Parses a frame line of the form {@code at [module/]class.method(file:line)}; the {@code at } prefix is optional.
+     *
+     * @param text the trimmed frame line
+     * @return the parsed frame; fields that cannot be determined are null or -1
+     */
+    public static StackFrame parse(String text) {
+        int open = text.indexOf('(');
+        if (open < 0) {
+            return new StackFrame(text, text, null, null, null, -1);
+        }
+        int prefix = text.indexOf(FRAME_PREFIX);
+        int start = prefix < 0 || prefix > open ? 0 : prefix + FRAME_PREFIX.length();
+        String methodKey = text.substring(start, open);
+
+        int qualifiedStart = methodKey.lastIndexOf('/') + 1;
+        int dot = methodKey.lastIndexOf('.');
+        String className = dot > qualifiedStart ? methodKey.substring(qualifiedStart, dot) : null;
+        String methodName = dot > qualifiedStart ? methodKey.substring(dot + 1) : null;
+
+        int close = text.indexOf(')', open);
+        String location = text.substring(open + 1, close > open ? close : text.length());
+        if (location.equals(NATIVE_METHOD)) {
+            return new StackFrame(text, methodKey, className, methodName, null, -2);
+        }
+        int colon = location.lastIndexOf(':');
+        if (colon < 0) {
+            String fileName = location.isEmpty() || location.equals(UNKNOWN_SOURCE) ? null : location;
+            return new StackFrame(text, methodKey, className, methodName, fileName, -1);
+        }
+        return new StackFrame(text, methodKey, className, methodName,
+                location.substring(0, colon), parseLineNumber(location, colon + 1));
+    }
+
+    private static int parseLineNumber(String location, int start) {
+        try {
+            return Integer.parseInt(location, start, location.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.tinusj.threaddump.model;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Interns the stacks of several separately parsed dumps into one {@link FrameTable}, so that stacks
+ * of different dumps can be compared as frame id arrays. Each distinct frame of a dump's table is
+ * looked up only once; afterwards translating a stack costs one array access per frame.
+ * Instances are not thread-safe.
+ */
+public final class StackSignatureTable {
+
+    private final FrameTable frames = new FrameTable();
+    private final Map<FrameTable, int[]> translations = new IdentityHashMap<>();
+
+    /**
+     * Returns the stack as ids into this table, top of stack first.
+     *
+     * @param stack a stack of any dump
+     * @return the frame ids; equal arrays mean equal stacks
+     */
+    public int[] signatureOf(FrameStack stack) {
+        FrameTable source = stack.table();
+        int[] translation = translations.computeIfAbsent(source, table -> {
+            int[] ids = new int[table.size()];
+            Arrays.fill(ids, -1);
+            return ids;
+        });
+        int[] signature = new int[stack.size()];
+        for (int i = 0; i < signature.length; i++) {
+            int frameId = stack.frameId(i);
+            if (translation[frameId] < 0) {
+                translation[frameId] = frames.intern(source, frameId);
+            }
+            signature[i] = translation[frameId];
+        }
+        return signature;
+    }
+
+    /**
+     * Returns the frame with the given id of this table.
+     */
+    public StackFrame frame(int frameId) {
+        return frames.frame(frameId);
+    }
+}
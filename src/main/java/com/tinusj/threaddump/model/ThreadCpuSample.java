@@ -0,0 +1,77 @@
+package com.tinusj.threaddump.model;
+
+import java.util.Arrays;
+
+/**
+ * CPU time consumed by the native threads of one process over a sampling window, keyed by native
+ * thread id (the {@code nid} of a thread dump, the task id under {@code /proc/<pid>/task} on Linux).
+ * Ids are kept in a sorted primitive array, so a lookup is a binary search without boxing.
+ * Instances are immutable.
+ */
+public final class ThreadCpuSample {
+
+    private final long[] nativeIds;
+    private final double[] cpuMillis;
+    private final long windowMillis;
+
+    private ThreadCpuSample(long[] nativeIds, double[] cpuMillis, long windowMillis) {
+        this.nativeIds = nativeIds;
+        this.cpuMillis = cpuMillis;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Creates a sample from parallel arrays.
+     *
+     * @param nativeIds the native thread ids, in ascending order
+     * @param cpuMillis the CPU time each thread consumed during the window, in milliseconds
+     * @param windowMillis the length of the sampling window
+     * @return the sample
+     * @throws IllegalArgumentException if the arrays differ in length or the ids are not ascending
+     */
+    public static ThreadCpuSample of(long[] nativeIds, double[] cpuMillis, long windowMillis) {
+        if (nativeIds.length != cpuMillis.length) {
+            throw new IllegalArgumentException("Expected one CPU time per native thread id");
+        }
+        for (int i = 1; i < nativeIds.length; i++) {
+            if (nativeIds[i] <= nativeIds[i - 1]) {
+                throw new IllegalArgumentException("Native thread ids must be ascending");
+            }
+        }
+        return new ThreadCpuSample(nativeIds.clone(), cpuMillis.clone(), windowMillis);
+    }
+
+    /**
+     * Returns the CPU time the native thread consumed during the window, or -1 if it was not sampled
+     * (e.g. it started or ended during the window).
+     */
+    public double cpuMillis(long nativeId) {
+        int index = Arrays.binarySearch(nativeIds, nativeId);
+        return index >= 0 ? cpuMillis[index] : -1;
+    }
+
+    /**
+     * Returns the length of the sampling window in milliseconds.
+     */
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Returns the number of sampled threads.
+     */
+    public int size() {
+        return nativeIds.length;
+    }
+
+    /**
+     * Returns the CPU time consumed by all sampled threads together, in milliseconds.
+     */
+    public double totalCpuMillis() {
+        double total = 0;
+        for (double millis : cpuMillis) {
+            total += millis;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tinusj.threaddump.model;
+
+/**
+ * Request to compare two thread dumps, given either as text or as ids of earlier reports.
+ * For each side the text takes precedence over the report id.
+ *
+ * @param baseline the baseline thread dump content
+ * @param current the current thread dump content
+ * @param baselineReportId the id of the report of the baseline dump
+ * @param currentReportId the id of the report of the current dump
+ */
+public record ThreadDumpDiffRequest(
+    String baseline,
+    String current,
+    String baselineReportId,
+    String currentReportId
+) {}
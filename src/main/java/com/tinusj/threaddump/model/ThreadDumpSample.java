@@ -0,0 +1,20 @@
+package com.tinusj.threaddump.model;
+
+import java.time.Instant;
+
+/**
+ * One thread dump taken by a capture session, kept in parsed form.
+ *
+ * @param sequence position of the sample in the session, starting at 0
+ * @param scheduledAt when the sample was due
+ * @param capturedAt when the capture started
+ * @param captureMillis how long capturing and parsing took
+ * @param dump the parsed thread dump
+ */
+public record ThreadDumpSample(
+    int sequence,
+    Instant scheduledAt,
+    Instant capturedAt,
+    long captureMillis,
+    ParsedThreadDump dump
+) {}
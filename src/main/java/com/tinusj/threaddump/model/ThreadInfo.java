@@ -6,6 +6,15 @@ import java.util.List;
 
 /**
  * Represents information about a single thread in a thread dump.
+ * The stack trace is always held as a {@link FrameStack}; other lists are interned on construction.
+ * {@code lockName} and {@code lockOwner} are the first awaited and held monitor, while
+ * {@code heldLocks} and {@code awaitedLocks} list every monitor and {@code java.util.concurrent}
+ * ownable synchronizer the thread holds or is blocked on. {@code tid} (the address of the JVM's
+ * thread structure) and {@code nid} (the native thread id) identify the thread across dumps of the
+ * same JVM; they are 0 if the dump does not show them. {@code cpuMillis} and {@code elapsedMillis} are the
+ * CPU time and age of the thread printed by recent JDKs ({@code cpu=}, {@code elapsed=}), and
+ * {@code cpuDeltaMillis} is the CPU time the thread consumed while the dump was captured, measured
+ * from the operating system; each is -1 if unknown.
  */
 public record ThreadInfo(
     String name,
@@ -16,5 +25,52 @@ public record ThreadInfo(
     List<String> stackTrace,
     boolean daemon,
     int priority,
-    String group
-) {}
\ No newline at end of file
+    String group,
+    List<String> heldLocks,
+    List<String> awaitedLocks,
+    long tid,
+    long nid,
+    double cpuMillis,
+    double elapsedMillis,
+    double cpuDeltaMillis
+) {
+
+    public ThreadInfo {
+        if (!(stackTrace instanceof FrameStack)) {
+            stackTrace = FrameStack.copyOf(stackTrace != null ? stackTrace : List.of());
+        }
+        heldLocks = heldLocks != null ? List.copyOf(heldLocks) : List.of();
+        awaitedLocks = awaitedLocks != null ? List.copyOf(awaitedLocks) : List.of();
+    }
+
+    public ThreadInfo(String name, long id, ThreadState state, String lockName, String lockOwner,
+                      List<String> stackTrace, boolean daemon, int priority, String group) {
+        this(name, id, state, lockName, lockOwner, stackTrace, daemon, priority, group, List.of(), List.of(), 0, 0, -1, -1, -1);
+    }
+
+    /**
+     * Returns the stack trace as frame ids into the dump's frame table.
+     */
+    public FrameStack frames() {
+        return (FrameStack) stackTrace;
+    }
+
+    /**
+     * Returns a copy of this thread with the given stack trace.
+     */
+    public ThreadInfo withFrames(FrameStack frames) {
+        return new ThreadInfo(name, id, state, lockName, lockOwner, frames, daemon, priority, group,
+                heldLocks, awaitedLocks, tid, nid, cpuMillis, elapsedMillis, cpuDeltaMillis);
+    }
+
+    /**
+     * Returns a copy of this thread with the given measured CPU time, or this thread if it is unchanged.
+     */
+    public ThreadInfo withCpuDelta(double cpuDeltaMillis) {
+        if (cpuDeltaMillis == this.cpuDeltaMillis) {
+            return this;
+        }
+        return new ThreadInfo(name, id, state, lockName, lockOwner, stackTrace, daemon, priority, group,
+                heldLocks, awaitedLocks, tid, nid, cpuMillis, elapsedMillis, cpuDeltaMillis);
+    }
+}
@@ -0,0 +1,128 @@
+package com.tinusj.threaddump.parser;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits dump text into byte ranges aligned to thread-block boundaries so that the ranges can be
+ * parsed independently, and iterates the lines of a range without copying the text.
+ */
+final class DumpRanges {
+
+    private DumpRanges() {
+    }
+
+    /**
+     * Splits the text into at most {@code parts} ranges of roughly equal size. Every range except
+     * the first starts at a thread header line, so each thread block lies entirely in one range.
+     *
+     * @return ascending range boundaries, starting with 0 and ending with {@code text.length()}
+     */
+    static int[] split(CharSequence text, int parts) {
+        int length = text.length();
+        int[] bounds = new int[parts + 1];
+        int count = 1;
+        for (int part = 1; part < parts; part++) {
+            int target = (int) ((long) length * part / parts);
+            int boundary = nextHeaderLine(text, Math.max(target, bounds[count - 1] + 1));
+            if (boundary < 0) {
+                break;
+            }
+            if (boundary > bounds[count - 1]) {
+                bounds[count++] = boundary;
+            }
+        }
+        bounds[count++] = length;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Feeds every line of {@code [start, end)} to the consumer. The line view is reused between calls.
+     */
+    static void scanLines(CharSequence text, int start, int end, Consumer<CharSequence> consumer) {
+        RegionLine line = new RegionLine(text);
+        int lineStart = start;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                line.set(lineStart, i);
+                consumer.accept(line);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < end) {
+            line.set(lineStart, end);
+            consumer.accept(line);
+        }
+    }
+
+    /**
+     * Returns the start of the first thread header line beginning at or after {@code from},
+     * or -1 if there is none.
+     */
+    private static int nextHeaderLine(CharSequence text, int from) {
+        int length = text.length();
+        int lineStart = from;
+        if (lineStart > 0 && lineStart < length && text.charAt(lineStart - 1) != '\n') {
+            lineStart = indexOfNewline(text, lineStart, length) + 1;
+        }
+        while (lineStart > 0 && lineStart < length) {
+            int lineEnd = indexOfNewline(text, lineStart, length);
+            int firstChar = ThreadBlockParser.skipWhitespace(text, lineStart, lineEnd);
+            if (firstChar < lineEnd && text.charAt(firstChar) == '"'
+                    && ThreadBlockParser.headerClosingQuote(text, firstChar, lineEnd) >= 0) {
+                return lineStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return -1;
+    }
+
+    private static int indexOfNewline(CharSequence text, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Mutable view over one line of the underlying text, with a trailing carriage return stripped.
+     */
+    private static final class RegionLine implements CharSequence {
+
+        private final CharSequence text;
+        private int offset;
+        private int length;
+
+        RegionLine(CharSequence text) {
+            this.text = text;
+        }
+
+        void set(int start, int end) {
+            int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            this.offset = start;
+            this.length = lineEnd - start;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(offset + start, offset + end).toString();
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(offset, offset + length).toString();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.tinusj.threaddump.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a set of lowercase keywords, each tagged with a priority
+ * (lower is better). The goto and failure functions are compiled into a dense transition table,
+ * so matching is one table lookup per input character and allocates nothing.
+ * Input is matched case-insensitively. Instances are immutable and thread-safe.
+ */
+final class KeywordAutomaton {
+
+    /**
+     * Returned by {@link #bestMatch(CharSequence)} when no keyword occurs in the input.
+     */
+    static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final int ASCII = 128;
+
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final int[] bestPriority;
+
+    private KeywordAutomaton(int[] asciiSymbols, char[] otherChars, int alphabetSize,
+                             int[] transitions, int[] bestPriority) {
+        this.asciiSymbols = asciiSymbols;
+        this.otherChars = otherChars;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.bestPriority = bestPriority;
+    }
+
+    /**
+     * Compiles the automaton.
+     *
+     * @param keywords the keywords; blank keywords are ignored
+     * @param priorities the priority of each keyword, by position
+     */
+    static KeywordAutomaton compile(List<String> keywords, int[] priorities) {
+        List<String> normalized = new ArrayList<>(keywords.size());
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (String keyword : keywords) {
+            String lower = lowerCase(keyword);
+            normalized.add(lower);
+            for (int i = 0; i < lower.length(); i++) {
+                alphabet.add(lower.charAt(i));
+            }
+        }
+
+        int[] asciiSymbols = new int[ASCII];
+        Arrays.fill(asciiSymbols, -1);
+        StringBuilder otherChars = new StringBuilder();
+        int alphabetSize = 0;
+        for (char c : alphabet) {
+            if (c < ASCII) {
+                asciiSymbols[c] = alphabetSize++;
+            } else {
+                otherChars.append(c);
+            }
+        }
+        int asciiSize = alphabetSize;
+        alphabetSize += otherChars.length();
+
+        // Build the trie; state 0 is the root
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> priorityByState = new ArrayList<>();
+        trie.add(newRow(alphabetSize));
+        priorityByState.add(NO_MATCH);
+        for (int k = 0; k < normalized.size(); k++) {
+            String keyword = normalized.get(k);
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = symbol(keyword.charAt(i), asciiSymbols, otherChars, asciiSize);
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(newRow(alphabetSize));
+                    priorityByState.add(NO_MATCH);
+                }
+                state = trie.get(state)[symbol];
+            }
+            priorityByState.set(state, Math.min(priorityByState.get(state), priorities[k]));
+        }
+
+        // Breadth-first: complete missing transitions via failure links and inherit their outputs
+        int stateCount = trie.size();
+        int[] transitions = new int[stateCount * alphabetSize];
+        int[] bestPriority = new int[stateCount];
+        int[] failure = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        bestPriority[0] = priorityByState.get(0);
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int child = trie.get(0)[symbol];
+            transitions[symbol] = Math.max(child, 0);
+            if (child > 0) {
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            bestPriority[state] = Math.min(priorityByState.get(state), bestPriority[failure[state]]);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = trie.get(state)[symbol];
+                int fallback = transitions[failure[state] * alphabetSize + symbol];
+                if (child > 0) {
+                    failure[child] = fallback;
+                    transitions[state * alphabetSize + symbol] = child;
+                    queue.add(child);
+                } else {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                }
+            }
+        }
+        return new KeywordAutomaton(asciiSymbols, otherChars.toString().toCharArray(), alphabetSize,
+                transitions, bestPriority);
+    }
+
+    /**
+     * Returns the best (lowest) priority of all keywords occurring in the input,
+     * or {@link #NO_MATCH} if none occurs.
+     *
+     * @param stopAt priority at which the scan may stop early, as no keyword can beat it
+     */
+    int bestMatch(CharSequence input, int stopAt) {
+        int best = NO_MATCH;
+        int state = 0;
+        for (int i = 0; i < input.length(); i++) {
+            int symbol = symbolOf(Character.toLowerCase(input.charAt(i)));
+            state = symbol < 0 ? 0 : transitions[state * alphabetSize + symbol];
+            if (bestPriority[state] < best) {
+                best = bestPriority[state];
+                if (best <= stopAt) {
+                    return best;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the best (lowest) priority of all keywords occurring in the input,
+     * or {@link #NO_MATCH} if none occurs.
+     */
+    int bestMatch(CharSequence input) {
+        return bestMatch(input, Integer.MIN_VALUE);
+    }
+
+    private int symbolOf(char c) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? -1 : alphabetSize - otherChars.length + index;
+    }
+
+    private static int symbol(char c, int[] asciiSymbols, CharSequence otherChars, int asciiSize) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        for (int i = 0; i < otherChars.length(); i++) {
+            if (otherChars.charAt(i) == c) {
+                return asciiSize + i;
+            }
+        }
+        throw new IllegalStateException("Character not in alphabet: " + c);
+    }
+
+    /**
+     * Lowercases per character, the same way input characters are folded while matching.
+     */
+    private static String lowerCase(String keyword) {
+        StringBuilder lower = new StringBuilder(keyword.length());
+        for (int i = 0; i < keyword.length(); i++) {
+            lower.append(Character.toLowerCase(keyword.charAt(i)));
+        }
+        return lower.toString();
+    }
+
+    private static int[] newRow(int alphabetSize) {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
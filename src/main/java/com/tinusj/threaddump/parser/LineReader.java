@@ -0,0 +1,113 @@
+package com.tinusj.threaddump.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines from a {@link Reader} into a reusable character buffer.
+ * Each call to {@link #next()} returns the same mutable {@link CharSequence} view, so callers
+ * must copy out any text they want to keep before reading the next line.
+ * Trailing carriage returns are stripped so CRLF dumps parse the same as LF dumps.
+ */
+final class LineReader {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final Line line = new Line();
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    LineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next line, or {@code null} once the input is exhausted.
+     */
+    CharSequence next() throws IOException {
+        int scan = position;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return emit(i, i + 1);
+                }
+            }
+            if (endOfInput) {
+                return position < limit ? emit(limit, limit) : null;
+            }
+            scan = fill();
+        }
+    }
+
+    private CharSequence emit(int end, int nextPosition) {
+        int lineEnd = end > position && buffer[end - 1] == '\r' ? end - 1 : end;
+        line.set(buffer, position, lineEnd - position);
+        position = nextPosition;
+        return line;
+    }
+
+    /**
+     * Reads more input, compacting or growing the buffer as needed.
+     *
+     * @return the buffer index from which scanning for a line break should resume
+     */
+    private int fill() throws IOException {
+        int pending = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            char[] grown = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, pending);
+            buffer = grown;
+        }
+        position = 0;
+        limit = pending;
+
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+        return pending;
+    }
+
+    /**
+     * Mutable view over a region of the line buffer.
+     */
+    private static final class Line implements CharSequence {
+
+        private char[] chars;
+        private int offset;
+        private int length;
+
+        void set(char[] chars, int offset, int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.tinusj.threaddump.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Scans a thread dump file line by line through a read-only memory mapping.
+ * Lines are exposed as byte-backed {@link CharSequence} views: markers are matched on the raw
+ * ASCII bytes and only the sub-sequences a caller keeps are decoded (as UTF-8) into Strings,
+ * so heap usage does not grow with the size of the file.
+ * Files larger than the mapping window are mapped window by window, re-mapping from the start
+ * of the last incomplete line.
+ */
+final class MappedDumpScanner {
+
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private MappedDumpScanner() {
+    }
+
+    /**
+     * Feeds every line of the file to the consumer. The line view is reused between calls.
+     */
+    static void scan(Path file, long windowSize, Consumer<CharSequence> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteLine line = new ByteLine();
+            long windowStart = 0;
+            while (windowStart < size) {
+                long length = Math.min(windowSize, size - windowStart);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+                boolean lastWindow = windowStart + length == size;
+                int consumed = scanWindow(window, (int) length, lastWindow, line, consumer);
+                if (consumed == 0) {
+                    throw new IOException("Line longer than mapping window of " + windowSize + " bytes");
+                }
+                windowStart += consumed;
+            }
+        }
+    }
+
+    /**
+     * Maps the first {@code size} bytes of the channel as a single byte-backed character sequence.
+     * The mapping stays valid after the channel is closed.
+     */
+    static CharSequence map(FileChannel channel, long size) throws IOException {
+        ByteLine text = new ByteLine();
+        text.set(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0, (int) size);
+        return text;
+    }
+
+    /**
+     * Emits the complete lines of a window.
+     *
+     * @return the number of bytes consumed, i.e. up to the start of the trailing incomplete line
+     */
+    private static int scanWindow(ByteBuffer window, int length, boolean lastWindow,
+                                  ByteLine line, Consumer<CharSequence> consumer) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (window.get(i) == '\n') {
+                emit(window, lineStart, i, line, consumer);
+                lineStart = i + 1;
+            }
+        }
+        if (lastWindow && lineStart < length) {
+            emit(window, lineStart, length, line, consumer);
+            return length;
+        }
+        return lineStart;
+    }
+
+    private static void emit(ByteBuffer window, int start, int end, ByteLine line, Consumer<CharSequence> consumer) {
+        int lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+        line.set(window, start, lineEnd - start);
+        consumer.accept(line);
+    }
+
+    /**
+     * Mutable view over a line (or a whole window) of mapped bytes. {@link #charAt(int)} exposes raw bytes (exact for
+     * ASCII, which covers every marker the parser looks for); {@link #subSequence(int, int)}
+     * decodes the requested byte range as UTF-8.
+     */
+    private static final class ByteLine implements CharSequence {
+
+        private ByteBuffer bytes;
+        private int offset;
+        private int length;
+
+        void set(ByteBuffer bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] copy = new byte[end - start];
+            bytes.get(offset + start, copy);
+            return new String(copy, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
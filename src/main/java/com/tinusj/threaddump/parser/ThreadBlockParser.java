@@ -0,0 +1,409 @@
+package com.tinusj.threaddump.parser;
+
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.FrameStack;
+import com.tinusj.threaddump.model.FrameTable;
+import com.tinusj.threaddump.model.ThreadInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Line-oriented state machine that turns thread dump lines into {@link ThreadInfo} records.
+ * Every line is inspected once; a thread is emitted as soon as its block is closed by the next
+ * thread header or by the end of input. Lines before the first thread header (dump preamble)
+ * and after the stack trace of a thread (e.g. JNI reference summaries) are ignored.
+ * Stack frames are interned into a {@link FrameTable}, so each thread keeps only an array of frame ids.
+ * Every held and awaited monitor is recorded, as are parked-on and owned {@code java.util.concurrent}
+ * synchronizers from the "Locked ownable synchronizers" section that follows the stack trace.
+ * Instances are not thread-safe.
+ */
+final class ThreadBlockParser {
+
+    private static final String STATE_MARKER = "java.lang.Thread.State:";
+    private static final String FRAME_PREFIX = "at ";
+    private static final String WAITING_ON_PREFIX = "- waiting on <";
+    private static final String WAITING_TO_LOCK_PREFIX = "- waiting to lock <";
+    private static final String WAITING_TO_RELOCK_PREFIX = "- waiting to re-lock in wait() <";
+    private static final String PARKING_PREFIX = "- parking to wait for";
+    private static final String LOCKED_PREFIX = "- locked <";
+    private static final String SYNCHRONIZER_PREFIX = "- <";
+    private static final String SYNCHRONIZERS_MARKER = "Locked ownable synchronizers:";
+    private static final String PRIORITY_MARKER = " prio=";
+    private static final String TID_MARKER = " tid=";
+    private static final String NID_MARKER = " nid=";
+    private static final String CPU_MARKER = " cpu=";
+    private static final String ELAPSED_MARKER = " elapsed=";
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final String HEX_PREFIX = "0x";
+    private static final String GROUP_MARKER = "group=\"";
+    private static final String DAEMON_TOKEN = "daemon";
+
+    private enum Phase { NONE, BODY, TRAILER, SYNCHRONIZERS }
+
+    private final FrameTable frameTable;
+    private final Consumer<ThreadInfo> sink;
+
+    private Phase phase = Phase.NONE;
+    private String name;
+    private long id;
+    private long tid;
+    private long nid;
+    private double cpuMillis;
+    private double elapsedMillis;
+    private int priority;
+    private boolean daemon;
+    private String group;
+    private ThreadState state;
+    private String lockName;
+    private String lockOwner;
+    private List<String> heldLocks;
+    private List<String> awaitedLocks;
+    private int[] frameIds = new int[64];
+    private int frameCount;
+
+    ThreadBlockParser(FrameTable frameTable, Consumer<ThreadInfo> sink) {
+        this.frameTable = frameTable;
+        this.sink = sink;
+    }
+
+    /**
+     * Feeds the next line of the dump. The line is not retained.
+     */
+    void accept(CharSequence line) {
+        int start = firstNonWhitespace(line);
+        int end = lastNonWhitespace(line) + 1;
+
+        if (start < end && line.charAt(start) == '"' && startHeader(line, start, end)) {
+            return;
+        }
+
+        switch (phase) {
+            case BODY -> acceptBodyLine(line, start, end);
+            case TRAILER -> {
+                if (startsWith(line, start, SYNCHRONIZERS_MARKER)) {
+                    phase = Phase.SYNCHRONIZERS;
+                }
+            }
+            case SYNCHRONIZERS -> {
+                if (startsWith(line, start, SYNCHRONIZER_PREFIX)) {
+                    heldLocks = add(heldLocks, lockId(line, start + SYNCHRONIZER_PREFIX.length(), end));
+                } else if (start >= end) {
+                    phase = Phase.TRAILER;
+                }
+            }
+            case NONE -> {
+                // Preamble before the first thread
+            }
+        }
+    }
+
+    /**
+     * Signals the end of input and emits the last open thread, if any.
+     */
+    void finish() {
+        emitCurrent();
+        phase = Phase.NONE;
+    }
+
+    private void acceptBodyLine(CharSequence line, int start, int end) {
+        if (start >= end) {
+            if (frameCount > 0) {
+                phase = Phase.TRAILER;
+            }
+        } else if (startsWith(line, start, FRAME_PREFIX)) {
+            addFrame(frameTable.intern(line, start, end));
+        } else if (line.charAt(start) == '-') {
+            acceptLockLine(line, start, end);
+        } else if (startsWith(line, start, STATE_MARKER)) {
+            state = parseState(line, start + STATE_MARKER.length(), end);
+        }
+    }
+
+    private void acceptLockLine(CharSequence line, int start, int end) {
+        if (startsWith(line, start, LOCKED_PREFIX)) {
+            String lock = lockId(line, start + LOCKED_PREFIX.length(), end);
+            lockOwner = lockOwner != null ? lockOwner : lock;
+            heldLocks = add(heldLocks, lock);
+        } else if (startsWith(line, start, WAITING_TO_LOCK_PREFIX)) {
+            String lock = lockId(line, start + WAITING_TO_LOCK_PREFIX.length(), end);
+            lockName = lockName != null ? lockName : lock;
+            awaitedLocks = add(awaitedLocks, lock);
+        } else if (startsWith(line, start, WAITING_ON_PREFIX)) {
+            // Object.wait() has released the monitor, so this is not an edge of the wait-for graph
+            lockName = lockName != null ? lockName : lockId(line, start + WAITING_ON_PREFIX.length(), end);
+        } else if (startsWith(line, start, WAITING_TO_RELOCK_PREFIX)) {
+            awaitedLocks = add(awaitedLocks, lockId(line, start + WAITING_TO_RELOCK_PREFIX.length(), end));
+        } else if (startsWith(line, start, PARKING_PREFIX)) {
+            int bracket = skipWhitespace(line, start + PARKING_PREFIX.length(), end);
+            if (bracket < end && line.charAt(bracket) == '<') {
+                awaitedLocks = add(awaitedLocks, lockId(line, bracket + 1, end));
+            }
+        }
+    }
+
+    /**
+     * Appends a lock id, creating the list on first use since most threads hold no locks.
+     */
+    private static List<String> add(List<String> locks, String lock) {
+        if (lock == null) {
+            return locks;
+        }
+        List<String> target = locks != null ? locks : new ArrayList<>(2);
+        if (!target.contains(lock)) {
+            target.add(lock);
+        }
+        return target;
+    }
+
+    /**
+     * Starts a new thread if the line is a thread header ({@code "name" #id ...}).
+     *
+     * @return true if the line was a thread header
+     */
+    private boolean startHeader(CharSequence line, int start, int end) {
+        int closingQuote = headerClosingQuote(line, start, end);
+        if (closingQuote < 0) {
+            return false;
+        }
+
+        emitCurrent();
+
+        int idStart = skipWhitespace(line, closingQuote + 1, end) + 1;
+        int idEnd = skipDigits(line, idStart, end);
+        name = line.subSequence(start + 1, closingQuote).toString();
+        id = parseLong(line, idStart, idEnd);
+        priority = (int) parseNumberAfter(line, PRIORITY_MARKER, idEnd, end);
+        tid = parseNumberAfter(line, TID_MARKER, idEnd, end);
+        nid = parseNumberAfter(line, NID_MARKER, idEnd, end);
+        cpuMillis = parseDecimalAfter(line, CPU_MARKER, idEnd, end);
+        double elapsedSeconds = parseDecimalAfter(line, ELAPSED_MARKER, idEnd, end);
+        elapsedMillis = elapsedSeconds >= 0 ? elapsedSeconds * MILLIS_PER_SECOND : -1;
+        daemon = containsToken(line, DAEMON_TOKEN, idEnd, end);
+        group = parseGroup(line, idEnd, end);
+        state = ThreadState.UNKNOWN;
+        lockName = null;
+        lockOwner = null;
+        heldLocks = null;
+        awaitedLocks = null;
+        frameCount = 0;
+        phase = Phase.BODY;
+        return true;
+    }
+
+    /**
+     * Checks whether the text starting at {@code start} (an opening quote) is a thread header,
+     * i.e. a quoted name followed by {@code #<digits>}.
+     *
+     * @return the index of the quote closing the thread name, or -1 if this is not a header
+     */
+    static int headerClosingQuote(CharSequence line, int start, int end) {
+        int closingQuote = indexOf(line, '"', start + 1, end);
+        while (closingQuote >= 0) {
+            int hash = skipWhitespace(line, closingQuote + 1, end);
+            if (hash + 1 < end && line.charAt(hash) == '#' && isDigit(line.charAt(hash + 1))) {
+                return closingQuote;
+            }
+            closingQuote = indexOf(line, '"', closingQuote + 1, end);
+        }
+        return -1;
+    }
+
+    private void emitCurrent() {
+        if (phase == Phase.NONE) {
+            return;
+        }
+        FrameStack stackTrace = FrameStack.of(frameTable, Arrays.copyOf(frameIds, frameCount));
+        sink.accept(new ThreadInfo(name, id, state, lockName, lockOwner, stackTrace, daemon, priority, group,
+                heldLocks, awaitedLocks, tid, nid, cpuMillis, elapsedMillis, -1));
+    }
+
+    private void addFrame(int frameId) {
+        if (frameCount == frameIds.length) {
+            frameIds = Arrays.copyOf(frameIds, frameCount * 2);
+        }
+        frameIds[frameCount++] = frameId;
+    }
+
+    private static ThreadState parseState(CharSequence line, int from, int end) {
+        int start = skipWhitespace(line, from, end);
+        int stop = start;
+        while (stop < end && isWordChar(line.charAt(stop))) {
+            stop++;
+        }
+        if (stop == start) {
+            return ThreadState.UNKNOWN;
+        }
+        try {
+            return ThreadState.valueOf(line.subSequence(start, stop).toString());
+        } catch (IllegalArgumentException e) {
+            return ThreadState.UNKNOWN;
+        }
+    }
+
+    /**
+     * Extracts the lock id from {@code <id> (a Type)}, starting just after the opening bracket.
+     */
+    private static String lockId(CharSequence line, int from, int end) {
+        int close = indexOf(line, '>', from, end);
+        if (close <= from || close + 2 >= end || line.charAt(close + 1) != ' ' || line.charAt(close + 2) != '(') {
+            return null;
+        }
+        return line.subSequence(from, close).toString();
+    }
+
+    private static String parseGroup(CharSequence line, int from, int end) {
+        int marker = indexOf(line, GROUP_MARKER, from, end);
+        if (marker < 0) {
+            return null;
+        }
+        int start = marker + GROUP_MARKER.length();
+        int close = indexOf(line, '"', start, end);
+        return close > start ? line.subSequence(start, close).toString() : null;
+    }
+
+    /**
+     * Parses the decimal or {@code 0x}-prefixed hexadecimal number following the marker, or returns 0 if
+     * the marker is absent. Recent JDKs print {@code nid} in decimal, older ones in hexadecimal.
+     */
+    private static long parseNumberAfter(CharSequence line, String marker, int from, int end) {
+        int markerIndex = indexOf(line, marker, from, end);
+        if (markerIndex < 0) {
+            return 0;
+        }
+        int start = markerIndex + marker.length();
+        if (startsWith(line, start, HEX_PREFIX)) {
+            return parseHexLong(line, start + HEX_PREFIX.length(), end);
+        }
+        return parseLong(line, start, skipDigits(line, start, end));
+    }
+
+    /**
+     * Parses the decimal number with optional fraction following the marker (e.g. {@code cpu=12.34ms}),
+     * ignoring its unit, or returns -1 if the marker is absent. HotSpot prints {@code cpu} in
+     * milliseconds and {@code elapsed} in seconds.
+     */
+    private static double parseDecimalAfter(CharSequence line, String marker, int from, int end) {
+        int markerIndex = indexOf(line, marker, from, end);
+        if (markerIndex < 0) {
+            return -1;
+        }
+        int start = markerIndex + marker.length();
+        int integerEnd = skipDigits(line, start, end);
+        if (integerEnd == start) {
+            return -1;
+        }
+        double value = parseLong(line, start, integerEnd);
+        if (integerEnd < end && line.charAt(integerEnd) == '.') {
+            double scale = 0.1;
+            for (int i = integerEnd + 1; i < end && isDigit(line.charAt(i)); i++) {
+                value += (line.charAt(i) - '0') * scale;
+                scale /= 10;
+            }
+        }
+        return value;
+    }
+
+    private static long parseHexLong(CharSequence line, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), 16);
+            if (digit < 0) {
+                break;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static boolean containsToken(CharSequence line, String token, int from, int end) {
+        int index = indexOf(line, token, from, end);
+        while (index >= 0) {
+            int after = index + token.length();
+            boolean boundedBefore = index == 0 || line.charAt(index - 1) == ' ';
+            boolean boundedAfter = after == end || line.charAt(after) == ' ';
+            if (boundedBefore && boundedAfter) {
+                return true;
+            }
+            index = indexOf(line, token, after, end);
+        }
+        return false;
+    }
+
+    private static long parseLong(CharSequence line, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean startsWith(CharSequence line, int offset, String prefix) {
+        if (line.length() - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence line, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence line, String needle, int from, int end) {
+        char first = needle.charAt(0);
+        for (int i = from, last = end - needle.length(); i <= last; i++) {
+            if (line.charAt(i) == first && startsWith(line, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int firstNonWhitespace(CharSequence line) {
+        return skipWhitespace(line, 0, line.length());
+    }
+
+    private static int lastNonWhitespace(CharSequence line) {
+        int i = line.length() - 1;
+        while (i >= 0 && Character.isWhitespace(line.charAt(i))) {
+            i--;
+        }
+        return i;
+    }
+
+    static int skipWhitespace(CharSequence line, int from, int end) {
+        int i = from;
+        while (i < end && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDigits(CharSequence line, int from, int end) {
+        int i = from;
+        while (i < end && isDigit(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,115 @@
+package com.tinusj.threaddump.parser;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns threads to logical categories (e.g. "HTTP/Web", "Database") by keywords in their names.
+ * <p>
+ * All keywords are compiled into a single {@link KeywordAutomaton}, so a name is scanned once,
+ * case-insensitively and without allocation, however many keywords there are. When keywords of
+ * several categories occur in a name, the category listed first wins. Categories configured under
+ * {@code thread-dump.analysis.classifier.categories} are listed before the built-in ones.
+ */
+@Component
+public class ThreadCategoryClassifier {
+
+    /**
+     * Category of threads whose name matches no keyword.
+     */
+    public static final String OTHER = "Other";
+
+    /**
+     * Category of threads without a name.
+     */
+    public static final String UNKNOWN = "Unknown";
+
+    private static final Map<String, List<String>> BUILT_IN_CATEGORIES = builtInCategories();
+
+    private final List<String> categories;
+    private final KeywordAutomaton automaton;
+
+    /**
+     * Creates a classifier with the built-in categories only.
+     */
+    public ThreadCategoryClassifier() {
+        this(Map.of(), true);
+    }
+
+    /**
+     * Creates a classifier with the configured categories, followed by the built-in ones if enabled.
+     *
+     * @param properties analysis configuration providing the classifier categories
+     */
+    @Autowired
+    public ThreadCategoryClassifier(ThreadDumpAnalysisProperties properties) {
+        this(properties.getClassifier().getCategories(), properties.getClassifier().isBuiltInCategories());
+    }
+
+    private ThreadCategoryClassifier(Map<String, List<String>> customCategories, boolean includeBuiltIn) {
+        Map<String, List<String>> all = new LinkedHashMap<>(customCategories);
+        if (includeBuiltIn) {
+            BUILT_IN_CATEGORIES.forEach((category, keywords) -> all.merge(category, keywords, (custom, builtIn) -> {
+                List<String> merged = new ArrayList<>(custom);
+                merged.addAll(builtIn);
+                return merged;
+            }));
+        }
+        this.categories = List.copyOf(all.keySet());
+
+        List<String> keywords = new ArrayList<>();
+        List<Integer> priorities = new ArrayList<>();
+        for (int category = 0; category < categories.size(); category++) {
+            for (String keyword : all.get(categories.get(category))) {
+                keywords.add(keyword);
+                priorities.add(category);
+            }
+        }
+        this.automaton = KeywordAutomaton.compile(keywords, priorities.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Returns the category of the thread, based on its name.
+     */
+    public String classify(ThreadInfo thread) {
+        return classify(thread.name());
+    }
+
+    /**
+     * Returns the category of a thread name: the first category with a keyword occurring in the name,
+     * {@link #OTHER} if there is none, or {@link #UNKNOWN} for a null name.
+     */
+    public String classify(CharSequence threadName) {
+        if (threadName == null) {
+            return UNKNOWN;
+        }
+        int category = automaton.bestMatch(threadName, 0);
+        return category == KeywordAutomaton.NO_MATCH ? OTHER : categories.get(category);
+    }
+
+    /**
+     * Returns the category names in match priority order.
+     */
+    public List<String> categories() {
+        return categories;
+    }
+
+    private static Map<String, List<String>> builtInCategories() {
+        Map<String, List<String>> categories = new LinkedHashMap<>();
+        categories.put("GC", List.of("gc", "concurrent mark", "parallel gc", "g1"));
+        categories.put("HTTP/Web", List.of("http", "nio", "tomcat", "jetty", "netty"));
+        categories.put("Database", List.of("connection", "db", "hikari", "datasource", "sql"));
+        categories.put("Thread Pool", List.of("pool", "executor", "worker", "scheduler"));
+        categories.put("JVM Internal", List.of("jvm", "vm thread", "compiler", "sweeper", "finalizer",
+                "reference handler"));
+        categories.put("Application", List.of("main", "application", "business", "service"));
+        return categories;
+    }
+}
@@ -1,140 +1,223 @@
 package com.tinusj.threaddump.parser;
 
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.model.FrameStack;
+import com.tinusj.threaddump.model.FrameTable;
 import com.tinusj.threaddump.model.ThreadInfo;
-import com.tinusj.threaddump.enums.ThreadState;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Parser utility for extracting thread information from thread dump text.
- * This is a stub implementation that provides basic parsing functionality.
+ * The dump is read once, line by line, by a small state machine that emits each thread as soon
+ * as its block is complete, so the full dump never has to be held in memory as a single String.
+ * Dump files can also be parsed through a memory mapping, scanning the raw bytes directly.
+ * Dumps above the configured size threshold are split into byte ranges aligned to thread headers,
+ * which are parsed concurrently on a dedicated fork/join pool and merged back in dump order.
+ * All threads parsed by one call share a single {@link FrameTable} of distinct stack frames.
  */
 @Component
 public class ThreadDumpParser {
-    
-    private static final Pattern THREAD_HEADER_PATTERN = Pattern.compile(
-        "\"([^\"]+)\"\\s*#(\\d+).*?prio=(\\d+).*?tid=([0-9a-fx]+).*?nid=([0-9a-fx]+)\\s+(\\w+)"
-    );
-    
-    private static final Pattern THREAD_STATE_PATTERN = Pattern.compile(
-        "java\\.lang\\.Thread\\.State:\\s*(\\w+)"
-    );
-    
-    private static final Pattern LOCK_PATTERN = Pattern.compile(
-        "- waiting (?:on|to lock) <([^>]+)> \\((?:a )?([^)]+)\\)"
-    );
-    
-    private static final Pattern LOCK_OWNER_PATTERN = Pattern.compile(
-        "- locked <([^>]+)> \\((?:a )?([^)]+)\\)"
-    );
+
+    /**
+     * Ranges per worker thread, so that uneven ranges still keep every worker busy.
+     */
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final int parallelism;
+    private final long parallelThreshold;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a parser that always parses sequentially.
+     */
+    public ThreadDumpParser() {
+        this.parallelism = 1;
+        this.parallelThreshold = Long.MAX_VALUE;
+        this.pool = null;
+    }
+
+    /**
+     * Creates a parser that splits dumps of at least the configured size across worker threads.
+     *
+     * @param properties analysis configuration providing the parser parallelism and threshold
+     */
+    @Autowired
+    public ThreadDumpParser(ThreadDumpAnalysisProperties properties) {
+        this.parallelism = properties.getParser().effectiveParallelism();
+        this.parallelThreshold = properties.getParser().getParallelThreshold().toBytes();
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
 
     /**
      * Parses thread dump content and extracts thread information.
-     * Enhanced implementation with better lock detection.
-     * 
+     *
      * @param threadDumpContent the raw thread dump content
      * @return list of parsed thread information
      */
     public List<ThreadInfo> parse(String threadDumpContent) {
-        List<ThreadInfo> threads = new ArrayList<>();
-        
-        if (threadDumpContent == null || threadDumpContent.trim().isEmpty()) {
-            return threads;
+        if (threadDumpContent == null || threadDumpContent.isBlank()) {
+            return new ArrayList<>();
         }
-        
-        // Split by thread boundaries (improved approach)
-        String[] threadBlocks = threadDumpContent.split("(?=\"[^\"]*\"\\s*#\\d+)");
-        
-        for (String block : threadBlocks) {
-            if (block.trim().isEmpty()) continue;
-            
-            ThreadInfo threadInfo = parseThreadBlock(block);
-            if (threadInfo != null) {
-                threads.add(threadInfo);
-            }
+        if (isParallel(threadDumpContent.length())) {
+            return parseInParallel(threadDumpContent);
         }
-        
+        return parse(new StringReader(threadDumpContent));
+    }
+
+    /**
+     * Parses a thread dump read from a character stream.
+     * The reader is consumed but not closed.
+     *
+     * @param reader the thread dump source
+     * @return list of parsed thread information
+     * @throws UncheckedIOException if reading fails
+     */
+    public List<ThreadInfo> parse(Reader reader) {
+        List<ThreadInfo> threads = new ArrayList<>();
+        parse(reader, threads::add);
         return threads;
     }
-    
-    private ThreadInfo parseThreadBlock(String block) {
-        String name = null;
-        long id = 0;
-        int priority = 0;
-        ThreadState state = ThreadState.UNKNOWN;
-        String lockName = null;
-        String lockOwner = null;
-        boolean daemon = false;
-        String group = null;
-        
-        // Parse thread header
-        Matcher headerMatcher = THREAD_HEADER_PATTERN.matcher(block);
-        if (headerMatcher.find()) {
-            name = headerMatcher.group(1);
-            id = Long.parseLong(headerMatcher.group(2));
-            priority = Integer.parseInt(headerMatcher.group(3));
-        }
-        
-        // Parse thread state
-        Matcher stateMatcher = THREAD_STATE_PATTERN.matcher(block);
-        if (stateMatcher.find()) {
-            try {
-                state = ThreadState.valueOf(stateMatcher.group(1));
-            } catch (IllegalArgumentException e) {
-                state = ThreadState.UNKNOWN;
+
+    /**
+     * Parses a UTF-8 encoded thread dump read from a byte stream.
+     * The stream is consumed but not closed.
+     *
+     * @param inputStream the thread dump source
+     * @return list of parsed thread information
+     * @throws UncheckedIOException if reading fails
+     */
+    public List<ThreadInfo> parse(InputStream inputStream) {
+        return parse(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a thread dump read from a character stream, handing each thread to the consumer
+     * as soon as its block has been read. The reader is consumed but not closed.
+     *
+     * @param reader the thread dump source
+     * @param consumer receives each parsed thread in dump order
+     * @throws UncheckedIOException if reading fails
+     */
+    public void parse(Reader reader, Consumer<ThreadInfo> consumer) {
+        ThreadBlockParser blockParser = new ThreadBlockParser(new FrameTable(), consumer);
+        LineReader lines = new LineReader(reader);
+        try {
+            CharSequence line;
+            while ((line = lines.next()) != null) {
+                blockParser.accept(line);
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read thread dump", e);
         }
-        
-        // Enhanced lock parsing
-        Matcher lockMatcher = LOCK_PATTERN.matcher(block);
-        if (lockMatcher.find()) {
-            lockName = lockMatcher.group(1);
+        blockParser.finish();
+    }
+
+    /**
+     * Parses a thread dump file by memory-mapping it and scanning its bytes directly.
+     * Only the fields that are kept (names, lock ids, stack frames) are decoded, as UTF-8,
+     * so heap usage is bounded by the number of threads rather than by the file size.
+     *
+     * @param dumpFile the thread dump file
+     * @return list of parsed thread information
+     * @throws UncheckedIOException if the file cannot be mapped or read
+     */
+    public List<ThreadInfo> parse(Path dumpFile) {
+        return parse(dumpFile, MappedDumpScanner.DEFAULT_WINDOW_SIZE);
+    }
+
+    List<ThreadInfo> parse(Path dumpFile, long mappingWindowSize) {
+        try (FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (isParallel(size) && size <= mappingWindowSize) {
+                return parseInParallel(MappedDumpScanner.map(channel, size));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read thread dump file " + dumpFile.getFileName(), e);
         }
-        
-        // Parse lock owner information
-        Matcher lockOwnerMatcher = LOCK_OWNER_PATTERN.matcher(block);
-        if (lockOwnerMatcher.find()) {
-            lockOwner = lockOwnerMatcher.group(1);
+        List<ThreadInfo> threads = new ArrayList<>();
+        ThreadBlockParser blockParser = new ThreadBlockParser(new FrameTable(), threads::add);
+        try {
+            MappedDumpScanner.scan(dumpFile, mappingWindowSize, blockParser::accept);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read thread dump file " + dumpFile.getFileName(), e);
         }
-        
-        // Extract stack trace
-        List<String> stackTrace = extractStackTrace(block);
-        
-        // Check if daemon thread
-        daemon = block.contains("daemon");
-        
-        // Extract thread group if available
-        if (block.contains("group=\"")) {
-            int start = block.indexOf("group=\"") + 7;
-            int end = block.indexOf("\"", start);
-            if (end > start) {
-                group = block.substring(start, end);
+        blockParser.finish();
+        return threads;
+    }
+
+    /**
+     * Parses the whole text in thread-header aligned ranges on the worker pool. Each range gets
+     * its own block parser and frame table; the per-range results are concatenated in range order,
+     * re-interning the frames of later ranges into the frame table of the first.
+     */
+    List<ThreadInfo> parseInParallel(CharSequence text) {
+        int[] bounds = DumpRanges.split(text, parallelism * RANGES_PER_WORKER);
+        List<ParsedRange> ranges = pool.submit(() -> IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(range -> parseRange(text, bounds[range], bounds[range + 1]))
+                .toList()).join();
+
+        FrameTable frameTable = ranges.get(0).frameTable();
+        List<ThreadInfo> threads = new ArrayList<>(ranges.stream().mapToInt(range -> range.threads().size()).sum());
+        threads.addAll(ranges.get(0).threads());
+        for (ParsedRange range : ranges.subList(1, ranges.size())) {
+            int[] frameIdMapping = new int[range.frameTable().size()];
+            for (int frameId = 0; frameId < frameIdMapping.length; frameId++) {
+                frameIdMapping[frameId] = frameTable.intern(range.frameTable(), frameId);
+            }
+            for (ThreadInfo thread : range.threads()) {
+                threads.add(remapFrames(thread, frameTable, frameIdMapping));
             }
         }
-        
-        return new ThreadInfo(name, id, state, lockName, lockOwner, stackTrace, daemon, priority, group);
+        return threads;
     }
-    
-    private List<String> extractStackTrace(String block) {
-        List<String> stackTrace = new ArrayList<>();
-        String[] lines = block.split("\n");
-        
-        boolean inStackTrace = false;
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("at ")) {
-                stackTrace.add(line);
-                inStackTrace = true;
-            } else if (inStackTrace && line.isEmpty()) {
-                break;
-            }
+
+    private static ParsedRange parseRange(CharSequence text, int start, int end) {
+        FrameTable frameTable = new FrameTable();
+        List<ThreadInfo> threads = new ArrayList<>();
+        ThreadBlockParser blockParser = new ThreadBlockParser(frameTable, threads::add);
+        DumpRanges.scanLines(text, start, end, blockParser::accept);
+        blockParser.finish();
+        return new ParsedRange(frameTable, threads);
+    }
+
+    private static ThreadInfo remapFrames(ThreadInfo thread, FrameTable frameTable, int[] frameIdMapping) {
+        int[] frameIds = thread.frames().frameIds();
+        for (int i = 0; i < frameIds.length; i++) {
+            frameIds[i] = frameIdMapping[frameIds[i]];
         }
-        
-        return stackTrace;
+        return thread.withFrames(FrameStack.of(frameTable, frameIds));
+    }
+
+    private boolean isParallel(long dumpSize) {
+        return pool != null && dumpSize >= parallelThreshold && dumpSize <= Integer.MAX_VALUE;
+    }
+
+    private record ParsedRange(FrameTable frameTable, List<ThreadInfo> threads) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports a high number of BLOCKED threads together with the most contended locks.
+ */
+@Component
+@Order(3)
+public class BlockedThreadsRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "blocked-threads";
+    }
+
+    @Override
+    public Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of(ThreadDumpIndex.STATE);
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+
+        List<ThreadInfo> blockedThreads = threadDump.threadsInState(ThreadState.BLOCKED);
+
+        long blockedCount = blockedThreads.size();
+
+        if (blockedCount > configuration.blockedThreadsThreshold()) {
+            // Analyze what the blocked threads are waiting for
+            Map<String, List<ThreadInfo>> blockedByLock = blockedThreads.stream()
+                    .filter(t -> t.lockName() != null)
+                    .collect(Collectors.groupingBy(ThreadInfo::lockName));
+
+            List<String> topBlockedThreads = blockedThreads.stream()
+                    .limit(10)
+                    .map(t -> String.format("%s (waiting for: %s)",
+                            t.name(), t.lockName() != null ? t.lockName() : "unknown"))
+                    .collect(Collectors.toList());
+
+            findings.add(new DiagnosticFinding(
+                    "HIGH_BLOCKED_THREADS",
+                    String.format("High number of blocked threads: %d. Top contended locks: %s",
+                            blockedCount,
+                            blockedByLock.entrySet().stream()
+                                    .sorted(Map.Entry.<String, List<ThreadInfo>>comparingByValue(
+                                            (a, b) -> Integer.compare(b.size(), a.size())))
+                                    .limit(3)
+                                    .map(e -> String.format("%s(%d threads)", e.getKey(), e.getValue().size()))
+                                    .collect(Collectors.joining(", "))),
+                    blockedCount > configuration.blockedThreadsHighThreshold() ? Severity.HIGH : Severity.MEDIUM,
+                    topBlockedThreads,
+                    "Review synchronization logic and reduce lock contention. Consider lock-free alternatives or finer-grained locking.",
+                    Map.of(
+                            "blockedCount", blockedCount,
+                            "lockContention", blockedByLock.entrySet().stream()
+                                    .collect(Collectors.toMap(
+                                            Map.Entry::getKey,
+                                            e -> e.getValue().size()
+                                    ))
+                    )
+            ));
+        }
+
+        return findings;
+    }
+}
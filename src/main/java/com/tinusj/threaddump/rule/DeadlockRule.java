@@ -0,0 +1,54 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reports deadlocks: cycles in the thread -> lock -> owner wait-for graph.
+ * Several threads blocked on the same lock is contention, not a deadlock, and is not reported here.
+ */
+@Component
+@Order(1)
+public class DeadlockRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "deadlock";
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+
+        WaitForGraph graph = WaitForGraph.of(threadDump.threads());
+        for (WaitForGraph.Deadlock deadlock : graph.findDeadlocks()) {
+            findings.add(new DiagnosticFinding(
+                    "DEADLOCK",
+                    String.format("Deadlock detected: %d threads are waiting for locks held by each other. %s",
+                            deadlock.threads().size(), String.join(", ", deadlock.cycle())),
+                    Severity.CRITICAL,
+                    deadlock.threads().stream()
+                            .map(ThreadInfo::name)
+                            .collect(Collectors.toList()),
+                    "Implement consistent lock ordering across all threads and consider using timeout-based locking",
+                    Map.of(
+                            "threadCount", deadlock.threads().size(),
+                            "cycle", deadlock.cycle(),
+                            "locks", deadlock.locks()
+                    )
+            ));
+        }
+
+        return findings;
+    }
+}
@@ -0,0 +1,40 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A diagnostic check run against every analyzed thread dump.
+ * <p>
+ * Rules are discovered as Spring beans and run concurrently by the {@link DiagnosticRuleEngine},
+ * so implementations must be stateless and must not modify the dump. Findings of all rules are
+ * reported in bean order (see {@link org.springframework.core.annotation.Order}).
+ */
+public interface DiagnosticRule {
+
+    /**
+     * Returns the unique rule name, used in timings, metrics and {@code thread-dump.analysis.disabled-rules}.
+     */
+    String name();
+
+    /**
+     * Returns the dump indexes this rule reads; they are built before any rule runs.
+     */
+    default Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of();
+    }
+
+    /**
+     * Evaluates the rule against a parsed thread dump.
+     *
+     * @param threadDump the parsed thread dump
+     * @param configuration the thresholds in effect for this analysis
+     * @return the findings of this rule, empty if there are none
+     */
+    List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration);
+}
@@ -0,0 +1,255 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.RuleEvaluation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs every enabled {@link DiagnosticRule} bean against a parsed thread dump.
+ * <p>
+ * Each analysis takes one {@link RuleConfiguration} snapshot from the {@link RuleConfigurationProvider}.
+ * The enabled rules and the indexes they need are compiled once per snapshot and reused until the
+ * configuration is refreshed; disabled rules are not submitted at all.
+ * <p>
+ * The indexes the rules declare are built first, then the rules run concurrently on a pool with a
+ * bounded queue. Each rule has its own timeout, measured from when a worker starts it, so rules
+ * queued behind concurrent analyses still get their full time. A queued rule must start within one
+ * timeout per pool-sized wave of work ahead of it at submission; otherwise it is skipped, since the
+ * workers are held by rules that ignored their cancellation. A rule that times out, fails, is skipped
+ * or is rejected by a full queue is logged and contributes no findings, so one slow rule cannot hold
+ * up the report.
+ * Rule execution times are returned with the findings and recorded as the
+ * {@code thread_dump.rule.duration} Micrometer timer, tagged by rule and outcome.
+ */
+@Component
+@Slf4j
+public class DiagnosticRuleEngine {
+
+    static final String RULE_TIMER = "thread_dump.rule.duration";
+
+    private final List<DiagnosticRule> rules;
+    private final RuleConfigurationProvider configurationProvider;
+    private final AtomicReference<CompiledRules> compiledRules = new AtomicReference<>();
+    private final Duration timeout;
+    private final int poolSize;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor executor;
+
+    public DiagnosticRuleEngine(List<DiagnosticRule> rules, RuleConfigurationProvider configurationProvider,
+                                ThreadDumpAnalysisProperties properties, MeterRegistry meterRegistry) {
+        this.rules = List.copyOf(rules);
+        this.configurationProvider = configurationProvider;
+        this.timeout = properties.getRules().getTimeout();
+        this.poolSize = properties.getRules().getPoolSize();
+        this.meterRegistry = meterRegistry;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(properties.getRules().getQueueCapacity());
+        executor.setThreadNamePrefix("diagnostic-rule-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    /**
+     * Stops the rule worker threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns all rules known to this engine, in order, including disabled ones.
+     */
+    public List<DiagnosticRule> rules() {
+        return rules;
+    }
+
+    /**
+     * Runs all rules against the thread dump.
+     *
+     * @param threadDump the parsed thread dump
+     * @return the findings of all enabled rules that completed in time, with per-rule execution times
+     *         and the configuration they ran with
+     */
+    public RuleEvaluation evaluate(ParsedThreadDump threadDump) {
+        CompiledRules compiled = compile(configurationProvider.current());
+        RuleConfiguration configuration = compiled.configuration();
+        List<DiagnosticRule> enabledRules = compiled.rules();
+        threadDump.prepare(compiled.requiredIndexes());
+
+        List<RuleTask> tasks = new ArrayList<>(enabledRules.size());
+        List<Future<List<DiagnosticFinding>>> futures = new ArrayList<>(enabledRules.size());
+        for (DiagnosticRule rule : enabledRules) {
+            RuleTask task = new RuleTask(rule, threadDump, configuration, startDeadline());
+            tasks.add(task);
+            try {
+                futures.add(executor.submit(task));
+            } catch (TaskRejectedException e) {
+                futures.add(null);
+            }
+        }
+
+        List<DiagnosticFinding> findings = new ArrayList<>();
+        Map<String, Long> ruleMillis = new LinkedHashMap<>();
+        for (int i = 0; i < enabledRules.size(); i++) {
+            DiagnosticRule rule = enabledRules.get(i);
+            RuleTask task = tasks.get(i);
+            Future<List<DiagnosticFinding>> future = futures.get(i);
+            String outcome = future != null ? await(task, future, findings) : reject(task);
+            long nanos = outcome.equals("timeout") ? timeout.toNanos() : task.elapsedNanos;
+            ruleMillis.put(rule.name(), TimeUnit.NANOSECONDS.toMillis(nanos));
+            Timer.builder(RULE_TIMER)
+                    .description("Execution time of a diagnostic rule")
+                    .tag("rule", rule.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+        return new RuleEvaluation(findings, Collections.unmodifiableMap(ruleMillis), configuration);
+    }
+
+    /**
+     * Returns the enabled rules for the configuration snapshot, compiling them only when the
+     * snapshot has changed since the previous analysis.
+     */
+    private CompiledRules compile(RuleConfiguration configuration) {
+        CompiledRules compiled = compiledRules.get();
+        if (compiled != null && compiled.configuration() == configuration) {
+            return compiled;
+        }
+        List<DiagnosticRule> enabledRules = rules.stream()
+                .filter(rule -> configuration.isEnabled(rule.name()))
+                .toList();
+        Set<ThreadDumpIndex> requiredIndexes = EnumSet.noneOf(ThreadDumpIndex.class);
+        enabledRules.forEach(rule -> requiredIndexes.addAll(rule.requiredIndexes()));
+        compiled = new CompiledRules(configuration, enabledRules, Collections.unmodifiableSet(requiredIndexes));
+        compiledRules.set(compiled);
+        return compiled;
+    }
+
+    /**
+     * Returns the latest time a rule submitted now may start: one timeout for each pool-sized wave of
+     * rules running or queued ahead of it, including its own.
+     */
+    private long startDeadline() {
+        int ahead = executor.getActiveCount() + executor.getQueueSize();
+        return System.nanoTime() + timeout.toNanos() * (1 + ahead / poolSize);
+    }
+
+    private String reject(RuleTask task) {
+        log.warn("Diagnostic rule {} was rejected because the rule queue is full; its findings are not reported",
+                task.rule.name());
+        return "rejected";
+    }
+
+    /**
+     * Waits for a rule and collects its findings. A queued rule is waited for until its start
+     * deadline, then for at most the timeout from its start.
+     *
+     * @return the outcome: "success", "timeout", "skipped" or "failure"
+     */
+    private String await(RuleTask task, Future<List<DiagnosticFinding>> future, List<DiagnosticFinding> findings) {
+        long timeoutNanos = timeout.toNanos();
+        while (true) {
+            long waitNanos = task.started
+                    ? task.startNanos + timeoutNanos - System.nanoTime()
+                    : task.startDeadline - System.nanoTime();
+            try {
+                findings.addAll(future.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS));
+                return "success";
+            } catch (TimeoutException e) {
+                if (task.started && System.nanoTime() - task.startNanos >= timeoutNanos) {
+                    future.cancel(true);
+                    log.warn("Diagnostic rule {} timed out after {} ms; its findings are not reported",
+                            task.rule.name(), timeout.toMillis());
+                    return "timeout";
+                }
+                if (!task.started && System.nanoTime() - task.startDeadline >= 0) {
+                    future.cancel(true);
+                    if (future instanceof Runnable queued) {
+                        executor.getThreadPoolExecutor().remove(queued);
+                    }
+                    log.warn("Diagnostic rule {} did not start in time because all rule workers are busy; "
+                            + "its findings are not reported", task.rule.name());
+                    return "skipped";
+                }
+                // Started while we waited: wait for the rest of its own timeout
+            } catch (ExecutionException e) {
+                log.error("Diagnostic rule {} failed", task.rule.name(), e.getCause());
+                return "failure";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                log.warn("Interrupted while waiting for diagnostic rule {}", task.rule.name());
+                return "failure";
+            }
+        }
+    }
+
+    /**
+     * One rule run of an analysis, recording when a worker started it and how long it took.
+     */
+    private static final class RuleTask implements Callable<List<DiagnosticFinding>> {
+
+        private final DiagnosticRule rule;
+        private final ParsedThreadDump threadDump;
+        private final RuleConfiguration configuration;
+        private final long startDeadline;
+        private volatile long startNanos;
+        private volatile boolean started;
+        private volatile long elapsedNanos;
+
+        private RuleTask(DiagnosticRule rule, ParsedThreadDump threadDump, RuleConfiguration configuration,
+                         long startDeadline) {
+            this.rule = rule;
+            this.threadDump = threadDump;
+            this.configuration = configuration;
+            this.startDeadline = startDeadline;
+        }
+
+        @Override
+        public List<DiagnosticFinding> call() {
+            long start = System.nanoTime();
+            startNanos = start;
+            started = true;
+            try {
+                return rule.evaluate(threadDump, configuration);
+            } finally {
+                elapsedNanos = System.nanoTime() - start;
+            }
+        }
+    }
+
+    private record CompiledRules(RuleConfiguration configuration, List<DiagnosticRule> rules,
+                                 Set<ThreadDumpIndex> requiredIndexes) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadCpuSample;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports methods that appear frequently in the stacks of RUNNABLE threads (CPU hotspots) or
+ * BLOCKED threads (lock contention hotspots), using the method index of the parsed dump.
+ * If the dump carries CPU times measured during its capture, CPU hotspots are instead the methods
+ * that were executing in the threads that actually consumed the CPU, ranked by CPU time.
+ */
+@Component
+@Order(5)
+public class HotspotRule implements DiagnosticRule {
+
+    private static final int MAX_CPU_HOTSPOTS = 5;
+    private static final double MIN_CPU_SHARE = 0.1;
+    private static final double HIGH_CPU_SHARE = 0.5;
+
+    @Override
+    public String name() {
+        return "hotspots";
+    }
+
+    @Override
+    public Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of(ThreadDumpIndex.STATE, ThreadDumpIndex.FRAME);
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+
+        // Enhanced hotspot detection - analyze runnable threads for CPU usage patterns.
+        // Method counts and affected threads come from the method index of the parsed dump.
+        Map<String, Long> methodCounts = threadDump.methodOccurrences(ThreadState.RUNNABLE);
+
+        // Also analyze blocked threads for lock contention hotspots
+        Map<String, Long> blockingMethods = threadDump.methodOccurrences(ThreadState.BLOCKED);
+
+        // Report CPU hotspots, by measured CPU time when the capture was sampled
+        if (threadDump.cpuSample().isPresent()) {
+            findings.addAll(measuredCpuHotspots(threadDump, threadDump.cpuSample().get()));
+        } else {
+            methodCounts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 3) // Lower threshold for more sensitive detection
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(5) // Top 5 hotspots
+                    .forEach(entry -> {
+                        List<String> affectedThreads = threadNamesInState(
+                                threadDump.threadsWithMethod(entry.getKey()), ThreadState.RUNNABLE);
+
+                        findings.add(new DiagnosticFinding(
+                                "CPU_HOTSPOT",
+                                String.format("Method frequently appears in runnable thread stack traces: %s (%d occurrences)",
+                                        entry.getKey(), entry.getValue()),
+                                entry.getValue() > 10 ? Severity.HIGH : Severity.MEDIUM,
+                                affectedThreads,
+                                "Profile and optimize this frequently executed method. Consider caching or algorithm improvements.",
+                                Map.of(
+                                        "method", entry.getKey(),
+                                        "occurrences", entry.getValue(),
+                                        "threadCount", affectedThreads.size()
+                                )
+                        ));
+                    });
+        }
+
+        // Report lock contention hotspots
+        blockingMethods.entrySet().stream()
+                .filter(entry -> entry.getValue() > 2)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(3) // Top 3 blocking hotspots
+                .forEach(entry -> {
+                    List<String> affectedThreads = threadNamesInState(
+                            threadDump.threadsWithMethod(entry.getKey()), ThreadState.BLOCKED);
+
+                    findings.add(new DiagnosticFinding(
+                            "LOCK_CONTENTION_HOTSPOT",
+                            String.format("Method frequently causes thread blocking: %s (%d blocked threads)",
+                                    entry.getKey(), entry.getValue()),
+                            Severity.HIGH,
+                            affectedThreads,
+                            "Review synchronization in this method. Consider reducing lock scope or using lock-free alternatives.",
+                            Map.of(
+                                    "method", entry.getKey(),
+                                    "blockedCount", entry.getValue(),
+                                    "threadCount", affectedThreads.size()
+                            )
+                    ));
+                });
+
+        return findings;
+    }
+
+    private List<DiagnosticFinding> measuredCpuHotspots(ParsedThreadDump threadDump, ThreadCpuSample sample) {
+        double totalCpuMillis = sample.totalCpuMillis();
+        if (totalCpuMillis <= 0) {
+            return List.of();
+        }
+        List<DiagnosticFinding> findings = new ArrayList<>();
+        threadDump.topMethodCpuMillis().entrySet().stream()
+                .filter(entry -> entry.getValue() / totalCpuMillis >= MIN_CPU_SHARE)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(MAX_CPU_HOTSPOTS)
+                .forEach(entry -> {
+                    List<ThreadInfo> threads = threadDump.threadsWithMethod(entry.getKey()).stream()
+                            .filter(t -> t.cpuDeltaMillis() > 0 && !t.frames().isEmpty()
+                                    && t.frames().frame(0).methodKey().equals(entry.getKey()))
+                            .sorted(Comparator.comparingDouble(ThreadInfo::cpuDeltaMillis).reversed())
+                            .toList();
+                    double share = entry.getValue() / totalCpuMillis;
+                    double cores = sample.windowMillis() > 0 ? entry.getValue() / sample.windowMillis() : 0;
+
+                    findings.add(new DiagnosticFinding(
+                            "CPU_HOTSPOT",
+                            String.format("Method consumed %.0f ms of CPU (%.0f%% of the process, %.2f cores) "
+                                            + "while the dump was captured: %s",
+                                    entry.getValue(), share * 100, cores, entry.getKey()),
+                            share >= HIGH_CPU_SHARE ? Severity.HIGH : Severity.MEDIUM,
+                            threads.stream().map(ThreadInfo::name).toList(),
+                            "Profile and optimize this method; these threads were measured burning CPU in it.",
+                            Map.of(
+                                    "method", entry.getKey(),
+                                    "cpuMillis", entry.getValue(),
+                                    "cpuShare", share,
+                                    "windowMillis", sample.windowMillis(),
+                                    "threadCount", threads.size()
+                            )
+                    ));
+                });
+        return findings;
+    }
+
+    private List<String> threadNamesInState(List<ThreadInfo> threads, ThreadState state) {
+        return threads.stream()
+                .filter(t -> t.state() == state)
+                .map(ThreadInfo::name)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,136 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.FrameStack;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports thread starvation, excessive blocking and groups of threads with identical stack traces.
+ */
+@Component
+@Order(7)
+public class SuspiciousPatternRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "suspicious-patterns";
+    }
+
+    @Override
+    public Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of(ThreadDumpIndex.STATE);
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+        List<ThreadInfo> threads = threadDump.threads();
+        List<ThreadInfo> blocked = threadDump.threadsInState(ThreadState.BLOCKED);
+
+        // Thread starvation detection
+        long blockedThreads = blocked.size();
+        long runnableThreads = threadDump.countInState(ThreadState.RUNNABLE);
+
+        if (blockedThreads > 0 && runnableThreads < 2) {
+            findings.add(new DiagnosticFinding(
+                    "THREAD_STARVATION",
+                    String.format("Potential thread starvation: %d blocked threads with only %d runnable",
+                            blockedThreads, runnableThreads),
+                    Severity.CRITICAL,
+                    blocked.stream()
+                            .limit(5)
+                            .map(ThreadInfo::name)
+                            .collect(Collectors.toList()),
+                    "Investigate lock contention and consider increasing thread pool sizes",
+                    Map.of("blockedThreads", blockedThreads, "runnableThreads", runnableThreads)
+            ));
+        }
+
+        // Excessive blocking pattern
+        if (blockedThreads > threads.size() * configuration.blockingRatioThreshold()) {
+            findings.add(new DiagnosticFinding(
+                    "EXCESSIVE_BLOCKING",
+                    String.format("High percentage of blocked threads: %.1f%% (%d out of %d)",
+                            (blockedThreads * 100.0 / threads.size()), blockedThreads, threads.size()),
+                    Severity.HIGH,
+                    blocked.stream()
+                            .limit(10)
+                            .map(ThreadInfo::name)
+                            .collect(Collectors.toList()),
+                    "Review synchronization mechanisms and reduce lock contention",
+                    Map.of("blockingPercentage", (blockedThreads * 100.0 / threads.size()))
+            ));
+        }
+
+        // Detect threads with identical stack traces (potential resource contention),
+        // comparing the top frames by frame id
+        Map<StackPrefix, List<ThreadInfo>> stackTraceGroups = threads.stream()
+                .filter(t -> !t.stackTrace().isEmpty())
+                .collect(Collectors.groupingBy(
+                        t -> StackPrefix.of(t.frames(), 5),
+                        LinkedHashMap::new,
+                        Collectors.toList()
+                ));
+
+        stackTraceGroups.entrySet().stream()
+                .filter(entry -> entry.getValue().size() >= 3)
+                .forEach(entry -> {
+                    List<ThreadInfo> similarThreads = entry.getValue();
+                    findings.add(new DiagnosticFinding(
+                            "IDENTICAL_STACK_TRACES",
+                            String.format("Multiple threads with identical stack traces: %d threads",
+                                    similarThreads.size()),
+                            Severity.MEDIUM,
+                            similarThreads.stream()
+                                    .map(ThreadInfo::name)
+                                    .collect(Collectors.toList()),
+                            "Investigate potential resource contention or inefficient synchronization",
+                            Map.of("threadCount", similarThreads.size(),
+                                  "stackTrace", similarThreads.get(0).stackTrace().stream()
+                                          .limit(3)
+                                          .collect(Collectors.toList()))
+                    ));
+                });
+
+        return findings;
+    }
+
+    /**
+     * The top frame ids of a stack, used as a grouping key.
+     */
+    private record StackPrefix(int[] frameIds) {
+
+        static StackPrefix of(FrameStack frames, int depth) {
+            int[] frameIds = new int[Math.min(depth, frames.size())];
+            for (int i = 0; i < frameIds.length; i++) {
+                frameIds[i] = frames.frameId(i);
+            }
+            return new StackPrefix(frameIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StackPrefix other && Arrays.equals(frameIds, other.frameIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(frameIds);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reports a dump with more threads than a healthy application usually needs.
+ */
+@Component
+@Order(2)
+public class ThreadCountRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "thread-count";
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        if (threadDump.size() <= configuration.maxThreadsWarning()) {
+            return List.of();
+        }
+        return List.of(new DiagnosticFinding(
+                "HIGH_THREAD_COUNT",
+                String.format("High number of threads detected: %d", threadDump.size()),
+                Severity.MEDIUM,
+                null,
+                "Consider using thread pools and reducing thread creation",
+                null
+        ));
+    }
+}
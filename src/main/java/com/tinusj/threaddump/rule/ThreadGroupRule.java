@@ -0,0 +1,77 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports problems specific to a logical thread group, such as too many HTTP threads or blocked
+ * database threads.
+ */
+@Component
+@Order(6)
+public class ThreadGroupRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "thread-groups";
+    }
+
+    @Override
+    public Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of(ThreadDumpIndex.GROUP);
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+
+        // Check for excessive HTTP threads
+        List<ThreadInfo> httpThreads = threadDump.threadsInGroup("HTTP/Web");
+        if (httpThreads.size() > configuration.httpThreadsThreshold()) {
+            findings.add(new DiagnosticFinding(
+                    "EXCESSIVE_HTTP_THREADS",
+                    String.format("High number of HTTP/Web threads: %d", httpThreads.size()),
+                    Severity.MEDIUM,
+                    httpThreads.stream().limit(10).map(ThreadInfo::name).collect(Collectors.toList()),
+                    "Review HTTP thread pool configuration and connection handling",
+                    Map.of("threadCount", httpThreads.size(), "category", "HTTP/Web")
+            ));
+        }
+
+        // Check for database connection issues
+        List<ThreadInfo> dbThreads = threadDump.threadsInGroup("Database");
+        long blockedDbThreads = dbThreads.stream()
+                .filter(t -> t.state() == ThreadState.BLOCKED)
+                .count();
+
+        if (blockedDbThreads > 5) {
+            findings.add(new DiagnosticFinding(
+                    "DATABASE_CONNECTION_CONTENTION",
+                    String.format("Multiple database threads are blocked: %d out of %d",
+                            blockedDbThreads, dbThreads.size()),
+                    Severity.HIGH,
+                    dbThreads.stream()
+                            .filter(t -> t.state() == ThreadState.BLOCKED)
+                            .map(ThreadInfo::name)
+                            .collect(Collectors.toList()),
+                    "Check database connection pool configuration and query performance",
+                    Map.of("blockedThreads", blockedDbThreads, "totalDbThreads", dbThreads.size())
+            ));
+        }
+
+        return findings;
+    }
+}
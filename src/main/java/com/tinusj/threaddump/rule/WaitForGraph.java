@@ -0,0 +1,184 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.model.ThreadInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wait-for graph of a thread dump: an edge {@code A -> B} means thread A is blocked on a lock
+ * (monitor or ownable synchronizer) held by thread B. Deadlocks are the cycles of this graph,
+ * found as strongly connected components with an iterative version of Tarjan's algorithm, so
+ * detection is linear in the number of threads and lock edges.
+ */
+final class WaitForGraph {
+
+    private final List<ThreadInfo> threads;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final String[] edgeLock;
+
+    private WaitForGraph(List<ThreadInfo> threads, int[] edgeStart, int[] edgeTarget, String[] edgeLock) {
+        this.threads = threads;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeLock = edgeLock;
+    }
+
+    /**
+     * A set of threads that wait for each other, with one cycle through them.
+     *
+     * @param threads the threads of the strongly connected component, in dump order
+     * @param cycle the wait-for cycle, one entry per edge, e.g. {@code "a" waits for <0x1> held by "b"}
+     * @param locks the locks on the cycle
+     */
+    record Deadlock(List<ThreadInfo> threads, List<String> cycle, List<String> locks) {
+    }
+
+    /**
+     * Builds the wait-for graph of the given threads.
+     */
+    static WaitForGraph of(List<ThreadInfo> threads) {
+        Map<String, Integer> ownerByLock = new HashMap<>();
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadInfo thread = threads.get(i);
+            for (String lock : thread.heldLocks()) {
+                // A thread re-acquiring a monitor after wait() lists it as both locked and awaited
+                if (!thread.awaitedLocks().contains(lock)) {
+                    ownerByLock.putIfAbsent(lock, i);
+                }
+            }
+        }
+
+        int[] edgeStart = new int[threads.size() + 1];
+        List<Integer> targets = new ArrayList<>();
+        List<String> locks = new ArrayList<>();
+        for (int i = 0; i < threads.size(); i++) {
+            edgeStart[i] = targets.size();
+            for (String lock : threads.get(i).awaitedLocks()) {
+                Integer owner = ownerByLock.get(lock);
+                if (owner != null && owner != i) {
+                    targets.add(owner);
+                    locks.add(lock);
+                }
+            }
+        }
+        edgeStart[threads.size()] = targets.size();
+        int[] edgeTarget = targets.stream().mapToInt(Integer::intValue).toArray();
+        return new WaitForGraph(threads, edgeStart, edgeTarget, locks.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the number of wait-for edges.
+     */
+    int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Finds every deadlock, i.e. every strongly connected component with more than one thread.
+     */
+    List<Deadlock> findDeadlocks() {
+        int size = threads.size();
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        int[] component = new int[size];
+        int[] nextEdge = new int[size];
+        int[] sccStack = new int[size];
+        int[] callStack = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+
+        List<Deadlock> deadlocks = new ArrayList<>();
+        int counter = 0;
+        int sccTop = 0;
+        int components = 0;
+        for (int root = 0; root < size; root++) {
+            if (index[root] >= 0 || edgeStart[root] == edgeStart[root + 1]) {
+                continue;
+            }
+            int callTop = 0;
+            callStack[callTop++] = root;
+            index[root] = lowLink[root] = counter++;
+            nextEdge[root] = edgeStart[root];
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                if (nextEdge[node] < edgeStart[node + 1]) {
+                    int target = edgeTarget[nextEdge[node]++];
+                    if (index[target] < 0) {
+                        index[target] = lowLink[target] = counter++;
+                        nextEdge[target] = edgeStart[target];
+                        sccStack[sccTop++] = target;
+                        onStack[target] = true;
+                        callStack[callTop++] = target;
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int first = sccTop;
+                    do {
+                        first--;
+                        onStack[sccStack[first]] = false;
+                        component[sccStack[first]] = components;
+                    } while (sccStack[first] != node);
+                    if (sccTop - first > 1) {
+                        deadlocks.add(toDeadlock(Arrays.copyOfRange(sccStack, first, sccTop), component));
+                    }
+                    sccTop = first;
+                    components++;
+                }
+            }
+        }
+        return deadlocks;
+    }
+
+    /**
+     * Describes a strongly connected component by following, from its first thread, edges that
+     * stay inside the component until a thread repeats; the repeated part is a cycle.
+     */
+    private Deadlock toDeadlock(int[] members, int[] component) {
+        Arrays.sort(members);
+        int componentId = component[members[0]];
+
+        Map<Integer, Integer> positionOnPath = new HashMap<>();
+        List<Integer> pathNodes = new ArrayList<>();
+        List<Integer> pathEdges = new ArrayList<>();
+        int node = members[0];
+        while (!positionOnPath.containsKey(node)) {
+            positionOnPath.put(node, pathNodes.size());
+            pathNodes.add(node);
+            int edge = edgeStart[node];
+            while (component[edgeTarget[edge]] != componentId) {
+                edge++;
+            }
+            pathEdges.add(edge);
+            node = edgeTarget[edge];
+        }
+
+        List<String> cycle = new ArrayList<>();
+        List<String> locks = new ArrayList<>();
+        for (int i = positionOnPath.get(node); i < pathNodes.size(); i++) {
+            int edge = pathEdges.get(i);
+            cycle.add(String.format("\"%s\" waits for <%s> held by \"%s\"",
+                    threads.get(pathNodes.get(i)).name(), edgeLock[edge], threads.get(edgeTarget[edge]).name()));
+            locks.add(edgeLock[edge]);
+        }
+        List<ThreadInfo> deadlocked = Arrays.stream(members).mapToObj(threads::get).toList();
+        return new Deadlock(deadlocked, cycle, locks);
+    }
+}
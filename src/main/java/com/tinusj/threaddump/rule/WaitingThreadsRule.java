@@ -0,0 +1,90 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadDumpIndex;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reports a high number of WAITING and TIMED_WAITING threads together with their common wait patterns.
+ */
+@Component
+@Order(4)
+public class WaitingThreadsRule implements DiagnosticRule {
+
+    @Override
+    public String name() {
+        return "waiting-threads";
+    }
+
+    @Override
+    public Set<ThreadDumpIndex> requiredIndexes() {
+        return Set.of(ThreadDumpIndex.STATE);
+    }
+
+    @Override
+    public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+
+        List<ThreadInfo> waitingThreads = threadDump.threads().stream()
+                .filter(thread -> thread.state() == ThreadState.WAITING || thread.state() == ThreadState.TIMED_WAITING)
+                .toList();
+
+        long waitingCount = waitingThreads.size();
+
+        if (waitingCount > configuration.waitingThreadsThreshold()) {
+            // Analyze what threads are waiting for
+            Map<String, List<ThreadInfo>> waitingPatterns = waitingThreads.stream()
+                    .collect(Collectors.groupingBy(thread -> {
+                        if (!thread.stackTrace().isEmpty()) {
+                            String topStack = thread.stackTrace().get(0);
+                            if (topStack.contains("Object.wait") || topStack.contains("Thread.sleep")) {
+                                return topStack.substring(topStack.indexOf("at ") + 3);
+                            }
+                        }
+                        return "Unknown wait";
+                    }));
+
+            List<String> topWaitingThreads = waitingThreads.stream()
+                    .limit(10)
+                    .map(t -> String.format("%s (%s)", t.name(), t.state()))
+                    .collect(Collectors.toList());
+
+            findings.add(new DiagnosticFinding(
+                    "HIGH_WAITING_THREADS",
+                    String.format("High number of waiting threads: %d. Common wait patterns: %s",
+                            waitingCount,
+                            waitingPatterns.entrySet().stream()
+                                    .sorted(Map.Entry.<String, List<ThreadInfo>>comparingByValue(
+                                            (a, b) -> Integer.compare(b.size(), a.size())))
+                                    .limit(3)
+                                    .map(e -> String.format("%s(%d)", e.getKey(), e.getValue().size()))
+                                    .collect(Collectors.joining(", "))),
+                    waitingCount > configuration.waitingThreadsHighThreshold() ? Severity.MEDIUM : Severity.LOW,
+                    topWaitingThreads,
+                    "Review thread coordination and consider reducing wait times. Check if waiting is necessary or can be optimized.",
+                    Map.of(
+                            "waitingCount", waitingCount,
+                            "waitingPatterns", waitingPatterns.entrySet().stream()
+                                    .collect(Collectors.toMap(
+                                            Map.Entry::getKey,
+                                            e -> e.getValue().size()
+                                    ))
+                    )
+            ));
+        }
+
+        return findings;
+    }
+}
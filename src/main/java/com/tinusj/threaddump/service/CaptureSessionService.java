@@ -0,0 +1,55 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.model.CaptureSessionRequest;
+import com.tinusj.threaddump.model.CaptureSessionSummary;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service for capturing a series of thread dumps from one process at a fixed interval.
+ */
+public interface CaptureSessionService {
+
+    /**
+     * Starts a capture session. The first sample is taken immediately, the others in the background.
+     *
+     * @param request the process, number of samples and interval
+     * @return the summary of the started session, including its id
+     * @throws IllegalArgumentException if the request is invalid or the process does not exist
+     * @throws IllegalStateException if the maximum number of active sessions is reached
+     */
+    CaptureSessionSummary startSession(CaptureSessionRequest request);
+
+    /**
+     * Returns the progress and results of a session.
+     *
+     * @param sessionId the session id
+     * @return the session summary, or empty if there is no such session
+     */
+    Optional<CaptureSessionSummary> getSession(String sessionId);
+
+    /**
+     * Returns the summaries of all sessions that are running or still retained.
+     *
+     * @return the session summaries, most recently started first
+     */
+    List<CaptureSessionSummary> getSessions();
+
+    /**
+     * Returns the samples captured so far by a session, in sequence order.
+     *
+     * @param sessionId the session id
+     * @return the samples, or empty if there is no such session
+     */
+    Optional<List<ThreadDumpSample>> getSamples(String sessionId);
+
+    /**
+     * Cancels a running session. Samples already captured are kept.
+     *
+     * @param sessionId the session id
+     * @return the session summary, or empty if there is no such session
+     */
+    Optional<CaptureSessionSummary> cancelSession(String sessionId);
+}
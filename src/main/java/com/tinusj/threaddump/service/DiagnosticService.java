@@ -1,7 +1,11 @@
 package com.tinusj.threaddump.service;
 
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.DiagnosticReport;
 
+import java.io.Reader;
+import java.nio.file.Path;
+
 /**
  * Interface for thread dump diagnostic analysis services.
  */
@@ -15,4 +19,34 @@ public interface DiagnosticService {
      * @return diagnostic report with analysis results
      */
     DiagnosticReport analyzeThreadDump(String threadDumpContent, String source);
-}
\ No newline at end of file
+    
+    /**
+     * Analyzes a thread dump read from a character stream, without buffering the whole dump in memory.
+     * The reader is consumed but not closed.
+     * 
+     * @param reader the thread dump source
+     * @param source the source identifier (e.g., filename, "text-input")
+     * @return diagnostic report with analysis results
+     */
+    DiagnosticReport analyzeThreadDump(Reader reader, String source);
+    
+    /**
+     * Analyzes a thread dump file through a memory mapping, so very large files are never read onto the heap.
+     * 
+     * @param dumpFile the thread dump file
+     * @param source the source identifier (e.g., filename, "text-input")
+     * @return diagnostic report with analysis results
+     */
+    DiagnosticReport analyzeThreadDump(Path dumpFile, String source);
+    
+    /**
+     * Analyzes a thread dump captured from a local process, attaching the measured CPU time of each
+     * thread so that CPU hotspots are ranked by the CPU actually consumed. A dump that was already
+     * parsed during the capture is not parsed again.
+     * 
+     * @param capture the captured thread dump and CPU sample
+     * @param source the source identifier (e.g., "pid-1234")
+     * @return diagnostic report with analysis results
+     */
+    DiagnosticReport analyzeThreadDump(CapturedThreadDump capture, String source);
+}
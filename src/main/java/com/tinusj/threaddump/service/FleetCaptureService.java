@@ -0,0 +1,22 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.model.FleetCaptureRequest;
+import com.tinusj.threaddump.model.FleetCaptureSummary;
+
+/**
+ * Service for capturing and analyzing thread dumps of many local processes at the same instant.
+ */
+public interface FleetCaptureService {
+
+    /**
+     * Captures and analyzes every selected process concurrently and waits for all of them.
+     * A process that cannot be captured, or takes longer than the timeout, is reported as such
+     * without failing the others.
+     *
+     * @param request the processes to capture and the per-process timeout
+     * @return the result of each process and their combined summary
+     * @throws IllegalArgumentException if the pattern or timeout is invalid or too many processes are selected
+     * @throws UnsupportedOperationException if thread dump generation is not available
+     */
+    FleetCaptureSummary captureAll(FleetCaptureRequest request);
+}
@@ -0,0 +1,66 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ProfileRequest;
+import com.tinusj.threaddump.model.ProfileSummary;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service for profiling a process by sampling its thread stacks at a fixed interval and merging the
+ * samples into one call tree.
+ */
+public interface ProfilingService {
+
+    /**
+     * Starts a profile. The first sample is taken immediately, the others in the background.
+     *
+     * @param request the process, interval, duration and thread selection
+     * @return the summary of the started profile, including its id
+     * @throws IllegalArgumentException if the request is invalid or the process does not exist
+     * @throws IllegalStateException if the maximum number of active profiles is reached
+     * @throws UnsupportedOperationException if in-process capture is not available
+     */
+    ProfileSummary startProfile(ProfileRequest request);
+
+    /**
+     * Returns the progress of a profile.
+     *
+     * @param profileId the profile id
+     * @return the profile summary, or empty if there is no such profile
+     */
+    Optional<ProfileSummary> getProfile(String profileId);
+
+    /**
+     * Returns the summaries of all profiles that are running or still retained.
+     *
+     * @return the profile summaries, most recently started first
+     */
+    List<ProfileSummary> getProfiles();
+
+    /**
+     * Returns the call tree merged so far in collapsed-stack format, one {@code root;...;leaf count}
+     * line per call path.
+     *
+     * @param profileId the profile id
+     * @return the collapsed stacks, or empty if there is no such profile
+     */
+    Optional<String> getCollapsedStacks(String profileId);
+
+    /**
+     * Returns the methods that sampled threads were executing most often.
+     *
+     * @param profileId the profile id
+     * @return the hotspot findings, or empty if there is no such profile
+     */
+    Optional<List<DiagnosticFinding>> getHotspots(String profileId);
+
+    /**
+     * Stops a running profile. The call tree merged so far is kept.
+     *
+     * @param profileId the profile id
+     * @return the profile summary, or empty if there is no such profile
+     */
+    Optional<ProfileSummary> stopProfile(String profileId);
+}
@@ -1,6 +1,7 @@
 package com.tinusj.threaddump.service;
 
 import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.formatter.ReportFormatter;
 import com.tinusj.threaddump.model.DiagnosticReport;
 
 import java.util.Set;
@@ -20,6 +21,16 @@ public interface ReportFormatterService {
      */
     String formatReport(DiagnosticReport report, ReportFormat format);
     
+    /**
+     * Returns the formatter for the specified format, e.g. to stream a report with
+     * {@link ReportFormatter#writeTo} instead of building it as a string.
+     * 
+     * @param format the desired output format
+     * @return the formatter
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    ReportFormatter getFormatter(ReportFormat format);
+    
     /**
      * Returns all supported report formats.
      * 
@@ -0,0 +1,20 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.model.SeriesAnalysis;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+
+import java.util.List;
+
+/**
+ * Analyzes a series of thread dumps of one JVM for threads and locks that make no progress.
+ */
+public interface SampleSeriesAnalyzer {
+
+    /**
+     * Joins the threads of all samples and reports stuck threads and long-held locks.
+     *
+     * @param samples the samples of one JVM, in capture order
+     * @return the per-thread progress, long-held locks and findings
+     */
+    SeriesAnalysis analyze(List<ThreadDumpSample> samples);
+}
@@ -1,28 +1,81 @@
 package com.tinusj.threaddump.service;
 
 import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleEvaluation;
 import com.tinusj.threaddump.model.ThreadStatistics;
 
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
  * Interface for analyzing thread dumps and generating diagnostic findings.
  */
 public interface ThreadDumpAnalyzer {
-    
+
+    /**
+     * Parses thread dump content into an indexed model that can be shared by all analysis stages.
+     *
+     * @param threadDumpContent the raw thread dump content
+     * @return the parsed thread dump
+     */
+    ParsedThreadDump parse(String threadDumpContent);
+
+    /**
+     * Parses a thread dump from a character stream without materializing it as a single String.
+     * The reader is consumed but not closed.
+     *
+     * @param reader the thread dump source
+     * @return the parsed thread dump
+     */
+    ParsedThreadDump parse(Reader reader);
+
+    /**
+     * Parses a thread dump file through a memory mapping, without reading it onto the heap.
+     *
+     * @param dumpFile the thread dump file
+     * @return the parsed thread dump
+     */
+    ParsedThreadDump parse(Path dumpFile);
+
     /**
      * Analyzes thread dump content and generates statistics.
-     * 
+     *
      * @param threadDumpContent the raw thread dump content
      * @return thread statistics
      */
     ThreadStatistics analyzeStatistics(String threadDumpContent);
-    
+
+    /**
+     * Generates statistics for an already parsed thread dump.
+     *
+     * @param threadDump the parsed thread dump
+     * @return thread statistics
+     */
+    ThreadStatistics analyzeStatistics(ParsedThreadDump threadDump);
+
     /**
      * Analyzes thread dump content and generates diagnostic findings.
-     * 
+     *
      * @param threadDumpContent the raw thread dump content
      * @return list of diagnostic findings
      */
     List<DiagnosticFinding> analyzeFindings(String threadDumpContent);
-}
\ No newline at end of file
+
+    /**
+     * Generates diagnostic findings for an already parsed thread dump.
+     *
+     * @param threadDump the parsed thread dump
+     * @return list of diagnostic findings
+     */
+    List<DiagnosticFinding> analyzeFindings(ParsedThreadDump threadDump);
+
+    /**
+     * Runs the diagnostic rules against an already parsed thread dump.
+     *
+     * @param threadDump the parsed thread dump
+     * @return the findings together with the execution time of each rule
+     */
+    RuleEvaluation evaluateRules(ParsedThreadDump threadDump);
+}
@@ -0,0 +1,32 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.ThreadDumpDiffRequest;
+
+/**
+ * Service for comparing two thread dumps, e.g. taken before and after a deployment.
+ */
+public interface ThreadDumpDiffService {
+
+    /**
+     * Compares the two dumps of a diff request, parsing dumps given as text and looking up dumps
+     * given by report id.
+     *
+     * @param request the baseline and current dump, each as text or report id
+     * @return a report whose statistics are count deltas (current minus baseline) and whose findings
+     *         describe what changed
+     * @throws IllegalArgumentException if a side is missing or refers to an unknown report
+     */
+    DiagnosticReport diff(ThreadDumpDiffRequest request);
+
+    /**
+     * Compares two parsed dumps.
+     *
+     * @param baseline the baseline dump
+     * @param current the current dump
+     * @param source the source identifier of the comparison
+     * @return the delta report
+     */
+    DiagnosticReport diff(ParsedThreadDump baseline, ParsedThreadDump current, String source);
+}
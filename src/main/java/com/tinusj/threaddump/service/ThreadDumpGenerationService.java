@@ -1,5 +1,10 @@
 package com.tinusj.threaddump.service;
 
+import com.tinusj.threaddump.model.CapturedThreadDump;
+
+import java.io.Reader;
+import java.util.function.Function;
+
 /**
  * Service for generating thread dumps from running Java processes.
  */
@@ -15,10 +20,51 @@ public interface ThreadDumpGenerationService {
      */
     String generateThreadDump(long pid);
     
+    /**
+     * Generates a thread dump for the specified process ID and hands its text to the consumer as a
+     * character stream, while the dump is still being produced where the capture backend allows it.
+     * The consumer may be invoked again with a fresh stream if a capture backend fails and another
+     * one is tried.
+     * 
+     * @param pid the process ID of the Java process
+     * @param consumer reads the thread dump text and produces the result
+     * @return the result of the consumer
+     * @throws IllegalArgumentException if the PID is invalid or not a Java process
+     * @throws RuntimeException if thread dump generation fails
+     */
+    <T> T generateThreadDump(long pid, Function<Reader, T> consumer);
+    
+    /**
+     * Generates a thread dump for the specified process ID and measures the CPU time each of its
+     * threads consumed meanwhile, where the operating system exposes per-thread CPU times.
+     * The dump is parsed as it is captured and its text is not kept.
+     * 
+     * @param pid the process ID of the Java process
+     * @return the parsed thread dump and, if available, the CPU time per native thread
+     * @throws IllegalArgumentException if the PID is invalid or not a Java process
+     * @throws RuntimeException if thread dump generation fails
+     */
+    default CapturedThreadDump captureThreadDump(long pid) {
+        return captureThreadDump(pid, false);
+    }
+    
+    /**
+     * Generates a thread dump for the specified process ID, parsing it as it is captured, and measures
+     * the CPU time each of its threads consumed meanwhile, where the operating system exposes
+     * per-thread CPU times.
+     * 
+     * @param pid the process ID of the Java process
+     * @param keepContent whether to also keep the raw thread dump text
+     * @return the parsed thread dump, its text if requested and, if available, the CPU time per native thread
+     * @throws IllegalArgumentException if the PID is invalid or not a Java process
+     * @throws RuntimeException if thread dump generation fails
+     */
+    CapturedThreadDump captureThreadDump(long pid, boolean keepContent);
+    
     /**
      * Checks if thread dump generation is available on this system.
      * 
      * @return true if thread dump generation tools are available, false otherwise
      */
     boolean isAvailable();
-}
\ No newline at end of file
+}
@@ -0,0 +1,326 @@
+package com.tinusj.threaddump.service.impl;
+
+import com.tinusj.threaddump.config.CaptureSessionProperties;
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+import com.tinusj.threaddump.model.CaptureSessionRequest;
+import com.tinusj.threaddump.model.CaptureSessionSummary;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+import com.tinusj.threaddump.service.CaptureSessionService;
+import com.tinusj.threaddump.service.ThreadDumpAnalyzer;
+import com.tinusj.threaddump.service.ThreadDumpGenerationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of CaptureSessionService that samples processes on a shared scheduler.
+ * <p>
+ * Each session is one fixed-rate task whose ticks are due at {@code start + n * interval}, so
+ * samples do not drift however long a capture takes. A tick only hands the capture off to a
+ * separate pool and returns, so slow captures of one process cannot delay the ticks of other
+ * sessions; a tick that comes due while the previous capture of the same session is still running
+ * is skipped and reported rather than queued. Samples are parsed from the jstack output as it is
+ * streamed, so only the parsed form is ever held. Finished sessions are discarded after
+ * {@code thread-dump.sessions.retention}.
+ */
+@Service
+@Slf4j
+public class CaptureSessionServiceImpl implements CaptureSessionService {
+
+    static final String ACTIVE_SESSIONS_GAUGE = "thread_dump.sessions.active";
+    static final String SAMPLE_TIMER = "thread_dump.sessions.sample.duration";
+
+    /**
+     * How often finished sessions are checked against the retention period.
+     */
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    private final ThreadDumpGenerationService generationService;
+    private final ThreadDumpAnalyzer analyzer;
+    private final CaptureSessionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskScheduler scheduler;
+    private final ThreadPoolTaskExecutor captureExecutor;
+
+    public CaptureSessionServiceImpl(ThreadDumpGenerationService generationService, ThreadDumpAnalyzer analyzer,
+                                     CaptureSessionProperties properties, MeterRegistry meterRegistry) {
+        this.generationService = generationService;
+        this.analyzer = analyzer;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getSchedulerPoolSize());
+        scheduler.setThreadNamePrefix("capture-session-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        this.captureExecutor = new ThreadPoolTaskExecutor();
+        captureExecutor.setCorePoolSize(properties.getCapturePoolSize());
+        captureExecutor.setMaxPoolSize(properties.getCapturePoolSize());
+        captureExecutor.setThreadNamePrefix("capture-sample-");
+        captureExecutor.setDaemon(true);
+        captureExecutor.initialize();
+
+        meterRegistry.gauge(ACTIVE_SESSIONS_GAUGE, sessions, CaptureSessionServiceImpl::countActive);
+        scheduler.scheduleWithFixedDelay(this::evictExpiredSessions, EVICTION_INTERVAL);
+    }
+
+    /**
+     * Stops sampling and the worker threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(Session::cancel);
+        scheduler.shutdown();
+        captureExecutor.shutdown();
+    }
+
+    @Override
+    public CaptureSessionSummary startSession(CaptureSessionRequest request) {
+        Duration interval = Duration.ofMillis(request.intervalMillis());
+        validate(request, interval);
+
+        Session session;
+        synchronized (sessions) {
+            if (countActive(sessions) >= properties.getMaxActiveSessions()) {
+                throw new IllegalStateException("Maximum number of active capture sessions ("
+                        + properties.getMaxActiveSessions() + ") reached");
+            }
+            session = new Session(UUID.randomUUID().toString(), request.pid(), request.count(), interval,
+                    Instant.now());
+            sessions.put(session.id, session);
+        }
+        log.info("Starting capture session {} for PID {}: {} samples every {} ms", session.id, session.pid,
+                session.requestedSamples, interval.toMillis());
+
+        Runnable tick = () -> tick(session);
+        session.attach(session.requestedSamples == 1
+                ? scheduler.schedule(tick, session.startedAt)
+                : scheduler.scheduleAtFixedRate(tick, session.startedAt, interval));
+        return session.summary();
+    }
+
+    @Override
+    public Optional<CaptureSessionSummary> getSession(String sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId)).map(Session::summary);
+    }
+
+    @Override
+    public List<CaptureSessionSummary> getSessions() {
+        return sessions.values().stream()
+                .sorted(Comparator.comparing((Session session) -> session.startedAt).reversed())
+                .map(Session::summary)
+                .toList();
+    }
+
+    @Override
+    public Optional<List<ThreadDumpSample>> getSamples(String sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId)).map(Session::samples);
+    }
+
+    @Override
+    public Optional<CaptureSessionSummary> cancelSession(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        if (session.cancel()) {
+            log.info("Cancelled capture session {} for PID {}", session.id, session.pid);
+        }
+        return Optional.of(session.summary());
+    }
+
+    private void validate(CaptureSessionRequest request, Duration interval) {
+        if (request.count() < 1 || request.count() > properties.getMaxSamples()) {
+            throw new IllegalArgumentException("Sample count must be between 1 and " + properties.getMaxSamples());
+        }
+        if (request.count() > 1 && interval.compareTo(properties.getMinInterval()) < 0) {
+            throw new IllegalArgumentException("Interval must be at least "
+                    + properties.getMinInterval().toMillis() + " ms");
+        }
+        if (request.count() == 1 && interval.isNegative()) {
+            throw new IllegalArgumentException("Interval cannot be negative");
+        }
+        if (ProcessHandle.of(request.pid()).isEmpty()) {
+            throw new IllegalArgumentException("No process with PID " + request.pid());
+        }
+    }
+
+    /**
+     * Runs on the scheduler when a sample is due; hands the capture off without waiting for it.
+     */
+    private void tick(Session session) {
+        int sequence = session.nextSample();
+        if (sequence < 0) {
+            return;
+        }
+        Instant scheduledAt = session.startedAt.plus(session.interval.multipliedBy(sequence));
+        try {
+            captureExecutor.execute(() -> capture(session, sequence, scheduledAt));
+        } catch (TaskRejectedException e) {
+            session.sampleFailed(sequence, "capture pool is shut down");
+        }
+    }
+
+    private void capture(Session session, int sequence, Instant scheduledAt) {
+        Instant capturedAt = Instant.now();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            ParsedThreadDump dump = generationService.generateThreadDump(session.pid, analyzer::parse);
+            long captureMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            session.sampleCaptured(new ThreadDumpSample(sequence, scheduledAt, capturedAt, captureMillis, dump));
+        } catch (RuntimeException e) {
+            outcome = "error";
+            log.warn("Capture session {}: sample {} of PID {} failed: {}", session.id, sequence, session.pid,
+                    e.getMessage());
+            session.sampleFailed(sequence, e.getMessage());
+        } finally {
+            Timer.builder(SAMPLE_TIMER)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void evictExpiredSessions() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        sessions.values().removeIf(session -> session.finishedBefore(cutoff));
+    }
+
+    private static int countActive(Map<String, Session> sessions) {
+        return (int) sessions.values().stream().filter(Session::isRunning).count();
+    }
+
+    /**
+     * Mutable state of one capture session, guarded by the session's monitor.
+     */
+    private static final class Session {
+
+        private final String id;
+        private final long pid;
+        private final int requestedSamples;
+        private final Duration interval;
+        private final Instant startedAt;
+        private final List<ThreadDumpSample> samples = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private CaptureSessionStatus status = CaptureSessionStatus.RUNNING;
+        private Instant finishedAt;
+        private int nextSequence;
+        private boolean captureInFlight;
+        private ScheduledFuture<?> ticks;
+
+        Session(String id, long pid, int requestedSamples, Duration interval, Instant startedAt) {
+            this.id = id;
+            this.pid = pid;
+            this.requestedSamples = requestedSamples;
+            this.interval = interval;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Keeps the scheduled task so it can be stopped, or stops it right away if the ticks already ran out.
+         */
+        synchronized void attach(ScheduledFuture<?> ticks) {
+            this.ticks = ticks;
+            if (status != CaptureSessionStatus.RUNNING || nextSequence >= requestedSamples) {
+                ticks.cancel(false);
+            }
+        }
+
+        /**
+         * Claims the sequence number of the sample that is due, or returns -1 if none should be captured.
+         */
+        synchronized int nextSample() {
+            if (status != CaptureSessionStatus.RUNNING || nextSequence >= requestedSamples) {
+                return -1;
+            }
+            int sequence = nextSequence++;
+            if (nextSequence >= requestedSamples && ticks != null) {
+                ticks.cancel(false);
+            }
+            if (captureInFlight) {
+                errors.add("Sample " + sequence + " skipped: previous capture still running");
+                finishIfDone();
+                return -1;
+            }
+            captureInFlight = true;
+            return sequence;
+        }
+
+        synchronized void sampleCaptured(ThreadDumpSample sample) {
+            captureInFlight = false;
+            samples.add(sample);
+            finishIfDone();
+        }
+
+        synchronized void sampleFailed(int sequence, String message) {
+            captureInFlight = false;
+            errors.add("Sample " + sequence + " failed: " + message);
+            finishIfDone();
+        }
+
+        synchronized boolean cancel() {
+            if (status != CaptureSessionStatus.RUNNING) {
+                return false;
+            }
+            status = CaptureSessionStatus.CANCELLED;
+            finishedAt = Instant.now();
+            if (ticks != null) {
+                ticks.cancel(false);
+            }
+            return true;
+        }
+
+        synchronized boolean isRunning() {
+            return status == CaptureSessionStatus.RUNNING;
+        }
+
+        synchronized boolean finishedBefore(Instant cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized List<ThreadDumpSample> samples() {
+            return List.copyOf(samples);
+        }
+
+        synchronized CaptureSessionSummary summary() {
+            List<CaptureSessionSummary.Sample> sampleSummaries = samples.stream()
+                    .map(sample -> new CaptureSessionSummary.Sample(sample.sequence(), sample.scheduledAt(),
+                            sample.capturedAt(), sample.captureMillis(), sample.dump().size()))
+                    .toList();
+            return new CaptureSessionSummary(id, pid, status, requestedSamples, interval.toMillis(), startedAt,
+                    finishedAt, sampleSummaries, List.copyOf(errors));
+        }
+
+        private void finishIfDone() {
+            if (status == CaptureSessionStatus.RUNNING && nextSequence >= requestedSamples && !captureInFlight) {
+                status = samples.isEmpty() ? CaptureSessionStatus.FAILED : CaptureSessionStatus.COMPLETED;
+                finishedAt = Instant.now();
+                log.info("Capture session {} for PID {} {}: {} samples, {} errors", id, pid,
+                        status.name().toLowerCase(), samples.size(), errors.size());
+            }
+        }
+    }
+}
@@ -2,52 +2,155 @@ package com.tinusj.threaddump.service.impl;
 
 import com.tinusj.threaddump.enums.ReportStatus;
 import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.AnalysisTimings;
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.DiagnosticFinding;
 import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.RuleEvaluation;
 import com.tinusj.threaddump.model.ThreadStatistics;
 import com.tinusj.threaddump.service.DiagnosticService;
 import com.tinusj.threaddump.service.ThreadDumpAnalyzer;
+import com.tinusj.threaddump.store.DumpFingerprint;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import com.tinusj.threaddump.store.ReportCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.UUID;
 
 /**
  * Implementation of DiagnosticService for orchestrating thread dump diagnostic analysis.
+ * The parsed dump of every completed report is kept in the {@link ParsedDumpStore} under the report id.
+ * <p>
+ * Dumps submitted as text or as a file are looked up in the {@link ReportCache} by content first, so a
+ * dump submitted again returns its earlier report. Dumps captured live are always analyzed.
  */
 @Service
 @Slf4j
 public class DiagnosticServiceImpl implements DiagnosticService {
     
     private final ThreadDumpAnalyzer threadDumpAnalyzer;
+    private final ParsedDumpStore parsedDumpStore;
+    private final ReportCache reportCache;
     
     public DiagnosticServiceImpl(ThreadDumpAnalyzer threadDumpAnalyzer) {
+        this(threadDumpAnalyzer, new ParsedDumpStore());
+    }
+    
+    public DiagnosticServiceImpl(ThreadDumpAnalyzer threadDumpAnalyzer, ParsedDumpStore parsedDumpStore) {
+        this(threadDumpAnalyzer, parsedDumpStore, new ReportCache());
+    }
+    
+    @Autowired
+    public DiagnosticServiceImpl(ThreadDumpAnalyzer threadDumpAnalyzer, ParsedDumpStore parsedDumpStore,
+                                 ReportCache reportCache) {
         this.threadDumpAnalyzer = threadDumpAnalyzer;
+        this.parsedDumpStore = parsedDumpStore;
+        this.reportCache = reportCache;
     }
     
     @Override
     public DiagnosticReport analyzeThreadDump(String threadDumpContent, String source) {
+        DumpFingerprint fingerprint = reportCache.isEnabled() && threadDumpContent != null
+                ? DumpFingerprint.of(threadDumpContent) : null;
+        return analyze(() -> threadDumpAnalyzer.parse(threadDumpContent), source, fingerprint);
+    }
+    
+    @Override
+    public DiagnosticReport analyzeThreadDump(Reader reader, String source) {
+        return analyze(() -> threadDumpAnalyzer.parse(reader), source, null);
+    }
+    
+    @Override
+    public DiagnosticReport analyzeThreadDump(Path dumpFile, String source) {
+        return analyze(() -> threadDumpAnalyzer.parse(dumpFile), source, fingerprint(dumpFile));
+    }
+    
+    @Override
+    public DiagnosticReport analyzeThreadDump(CapturedThreadDump capture, String source) {
+        return analyze(() -> {
+            ParsedThreadDump dump = capture.dump() != null ? capture.dump() : threadDumpAnalyzer.parse(capture.content());
+            return dump.withCpuSample(capture.cpuSample());
+        }, source, null);
+    }
+    
+    private DumpFingerprint fingerprint(Path dumpFile) {
+        if (!reportCache.isEnabled()) {
+            return null;
+        }
+        try {
+            return DumpFingerprint.of(dumpFile);
+        } catch (IOException e) {
+            // The parser reports the unreadable file
+            log.debug("Cannot fingerprint thread dump file {}", dumpFile, e);
+            return null;
+        }
+    }
+    
+    /**
+     * Analyzes a dump, or returns the cached report if a dump with the given fingerprint was analyzed before.
+     *
+     * @param fingerprint the fingerprint of the dump, or null to always analyze it
+     */
+    private DiagnosticReport analyze(Supplier<ParsedThreadDump> parseStage, String source, DumpFingerprint fingerprint) {
+        if (fingerprint != null) {
+            Optional<ReportCache.CachedReport> cached = reportCache.get(fingerprint, source);
+            if (cached.isPresent()) {
+                DiagnosticReport report = cached.get().report();
+                parsedDumpStore.put(report.id(), source, cached.get().dump());
+                log.info("Thread dump from source: {} was analyzed before, returning cached report ID: {}",
+                        source, report.id());
+                return report;
+            }
+        }
+        
         log.info("Starting thread dump analysis for source: {}", source);
         
         String reportId = UUID.randomUUID().toString();
         
         try {
+            long start = System.nanoTime();
+            
+            // Parse once and share the parsed model between all stages
+            ParsedThreadDump threadDump = parseStage.get();
+            long parsed = System.nanoTime();
+            log.debug("Parsed {} threads", threadDump.size());
+            
             // Generate statistics
-            ThreadStatistics statistics = threadDumpAnalyzer.analyzeStatistics(threadDumpContent);
+            ThreadStatistics statistics = threadDumpAnalyzer.analyzeStatistics(threadDump);
+            long analyzedStatistics = System.nanoTime();
             log.debug("Generated statistics for {} threads", statistics.totalThreads());
             
             // Generate findings
-            List<DiagnosticFinding> findings = threadDumpAnalyzer.analyzeFindings(threadDumpContent);
+            RuleEvaluation evaluation = threadDumpAnalyzer.evaluateRules(threadDump);
+            List<DiagnosticFinding> findings = evaluation.findings();
+            long analyzedFindings = System.nanoTime();
             log.debug("Generated {} diagnostic findings", findings.size());
             
+            AnalysisTimings timings = new AnalysisTimings(
+                    toMillis(parsed - start),
+                    toMillis(analyzedStatistics - parsed),
+                    toMillis(analyzedFindings - analyzedStatistics),
+                    toMillis(analyzedFindings - start),
+                    evaluation.ruleMillis()
+            );
+            
             // Generate suggested fixes
-            List<String> suggestedFixes = generateSuggestedFixes(findings, statistics);
+            List<String> suggestedFixes = generateSuggestedFixes(findings, statistics, evaluation.configuration());
             
             // Generate summary
             String summary = generateSummary(statistics, findings);
@@ -60,10 +163,17 @@ public class DiagnosticServiceImpl implements DiagnosticService {
                     findings,
                     suggestedFixes,
                     ReportStatus.COMPLETED,
-                    summary
+                    summary,
+                    timings
             );
             
-            log.info("Thread dump analysis completed for source: {}, report ID: {}", source, reportId);
+            parsedDumpStore.put(reportId, source, threadDump);
+            if (fingerprint != null) {
+                reportCache.put(fingerprint, source, evaluation.configuration(), report, threadDump);
+            }
+            
+            log.info("Thread dump analysis completed for source: {}, report ID: {} in {} ms",
+                    source, reportId, timings.totalMillis());
             return report;
             
         } catch (Exception e) {
@@ -82,19 +192,24 @@ public class DiagnosticServiceImpl implements DiagnosticService {
         }
     }
     
-    private List<String> generateSuggestedFixes(List<DiagnosticFinding> findings, ThreadStatistics statistics) {
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+    
+    private List<String> generateSuggestedFixes(List<DiagnosticFinding> findings, ThreadStatistics statistics,
+                                                RuleConfiguration configuration) {
         List<String> fixes = new ArrayList<>();
         
-        if (statistics.totalThreads() > 1000) {
+        if (statistics.totalThreads() > configuration.maxThreadsWarning()) {
             fixes.add("Consider implementing thread pooling to reduce the total number of threads");
         }
         
-        if (statistics.blockedThreads() > 10) {
+        if (statistics.blockedThreads() > configuration.blockedThreadsThreshold()) {
             fixes.add("Review synchronization mechanisms to reduce thread blocking");
             fixes.add("Consider using lock-free data structures or reducing lock scope");
         }
         
-        if (statistics.waitingThreads() > 50) {
+        if (statistics.waitingThreads() > configuration.waitingThreadsThreshold()) {
             fixes.add("Optimize thread coordination and reduce unnecessary waiting");
             fixes.add("Review timeout values for blocking operations");
         }
@@ -102,7 +217,7 @@ public class DiagnosticServiceImpl implements DiagnosticService {
         // Add specific fixes based on findings
         for (DiagnosticFinding finding : findings) {
             switch (finding.type()) {
-                case "POTENTIAL_DEADLOCK" -> {
+                case "DEADLOCK", "POTENTIAL_DEADLOCK" -> {
                     fixes.add("Implement consistent lock ordering across all threads");
                     fixes.add("Use timeout-based locking mechanisms (tryLock with timeout)");
                     fixes.add("Consider using higher-level concurrency utilities like java.util.concurrent");
@@ -0,0 +1,284 @@
+package com.tinusj.threaddump.service.impl;
+
+import com.tinusj.threaddump.config.FleetCaptureProperties;
+import com.tinusj.threaddump.enums.FleetCaptureOutcome;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.FleetCaptureRequest;
+import com.tinusj.threaddump.model.FleetCaptureSummary;
+import com.tinusj.threaddump.model.FleetCaptureSummary.ProcessResult;
+import com.tinusj.threaddump.model.JavaProcess;
+import com.tinusj.threaddump.service.DiagnosticService;
+import com.tinusj.threaddump.service.FleetCaptureService;
+import com.tinusj.threaddump.service.JavaProcessService;
+import com.tinusj.threaddump.service.ThreadDumpGenerationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Implementation of FleetCaptureService that captures every selected process on its own virtual thread.
+ * <p>
+ * Captures spend nearly all their time waiting for the target to print its threads, so a virtual thread
+ * per process lets all of them wait at once and the call takes about as long as the slowest process.
+ * A fair semaphore shared by all requests bounds how many captures run at the same time
+ * ({@code thread-dump.fleet.max-concurrency}); processes beyond it wait for a free slot. The per-process
+ * timeout starts once a slot is taken. A capture that times out is interrupted, which ends a running
+ * jstack, and keeps its slot until it has actually stopped.
+ */
+@Service
+@Slf4j
+public class FleetCaptureServiceImpl implements FleetCaptureService {
+
+    private final JavaProcessService javaProcessService;
+    private final ThreadDumpGenerationService generationService;
+    private final DiagnosticService diagnosticService;
+    private final FleetCaptureProperties properties;
+    private final Semaphore captureSlots;
+    private final ExecutorService executor;
+
+    public FleetCaptureServiceImpl(JavaProcessService javaProcessService,
+                                   ThreadDumpGenerationService generationService,
+                                   DiagnosticService diagnosticService,
+                                   FleetCaptureProperties properties) {
+        this.javaProcessService = javaProcessService;
+        this.generationService = generationService;
+        this.diagnosticService = diagnosticService;
+        this.properties = properties;
+        this.captureSlots = new Semaphore(properties.getMaxConcurrency(), true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fleet-capture-", 0).factory());
+    }
+
+    /**
+     * Interrupts the captures still running.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public FleetCaptureSummary captureAll(FleetCaptureRequest request) {
+        Duration timeout = timeout(request);
+        Pattern mainClassPattern = mainClassPattern(request);
+        if (!generationService.isAvailable()) {
+            throw new UnsupportedOperationException("Thread dump generation is not available on this system");
+        }
+        List<Target> targets = select(request, mainClassPattern);
+        if (targets.size() > properties.getMaxProcesses()) {
+            throw new IllegalArgumentException(targets.size() + " processes selected, at most "
+                    + properties.getMaxProcesses() + " are allowed");
+        }
+
+        log.info("Capturing {} processes with a timeout of {} ms each", targets.size(), timeout.toMillis());
+        Instant startedAt = Instant.now();
+        long begin = System.nanoTime();
+        List<Future<ProcessResult>> futures = new ArrayList<>(targets.size());
+        for (Target target : targets) {
+            futures.add(executor.submit(() -> capture(target, timeout)));
+        }
+        List<ProcessResult> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(join(futures.get(i), targets.get(i)));
+        }
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+
+        FleetCaptureSummary summary = summarize(startedAt, wallMillis, results);
+        log.info("Captured {} of {} processes in {} ms ({} failed, {} timed out)", summary.succeeded(),
+                summary.processCount(), wallMillis, summary.failed(), summary.timedOut());
+        return summary;
+    }
+
+    private Duration timeout(FleetCaptureRequest request) {
+        if (request.timeoutMillis() < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        Duration timeout = request.timeoutMillis() == 0
+                ? properties.getTimeout()
+                : Duration.ofMillis(request.timeoutMillis());
+        if (timeout.compareTo(properties.getMaxTimeout()) > 0) {
+            throw new IllegalArgumentException("Timeout must be at most " + properties.getMaxTimeout().toMillis() + " ms");
+        }
+        return timeout;
+    }
+
+    private static Pattern mainClassPattern(FleetCaptureRequest request) {
+        if (request.mainClassPattern() == null || request.mainClassPattern().isBlank()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(request.mainClassPattern());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid main class pattern: " + e.getDescription());
+        }
+    }
+
+    /**
+     * Selects the requested PIDs, or every running Java process except this one if none are given,
+     * keeping those whose main class matches the pattern. A requested PID that is not a running Java
+     * process is kept so that it is reported as failed.
+     */
+    private List<Target> select(FleetCaptureRequest request, Pattern mainClassPattern) {
+        List<Target> targets = new ArrayList<>();
+        if (request.pids() != null && !request.pids().isEmpty()) {
+            for (Long pid : new LinkedHashSet<>(request.pids())) {
+                if (pid == null) {
+                    throw new IllegalArgumentException("PIDs must not be null");
+                }
+                JavaProcess process = javaProcessService.getJavaProcessByPid(pid);
+                if (process == null || matches(process, mainClassPattern)) {
+                    targets.add(new Target(pid, process));
+                }
+            }
+            return targets;
+        }
+        long ownPid = ProcessHandle.current().pid();
+        for (JavaProcess process : javaProcessService.getRunningJavaProcesses()) {
+            if (process.pid() != ownPid && matches(process, mainClassPattern)) {
+                targets.add(new Target(process.pid(), process));
+            }
+        }
+        return targets;
+    }
+
+    private static boolean matches(JavaProcess process, Pattern mainClassPattern) {
+        return mainClassPattern == null
+                || (process.mainClass() != null && mainClassPattern.matcher(process.mainClass()).find());
+    }
+
+    /**
+     * Runs on the target's virtual thread: waits for a capture slot, then for the capture and analysis
+     * at most the timeout.
+     */
+    private ProcessResult capture(Target target, Duration timeout) {
+        long begin = System.nanoTime();
+        if (target.process() == null) {
+            return failed(target, FleetCaptureOutcome.FAILED, begin, "Not a running Java process");
+        }
+        try {
+            captureSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(target, FleetCaptureOutcome.FAILED, begin, "Interrupted while waiting for a capture slot");
+        }
+
+        Future<DiagnosticReport> analysis;
+        try {
+            analysis = executor.submit(() -> {
+                try {
+                    return diagnosticService.analyzeThreadDump(generationService.captureThreadDump(target.pid()),
+                            "pid-" + target.pid());
+                } finally {
+                    captureSlots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            captureSlots.release();
+            throw e;
+        }
+
+        try {
+            DiagnosticReport report = analysis.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return succeeded(target, begin, report);
+        } catch (TimeoutException e) {
+            analysis.cancel(true);
+            log.warn("Capture of PID {} did not finish within {} ms", target.pid(), timeout.toMillis());
+            return failed(target, FleetCaptureOutcome.TIMED_OUT, begin,
+                    "No result within " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("Capture of PID {} failed: {}", target.pid(), cause.getMessage());
+            return failed(target, FleetCaptureOutcome.FAILED, begin, cause.getMessage());
+        } catch (InterruptedException e) {
+            analysis.cancel(true);
+            Thread.currentThread().interrupt();
+            return failed(target, FleetCaptureOutcome.FAILED, begin, "Interrupted");
+        }
+    }
+
+    private static ProcessResult join(Future<ProcessResult> future, Target target) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return failed(target, FleetCaptureOutcome.FAILED, System.nanoTime(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return failed(target, FleetCaptureOutcome.FAILED, System.nanoTime(), "Interrupted");
+        }
+    }
+
+    private static ProcessResult succeeded(Target target, long begin, DiagnosticReport report) {
+        Severity highestSeverity = null;
+        LinkedHashSet<String> findingTypes = new LinkedHashSet<>();
+        for (DiagnosticFinding finding : report.findings()) {
+            findingTypes.add(finding.type());
+            if (highestSeverity == null || finding.severity().compareTo(highestSeverity) > 0) {
+                highestSeverity = finding.severity();
+            }
+        }
+        return new ProcessResult(target.pid(), target.process().mainClass(), FleetCaptureOutcome.SUCCEEDED,
+                millisSince(begin), report.id(), report.statistics().totalThreads(),
+                report.statistics().blockedThreads(), highestSeverity, List.copyOf(findingTypes),
+                report.summary(), null);
+    }
+
+    private static ProcessResult failed(Target target, FleetCaptureOutcome outcome, long begin, String error) {
+        String mainClass = target.process() != null ? target.process().mainClass() : null;
+        return new ProcessResult(target.pid(), mainClass, outcome, millisSince(begin), null, 0, 0, null,
+                List.of(), null, error);
+    }
+
+    private static FleetCaptureSummary summarize(Instant startedAt, long wallMillis, List<ProcessResult> results) {
+        int succeeded = 0;
+        int failed = 0;
+        int timedOut = 0;
+        long slowestMillis = 0;
+        Map<Severity, Integer> bySeverity = new EnumMap<>(Severity.class);
+        Map<String, Integer> byFindingType = new TreeMap<>();
+        for (ProcessResult result : results) {
+            slowestMillis = Math.max(slowestMillis, result.millis());
+            switch (result.outcome()) {
+                case SUCCEEDED -> succeeded++;
+                case FAILED -> failed++;
+                case TIMED_OUT -> timedOut++;
+            }
+            if (result.highestSeverity() != null) {
+                bySeverity.merge(result.highestSeverity(), 1, Integer::sum);
+            }
+            for (String type : result.findingTypes()) {
+                byFindingType.merge(type, 1, Integer::sum);
+            }
+        }
+        return new FleetCaptureSummary(startedAt, wallMillis, slowestMillis, results.size(), succeeded, failed,
+                timedOut, bySeverity, byFindingType, results);
+    }
+
+    private static long millisSince(long beginNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos);
+    }
+
+    /**
+     * A selected PID and its process, null if the PID is not a running Java process.
+     */
+    private record Target(long pid, JavaProcess process) {}
+}
@@ -1,171 +1,141 @@
 package com.tinusj.threaddump.service.impl;
 
+import com.tinusj.threaddump.config.ProcessDiscoveryProperties;
+import com.tinusj.threaddump.discovery.JavaProcessDiscovery;
+import com.tinusj.threaddump.discovery.JpsJavaProcessDiscovery;
+import com.tinusj.threaddump.discovery.ProcfsJavaProcessDiscovery;
 import com.tinusj.threaddump.model.JavaProcess;
 import com.tinusj.threaddump.service.JavaProcessService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * Implementation of JavaProcessService using JPS (Java Process Status) tool.
+ * Implementation of JavaProcessService backed by a cached process table.
+ * <p>
+ * Processes are discovered from /proc on Linux ({@link ProcfsJavaProcessDiscovery}) or with jps
+ * elsewhere ({@link JpsJavaProcessDiscovery}). The table is served from cache for
+ * {@code thread-dump.discovery.cache-ttl} and looked up by PID in constant time. Each entry keeps the
+ * start time of its process; a lookup rebuilds the table early when the PID now belongs to a process
+ * with a different start time (PID reuse), or to an unlisted process that started after the table
+ * was built (a new JVM).
  */
 @Service
 @Slf4j
 public class JavaProcessServiceImpl implements JavaProcessService {
 
-    private static final String JPS_COMMAND = "jps";
-    private static final String JPS_VERBOSE_COMMAND = "jps -v";
-    
+    private static final Duration DEFAULT_CACHE_TTL = Duration.ofSeconds(2);
+
+    private final JavaProcessDiscovery discovery;
+    private final JavaProcessDiscovery fallbackDiscovery;
+    private final long cacheTtlNanos;
+    private volatile ProcessTable processTable;
+
+    public JavaProcessServiceImpl() {
+        this(new ProcfsJavaProcessDiscovery(), new JpsJavaProcessDiscovery(), DEFAULT_CACHE_TTL);
+    }
+
+    @Autowired
+    public JavaProcessServiceImpl(ProcfsJavaProcessDiscovery procfsDiscovery, JpsJavaProcessDiscovery jpsDiscovery,
+                                  ProcessDiscoveryProperties properties) {
+        this(procfsDiscovery, jpsDiscovery, properties.getCacheTtl());
+    }
+
+    public JavaProcessServiceImpl(JavaProcessDiscovery discovery, JavaProcessDiscovery fallbackDiscovery,
+                                  Duration cacheTtl) {
+        this.discovery = discovery;
+        this.fallbackDiscovery = fallbackDiscovery;
+        this.cacheTtlNanos = cacheTtl.toNanos();
+    }
+
     @Override
     public List<JavaProcess> getRunningJavaProcesses() {
-        log.info("Detecting running Java processes using jps");
-        
-        List<JavaProcess> processes = new ArrayList<>();
-        
-        try {
-            // Use jps -v to get detailed information including JVM arguments
-            ProcessBuilder processBuilder = new ProcessBuilder(JPS_COMMAND, "-v");
-            Process process = processBuilder.start();
-            
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    JavaProcess javaProcess = parseJpsLine(line);
-                    if (javaProcess != null) {
-                        processes.add(javaProcess);
-                    }
-                }
-            }
-            
-            // Wait for process completion
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                log.warn("jps command exited with code: {}", exitCode);
-            }
-            
-            log.info("Found {} Java processes", processes.size());
-            
-        } catch (IOException | InterruptedException e) {
-            log.error("Error running jps command to detect Java processes", e);
-        }
-        
-        return processes;
+        return processTable(false).processes().values().stream()
+                .map(TableEntry::process)
+                .toList();
     }
 
     @Override
     public JavaProcess getJavaProcessByPid(long pid) {
-        log.info("Getting Java process information for PID: {}", pid);
-        
-        try {
-            // Use jps to get process info directly for the specific PID
-            ProcessBuilder processBuilder = new ProcessBuilder(JPS_COMMAND, "-v");
-            Process process = processBuilder.start();
-            
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    JavaProcess javaProcess = parseJpsLine(line);
-                    if (javaProcess != null && javaProcess.pid() == pid) {
-                        return javaProcess;
-                    }
-                }
-            }
-            
-            // Wait for process completion
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                log.warn("jps command exited with code: {}", exitCode);
-            }
-            
-        } catch (IOException | InterruptedException e) {
-            log.error("Error running jps command to get Java process for PID: {}", pid, e);
+        log.debug("Getting Java process information for PID: {}", pid);
+
+        ProcessTable table = processTable(false);
+        Optional<Instant> startTime = startTime(pid);
+        if (startTime.isEmpty()) {
+            return null;
         }
-        
-        return null;
+        TableEntry entry = table.processes().get(pid);
+        boolean reused = entry != null && !entry.startTime().equals(startTime.get());
+        boolean startedSince = entry == null && startTime.get().isAfter(table.builtAt());
+        if (reused || startedSince) {
+            entry = processTable(true).processes().get(pid);
+        }
+        return entry != null ? entry.process() : null;
     }
-    
+
     /**
-     * Parses a line from jps -v output to extract process information.
-     * 
-     * Expected format: "PID MainClass JVMArgs"
-     * Example: "12345 com.example.MyApp -Xmx1g -Dfile.encoding=UTF-8"
+     * Returns the cached process table, rebuilding it if it has expired or a rebuild is forced.
+     * Concurrent callers wait for one rebuild instead of each running discovery.
      */
-    private JavaProcess parseJpsLine(String line) {
-        if (line == null || line.trim().isEmpty()) {
-            return null;
+    private ProcessTable processTable(boolean forceRefresh) {
+        ProcessTable table = processTable;
+        if (table != null && !forceRefresh && !table.isExpired(cacheTtlNanos)) {
+            return table;
         }
-        
-        try {
-            line = line.trim();
-            
-            // Skip jps process itself (contains "Jps" or "sun.tools.jps.Jps")
-            if (line.contains("Jps") || line.contains("sun.tools.jps.Jps")) {
-                return null;
-            }
-            
-            // Split by space, first part is PID
-            String[] parts = line.split("\\s+", 2);
-            if (parts.length < 2) {
-                return null;
+        synchronized (this) {
+            ProcessTable current = processTable;
+            if (current != null && current != table) {
+                // Another caller rebuilt the table while this one waited
+                return current;
             }
-            
-            long pid = Long.parseLong(parts[0]);
-            String remaining = parts[1];
-            
-            // Extract main class and arguments
-            String[] classParts = remaining.split("\\s+", 2);
-            String mainClass = classParts[0];
-            String arguments = classParts.length > 1 ? classParts[1] : "";
-            
-            // Separate JVM arguments from application arguments
-            String jvmArguments = "";
-            String applicationArguments = "";
-            
-            if (!arguments.isEmpty()) {
-                // JVM arguments typically start with -
-                StringBuilder jvmArgs = new StringBuilder();
-                StringBuilder appArgs = new StringBuilder();
-                
-                String[] args = arguments.split("\\s+");
-                for (String arg : args) {
-                    if (arg.startsWith("-D") || arg.startsWith("-X") || arg.startsWith("-XX") 
-                        || arg.startsWith("-server") || arg.startsWith("-client")
-                        || arg.startsWith("-javaagent")) {
-                        if (jvmArgs.length() > 0) jvmArgs.append(" ");
-                        jvmArgs.append(arg);
-                    } else {
-                        if (appArgs.length() > 0) appArgs.append(" ");
-                        appArgs.append(arg);
-                    }
-                }
-                
-                jvmArguments = jvmArgs.toString();
-                applicationArguments = appArgs.toString();
+            if (current != null && !forceRefresh && !current.isExpired(cacheTtlNanos)) {
+                return current;
             }
-            
-            // Create display name (use main class or jar name)
-            String displayName = mainClass;
-            if (mainClass.endsWith(".jar")) {
-                // Extract jar name without path
-                int lastSlash = mainClass.lastIndexOf('/');
-                if (lastSlash >= 0) {
-                    displayName = mainClass.substring(lastSlash + 1);
-                }
-            }
-            
-            return new JavaProcess(pid, mainClass, displayName, jvmArguments, applicationArguments);
-            
-        } catch (NumberFormatException e) {
-            log.warn("Failed to parse PID from jps line: {}", line);
-            return null;
-        } catch (Exception e) {
-            log.warn("Failed to parse jps line: {}", line, e);
-            return null;
+            processTable = buildProcessTable();
+            return processTable;
+        }
+    }
+
+    private ProcessTable buildProcessTable() {
+        JavaProcessDiscovery backend = discovery.isAvailable() ? discovery : fallbackDiscovery;
+        Instant builtAt = Instant.now();
+        long start = System.nanoTime();
+        List<JavaProcess> discovered = backend.discover();
+        Map<Long, TableEntry> processes = new LinkedHashMap<>();
+        for (JavaProcess process : discovered) {
+            startTime(process.pid()).ifPresent(startTime ->
+                    processes.put(process.pid(), new TableEntry(process, startTime)));
+        }
+        log.debug("Found {} Java processes via {} in {} ms", processes.size(), backend.name(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new ProcessTable(Collections.unmodifiableMap(processes), builtAt, System.nanoTime());
+    }
+
+    private static Optional<Instant> startTime(long pid) {
+        return ProcessHandle.of(pid).map(process -> process.info().startInstant().orElse(Instant.MIN));
+    }
+
+    /**
+     * A discovered process and the start time it had when it was listed.
+     */
+    private record TableEntry(JavaProcess process, Instant startTime) {
+    }
+
+    /**
+     * Java processes by PID, with the wall-clock time and the {@link System#nanoTime()} at which they were listed.
+     */
+    private record ProcessTable(Map<Long, TableEntry> processes, Instant builtAt, long builtAtNanos) {
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - builtAtNanos >= ttlNanos;
         }
     }
-}
\ No newline at end of file
+}
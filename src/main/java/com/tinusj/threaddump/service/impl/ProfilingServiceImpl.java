@@ -0,0 +1,444 @@
+package com.tinusj.threaddump.service.impl;
+
+import com.tinusj.threaddump.capture.AttachThreadDumpCapture;
+import com.tinusj.threaddump.config.ProfilingProperties;
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.CallTree;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.FrameStack;
+import com.tinusj.threaddump.model.ProfileRequest;
+import com.tinusj.threaddump.model.ProfileSummary;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.ProfilingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of ProfilingService that samples processes on a shared scheduler, like
+ * {@link CaptureSessionServiceImpl}, but keeps no dumps.
+ * <p>
+ * Samples are taken in-process through {@link AttachThreadDumpCapture}, which reuses one management
+ * connection per target, so a sample costs one {@code Thread.print} instead of a jstack process. Each
+ * dump is parsed as a stream and every thread is folded into the profile's {@link CallTree} as soon as
+ * its block has been read, except the target's own thread printing the dump; the dump text and the
+ * parsed threads are dropped right after. A profile's memory is therefore bounded by the number of
+ * distinct call paths (at most {@code thread-dump.profiling.max-nodes}) and not by the number of
+ * samples. Failed and skipped samples are only counted. Finished profiles are discarded after
+ * {@code thread-dump.profiling.retention}.
+ */
+@Service
+@Slf4j
+public class ProfilingServiceImpl implements ProfilingService {
+
+    static final String ACTIVE_PROFILES_GAUGE = "thread_dump.profiles.active";
+    static final String SAMPLE_TIMER = "thread_dump.profiles.sample.duration";
+
+    /**
+     * How often finished profiles are checked against the retention period.
+     */
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * Consecutive failed samples after which a profile gives up, e.g. because the target exited.
+     */
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    /**
+     * Top frame of the target thread that prints the dump for the sampler; its stack is left out of the profile.
+     */
+    private static final String THREAD_PRINT_METHOD =
+            "com.sun.management.internal.DiagnosticCommandImpl.executeDiagnosticCommand";
+
+    private static final int MAX_HOTSPOTS = 10;
+    private static final double MIN_SELF_SHARE = 0.05;
+    private static final double HIGH_SELF_SHARE = 0.5;
+
+    private final AttachThreadDumpCapture capture;
+    private final ThreadDumpParser parser;
+    private final ProfilingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskScheduler scheduler;
+    private final ThreadPoolTaskExecutor captureExecutor;
+
+    public ProfilingServiceImpl(AttachThreadDumpCapture capture, ThreadDumpParser parser,
+                                ProfilingProperties properties, MeterRegistry meterRegistry) {
+        this.capture = capture;
+        this.parser = parser;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getSchedulerPoolSize());
+        scheduler.setThreadNamePrefix("profile-tick-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        this.captureExecutor = new ThreadPoolTaskExecutor();
+        captureExecutor.setCorePoolSize(properties.getCapturePoolSize());
+        captureExecutor.setMaxPoolSize(properties.getCapturePoolSize());
+        captureExecutor.setThreadNamePrefix("profile-sample-");
+        captureExecutor.setDaemon(true);
+        captureExecutor.initialize();
+
+        meterRegistry.gauge(ACTIVE_PROFILES_GAUGE, profiles, ProfilingServiceImpl::countActive);
+        scheduler.scheduleWithFixedDelay(this::evictExpiredProfiles, EVICTION_INTERVAL);
+    }
+
+    /**
+     * Stops sampling and the worker threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        profiles.values().forEach(Profile::stop);
+        scheduler.shutdown();
+        captureExecutor.shutdown();
+    }
+
+    @Override
+    public ProfileSummary startProfile(ProfileRequest request) {
+        Duration interval = Duration.ofMillis(request.intervalMillis());
+        Duration duration = Duration.ofMillis(request.durationMillis());
+        validate(request, interval, duration);
+        if (!capture.isAvailable()) {
+            throw new UnsupportedOperationException("Profiling requires in-process capture through the Attach API");
+        }
+
+        Profile profile;
+        synchronized (profiles) {
+            if (countActive(profiles) >= properties.getMaxActiveProfiles()) {
+                throw new IllegalStateException("Maximum number of active profiles ("
+                        + properties.getMaxActiveProfiles() + ") reached");
+            }
+            profile = new Profile(UUID.randomUUID().toString(), request.pid(), interval, duration,
+                    request.allThreads(), Instant.now(), new CallTree(properties.getMaxNodes()));
+            profiles.put(profile.id, profile);
+        }
+        log.info("Starting profile {} of PID {}: {} {} threads every {} ms", profile.id, profile.pid, duration,
+                profile.allThreads ? "all" : "RUNNABLE", interval.toMillis());
+
+        profile.attach(scheduler.scheduleAtFixedRate(() -> tick(profile), profile.startedAt, interval));
+        return profile.summary();
+    }
+
+    @Override
+    public Optional<ProfileSummary> getProfile(String profileId) {
+        return Optional.ofNullable(profiles.get(profileId)).map(Profile::summary);
+    }
+
+    @Override
+    public List<ProfileSummary> getProfiles() {
+        return profiles.values().stream()
+                .sorted(Comparator.comparing((Profile profile) -> profile.startedAt).reversed())
+                .map(Profile::summary)
+                .toList();
+    }
+
+    @Override
+    public Optional<String> getCollapsedStacks(String profileId) {
+        return Optional.ofNullable(profiles.get(profileId)).map(Profile::collapsedStacks);
+    }
+
+    @Override
+    public Optional<List<DiagnosticFinding>> getHotspots(String profileId) {
+        return Optional.ofNullable(profiles.get(profileId)).map(ProfilingServiceImpl::hotspots);
+    }
+
+    @Override
+    public Optional<ProfileSummary> stopProfile(String profileId) {
+        Profile profile = profiles.get(profileId);
+        if (profile == null) {
+            return Optional.empty();
+        }
+        if (profile.stop()) {
+            log.info("Stopped profile {} of PID {}", profile.id, profile.pid);
+        }
+        return Optional.of(profile.summary());
+    }
+
+    private void validate(ProfileRequest request, Duration interval, Duration duration) {
+        if (interval.compareTo(properties.getMinInterval()) < 0) {
+            throw new IllegalArgumentException("Interval must be at least "
+                    + properties.getMinInterval().toMillis() + " ms");
+        }
+        if (duration.compareTo(interval) < 0 || duration.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be between the interval and "
+                    + properties.getMaxDuration().toMillis() + " ms");
+        }
+        if (ProcessHandle.of(request.pid()).isEmpty()) {
+            throw new IllegalArgumentException("No process with PID " + request.pid());
+        }
+    }
+
+    /**
+     * Runs on the scheduler when a sample is due; hands the capture off without waiting for it.
+     */
+    private void tick(Profile profile) {
+        if (!profile.claimSample()) {
+            return;
+        }
+        try {
+            captureExecutor.execute(() -> sample(profile));
+        } catch (TaskRejectedException e) {
+            profile.sampleFailed("capture pool is shut down");
+        }
+    }
+
+    private void sample(Profile profile) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            String threadDump = capture.capture(profile.pid);
+            profile.fold(parser, threadDump, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            log.debug("Profile {}: sample of PID {} failed: {}", profile.id, profile.pid, e.getMessage());
+            profile.sampleFailed(e.getMessage());
+        } finally {
+            Timer.builder(SAMPLE_TIMER)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reports the methods most often on top of the sampled stacks, with the share of stacks they were
+     * on top of (self) and the share they appeared in at all (total).
+     */
+    private static List<DiagnosticFinding> hotspots(Profile profile) {
+        String kind = profile.allThreads ? "thread" : "RUNNABLE thread";
+        return profile.methodSamples().stream()
+                .filter(method -> method.selfShare() >= MIN_SELF_SHARE)
+                .limit(MAX_HOTSPOTS)
+                .map(method -> new DiagnosticFinding(
+                        "SAMPLED_HOTSPOT",
+                        String.format("Method was on top of %.0f%% of sampled %s stacks (%d of %d, present in %.0f%%): %s",
+                                method.selfShare() * 100, kind, method.samples().selfSamples(), method.stacks(),
+                                method.totalShare() * 100, method.samples().method()),
+                        method.selfShare() >= HIGH_SELF_SHARE ? Severity.HIGH : Severity.MEDIUM,
+                        List.of(),
+                        "Optimize this method or reduce how often it is called; see the collapsed stacks for its callers.",
+                        Map.of(
+                                "method", method.samples().method(),
+                                "selfSamples", method.samples().selfSamples(),
+                                "totalSamples", method.samples().totalSamples(),
+                                "selfShare", method.selfShare(),
+                                "totalShare", method.totalShare(),
+                                "stacks", method.stacks()
+                        )))
+                .toList();
+    }
+
+    private void evictExpiredProfiles() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        profiles.values().removeIf(profile -> profile.finishedBefore(cutoff));
+    }
+
+    private static int countActive(Map<String, Profile> profiles) {
+        return (int) profiles.values().stream().filter(Profile::isRunning).count();
+    }
+
+    /**
+     * Sample counts of one method relative to all stacks of a profile.
+     */
+    private record MethodShare(CallTree.MethodSamples samples, long stacks) {
+
+        double selfShare() {
+            return (double) samples.selfSamples() / stacks;
+        }
+
+        double totalShare() {
+            return (double) samples.totalSamples() / stacks;
+        }
+    }
+
+    /**
+     * Mutable state of one profile, guarded by the profile's monitor.
+     */
+    private static final class Profile {
+
+        private final String id;
+        private final long pid;
+        private final Duration interval;
+        private final Duration duration;
+        private final boolean allThreads;
+        private final Instant startedAt;
+        private final Instant endsAt;
+        private final CallTree callTree;
+        private CaptureSessionStatus status = CaptureSessionStatus.RUNNING;
+        private Instant finishedAt;
+        private boolean ticksExhausted;
+        private boolean captureInFlight;
+        private int samples;
+        private int skippedSamples;
+        private int failedSamples;
+        private int consecutiveFailures;
+        private long sampleNanos;
+        private String lastError;
+        private ScheduledFuture<?> ticks;
+
+        Profile(String id, long pid, Duration interval, Duration duration, boolean allThreads, Instant startedAt,
+                CallTree callTree) {
+            this.id = id;
+            this.pid = pid;
+            this.interval = interval;
+            this.duration = duration;
+            this.allThreads = allThreads;
+            this.startedAt = startedAt;
+            this.endsAt = startedAt.plus(duration);
+            this.callTree = callTree;
+        }
+
+        /**
+         * Keeps the scheduled task so it can be stopped, or stops it right away if the profile already ended.
+         */
+        synchronized void attach(ScheduledFuture<?> ticks) {
+            this.ticks = ticks;
+            if (status != CaptureSessionStatus.RUNNING || ticksExhausted) {
+                ticks.cancel(false);
+            }
+        }
+
+        /**
+         * Claims the sample that is due, or returns false if none should be taken.
+         */
+        synchronized boolean claimSample() {
+            if (status != CaptureSessionStatus.RUNNING || ticksExhausted) {
+                return false;
+            }
+            if (!Instant.now().isBefore(endsAt)) {
+                ticksExhausted = true;
+                if (ticks != null) {
+                    ticks.cancel(false);
+                }
+                finishIfDone();
+                return false;
+            }
+            if (captureInFlight) {
+                skippedSamples++;
+                return false;
+            }
+            captureInFlight = true;
+            return true;
+        }
+
+        /**
+         * Parses the dump and folds the stacks of the selected threads into the call tree. Readers of the
+         * profile wait for the fold, which only takes as long as parsing one dump.
+         */
+        synchronized void fold(ThreadDumpParser parser, String threadDump, long captureNanos) {
+            long start = System.nanoTime();
+            parser.parse(new StringReader(threadDump), thread -> {
+                if ((allThreads || thread.state() == ThreadState.RUNNABLE) && !isSampler(thread.frames())) {
+                    callTree.add(thread.frames());
+                }
+            });
+            captureInFlight = false;
+            samples++;
+            consecutiveFailures = 0;
+            sampleNanos += captureNanos + System.nanoTime() - start;
+            finishIfDone();
+        }
+
+        private static boolean isSampler(FrameStack frames) {
+            return !frames.isEmpty() && frames.frame(0).methodKey().equals(THREAD_PRINT_METHOD);
+        }
+
+        synchronized void sampleFailed(String message) {
+            captureInFlight = false;
+            failedSamples++;
+            lastError = message;
+            if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES && status == CaptureSessionStatus.RUNNING) {
+                log.warn("Profile {} of PID {} failed {} samples in a row, stopping: {}", id, pid,
+                        consecutiveFailures, message);
+                finish(samples == 0 ? CaptureSessionStatus.FAILED : CaptureSessionStatus.COMPLETED);
+                return;
+            }
+            finishIfDone();
+        }
+
+        synchronized boolean stop() {
+            if (status != CaptureSessionStatus.RUNNING) {
+                return false;
+            }
+            finish(CaptureSessionStatus.CANCELLED);
+            return true;
+        }
+
+        synchronized boolean isRunning() {
+            return status == CaptureSessionStatus.RUNNING;
+        }
+
+        synchronized boolean finishedBefore(Instant cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized String collapsedStacks() {
+            StringBuilder collapsed = new StringBuilder();
+            try {
+                callTree.writeCollapsed(collapsed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return collapsed.toString();
+        }
+
+        synchronized List<MethodShare> methodSamples() {
+            long stacks = callTree.stackCount();
+            if (stacks == 0) {
+                return List.of();
+            }
+            return callTree.methodSamples().stream()
+                    .map(method -> new MethodShare(method, stacks))
+                    .toList();
+        }
+
+        synchronized ProfileSummary summary() {
+            double averageSampleMillis = samples > 0 ? sampleNanos / 1_000_000.0 / samples : 0;
+            return new ProfileSummary(id, pid, status, interval.toMillis(), duration.toMillis(), allThreads,
+                    startedAt, finishedAt, samples, skippedSamples, failedSamples, callTree.stackCount(),
+                    callTree.truncatedStacks(), callTree.nodeCount(), averageSampleMillis, lastError);
+        }
+
+        private void finishIfDone() {
+            if (status == CaptureSessionStatus.RUNNING && ticksExhausted && !captureInFlight) {
+                finish(samples == 0 ? CaptureSessionStatus.FAILED : CaptureSessionStatus.COMPLETED);
+            }
+        }
+
+        private void finish(CaptureSessionStatus finalStatus) {
+            status = finalStatus;
+            finishedAt = Instant.now();
+            if (ticks != null) {
+                ticks.cancel(false);
+            }
+            log.info("Profile {} of PID {} {}: {} samples, {} stacks, {} call paths, {} skipped, {} failed", id, pid,
+                    status.name().toLowerCase(), samples, callTree.stackCount(), callTree.nodeCount() - 1,
+                    skippedSamples, failedSamples);
+        }
+    }
+}
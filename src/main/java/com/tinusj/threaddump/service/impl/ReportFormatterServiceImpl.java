@@ -1,9 +1,12 @@
 package com.tinusj.threaddump.service.impl;
 
 import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.formatter.CachingReportFormatter;
 import com.tinusj.threaddump.formatter.ReportFormatter;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.service.ReportFormatterService;
+import com.tinusj.threaddump.store.ReportCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,6 +17,7 @@ import java.util.stream.Collectors;
 
 /**
  * Implementation of ReportFormatterService for managing different report formatters.
+ * When the {@link ReportCache} is enabled, each formatter keeps the bytes of cached reports in it.
  */
 @Service
 public class ReportFormatterServiceImpl implements ReportFormatterService {
@@ -21,17 +25,30 @@ public class ReportFormatterServiceImpl implements ReportFormatterService {
     private final Map<ReportFormat, ReportFormatter> formatters;
     
     public ReportFormatterServiceImpl(List<ReportFormatter> formatterList) {
+        this(formatterList, new ReportCache());
+    }
+    
+    @Autowired
+    public ReportFormatterServiceImpl(List<ReportFormatter> formatterList, ReportCache reportCache) {
+        Function<ReportFormatter, ReportFormatter> wrapper = reportCache.isEnabled()
+                ? formatter -> new CachingReportFormatter(formatter, reportCache)
+                : Function.identity();
         this.formatters = formatterList.stream()
-                .collect(Collectors.toMap(ReportFormatter::getFormat, Function.identity()));
+                .collect(Collectors.toMap(ReportFormatter::getFormat, wrapper));
     }
     
     @Override
     public String formatReport(DiagnosticReport report, ReportFormat format) {
+        return getFormatter(format).format(report);
+    }
+    
+    @Override
+    public ReportFormatter getFormatter(ReportFormat format) {
         ReportFormatter formatter = formatters.get(format);
         if (formatter == null) {
             throw new IllegalArgumentException("Unsupported format: " + format);
         }
-        return formatter.format(report);
+        return formatter;
     }
     
     @Override
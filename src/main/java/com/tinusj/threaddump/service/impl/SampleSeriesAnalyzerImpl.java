@@ -0,0 +1,314 @@
+package com.tinusj.threaddump.service.impl;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.SeriesAnalysis;
+import com.tinusj.threaddump.model.StackSignatureTable;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+import com.tinusj.threaddump.model.ThreadInfo;
+import com.tinusj.threaddump.service.SampleSeriesAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of SampleSeriesAnalyzer that joins threads across samples in a single pass.
+ * <p>
+ * A thread is identified by its name, Java id, JVM thread address ({@code tid}) and native id
+ * ({@code nid}), and looked up in a hash map, so the join is linear in the total number of threads.
+ * Stacks of every sample are interned into one {@link StackSignatureTable}, so stacks of different
+ * samples are compared as int arrays. For each thread the
+ * longest run of consecutive samples with an unchanged stack and state is kept; a RUNNABLE or
+ * BLOCKED run long enough is reported as STUCK_THREAD. For each held lock the longest run with the
+ * same owner is kept; a run long enough during which other threads waited for the lock is reported
+ * as LONG_HELD_LOCK. Lock ids are object addresses, so a lock moved by the GC counts as released.
+ */
+@Service
+@Slf4j
+public class SampleSeriesAnalyzerImpl implements SampleSeriesAnalyzer {
+
+    /**
+     * States in which an unchanged stack means no progress; waiting threads are usually idle.
+     */
+    private static final Set<ThreadState> ACTIVE_STATES = EnumSet.of(ThreadState.RUNNABLE, ThreadState.BLOCKED);
+    private static final int MAX_LISTED_THREADS = 10;
+    private static final String EMPTY_STACK = "<empty stack>";
+
+    private final ThreadDumpAnalysisProperties.Series settings;
+
+    public SampleSeriesAnalyzerImpl(ThreadDumpAnalysisProperties properties) {
+        this.settings = properties.getSeries();
+    }
+
+    @Override
+    public SeriesAnalysis analyze(List<ThreadDumpSample> samples) {
+        if (samples.isEmpty()) {
+            return new SeriesAnalysis(0, 0, List.of(), List.of(), List.of());
+        }
+        long start = System.nanoTime();
+        long[] capturedAt = samples.stream().mapToLong(sample -> sample.capturedAt().toEpochMilli()).toArray();
+
+        StackSignatureTable signatures = new StackSignatureTable();
+        Map<ThreadKey, Track> tracks = new HashMap<>();
+        List<Map<String, List<String>>> waitersBySample = new ArrayList<>(samples.size());
+        for (int sample = 0; sample < samples.size(); sample++) {
+            Map<String, List<String>> waiters = new HashMap<>();
+            for (ThreadInfo thread : samples.get(sample).dump().threads()) {
+                Track track = tracks.computeIfAbsent(ThreadKey.of(thread), key -> new Track(thread));
+                track.observe(sample, signatures.signatureOf(thread.frames()), thread, capturedAt);
+                for (String lock : thread.awaitedLocks()) {
+                    waiters.computeIfAbsent(lock, key -> new ArrayList<>(2)).add(thread.name());
+                }
+            }
+            waitersBySample.add(waiters);
+        }
+
+        long stuckMinMillis = settings.getStuckMinDuration().toMillis();
+        List<SeriesAnalysis.ThreadProgress> threads = new ArrayList<>(tracks.size());
+        List<SeriesAnalysis.HeldLock> heldLocks = new ArrayList<>();
+        for (Track track : tracks.values()) {
+            threads.add(track.progress(capturedAt, signatures, settings.getStuckMinSamples(), stuckMinMillis));
+            track.heldLocks(capturedAt, settings.getLockMinDuration().toMillis(), waitersBySample, heldLocks);
+        }
+        threads.sort(Comparator.comparingLong(SeriesAnalysis.ThreadProgress::unchangedMillis).reversed()
+                .thenComparing(SeriesAnalysis.ThreadProgress::name));
+        heldLocks.sort(Comparator.comparingInt(SeriesAnalysis.HeldLock::maxWaiters).reversed()
+                .thenComparing(Comparator.comparingLong(SeriesAnalysis.HeldLock::heldMillis).reversed()));
+
+        List<DiagnosticFinding> findings = new ArrayList<>(stuckThreadFindings(threads));
+        findings.addAll(longHeldLockFindings(heldLocks));
+
+        log.debug("Analyzed {} samples with {} distinct threads in {} ms", samples.size(), tracks.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new SeriesAnalysis(samples.size(), capturedAt[capturedAt.length - 1] - capturedAt[0],
+                threads, heldLocks, findings);
+    }
+
+    /**
+     * Reports stuck threads, one finding per top frame they are stuck in.
+     */
+    private static List<DiagnosticFinding> stuckThreadFindings(List<SeriesAnalysis.ThreadProgress> threads) {
+        Map<String, List<SeriesAnalysis.ThreadProgress>> stuckByFrame = new LinkedHashMap<>();
+        for (SeriesAnalysis.ThreadProgress thread : threads) {
+            if (thread.stuck()) {
+                String frame = thread.topFrame() != null ? thread.topFrame() : EMPTY_STACK;
+                stuckByFrame.computeIfAbsent(frame, key -> new ArrayList<>()).add(thread);
+            }
+        }
+
+        List<DiagnosticFinding> findings = new ArrayList<>(stuckByFrame.size());
+        stuckByFrame.forEach((frame, stuck) -> {
+            Map<ThreadState, Integer> states = new EnumMap<>(ThreadState.class);
+            stuck.forEach(thread -> states.merge(thread.state(), 1, Integer::sum));
+            long maxMillis = stuck.get(0).unchangedMillis();
+            findings.add(new DiagnosticFinding(
+                    "STUCK_THREAD",
+                    String.format("%d thread(s) made no progress for up to %d ms (%d samples) in %s",
+                            stuck.size(), maxMillis, stuck.get(0).unchangedSamples(), frame),
+                    states.containsKey(ThreadState.BLOCKED) ? Severity.HIGH : Severity.MEDIUM,
+                    stuck.stream()
+                            .limit(MAX_LISTED_THREADS)
+                            .map(thread -> String.format("%s (%s, %d ms)", thread.name(), thread.state(),
+                                    thread.unchangedMillis()))
+                            .toList(),
+                    "Check whether the frame is a busy loop, a blocking call without timeout or a lock that is never "
+                            + "released. Add timeouts to external calls and look for long-held locks.",
+                    Map.of(
+                            "threadCount", stuck.size(),
+                            "frame", frame,
+                            "maxUnchangedMillis", maxMillis,
+                            "states", states
+                    )
+            ));
+        });
+        return findings;
+    }
+
+    /**
+     * Reports locks that were held by the same thread while other threads waited for them.
+     */
+    private static List<DiagnosticFinding> longHeldLockFindings(List<SeriesAnalysis.HeldLock> heldLocks) {
+        List<DiagnosticFinding> findings = new ArrayList<>();
+        for (SeriesAnalysis.HeldLock heldLock : heldLocks) {
+            if (heldLock.maxWaiters() == 0) {
+                continue;
+            }
+            List<String> affected = new ArrayList<>();
+            affected.add(heldLock.owner());
+            heldLock.waitingThreads().stream().limit(MAX_LISTED_THREADS).forEach(affected::add);
+            findings.add(new DiagnosticFinding(
+                    "LONG_HELD_LOCK",
+                    String.format("Lock %s was held by %s for %d ms (%d samples) while up to %d thread(s) waited "
+                                    + "for it", heldLock.lock(), heldLock.owner(), heldLock.heldMillis(),
+                            heldLock.samples(), heldLock.maxWaiters()),
+                    Severity.HIGH,
+                    affected,
+                    "Shorten the critical section of the owning thread: move I/O and slow calls out of it, "
+                            + "or use finer-grained locks.",
+                    Map.of(
+                            "lock", heldLock.lock(),
+                            "owner", heldLock.owner(),
+                            "heldMillis", heldLock.heldMillis(),
+                            "maxWaiters", heldLock.maxWaiters(),
+                            "waitingThreadCount", heldLock.waitingThreads().size()
+                    )
+            ));
+        }
+        return findings;
+    }
+
+    /**
+     * Identity of a thread across dumps of the same JVM.
+     */
+    private record ThreadKey(String name, long id, long tid, long nid) {
+
+        static ThreadKey of(ThreadInfo thread) {
+            return new ThreadKey(thread.name(), thread.id(), thread.tid(), thread.nid());
+        }
+    }
+
+    /**
+     * What one thread did over the series, accumulated sample by sample.
+     */
+    private static final class Track {
+
+        private final String name;
+        private final long tid;
+        private final long nid;
+        private int samplesSeen;
+        private int lastSample = -1;
+        private int[] lastStack;
+        private ThreadState lastState;
+        private int pairs;
+        private int unchangedPairs;
+        private int runStart;
+        private int bestStart;
+        private int bestEnd;
+        private ThreadState bestState;
+        private int bestTopFrame;
+        /**
+         * Per held lock: start and end of the current run, start and end of the longest run.
+         */
+        private Map<String, int[]> lockRuns;
+
+        Track(ThreadInfo thread) {
+            this.name = thread.name();
+            this.tid = thread.tid();
+            this.nid = thread.nid();
+        }
+
+        void observe(int sample, int[] stack, ThreadInfo thread, long[] capturedAt) {
+            if (sample == lastSample) {
+                // Same identity twice in one dump; keep the first
+                return;
+            }
+            boolean consecutive = lastSample >= 0 && sample == lastSample + 1;
+            boolean sameStack = consecutive && Arrays.equals(stack, lastStack);
+            if (consecutive) {
+                pairs++;
+                if (sameStack) {
+                    unchangedPairs++;
+                }
+            }
+            if (!sameStack || thread.state() != lastState) {
+                runStart = sample;
+            }
+            if (samplesSeen == 0 || isLonger(runStart, sample, bestStart, bestEnd, capturedAt)) {
+                bestStart = runStart;
+                bestEnd = sample;
+                bestState = thread.state();
+                bestTopFrame = stack.length > 0 ? stack[0] : -1;
+            }
+            observeLocks(sample, thread.heldLocks(), capturedAt);
+
+            samplesSeen++;
+            lastSample = sample;
+            lastStack = stack;
+            lastState = thread.state();
+        }
+
+        private void observeLocks(int sample, List<String> heldLocks, long[] capturedAt) {
+            if (heldLocks.isEmpty()) {
+                return;
+            }
+            if (lockRuns == null) {
+                lockRuns = new HashMap<>(4);
+            }
+            for (String lock : heldLocks) {
+                int[] run = lockRuns.get(lock);
+                if (run == null) {
+                    lockRuns.put(lock, new int[]{sample, sample, sample, sample});
+                    continue;
+                }
+                run[0] = run[1] == sample - 1 ? run[0] : sample;
+                run[1] = sample;
+                if (isLonger(run[0], run[1], run[2], run[3], capturedAt)) {
+                    run[2] = run[0];
+                    run[3] = run[1];
+                }
+            }
+        }
+
+        SeriesAnalysis.ThreadProgress progress(long[] capturedAt, StackSignatureTable signatures,
+                                               int stuckMinSamples, long stuckMinMillis) {
+            int unchangedSamples = bestEnd - bestStart + 1;
+            long unchangedMillis = capturedAt[bestEnd] - capturedAt[bestStart];
+            boolean stuck = ACTIVE_STATES.contains(bestState) && unchangedSamples >= stuckMinSamples
+                    && unchangedMillis >= stuckMinMillis;
+            double stability = pairs == 0 ? 0 : (double) unchangedPairs / pairs;
+            String topFrame = bestTopFrame >= 0 ? signatures.frame(bestTopFrame).text() : null;
+            return new SeriesAnalysis.ThreadProgress(name, tid, nid, samplesSeen, stability, unchangedSamples,
+                    unchangedMillis, bestState, topFrame, stuck);
+        }
+
+        void heldLocks(long[] capturedAt, long minMillis, List<Map<String, List<String>>> waitersBySample,
+                       List<SeriesAnalysis.HeldLock> result) {
+            if (lockRuns == null) {
+                return;
+            }
+            lockRuns.forEach((lock, run) -> {
+                int start = run[2];
+                int end = run[3];
+                long heldMillis = capturedAt[end] - capturedAt[start];
+                if (end == start || heldMillis < minMillis) {
+                    return;
+                }
+                Set<String> waiting = new LinkedHashSet<>();
+                int maxWaiters = 0;
+                for (int sample = start; sample <= end; sample++) {
+                    List<String> waiters = waitersBySample.get(sample).getOrDefault(lock, List.of());
+                    int count = 0;
+                    for (String waiter : waiters) {
+                        if (!waiter.equals(name)) {
+                            waiting.add(waiter);
+                            count++;
+                        }
+                    }
+                    maxWaiters = Math.max(maxWaiters, count);
+                }
+                result.add(new SeriesAnalysis.HeldLock(lock, name, end - start + 1, heldMillis, maxWaiters,
+                        List.copyOf(waiting)));
+            });
+        }
+
+        private static boolean isLonger(int start, int end, int otherStart, int otherEnd, long[] capturedAt) {
+            long millis = capturedAt[end] - capturedAt[start];
+            long otherMillis = capturedAt[otherEnd] - capturedAt[otherStart];
+            return millis > otherMillis || (millis == otherMillis && end - start > otherEnd - otherStart);
+        }
+    }
+}
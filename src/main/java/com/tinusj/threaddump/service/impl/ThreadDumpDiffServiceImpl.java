@@ -0,0 +1,445 @@
+package com.tinusj.threaddump.service.impl;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.AnalysisTimings;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.StackSignatureTable;
+import com.tinusj.threaddump.model.ThreadDumpDiffRequest;
+import com.tinusj.threaddump.model.ThreadInfo;
+import com.tinusj.threaddump.model.ThreadStatistics;
+import com.tinusj.threaddump.service.ThreadDumpAnalyzer;
+import com.tinusj.threaddump.service.ThreadDumpDiffService;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of ThreadDumpDiffService working on the parsed model of both dumps.
+ * <p>
+ * Both dumps are parsed once (or taken from the {@link ParsedDumpStore}); everything else is a
+ * linear pass over their threads. Stacks are compared through a shared {@link StackSignatureTable},
+ * so a stack signature is an array of frame ids and counting signatures is a hash lookup per thread.
+ * Threads are matched by name, in order of appearance for duplicate names, so that state changes
+ * are found across a JVM restart, when thread ids and addresses change.
+ * <p>
+ * The findings describe what changed: thread pools (thread names without their trailing number)
+ * that appeared or disappeared, state changes of matched threads, stack signatures that appeared
+ * or vanished, and changes in the number of threads BLOCKED at each contention site (the method
+ * at the top of their stack).
+ */
+@Service
+@Slf4j
+public class ThreadDumpDiffServiceImpl implements ThreadDumpDiffService {
+
+    private static final int MAX_LISTED_ITEMS = 10;
+
+    private final ThreadDumpAnalyzer threadDumpAnalyzer;
+    private final ParsedDumpStore parsedDumpStore;
+    private final RuleConfigurationProvider configurationProvider;
+
+    public ThreadDumpDiffServiceImpl(ThreadDumpAnalyzer threadDumpAnalyzer, ParsedDumpStore parsedDumpStore,
+                                     RuleConfigurationProvider configurationProvider) {
+        this.threadDumpAnalyzer = threadDumpAnalyzer;
+        this.parsedDumpStore = parsedDumpStore;
+        this.configurationProvider = configurationProvider;
+    }
+
+    @Override
+    public DiagnosticReport diff(ThreadDumpDiffRequest request) {
+        long start = System.nanoTime();
+        Side baseline = resolve("baseline", request.baseline(), request.baselineReportId());
+        Side current = resolve("current", request.current(), request.currentReportId());
+        long parseNanos = System.nanoTime() - start;
+        return diff(baseline.dump(), current.dump(), baseline.source() + " -> " + current.source(), parseNanos);
+    }
+
+    @Override
+    public DiagnosticReport diff(ParsedThreadDump baseline, ParsedThreadDump current, String source) {
+        return diff(baseline, current, source, 0);
+    }
+
+    private DiagnosticReport diff(ParsedThreadDump baseline, ParsedThreadDump current, String source,
+                                  long parseNanos) {
+        log.info("Comparing thread dumps: {}", source);
+        long start = System.nanoTime();
+        RuleConfiguration configuration = configurationProvider.current();
+
+        ThreadStatistics delta = delta(threadDumpAnalyzer.analyzeStatistics(baseline),
+                threadDumpAnalyzer.analyzeStatistics(current));
+        long analyzedStatistics = System.nanoTime();
+
+        List<DiagnosticFinding> findings = new ArrayList<>();
+        findings.addAll(threadPoolChanges(baseline, current));
+        findings.addAll(stateChanges(baseline, current, configuration));
+        findings.addAll(stackSignatureChanges(baseline, current));
+        findings.addAll(contentionChanges(baseline, current, configuration));
+        long analyzedFindings = System.nanoTime();
+
+        AnalysisTimings timings = new AnalysisTimings(
+                toMillis(parseNanos),
+                toMillis(analyzedStatistics - start),
+                toMillis(analyzedFindings - analyzedStatistics),
+                toMillis(parseNanos + analyzedFindings - start)
+        );
+        String summary = String.format("Compared %d baseline threads with %d current threads (%+d): %d change(s) found",
+                baseline.size(), current.size(), delta.totalThreads(), findings.size());
+
+        DiagnosticReport report = new DiagnosticReport(
+                UUID.randomUUID().toString(),
+                LocalDateTime.now(),
+                source,
+                delta,
+                findings,
+                suggestedFixes(findings),
+                ReportStatus.COMPLETED,
+                summary,
+                timings
+        );
+        log.info("Thread dump comparison completed for {}, report ID: {} in {} ms",
+                source, report.id(), timings.totalMillis());
+        return report;
+    }
+
+    private Side resolve(String side, String content, String reportId) {
+        if (content != null && !content.isBlank()) {
+            return new Side(threadDumpAnalyzer.parse(content), side + "-text");
+        }
+        if (reportId != null && !reportId.isBlank()) {
+            return parsedDumpStore.get(reportId)
+                    .map(stored -> new Side(stored.dump(), stored.source()))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown or expired report id: " + reportId));
+        }
+        throw new IllegalArgumentException("Either the " + side + " dump or its report id is required");
+    }
+
+    /**
+     * Returns statistics holding the difference current minus baseline for every count.
+     */
+    private static ThreadStatistics delta(ThreadStatistics baseline, ThreadStatistics current) {
+        return new ThreadStatistics(
+                current.totalThreads() - baseline.totalThreads(),
+                deltaMap(baseline.threadsByState(), current.threadsByState()),
+                current.daemonThreads() - baseline.daemonThreads(),
+                current.blockedThreads() - baseline.blockedThreads(),
+                current.waitingThreads() - baseline.waitingThreads(),
+                current.runnableThreads() - baseline.runnableThreads(),
+                deltaMap(baseline.threadGroups(), current.threadGroups())
+        );
+    }
+
+    private static <K> Map<K, Integer> deltaMap(Map<K, Integer> baseline, Map<K, Integer> current) {
+        Map<K, Integer> delta = new LinkedHashMap<>();
+        baseline.forEach((key, count) -> delta.put(key, -count));
+        current.forEach((key, count) -> delta.merge(key, count, Integer::sum));
+        return delta;
+    }
+
+    private static List<DiagnosticFinding> threadPoolChanges(ParsedThreadDump baseline, ParsedThreadDump current) {
+        Map<String, Integer> before = poolSizes(baseline);
+        Map<String, Integer> after = poolSizes(current);
+        Map<String, Integer> appeared = new TreeMap<>(after);
+        appeared.keySet().removeAll(before.keySet());
+        Map<String, Integer> disappeared = new TreeMap<>(before);
+        disappeared.keySet().removeAll(after.keySet());
+
+        List<DiagnosticFinding> findings = new ArrayList<>(2);
+        if (!appeared.isEmpty()) {
+            findings.add(new DiagnosticFinding(
+                    "NEW_THREAD_POOLS",
+                    String.format("%d thread pool(s) appeared: %s", appeared.size(), describe(appeared)),
+                    Severity.MEDIUM,
+                    List.copyOf(appeared.keySet()),
+                    "Check that the new pools are expected and bounded, and that pools they replace are shut down.",
+                    Map.of("pools", appeared)
+            ));
+        }
+        if (!disappeared.isEmpty()) {
+            findings.add(new DiagnosticFinding(
+                    "REMOVED_THREAD_POOLS",
+                    String.format("%d thread pool(s) disappeared: %s", disappeared.size(), describe(disappeared)),
+                    Severity.LOW,
+                    List.copyOf(disappeared.keySet()),
+                    "Check that the work of the removed pools is handled elsewhere.",
+                    Map.of("pools", disappeared)
+            ));
+        }
+        return findings;
+    }
+
+    /**
+     * Counts threads per pool, i.e. per name with its trailing number removed. Names without a
+     * trailing number are single threads, not pools, and are not counted.
+     */
+    private static Map<String, Integer> poolSizes(ParsedThreadDump dump) {
+        Map<String, Integer> pools = new HashMap<>();
+        for (ThreadInfo thread : dump.threads()) {
+            String name = thread.name();
+            int end = name.length();
+            while (end > 0 && Character.isDigit(name.charAt(end - 1))) {
+                end--;
+            }
+            if (end < name.length()) {
+                pools.merge(name.substring(0, end), 1, Integer::sum);
+            }
+        }
+        return pools;
+    }
+
+    private static List<DiagnosticFinding> stateChanges(ParsedThreadDump baseline, ParsedThreadDump current,
+                                                        RuleConfiguration configuration) {
+        Map<String, Deque<ThreadInfo>> baselineByName = new HashMap<>();
+        for (ThreadInfo thread : baseline.threads()) {
+            baselineByName.computeIfAbsent(thread.name(), name -> new ArrayDeque<>(1)).add(thread);
+        }
+
+        Map<String, Integer> transitions = new TreeMap<>();
+        List<String> newlyBlocked = new ArrayList<>();
+        for (ThreadInfo thread : current.threads()) {
+            Deque<ThreadInfo> candidates = baselineByName.get(thread.name());
+            ThreadInfo before = candidates != null ? candidates.poll() : null;
+            if (before == null || before.state() == thread.state()) {
+                continue;
+            }
+            transitions.merge(before.state() + " -> " + thread.state(), 1, Integer::sum);
+            if (thread.state() == ThreadState.BLOCKED) {
+                newlyBlocked.add(String.format("%s (was %s)", thread.name(), before.state()));
+            }
+        }
+        if (transitions.isEmpty()) {
+            return List.of();
+        }
+
+        Severity severity = newlyBlocked.isEmpty() ? Severity.LOW
+                : newlyBlocked.size() > configuration.blockedThreadsThreshold() ? Severity.HIGH : Severity.MEDIUM;
+        return List.of(new DiagnosticFinding(
+                "THREAD_STATE_CHANGES",
+                String.format("%d thread(s) changed state, %d of them to BLOCKED: %s",
+                        transitions.values().stream().mapToInt(Integer::intValue).sum(), newlyBlocked.size(),
+                        describe(transitions)),
+                severity,
+                newlyBlocked.stream().limit(MAX_LISTED_ITEMS).toList(),
+                "Compare the stacks of newly blocked threads with the baseline to find the lock they now wait for.",
+                Map.of(
+                        "transitions", transitions,
+                        "newlyBlockedCount", newlyBlocked.size()
+                )
+        ));
+    }
+
+    private static List<DiagnosticFinding> stackSignatureChanges(ParsedThreadDump baseline, ParsedThreadDump current) {
+        StackSignatureTable signatures = new StackSignatureTable();
+        Map<Signature, Integer> before = signatureCounts(baseline, signatures);
+        Map<Signature, Integer> after = signatureCounts(current, signatures);
+
+        List<DiagnosticFinding> findings = new ArrayList<>(2);
+        List<Map.Entry<Signature, Integer>> appeared = onlyIn(after, before);
+        if (!appeared.isEmpty()) {
+            findings.add(new DiagnosticFinding(
+                    "NEW_STACK_SIGNATURES",
+                    String.format("%d stack signature(s) appeared, shared by %d thread(s)", appeared.size(),
+                            appeared.stream().mapToInt(Map.Entry::getValue).sum()),
+                    Severity.MEDIUM,
+                    topFrames(appeared, signatures),
+                    "Review new code paths that threads are now executing or waiting in.",
+                    Map.of("signatures", describe(appeared, signatures))
+            ));
+        }
+        List<Map.Entry<Signature, Integer>> vanished = onlyIn(before, after);
+        if (!vanished.isEmpty()) {
+            findings.add(new DiagnosticFinding(
+                    "VANISHED_STACK_SIGNATURES",
+                    String.format("%d stack signature(s) vanished, previously shared by %d thread(s)",
+                            vanished.size(), vanished.stream().mapToInt(Map.Entry::getValue).sum()),
+                    Severity.LOW,
+                    topFrames(vanished, signatures),
+                    "Confirm that the code paths no longer seen were removed or are idle on purpose.",
+                    Map.of("signatures", describe(vanished, signatures))
+            ));
+        }
+        return findings;
+    }
+
+    private static Map<Signature, Integer> signatureCounts(ParsedThreadDump dump, StackSignatureTable signatures) {
+        Map<Signature, Integer> counts = new HashMap<>();
+        for (ThreadInfo thread : dump.threads()) {
+            if (!thread.frames().isEmpty()) {
+                counts.merge(new Signature(signatures.signatureOf(thread.frames())), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the signatures of {@code counts} missing from {@code other}, most common first.
+     */
+    private static List<Map.Entry<Signature, Integer>> onlyIn(Map<Signature, Integer> counts,
+                                                            Map<Signature, Integer> other) {
+        return counts.entrySet().stream()
+                .filter(entry -> !other.containsKey(entry.getKey()))
+                .sorted(Map.Entry.<Signature, Integer>comparingByValue().reversed())
+                .toList();
+    }
+
+    private static List<String> topFrames(List<Map.Entry<Signature, Integer>> entries,
+                                          StackSignatureTable signatures) {
+        return entries.stream()
+                .limit(MAX_LISTED_ITEMS)
+                .map(entry -> String.format("%s (%d threads)",
+                        signatures.frame(entry.getKey().frames()[0]).text(), entry.getValue()))
+                .toList();
+    }
+
+    private static List<Map<String, Object>> describe(List<Map.Entry<Signature, Integer>> entries,
+                                                      StackSignatureTable signatures) {
+        return entries.stream()
+                .limit(MAX_LISTED_ITEMS)
+                .map(entry -> Map.<String, Object>of(
+                        "topFrame", signatures.frame(entry.getKey().frames()[0]).text(),
+                        "depth", entry.getKey().frames().length,
+                        "threads", entry.getValue()))
+                .toList();
+    }
+
+    private static List<DiagnosticFinding> contentionChanges(ParsedThreadDump baseline, ParsedThreadDump current,
+                                                             RuleConfiguration configuration) {
+        Map<String, Integer> before = blockedBySite(baseline);
+        Map<String, Integer> after = blockedBySite(current);
+        Map<String, Integer> increased = new TreeMap<>();
+        Map<String, Integer> decreased = new TreeMap<>();
+        for (String site : new TreeSet<>(concat(before, after))) {
+            int change = after.getOrDefault(site, 0) - before.getOrDefault(site, 0);
+            if (change > 0) {
+                increased.put(site, change);
+            } else if (change < 0) {
+                decreased.put(site, change);
+            }
+        }
+
+        List<DiagnosticFinding> findings = new ArrayList<>(2);
+        if (!increased.isEmpty()) {
+            int maxIncrease = increased.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+            findings.add(new DiagnosticFinding(
+                    "LOCK_CONTENTION_INCREASED",
+                    String.format("More threads are blocked at %d contention site(s): %s", increased.size(),
+                            describe(increased)),
+                    maxIncrease > configuration.blockedThreadsThreshold() ? Severity.HIGH : Severity.MEDIUM,
+                    List.copyOf(increased.keySet()).subList(0, Math.min(increased.size(), MAX_LISTED_ITEMS)),
+                    "Review the synchronization at these sites; a lock may now be held longer or taken more often.",
+                    Map.of(
+                            "changes", increased,
+                            "baseline", before,
+                            "current", after
+                    )
+            ));
+        }
+        if (!decreased.isEmpty()) {
+            findings.add(new DiagnosticFinding(
+                    "LOCK_CONTENTION_DECREASED",
+                    String.format("Fewer threads are blocked at %d contention site(s): %s", decreased.size(),
+                            describe(decreased)),
+                    Severity.LOW,
+                    List.copyOf(decreased.keySet()).subList(0, Math.min(decreased.size(), MAX_LISTED_ITEMS)),
+                    "No action needed.",
+                    Map.of("changes", decreased)
+            ));
+        }
+        return findings;
+    }
+
+    /**
+     * Counts BLOCKED threads per method at the top of their stack, which stays the same across restarts
+     * while lock addresses do not.
+     */
+    private static Map<String, Integer> blockedBySite(ParsedThreadDump dump) {
+        Map<String, Integer> sites = new HashMap<>();
+        for (ThreadInfo thread : dump.threadsInState(ThreadState.BLOCKED)) {
+            String site = thread.frames().isEmpty() ? "<empty stack>" : thread.frames().frame(0).methodKey();
+            sites.merge(site, 1, Integer::sum);
+        }
+        return sites;
+    }
+
+    private static List<String> concat(Map<String, Integer> first, Map<String, Integer> second) {
+        List<String> keys = new ArrayList<>(first.keySet());
+        keys.addAll(second.keySet());
+        return keys;
+    }
+
+    private static List<String> suggestedFixes(List<DiagnosticFinding> findings) {
+        List<String> fixes = new ArrayList<>();
+        for (DiagnosticFinding finding : findings) {
+            switch (finding.type()) {
+                case "NEW_THREAD_POOLS" -> fixes.add("Verify that newly created thread pools are bounded and shut down");
+                case "THREAD_STATE_CHANGES" -> {
+                    if (finding.severity() != Severity.LOW) {
+                        fixes.add("Investigate the locks that previously running threads are now blocked on");
+                    }
+                }
+                case "LOCK_CONTENTION_INCREASED" -> fixes.add("Reduce lock scope at the sites with increased contention");
+                default -> {
+                    // Informational change
+                }
+            }
+        }
+        if (fixes.isEmpty()) {
+            fixes.add("No regressions detected between the two thread dumps");
+        }
+        return fixes;
+    }
+
+    private static String describe(Map<String, Integer> counts) {
+        StringBuilder description = new StringBuilder();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue((a, b) -> Integer.compare(Math.abs(b), Math.abs(a))))
+                .limit(MAX_LISTED_ITEMS)
+                .forEach(entry -> description.append(description.isEmpty() ? "" : ", ")
+                        .append(entry.getKey()).append('(').append(entry.getValue()).append(')'));
+        return description.toString();
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * One side of the comparison.
+     */
+    private record Side(ParsedThreadDump dump, String source) {
+    }
+
+    /**
+     * A stack as frame ids of a {@link StackSignatureTable}, compared by content.
+     */
+    private record Signature(int[] frames) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature other && Arrays.equals(frames, other.frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(frames);
+        }
+    }
+}
@@ -1,99 +1,212 @@
 package com.tinusj.threaddump.service.impl;
 
+import com.tinusj.threaddump.capture.AttachThreadDumpCapture;
+import com.tinusj.threaddump.capture.JstackThreadDumpCapture;
+import com.tinusj.threaddump.capture.ThreadCpuSampler;
+import com.tinusj.threaddump.capture.ThreadDumpCapture;
+import com.tinusj.threaddump.capture.ThreadDumpCaptureException;
+import com.tinusj.threaddump.model.CapturedThreadDump;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.ThreadCpuSample;
 import com.tinusj.threaddump.service.JavaProcessService;
+import com.tinusj.threaddump.service.ThreadDumpAnalyzer;
 import com.tinusj.threaddump.service.ThreadDumpGenerationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
+import java.io.FilterReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
- * Implementation of ThreadDumpGenerationService using jstack tool.
+ * Implementation of ThreadDumpGenerationService.
+ * Dumps are captured in-process through the Attach API ({@link AttachThreadDumpCapture}); if that
+ * backend is unavailable or fails, the PID is validated against the running Java processes and the
+ * dump is taken with jstack ({@link JstackThreadDumpCapture}). {@link #captureThreadDump(long, boolean)}
+ * parses the dump while it is captured, so jstack's output is analyzed as it arrives and the text is only
+ * buffered when the caller keeps it; it also reads the CPU time of every thread of the process before and
+ * after the dump ({@link ThreadCpuSampler}).
  */
 @Service
 @Slf4j
 public class ThreadDumpGenerationServiceImpl implements ThreadDumpGenerationService {
 
-    private static final String JSTACK_COMMAND = "jstack";
-    
     private final JavaProcessService javaProcessService;
+    private final ThreadDumpAnalyzer threadDumpAnalyzer;
+    private final AttachThreadDumpCapture attachCapture;
+    private final JstackThreadDumpCapture jstackCapture;
+    private final ThreadCpuSampler cpuSampler;
+    
+    public ThreadDumpGenerationServiceImpl(JavaProcessService javaProcessService, ThreadDumpAnalyzer threadDumpAnalyzer) {
+        this(javaProcessService, threadDumpAnalyzer, new AttachThreadDumpCapture(), new JstackThreadDumpCapture(),
+                new ThreadCpuSampler());
+    }
     
-    public ThreadDumpGenerationServiceImpl(JavaProcessService javaProcessService) {
+    @Autowired
+    public ThreadDumpGenerationServiceImpl(JavaProcessService javaProcessService,
+                                           ThreadDumpAnalyzer threadDumpAnalyzer,
+                                           AttachThreadDumpCapture attachCapture,
+                                           JstackThreadDumpCapture jstackCapture,
+                                           ThreadCpuSampler cpuSampler) {
         this.javaProcessService = javaProcessService;
+        this.threadDumpAnalyzer = threadDumpAnalyzer;
+        this.attachCapture = attachCapture;
+        this.jstackCapture = jstackCapture;
+        this.cpuSampler = cpuSampler;
     }
 
     @Override
     public String generateThreadDump(long pid) {
+        return generateThreadDump(pid, ThreadDumpGenerationServiceImpl::readFully);
+    }
+
+    @Override
+    public <T> T generateThreadDump(long pid, Function<Reader, T> consumer) {
         log.info("Generating thread dump for PID: {}", pid);
+        long start = System.nanoTime();
         
-        // First verify this is a valid Java process
+        if (attachCapture.isAvailable()) {
+            try {
+                return capture(pid, attachCapture, consumer, start);
+            } catch (ThreadDumpCaptureException e) {
+                log.debug("Attach capture failed for PID {}, falling back to jstack: {}", pid, e.getMessage());
+            }
+        }
+        
+        // Verify this is a valid Java process before spawning jstack
         if (javaProcessService.getJavaProcessByPid(pid) == null) {
             throw new IllegalArgumentException("PID " + pid + " is not a valid Java process or not found");
         }
-        
-        try {
-            ProcessBuilder processBuilder = new ProcessBuilder(JSTACK_COMMAND, String.valueOf(pid));
-            Process process = processBuilder.start();
-            
-            StringBuilder threadDump = new StringBuilder();
-            
-            // Read the thread dump output
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    threadDump.append(line).append("\n");
-                }
-            }
-            
-            // Also read error stream for potential error messages
-            StringBuilder errorOutput = new StringBuilder();
-            try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                String line;
-                while ((line = errorReader.readLine()) != null) {
-                    errorOutput.append(line).append("\n");
-                }
-            }
-            
-            // Wait for process completion
-            int exitCode = process.waitFor();
-            
-            if (exitCode != 0) {
-                String errorMsg = errorOutput.length() > 0 ? errorOutput.toString() : "Unknown error";
-                log.error("jstack command failed with exit code: {}, error: {}", exitCode, errorMsg);
-                throw new RuntimeException("Failed to generate thread dump for PID " + pid + ": " + errorMsg);
-            }
-            
-            String result = threadDump.toString();
-            if (result.trim().isEmpty()) {
-                throw new RuntimeException("Thread dump generation produced no output for PID " + pid);
+        return capture(pid, jstackCapture, consumer, start);
+    }
+
+    @Override
+    public CapturedThreadDump captureThreadDump(long pid, boolean keepContent) {
+        ThreadCpuSampler.Snapshot before = cpuSampler.snapshot(pid);
+        StringBuilder content = keepContent ? new StringBuilder() : null;
+        ParsedThreadDump threadDump = generateThreadDump(pid, reader -> {
+            if (content == null) {
+                return threadDumpAnalyzer.parse(reader);
             }
-            
-            log.info("Successfully generated thread dump for PID: {} ({} characters)", pid, result.length());
-            return result;
-            
-        } catch (IOException | InterruptedException e) {
-            log.error("Error running jstack command for PID: {}", pid, e);
-            throw new RuntimeException("Failed to generate thread dump for PID " + pid + ": " + e.getMessage(), e);
+            // Start over if an earlier backend failed part way through
+            content.setLength(0);
+            return threadDumpAnalyzer.parse(new CopyingReader(reader, content));
+        });
+        ThreadCpuSample cpuSample = before != null ? cpuSampler.since(before) : null;
+        if (cpuSample != null) {
+            log.debug("Sampled CPU time of {} threads of PID {} over {} ms", cpuSample.size(), pid,
+                    cpuSample.windowMillis());
         }
+        return new CapturedThreadDump(content != null ? content.toString() : null, threadDump, cpuSample);
     }
 
     @Override
     public boolean isAvailable() {
+        return attachCapture.isAvailable() || jstackCapture.isAvailable();
+    }
+    
+    private static <T> T capture(long pid, ThreadDumpCapture backend, Function<Reader, T> consumer, long start) {
+        CountingReader[] counted = new CountingReader[1];
+        T result = backend.capture(pid, reader -> {
+            counted[0] = new CountingReader(reader);
+            return consumer.apply(counted[0]);
+        });
+        if (!counted[0].hasContent()) {
+            throw new ThreadDumpCaptureException("Thread dump generation produced no output for PID " + pid);
+        }
+        log.info("Successfully generated thread dump for PID: {} ({} characters) via {} in {} ms",
+                pid, counted[0].count(), backend.name(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+    
+    private static String readFully(Reader reader) {
+        StringWriter threadDump = new StringWriter();
         try {
-            ProcessBuilder processBuilder = new ProcessBuilder(JSTACK_COMMAND, "-h");
-            Process process = processBuilder.start();
-            int exitCode = process.waitFor();
-            
-            // jstack -h typically exits with code 0 or 1 but should not exit with command not found (127)
-            boolean available = exitCode != 127;
-            log.debug("Thread dump generation availability check: jstack available = {}", available);
-            return available;
-            
-        } catch (IOException | InterruptedException e) {
-            log.debug("Thread dump generation not available: {}", e.getMessage());
-            return false;
+            reader.transferTo(threadDump);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return threadDump.toString();
+    }
+    
+    /**
+     * Counts the characters read through it and whether any of them was not whitespace.
+     */
+    private static final class CountingReader extends FilterReader {
+        
+        private long count;
+        private boolean content;
+        
+        CountingReader(Reader in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                seen((char) c);
+            }
+            return c;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            for (int i = 0; i < read && !content; i++) {
+                content = !Character.isWhitespace(buffer[offset + i]);
+            }
+            count += Math.max(read, 0);
+            return read;
+        }
+        
+        private void seen(char c) {
+            count++;
+            content |= !Character.isWhitespace(c);
+        }
+        
+        long count() {
+            return count;
+        }
+        
+        boolean hasContent() {
+            return content;
+        }
+    }
+    
+    /**
+     * Appends every character read through it to a buffer.
+     */
+    private static final class CopyingReader extends FilterReader {
+        
+        private final StringBuilder copy;
+        
+        CopyingReader(Reader in, StringBuilder copy) {
+            super(in);
+            this.copy = copy;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                copy.append((char) c);
+            }
+            return c;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                copy.append(buffer, offset, read);
+            }
+            return read;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,23 @@
 package com.tinusj.threaddump.skill;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.FleetCaptureRequest;
+import com.tinusj.threaddump.model.FleetCaptureSummary;
 import com.tinusj.threaddump.model.JavaProcess;
 import com.tinusj.threaddump.enums.ReportFormat;
 import com.tinusj.threaddump.service.DiagnosticService;
+import com.tinusj.threaddump.service.FleetCaptureService;
 import com.tinusj.threaddump.service.JavaProcessService;
 import com.tinusj.threaddump.service.ReportFormatterService;
 import com.tinusj.threaddump.service.ThreadDumpGenerationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -26,15 +34,23 @@ public class ThreadDumpAnalysisSkill {
     private final ReportFormatterService reportFormatterService;
     private final JavaProcessService javaProcessService;
     private final ThreadDumpGenerationService threadDumpGenerationService;
+    private final FleetCaptureService fleetCaptureService;
+    private final ObjectMapper objectMapper;
     
     public ThreadDumpAnalysisSkill(DiagnosticService diagnosticService, 
                                  ReportFormatterService reportFormatterService,
                                  JavaProcessService javaProcessService,
-                                 ThreadDumpGenerationService threadDumpGenerationService) {
+                                 ThreadDumpGenerationService threadDumpGenerationService,
+                                 FleetCaptureService fleetCaptureService) {
         this.diagnosticService = diagnosticService;
         this.reportFormatterService = reportFormatterService;
         this.javaProcessService = javaProcessService;
         this.threadDumpGenerationService = threadDumpGenerationService;
+        this.fleetCaptureService = fleetCaptureService;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
     
     /**
@@ -60,7 +76,10 @@ public class ThreadDumpAnalysisSkill {
             try {
                 format = ReportFormat.valueOf(formatStr.toUpperCase());
             } catch (IllegalArgumentException e) {
-                return "Error: Unsupported format '" + formatStr + "'. Supported formats: JSON, XML, TEXT";
+                format = null;
+            }
+            if (format == null || format.isBinary()) {
+                return "Error: Unsupported format '" + formatStr + "'. Supported formats: JSON, JSON_COMPACT, XML, TEXT, COLLAPSED, FLAMEGRAPH";
             }
             
             log.info("MCP: Analyzing thread dump from source: {}, format: {}", source, format);
@@ -237,7 +256,7 @@ public class ThreadDumpAnalysisSkill {
                 "          },\n" +
                 "          \"format\": {\n" +
                 "            \"type\": \"string\",\n" +
-                "            \"enum\": [\"JSON\", \"XML\", \"TEXT\"],\n" +
+                "            \"enum\": [\"JSON\", \"JSON_COMPACT\", \"XML\", \"TEXT\", \"COLLAPSED\", \"FLAMEGRAPH\"],\n" +
                 "            \"description\": \"Output format for the diagnostic report\",\n" +
                 "            \"default\": \"JSON\"\n" +
                 "          },\n" +
@@ -292,13 +311,42 @@ public class ThreadDumpAnalysisSkill {
                 "          },\n" +
                 "          \"format\": {\n" +
                 "            \"type\": \"string\",\n" +
-                "            \"enum\": [\"JSON\", \"XML\", \"TEXT\"],\n" +
+                "            \"enum\": [\"JSON\", \"JSON_COMPACT\", \"XML\", \"TEXT\", \"COLLAPSED\", \"FLAMEGRAPH\"],\n" +
                 "            \"description\": \"Output format for the diagnostic report\",\n" +
                 "            \"default\": \"JSON\"\n" +
                 "          }\n" +
                 "        },\n" +
                 "        \"required\": [\"pid\"]\n" +
                 "      }\n" +
+                "    },\n" +
+                "    {\n" +
+                "      \"name\": \"generate_all_thread_dumps\",\n" +
+                "      \"description\": \"Generates and analyzes thread dumps of many running Java processes at the same instant and summarizes the findings across them\",\n" +
+                "      \"inputSchema\": {\n" +
+                "        \"type\": \"object\",\n" +
+                "        \"properties\": {\n" +
+                "          \"pids\": {\n" +
+                "            \"type\": \"array\",\n" +
+                "            \"items\": {\"type\": \"integer\"},\n" +
+                "            \"description\": \"The process IDs to capture; all running Java processes if omitted\"\n" +
+                "          },\n" +
+                "          \"mainClassPattern\": {\n" +
+                "            \"type\": \"string\",\n" +
+                "            \"description\": \"Regular expression that must be found in the main class or jar of a process\"\n" +
+                "          },\n" +
+                "          \"timeoutMillis\": {\n" +
+                "            \"type\": \"integer\",\n" +
+                "            \"description\": \"Time allowed to capture and analyze one process; the configured default if omitted\"\n" +
+                "          },\n" +
+                "          \"format\": {\n" +
+                "            \"type\": \"string\",\n" +
+                "            \"enum\": [\"JSON\", \"TEXT\"],\n" +
+                "            \"description\": \"Output format for the summary\",\n" +
+                "            \"default\": \"JSON\"\n" +
+                "          }\n" +
+                "        },\n" +
+                "        \"required\": []\n" +
+                "      }\n" +
                 "    }\n" +
                 "  ]\n" +
                 "}";
@@ -389,17 +437,20 @@ public class ThreadDumpAnalysisSkill {
             try {
                 format = ReportFormat.valueOf(formatStr.toUpperCase());
             } catch (IllegalArgumentException e) {
-                return "Error: Unsupported format '" + formatStr + "'. Supported formats: JSON, XML, TEXT";
+                format = null;
+            }
+            if (format == null || format.isBinary()) {
+                return "Error: Unsupported format '" + formatStr + "'. Supported formats: JSON, JSON_COMPACT, XML, TEXT, COLLAPSED, FLAMEGRAPH";
             }
             
             log.info("MCP: Generating and analyzing thread dump for PID: {}, format: {}", pid, format);
             
-            // Generate thread dump
-            String threadDump = threadDumpGenerationService.generateThreadDump(pid);
+            // Generate thread dump, measuring the CPU time of its threads meanwhile
+            CapturedThreadDump capture = threadDumpGenerationService.captureThreadDump(pid);
             
             // Analyze thread dump
             String source = "pid-" + pid;
-            DiagnosticReport report = diagnosticService.analyzeThreadDump(threadDump, source);
+            DiagnosticReport report = diagnosticService.analyzeThreadDump(capture, source);
             String formattedReport = reportFormatterService.formatReport(report, format);
             
             log.info("MCP: Thread dump generation and analysis completed successfully for PID: {}, report ID: {}", pid, report.id());
@@ -414,4 +465,104 @@ public class ThreadDumpAnalysisSkill {
             return "Error: Failed to generate and analyze thread dump - " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Handles the fleet capture tool invocation.
+     * This method captures and analyzes many processes concurrently and summarizes the results.
+     * 
+     * Expected arguments:
+     * - pids (optional): The process IDs to capture - defaults to all running Java processes
+     * - mainClassPattern (optional): Regular expression matched against the main class of each process
+     * - timeoutMillis (optional): Time allowed per process - defaults to the configured timeout
+     * - format (optional): Output format (JSON, TEXT) - defaults to JSON
+     */
+    public String handleGenerateAllThreadDumps(Map<String, Object> arguments) {
+        try {
+            String formatStr = (String) arguments.getOrDefault("format", "JSON");
+            ReportFormat format;
+            try {
+                format = ReportFormat.valueOf(formatStr.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                format = null;
+            }
+            if (format != ReportFormat.JSON && format != ReportFormat.TEXT) {
+                return "Error: Unsupported format '" + formatStr + "'. Supported formats: JSON, TEXT";
+            }
+            
+            List<Long> pids = new ArrayList<>();
+            Object pidsObj = arguments.get("pids");
+            if (pidsObj instanceof List<?> pidList) {
+                for (Object pidObj : pidList) {
+                    if (pidObj instanceof Number number) {
+                        pids.add(number.longValue());
+                    } else if (pidObj instanceof String text) {
+                        try {
+                            pids.add(Long.parseLong(text));
+                        } catch (NumberFormatException e) {
+                            return "Error: Invalid PID format - must be a number";
+                        }
+                    } else {
+                        return "Error: Invalid PID type - must be a number or string";
+                    }
+                }
+            } else if (pidsObj != null) {
+                return "Error: pids must be a list of process IDs";
+            }
+            
+            Object timeoutObj = arguments.getOrDefault("timeoutMillis", 0);
+            if (!(timeoutObj instanceof Number timeout)) {
+                return "Error: timeoutMillis must be a number";
+            }
+            String mainClassPattern = (String) arguments.get("mainClassPattern");
+            
+            log.info("MCP: Generating thread dumps for PIDs {} and main class pattern {}", pids, mainClassPattern);
+            
+            FleetCaptureSummary summary = fleetCaptureService.captureAll(
+                    new FleetCaptureRequest(pids, mainClassPattern, timeout.longValue()));
+            
+            log.info("MCP: Generated {} of {} thread dumps in {} ms", summary.succeeded(), summary.processCount(),
+                    summary.wallMillis());
+            
+            return format == ReportFormat.TEXT ? formatFleetSummaryAsText(summary)
+                    : objectMapper.writeValueAsString(summary);
+            
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            log.error("MCP: Invalid fleet thread dump request", e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            log.error("MCP: Error generating thread dumps", e);
+            return "Error: Failed to generate thread dumps - " + e.getMessage();
+        }
+    }
+    
+    private String formatFleetSummaryAsText(FleetCaptureSummary summary) {
+        StringBuilder text = new StringBuilder();
+        text.append("Thread Dumps of ").append(summary.processCount()).append(" Processes (")
+                .append(summary.wallMillis()).append(" ms):\n");
+        text.append("=====================================\n");
+        text.append("Succeeded: ").append(summary.succeeded())
+                .append(", Failed: ").append(summary.failed())
+                .append(", Timed out: ").append(summary.timedOut()).append("\n\n");
+        
+        for (FleetCaptureSummary.ProcessResult result : summary.processes()) {
+            text.append("PID: ").append(result.pid()).append("\n");
+            if (result.mainClass() != null) {
+                text.append("Main Class: ").append(result.mainClass()).append("\n");
+            }
+            text.append("Outcome: ").append(result.outcome()).append(" (").append(result.millis()).append(" ms)\n");
+            if (result.error() != null) {
+                text.append("Error: ").append(result.error()).append("\n");
+            } else {
+                text.append("Threads: ").append(result.totalThreads())
+                        .append(", Blocked: ").append(result.blockedThreads()).append("\n");
+                if (!result.findingTypes().isEmpty()) {
+                    text.append("Findings: ").append(String.join(", ", result.findingTypes()))
+                            .append(" (highest severity ").append(result.highestSeverity()).append(")\n");
+                }
+            }
+            text.append("\n");
+        }
+        
+        return text.toString();
+    }
+}
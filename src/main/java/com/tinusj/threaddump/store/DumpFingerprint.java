@@ -0,0 +1,165 @@
+package com.tinusj.threaddump.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 128-bit content hash of a thread dump, used to recognize a dump that was submitted before.
+ * <p>
+ * The dump is normalized while it is hashed: carriage returns are dropped, and so are the header lines
+ * before the first thread that start with a digit, i.e. the capture timestamp of {@code jstack} and the
+ * process id line of {@code jcmd Thread.print}. Text is hashed as its UTF-8 bytes, so a dump submitted
+ * as text and as a file has the same fingerprint. Hashing reads 8 bytes per step into two 64-bit lanes
+ * mixed like MurmurHash3 and allocates nothing.
+ * <p>
+ * The hash is fast rather than cryptographic: two different dumps are practically never confused by
+ * accident, but one could be crafted to collide with another.
+ *
+ * @param high the upper 64 bits of the hash
+ * @param low the lower 64 bits of the hash
+ * @param length the number of bytes hashed after normalization
+ */
+public record DumpFingerprint(long high, long low, long length) {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+    private static final long MAPPING_WINDOW_SIZE = 1L << 30;
+
+    /**
+     * Fingerprints a dump given as text.
+     *
+     * @param content the dump content
+     * @return the fingerprint
+     */
+    public static DumpFingerprint of(CharSequence content) {
+        Hasher hasher = new Hasher();
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (c < 0x80) {
+                hasher.accept(c);
+            } else if (c < 0x800) {
+                hasher.accept(0xC0 | (c >> 6));
+                hasher.accept(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(content.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, content.charAt(++i));
+                hasher.accept(0xF0 | (codePoint >> 18));
+                hasher.accept(0x80 | ((codePoint >> 12) & 0x3F));
+                hasher.accept(0x80 | ((codePoint >> 6) & 0x3F));
+                hasher.accept(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are encoded as '?', as String.getBytes does
+                hasher.accept('?');
+            } else {
+                hasher.accept(0xE0 | (c >> 12));
+                hasher.accept(0x80 | ((c >> 6) & 0x3F));
+                hasher.accept(0x80 | (c & 0x3F));
+            }
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * Fingerprints a dump file by memory-mapping it.
+     *
+     * @param dumpFile the dump file
+     * @return the fingerprint
+     * @throws IOException if the file cannot be read
+     */
+    public static DumpFingerprint of(Path dumpFile) throws IOException {
+        Hasher hasher = new Hasher();
+        try (FileChannel channel = FileChannel.open(dumpFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAPPING_WINDOW_SIZE) {
+                long windowSize = Math.min(MAPPING_WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                for (int i = 0; i < windowSize; i++) {
+                    hasher.accept(window.get(i) & 0xFF);
+                }
+            }
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * Normalizes and hashes a stream of bytes.
+     */
+    private static final class Hasher {
+
+        private long h1;
+        private long h2;
+        private long word;
+        private int wordBytes;
+        private long length;
+        private boolean inHeader = true;
+        private boolean atLineStart = true;
+        private boolean skippingLine;
+
+        void accept(int b) {
+            if (b == '\r') {
+                return;
+            }
+            if (atLineStart) {
+                atLineStart = false;
+                if (inHeader) {
+                    if (b == '"') {
+                        inHeader = false;
+                    } else if (b >= '0' && b <= '9') {
+                        skippingLine = true;
+                    }
+                }
+            }
+            if (b == '\n') {
+                atLineStart = true;
+                if (skippingLine) {
+                    skippingLine = false;
+                    return;
+                }
+            }
+            if (skippingLine) {
+                return;
+            }
+            word = (word << 8) | b;
+            length++;
+            if (++wordBytes == Long.BYTES) {
+                mix(word);
+                word = 0;
+                wordBytes = 0;
+            }
+        }
+
+        DumpFingerprint finish() {
+            if (wordBytes > 0) {
+                mix(word);
+            }
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix(h1);
+            h2 = fmix(h2);
+            h1 += h2;
+            h2 += h1;
+            return new DumpFingerprint(h1, h2, length);
+        }
+
+        private void mix(long k) {
+            h1 ^= Long.rotateLeft(k * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27) * 5 + 0x52DCE729;
+            h2 ^= Long.rotateLeft(k * C2, 33) * C1;
+            h2 = Long.rotateLeft(h2, 31) * 5 + 0x38495AB5;
+        }
+
+        private static long fmix(long k) {
+            k ^= k >>> 33;
+            k *= 0xFF51AFD7ED558CCDL;
+            k ^= k >>> 33;
+            k *= 0xC4CEB9FE1A85EC53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
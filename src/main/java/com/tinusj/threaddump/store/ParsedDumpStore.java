@@ -0,0 +1,81 @@
+package com.tinusj.threaddump.store;
+
+import com.tinusj.threaddump.config.ReportStoreProperties;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the parsed form of recently analyzed thread dumps by report id, so that later requests
+ * (e.g. a diff of two reports) can reuse them without the original text. Holds at most
+ * {@code thread-dump.reports.store.max-entries} dumps and drops the least recently used first.
+ */
+@Component
+public class ParsedDumpStore {
+
+    private final int maxEntries;
+    private final Map<String, StoredDump> dumps;
+
+    /**
+     * Creates a store with the default capacity.
+     */
+    public ParsedDumpStore() {
+        this(new ReportStoreProperties());
+    }
+
+    /**
+     * Creates a store configured by the {@code thread-dump.reports.store} properties.
+     */
+    @Autowired
+    public ParsedDumpStore(ReportStoreProperties properties) {
+        this.maxEntries = properties.getMaxEntries();
+        this.dumps = new LinkedHashMap<>(Math.max(maxEntries, 1), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredDump> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Stores the parsed dump of a report.
+     *
+     * @param reportId the id of the report the dump was analyzed for
+     * @param source the source identifier of the dump
+     * @param dump the parsed dump
+     */
+    public void put(String reportId, String source, ParsedThreadDump dump) {
+        if (maxEntries == 0) {
+            return;
+        }
+        synchronized (dumps) {
+            dumps.put(reportId, new StoredDump(reportId, source, dump));
+        }
+    }
+
+    /**
+     * Returns the parsed dump of a report, if it is still stored.
+     *
+     * @param reportId the report id
+     * @return the stored dump, or empty if the report is unknown or has been evicted
+     */
+    public Optional<StoredDump> get(String reportId) {
+        synchronized (dumps) {
+            return Optional.ofNullable(dumps.get(reportId));
+        }
+    }
+
+    /**
+     * A parsed dump together with the report it belongs to.
+     *
+     * @param reportId the report id
+     * @param source the source identifier of the dump
+     * @param dump the parsed dump
+     */
+    public record StoredDump(String reportId, String source, ParsedThreadDump dump) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.tinusj.threaddump.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tinusj.threaddump.config.ReportCacheProperties;
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the analysis of thread dumps by content, so a dump that is submitted again (a retry, or a
+ * re-render in another format) returns its first report without being parsed and analyzed again.
+ * <p>
+ * Entries are keyed by the {@link DumpFingerprint} of the dump together with its source and the rule
+ * configuration it was analyzed with, so refreshed thresholds never return stale findings. Each entry
+ * holds the report, the parsed dump and the report's bytes in every format it has been written in, up to
+ * {@code max-formatted-size} per format. The cache is bounded by the total size of the cached dumps and
+ * their formatted bytes ({@code max-size}), evicting by Caffeine's W-TinyLFU policy; an entry is re-weighed
+ * whenever a format is added. Entries expire {@code ttl} after the analysis.
+ * <p>
+ * Lookups are counted in {@code thread_dump.reports.cache.gets} by {@code result} ({@code hit} or
+ * {@code miss}) and {@code content} ({@code report} or {@code formatted}); the report hit ratio is the
+ * gauge {@code thread_dump.reports.cache.hit_ratio}.
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    static final String GETS_COUNTER = "thread_dump.reports.cache.gets";
+    static final String HIT_RATIO_GAUGE = "thread_dump.reports.cache.hit_ratio";
+    static final String SIZE_GAUGE = "thread_dump.reports.cache.size";
+    static final String EVICTIONS_COUNTER = "thread_dump.reports.cache.evictions";
+
+    private static final long BYTES_PER_WEIGHT_UNIT = 1024;
+
+    private final Cache<Key, CachedReport> reports;
+    private final ConcurrentMap<String, Key> keysById = new ConcurrentHashMap<>();
+    private final RuleConfigurationProvider configurationProvider;
+    private final long maxFormattedBytes;
+    private final Counter formattedHits;
+    private final Counter formattedMisses;
+
+    /**
+     * Creates a disabled cache, which never holds a report.
+     */
+    public ReportCache() {
+        this.reports = null;
+        this.configurationProvider = null;
+        this.maxFormattedBytes = 0;
+        this.formattedHits = null;
+        this.formattedMisses = null;
+    }
+
+    /**
+     * Creates a cache configured by the {@code thread-dump.reports.cache} properties.
+     */
+    @Autowired
+    public ReportCache(ReportCacheProperties properties, RuleConfigurationProvider configurationProvider,
+                       MeterRegistry meterRegistry) {
+        this.configurationProvider = configurationProvider;
+        this.maxFormattedBytes = properties.getMaxFormattedSize().toBytes();
+        if (!properties.isEnabled()) {
+            this.reports = null;
+            this.formattedHits = null;
+            this.formattedMisses = null;
+            return;
+        }
+        this.reports = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1, properties.getMaxSize().toBytes() / BYTES_PER_WEIGHT_UNIT))
+                .weigher((Key key, CachedReport cached) -> weightOf(key.fingerprint(), cached))
+                .expireAfter(Expiry.creating((Key key, CachedReport cached) -> properties.getTtl()))
+                .removalListener((Key key, CachedReport cached, RemovalCause cause) -> {
+                    // Re-weighing an entry replaces it with itself; it is still cached
+                    if (key != null && cached != null && cause != RemovalCause.REPLACED) {
+                        keysById.remove(cached.report().id(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        FunctionCounter.builder(GETS_COUNTER, reports, cache -> cache.stats().hitCount())
+                .tags("result", "hit", "content", "report")
+                .description("Lookups in the report cache")
+                .register(meterRegistry);
+        FunctionCounter.builder(GETS_COUNTER, reports, cache -> cache.stats().missCount())
+                .tags("result", "miss", "content", "report")
+                .description("Lookups in the report cache")
+                .register(meterRegistry);
+        this.formattedHits = Counter.builder(GETS_COUNTER)
+                .tags("result", "hit", "content", "formatted")
+                .description("Lookups in the report cache")
+                .register(meterRegistry);
+        this.formattedMisses = Counter.builder(GETS_COUNTER)
+                .tags("result", "miss", "content", "formatted")
+                .description("Lookups in the report cache")
+                .register(meterRegistry);
+        Gauge.builder(HIT_RATIO_GAUGE, reports, cache -> cache.stats().hitRate())
+                .description("Share of dumps whose report was found in the cache")
+                .register(meterRegistry);
+        Gauge.builder(SIZE_GAUGE, reports, Cache::estimatedSize)
+                .description("Reports in the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder(EVICTIONS_COUNTER, reports, cache -> cache.stats().evictionCount())
+                .description("Reports evicted from the cache to stay within its size")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether reports are cached, i.e. whether dumps are worth fingerprinting.
+     */
+    public boolean isEnabled() {
+        return reports != null;
+    }
+
+    /**
+     * Looks up the analysis of a dump with the current rule configuration.
+     *
+     * @param fingerprint the fingerprint of the dump
+     * @param source the source identifier the dump was submitted with
+     * @return the cached analysis, or empty if the dump has not been analyzed recently
+     */
+    public Optional<CachedReport> get(DumpFingerprint fingerprint, String source) {
+        if (reports == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(reports.getIfPresent(new Key(fingerprint, source, configurationProvider.current())));
+    }
+
+    /**
+     * Caches the analysis of a dump. The report is keyed by the rule configuration the analysis ran with,
+     * so if the configuration was refreshed during the analysis, the entry is only returned for that
+     * earlier configuration and never as the report of the current one.
+     *
+     * @param fingerprint the fingerprint of the dump
+     * @param source the source identifier the dump was submitted with
+     * @param configuration the rule configuration the findings were made with
+     * @param report the report
+     * @param dump the parsed dump
+     */
+    public void put(DumpFingerprint fingerprint, String source, RuleConfiguration configuration,
+                    DiagnosticReport report, ParsedThreadDump dump) {
+        if (reports == null) {
+            return;
+        }
+        Key key = new Key(fingerprint, source, configuration);
+        CachedReport cached = new CachedReport(report, dump, new ConcurrentHashMap<>());
+        keysById.put(report.id(), key);
+        CachedReport previous = reports.asMap().put(key, cached);
+        if (previous != null && previous != cached) {
+            keysById.remove(previous.report().id(), key);
+        }
+    }
+
+    /**
+     * Returns the cached analysis a report belongs to. This is not counted as a cache lookup.
+     *
+     * @param reportId the report id
+     * @return the cached analysis, or empty if the report is not cached
+     */
+    public Optional<CachedReport> getByReportId(String reportId) {
+        Key key = keysById.get(reportId);
+        return key == null ? Optional.empty() : Optional.ofNullable(reports.asMap().get(key));
+    }
+
+    /**
+     * Returns the size of the largest formatted report kept per format.
+     */
+    public long maxFormattedBytes() {
+        return maxFormattedBytes;
+    }
+
+    /**
+     * Keeps the bytes of a cached report in a format and re-weighs its entry, which may evict other
+     * entries. Bytes above {@link #maxFormattedBytes()}, or of reports that are no longer cached, are
+     * not kept.
+     *
+     * @param reportId the report id
+     * @param format the format the bytes are written in
+     * @param bytes the formatted report
+     */
+    public void putFormatted(String reportId, ReportFormat format, byte[] bytes) {
+        Key key = keysById.get(reportId);
+        if (key == null || bytes.length > maxFormattedBytes) {
+            return;
+        }
+        reports.asMap().computeIfPresent(key, (k, cached) -> {
+            cached.formatted().put(format, bytes);
+            return cached;
+        });
+    }
+
+    /**
+     * Runs pending maintenance such as evictions now instead of on the next cache operation.
+     */
+    void cleanUp() {
+        if (reports != null) {
+            reports.cleanUp();
+        }
+    }
+
+    /**
+     * Counts a lookup of a cached report in a format.
+     *
+     * @param hit whether the report had been written in the format before
+     */
+    public void recordFormattedLookup(boolean hit) {
+        if (reports != null) {
+            (hit ? formattedHits : formattedMisses).increment();
+        }
+    }
+
+    private static int weightOf(DumpFingerprint fingerprint, CachedReport cached) {
+        long bytes = fingerprint.length();
+        for (byte[] formatted : cached.formatted().values()) {
+            bytes += formatted.length;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes / BYTES_PER_WEIGHT_UNIT + 1);
+    }
+
+    private record Key(DumpFingerprint fingerprint, String source, RuleConfiguration configuration) {
+    }
+
+    /**
+     * The analysis of a cached dump.
+     *
+     * @param report the report
+     * @param dump the parsed dump
+     * @param formatted the report written in each format it has been requested in; added to through
+     *                  {@link ReportCache#putFormatted} so that the entry is re-weighed
+     */
+    public record CachedReport(DiagnosticReport report, ParsedThreadDump dump, Map<ReportFormat, byte[]> formatted) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.tinusj.threaddump.capture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for AttachThreadDumpCapture against real JVMs.
+ */
+class AttachThreadDumpCaptureTest {
+
+    private final AttachThreadDumpCapture capture = new AttachThreadDumpCapture();
+    private Process target;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        capture.shutdown();
+        if (target != null) {
+            target.destroyForcibly();
+        }
+    }
+
+    @Test
+    void capture_ShouldPrintThreadsOfOwnProcess_WhenPidIsCurrentProcess() {
+        // When
+        String threadDump = capture.capture(ProcessHandle.current().pid());
+
+        // Then
+        assertThat(threadDump).contains("Full thread dump").contains("\"main\"");
+    }
+
+    @Test
+    void capture_ShouldReuseAttachment_WhenCapturingSameProcessTwice() throws Exception {
+        // Given
+        target = startSleepingJvm();
+
+        // When
+        String first = capture.capture(target.pid());
+        String second = capture.capture(target.pid());
+
+        // Then
+        assertThat(first).contains("Full thread dump").contains("\"sleeper\"");
+        assertThat(second).contains("\"sleeper\"").contains("java.lang.Thread.sleep");
+    }
+
+    @Test
+    void capture_ShouldThrowCaptureException_WhenProcessDoesNotExist() {
+        assertThatThrownBy(() -> capture.capture(Long.MAX_VALUE))
+                .isInstanceOf(ThreadDumpCaptureException.class)
+                .hasMessageContaining("No process");
+    }
+
+    private Process startSleepingJvm() throws IOException, InterruptedException {
+        Path source = tempDir.resolve("Sleeper.java");
+        Files.writeString(source, """
+                public class Sleeper {
+                    public static void main(String[] args) throws Exception {
+                        Thread sleeper = new Thread(() -> {
+                            try {
+                                Thread.sleep(60_000);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }, "sleeper");
+                        sleeper.start();
+                        System.out.println("ready");
+                        sleeper.join();
+                    }
+                }
+                """);
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), source.toString()).redirectErrorStream(true).start();
+        // Wait until the thread to be dumped is running
+        process.getInputStream().read();
+        return process;
+    }
+}
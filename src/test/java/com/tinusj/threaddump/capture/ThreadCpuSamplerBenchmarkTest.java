@@ -0,0 +1,71 @@
+package com.tinusj.threaddump.capture;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Benchmark for ThreadCpuSampler on a process with 10,000 threads (this JVM).
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadCpuSamplerBenchmarkTest {
+
+    private static final int THREAD_COUNT = 10_000;
+    private static final long THREAD_STACK_SIZE = 256 * 1024;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Test
+    void snapshot_ShouldReadAllTasks_WhenProcessHasTenThousandThreads() throws InterruptedException {
+        // Given
+        ThreadCpuSampler sampler = new ThreadCpuSampler(true, Duration.ZERO, Path.of("/proc"),
+                Runtime.getRuntime().availableProcessors());
+        assumeTrue(sampler.isAvailable(), "/proc is not available");
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(THREAD_COUNT);
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            threads.add(Thread.ofPlatform().daemon().stackSize(THREAD_STACK_SIZE).start(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        long pid = ProcessHandle.current().pid();
+
+        try {
+            // When
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sampler.snapshot(pid);
+            }
+            long begin = System.nanoTime();
+            ThreadCpuSampler.Snapshot snapshot = null;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                snapshot = sampler.snapshot(pid);
+            }
+            long averageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) / MEASURED_ROUNDS;
+            System.out.printf("Read CPU times of %d threads in %d ms on average%n",
+                    snapshot.taskIds().length, averageMillis);
+
+            // Then
+            assertThat(snapshot.taskIds().length).isGreaterThanOrEqualTo(THREAD_COUNT);
+        } finally {
+            sampler.close();
+            release.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.tinusj.threaddump.capture;
+
+import com.tinusj.threaddump.model.ThreadCpuSample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for ThreadCpuSampler.
+ */
+class ThreadCpuSamplerTest {
+
+    private static final long PID = 42;
+
+    @Test
+    void parseTicks_ShouldSumUtimeAndStime_WhenCommandContainsSpacesAndParentheses() {
+        // Given
+        byte[] stat = stat(100, "pool-1 (x) y", 1234, 56).getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        long ticks = ThreadCpuSampler.parseTicks(stat, stat.length);
+
+        // Then
+        assertThat(ticks).isEqualTo(1290);
+    }
+
+    @Test
+    void parseTicks_ShouldReturnMinusOne_WhenStatIsTruncated() {
+        // Given
+        byte[] stat = "100 (worker) S 1 1 1".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        long ticks = ThreadCpuSampler.parseTicks(stat, stat.length);
+
+        // Then
+        assertThat(ticks).isEqualTo(-1);
+    }
+
+    @Test
+    void since_ShouldReturnCpuDeltas_WhenThreadsAreSampledTwice(@TempDir Path procRoot) throws IOException {
+        // Given
+        Files.createDirectories(procRoot.resolve("self").resolve("task"));
+        writeTask(procRoot, 102, 10, 0);
+        writeTask(procRoot, 100, 200, 100);
+        writeTask(procRoot, 101, 7, 3);
+        ThreadCpuSampler sampler = new ThreadCpuSampler(true, Duration.ZERO, procRoot, 1);
+        ThreadCpuSampler.Snapshot before = sampler.snapshot(PID);
+
+        writeTask(procRoot, 100, 203, 102);
+        deleteTask(procRoot, 101);
+        writeTask(procRoot, 103, 50, 0);
+
+        // When
+        ThreadCpuSample sample = sampler.since(before);
+
+        // Then
+        assertThat(before.taskIds()).containsExactly(100, 101, 102);
+        assertThat(before.ticks()).containsExactly(300, 10, 10);
+        assertThat(sample.size()).isEqualTo(2);
+        assertThat(sample.cpuMillis(100)).isEqualTo(50.0);
+        assertThat(sample.cpuMillis(102)).isEqualTo(0.0);
+        assertThat(sample.cpuMillis(101)).isEqualTo(-1);
+        assertThat(sample.cpuMillis(103)).isEqualTo(-1);
+    }
+
+    @Test
+    void snapshot_ShouldMatchSequentialRead_WhenReadInParallel(@TempDir Path procRoot) throws IOException {
+        // Given
+        Files.createDirectories(procRoot.resolve("self").resolve("task"));
+        for (int taskId = 1; taskId <= 1500; taskId++) {
+            writeTask(procRoot, taskId, taskId, 1);
+        }
+        try (ThreadCpuSampler sequential = new ThreadCpuSampler(true, Duration.ZERO, procRoot, 1);
+             ThreadCpuSampler parallel = new ThreadCpuSampler(true, Duration.ZERO, procRoot, 3)) {
+            // When
+            ThreadCpuSampler.Snapshot expected = sequential.snapshot(PID);
+            ThreadCpuSampler.Snapshot actual = parallel.snapshot(PID);
+
+            // Then
+            assertThat(actual.taskIds()).hasSize(1500).isEqualTo(expected.taskIds());
+            assertThat(actual.ticks()).isEqualTo(expected.ticks());
+            assertThat(actual.ticks()[1499]).isEqualTo(1501);
+        }
+    }
+
+    @Test
+    void snapshot_ShouldReadSequentially_WhenSamplerIsClosed(@TempDir Path procRoot) throws IOException {
+        // Given
+        Files.createDirectories(procRoot.resolve("self").resolve("task"));
+        for (int taskId = 1; taskId <= 1500; taskId++) {
+            writeTask(procRoot, taskId, taskId, 1);
+        }
+        ThreadCpuSampler sampler = new ThreadCpuSampler(true, Duration.ZERO, procRoot, 3);
+        sampler.snapshot(PID);
+        sampler.close();
+
+        // When
+        ThreadCpuSampler.Snapshot snapshot = sampler.snapshot(PID);
+
+        // Then
+        assertThat(snapshot.taskIds()).hasSize(1500);
+        assertThat(snapshot.ticks()[1499]).isEqualTo(1501);
+    }
+
+    @Test
+    void snapshot_ShouldReturnNull_WhenSamplingIsDisabled(@TempDir Path procRoot) throws IOException {
+        // Given
+        Files.createDirectories(procRoot.resolve("self").resolve("task"));
+        writeTask(procRoot, 100, 1, 1);
+        ThreadCpuSampler sampler = new ThreadCpuSampler(false, Duration.ZERO, procRoot, 1);
+
+        // When / Then
+        assertThat(sampler.isAvailable()).isFalse();
+        assertThat(sampler.snapshot(PID)).isNull();
+    }
+
+    @Test
+    void since_ShouldCoverWindow_WhenSamplingCurrentJvm() {
+        // Given
+        ThreadCpuSampler sampler = new ThreadCpuSampler(true, Duration.ofMillis(50), Path.of("/proc"), 1);
+        assumeTrue(sampler.isAvailable(), "/proc is not available");
+
+        // When
+        ThreadCpuSampler.Snapshot before = sampler.snapshot(ProcessHandle.current().pid());
+        ThreadCpuSample sample = sampler.since(before);
+
+        // Then
+        assertThat(sample.size()).isPositive();
+        assertThat(sample.windowMillis()).isGreaterThanOrEqualTo(50);
+    }
+
+    private static void writeTask(Path procRoot, long taskId, long utime, long stime) throws IOException {
+        Path task = procRoot.resolve(Long.toString(PID)).resolve("task").resolve(Long.toString(taskId));
+        Files.createDirectories(task);
+        Files.writeString(task.resolve("stat"), stat(taskId, "worker", utime, stime));
+    }
+
+    private static void deleteTask(Path procRoot, long taskId) throws IOException {
+        Path task = procRoot.resolve(Long.toString(PID)).resolve("task").resolve(Long.toString(taskId));
+        Files.delete(task.resolve("stat"));
+        Files.delete(task);
+    }
+
+    private static String stat(long taskId, String command, long utime, long stime) {
+        return taskId + " (" + command + ") S 1 1 1 0 -1 4194560 100 0 0 0 " + utime + " " + stime
+                + " 0 0 20 0 1 0 100 0 0\n";
+    }
+}
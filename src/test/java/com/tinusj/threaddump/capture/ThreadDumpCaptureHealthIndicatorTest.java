@@ -0,0 +1,64 @@
+package com.tinusj.threaddump.capture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ThreadDumpCaptureHealthIndicator.
+ */
+@ExtendWith(MockitoExtension.class)
+class ThreadDumpCaptureHealthIndicatorTest {
+
+    @Mock
+    private AttachThreadDumpCapture attachCapture;
+
+    @Mock
+    private JstackThreadDumpCapture jstackCapture;
+
+    private ThreadDumpCaptureHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        when(attachCapture.name()).thenReturn("attach");
+        when(jstackCapture.name()).thenReturn("jstack");
+        healthIndicator = new ThreadDumpCaptureHealthIndicator(attachCapture, jstackCapture);
+    }
+
+    @Test
+    void health_ShouldBeUpWithoutProbing_WhenOnlyAttachIsAvailable() {
+        // Given
+        when(attachCapture.isAvailable()).thenReturn(true);
+        when(jstackCapture.isAvailable()).thenReturn(false);
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("attach", true).containsEntry("jstack", false);
+        verify(jstackCapture, never()).refreshAvailability();
+    }
+
+    @Test
+    void health_ShouldBeUnavailable_WhenNoBackendIsAvailable() {
+        // Given
+        when(attachCapture.isAvailable()).thenReturn(false);
+        when(jstackCapture.isAvailable()).thenReturn(false);
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertThat(health.getStatus()).isEqualTo(ThreadDumpCaptureHealthIndicator.UNAVAILABLE);
+    }
+}
@@ -0,0 +1,41 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.enums.ReportFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for report format negotiation in ReportResponses.
+ */
+class ReportResponsesTest {
+
+    @Test
+    void negotiate_ShouldPreferFormatParameter_WhenBothAreGiven() {
+        // When
+        ReportFormat format = ReportResponses.negotiate(ReportFormat.XML, "application/cbor");
+
+        // Then
+        assertThat(format).isEqualTo(ReportFormat.XML);
+    }
+
+    @Test
+    void negotiate_ShouldChooseHighestQualityFormat_WhenAcceptListsSeveral() {
+        // When / Then
+        assertThat(ReportResponses.negotiate(null, "application/json;q=0.5, application/cbor"))
+                .isEqualTo(ReportFormat.CBOR);
+        assertThat(ReportResponses.negotiate(null, "application/x-jackson-smile, application/cbor"))
+                .isEqualTo(ReportFormat.SMILE);
+        assertThat(ReportResponses.negotiate(null, "text/*")).isEqualTo(ReportFormat.TEXT);
+    }
+
+    @Test
+    void negotiate_ShouldFallBackToJson_WhenAcceptIsMissingWildcardOrUnsupported() {
+        // When / Then
+        assertThat(ReportResponses.negotiate(null, null)).isEqualTo(ReportFormat.JSON);
+        assertThat(ReportResponses.negotiate(null, "*/*")).isEqualTo(ReportFormat.JSON);
+        assertThat(ReportResponses.negotiate(null, "application/json")).isEqualTo(ReportFormat.JSON);
+        assertThat(ReportResponses.negotiate(null, "image/png")).isEqualTo(ReportFormat.JSON);
+        assertThat(ReportResponses.negotiate(null, "not a media type")).isEqualTo(ReportFormat.JSON);
+    }
+}
@@ -0,0 +1,135 @@
+package com.tinusj.threaddump.controller;
+
+import com.tinusj.threaddump.config.ReportCacheProperties;
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.formatter.CollapsedStackReportFormatter;
+import com.tinusj.threaddump.formatter.FlameGraphReportFormatter;
+import com.tinusj.threaddump.formatter.JsonReportFormatter;
+import com.tinusj.threaddump.formatter.ReportFormatter;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.parser.ThreadDumpFixtures;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.ReportFormatterService;
+import com.tinusj.threaddump.service.impl.ReportFormatterServiceImpl;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import com.tinusj.threaddump.store.ReportCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for StackReportController, wired like the application with the report cache enabled.
+ */
+@WebMvcTest(StackReportController.class)
+class StackReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParsedDumpStore parsedDumpStore;
+
+    @Autowired
+    private ReportFormatterService reportFormatterService;
+
+    @BeforeEach
+    void setUp() {
+        ParsedThreadDump dump = ParsedThreadDump.of(new ThreadDumpParser().parse(ThreadDumpFixtures.largeDump(8, 2)),
+                thread -> "pool");
+        parsedDumpStore.put("test-id", "test-source", dump);
+    }
+
+    @Test
+    void getStacks_ShouldReturnFlameGraph_WhenReportCacheWrapsFormatters() throws Exception {
+        // Given
+        assertThat(reportFormatterService.getFormatter(ReportFormat.FLAMEGRAPH))
+                .isNotInstanceOf(FlameGraphReportFormatter.class);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/thread-dump/reports/{id}/stacks", "test-id"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/svg+xml"))
+                .andExpect(content().string(containsString("<svg")));
+    }
+
+    @Test
+    void getStacks_ShouldReturnCollapsedStacksOfState_WhenFormatIsCollapsed() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/thread-dump/reports/{id}/stacks", "test-id")
+                        .param("format", "COLLAPSED")
+                        .param("state", "BLOCKED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/plain"))
+                .andExpect(content().string(containsString("com.example.layer0.Service0.handle0 1")));
+    }
+
+    @Test
+    void getStacks_ShouldReturnBadRequest_WhenFormatDoesNotShowStacks() throws Exception {
+        mockMvc.perform(get("/thread-dump/reports/{id}/stacks", "test-id").param("format", "JSON"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStacks_ShouldReturnNotFound_WhenDumpIsNotStored() throws Exception {
+        mockMvc.perform(get("/thread-dump/reports/{id}/stacks", "unknown-id"))
+                .andExpect(status().isNotFound());
+    }
+
+    @TestConfiguration
+    static class StackFormatterConfiguration {
+
+        @Bean
+        ParsedDumpStore parsedDumpStore() {
+            return new ParsedDumpStore();
+        }
+
+        @Bean
+        CollapsedStackReportFormatter collapsedStackReportFormatter(ParsedDumpStore parsedDumpStore) {
+            return new CollapsedStackReportFormatter(parsedDumpStore);
+        }
+
+        @Bean
+        FlameGraphReportFormatter flameGraphReportFormatter(ParsedDumpStore parsedDumpStore) {
+            return new FlameGraphReportFormatter(parsedDumpStore);
+        }
+
+        @Bean
+        ReportFormatterService reportFormatterService(CollapsedStackReportFormatter collapsed,
+                                                      FlameGraphReportFormatter flameGraph) {
+            RuleConfigurationProvider configurationProvider = mock(RuleConfigurationProvider.class);
+            when(configurationProvider.current()).thenReturn(RuleConfiguration.DEFAULTS);
+            ReportCache reportCache = new ReportCache(new ReportCacheProperties(), configurationProvider,
+                    new SimpleMeterRegistry());
+            List<ReportFormatter> formatters = List.of(new JsonReportFormatter(), collapsed, flameGraph);
+            return new ReportFormatterServiceImpl(formatters, reportCache);
+        }
+    }
+}
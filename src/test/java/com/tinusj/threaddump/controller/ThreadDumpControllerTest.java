@@ -2,6 +2,7 @@ package com.tinusj.threaddump.controller;
 
 import com.tinusj.threaddump.enums.ReportFormat;
 import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.formatter.ReportFormatter;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.service.DiagnosticService;
 import com.tinusj.threaddump.service.ReportFormatterService;
@@ -13,13 +14,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 /**
@@ -37,11 +44,14 @@ class ThreadDumpControllerTest {
     @Mock
     private ThreadDumpAnalysisSkill mcpSkill;
     
+    @Mock
+    private ReportFormatter reportFormatter;
+    
     @InjectMocks
     private ThreadDumpController controller;
     
     @Test
-    void analyzeThreadDumpText_ShouldReturnReport_WhenGivenValidContent() {
+    void analyzeThreadDumpText_ShouldReturnReport_WhenGivenValidContent() throws IOException {
         // Given
         String threadDumpContent = "Sample thread dump content";
         DiagnosticReport mockReport = new DiagnosticReport(
@@ -56,23 +66,33 @@ class ThreadDumpControllerTest {
         );
         
         when(diagnosticService.analyzeThreadDump(anyString(), anyString())).thenReturn(mockReport);
-        when(reportFormatterService.formatReport(any(), any())).thenReturn("{\"id\":\"test-id\"}");
+        when(reportFormatterService.getFormatter(any())).thenReturn(reportFormatter);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"id\":\"test-id\"}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reportFormatter).writeTo(any(), any());
         
         // When
-        ResponseEntity<String> response = controller.analyzeThreadDumpText(threadDumpContent, ReportFormat.JSON);
+        ResponseEntity<StreamingResponseBody> response = controller.analyzeThreadDumpText(threadDumpContent, ReportFormat.JSON, null);
         
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo("{\"id\":\"test-id\"}");
+        assertThat(bodyOf(response)).isEqualTo("{\"id\":\"test-id\"}");
     }
     
     @Test
-    void analyzeThreadDumpText_ShouldReturnBadRequest_WhenGivenEmptyContent() {
+    void analyzeThreadDumpText_ShouldReturnBadRequest_WhenGivenEmptyContent() throws IOException {
         // When
-        ResponseEntity<String> response = controller.analyzeThreadDumpText("", ReportFormat.JSON);
+        ResponseEntity<StreamingResponseBody> response = controller.analyzeThreadDumpText("", ReportFormat.JSON, null);
         
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
-        assertThat(response.getBody()).contains("Thread dump content cannot be empty");
+        assertThat(bodyOf(response)).contains("Thread dump content cannot be empty");
+    }
+    
+    private static String bodyOf(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.tinusj.threaddump.controller;
 
 import com.tinusj.threaddump.enums.ReportFormat;
 import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.formatter.ReportFormatter;
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.DiagnosticReport;
 import com.tinusj.threaddump.service.DiagnosticService;
 import com.tinusj.threaddump.service.JavaProcessService;
@@ -16,12 +18,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -111,13 +121,18 @@ class ThreadDumpGenerationControllerTest {
         String formattedReport = "{\"reportId\":\"test-report-id\"}";
         
         when(threadDumpGenerationService.isAvailable()).thenReturn(true);
-        when(threadDumpGenerationService.generateThreadDump(pid)).thenReturn(mockThreadDump);
-        when(diagnosticService.analyzeThreadDump(eq(mockThreadDump), eq("pid-1234"))).thenReturn(mockReport);
-        when(reportFormatterService.formatReport(eq(mockReport), eq(ReportFormat.JSON))).thenReturn(formattedReport);
+        CapturedThreadDump capture = new CapturedThreadDump(mockThreadDump, null);
+        when(threadDumpGenerationService.captureThreadDump(pid)).thenReturn(capture);
+        when(diagnosticService.analyzeThreadDump(eq(capture), eq("pid-1234"))).thenReturn(mockReport);
+        ReportFormatter formatter = formatterWriting(formattedReport);
+        when(reportFormatterService.getFormatter(ReportFormat.JSON)).thenReturn(formatter);
 
         // When & Then
-        mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}", pid)
+        MvcResult result = mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}", pid)
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
                 .andExpect(content().string(formattedReport))
@@ -132,8 +147,11 @@ class ThreadDumpGenerationControllerTest {
         when(threadDumpGenerationService.isAvailable()).thenReturn(false);
 
         // When & Then
-        mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}", pid)
+        MvcResult result = mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}", pid)
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isServiceUnavailable())
                 .andExpect(content().string("Thread dump generation is not available on this system"));
     }
@@ -156,15 +174,29 @@ class ThreadDumpGenerationControllerTest {
         String formattedReport = "<report><id>test-report-id</id></report>";
         
         when(threadDumpGenerationService.isAvailable()).thenReturn(true);
-        when(threadDumpGenerationService.generateThreadDump(pid)).thenReturn(mockThreadDump);
-        when(diagnosticService.analyzeThreadDump(eq(mockThreadDump), eq("pid-1234"))).thenReturn(mockReport);
-        when(reportFormatterService.formatReport(eq(mockReport), eq(ReportFormat.XML))).thenReturn(formattedReport);
+        CapturedThreadDump capture = new CapturedThreadDump(mockThreadDump, null);
+        when(threadDumpGenerationService.captureThreadDump(pid)).thenReturn(capture);
+        when(diagnosticService.analyzeThreadDump(eq(capture), eq("pid-1234"))).thenReturn(mockReport);
+        ReportFormatter formatter = formatterWriting(formattedReport);
+        when(reportFormatterService.getFormatter(ReportFormat.XML)).thenReturn(formatter);
 
         // When & Then
-        mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}?format=XML", pid)
+        MvcResult result = mockMvc.perform(post("/thread-dump/generate-and-analyze/{pid}?format=XML", pid)
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/xml"))
                 .andExpect(content().string(formattedReport));
     }
-}
\ No newline at end of file
+
+    private static ReportFormatter formatterWriting(String formattedReport) throws IOException {
+        ReportFormatter formatter = mock(ReportFormatter.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(formattedReport.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(formatter).writeTo(any(), any());
+        return formatter;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tinusj.threaddump.discovery;
+
+import com.tinusj.threaddump.model.JavaProcess;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for ProcfsJavaProcessDiscovery.
+ */
+class ProcfsJavaProcessDiscoveryTest {
+
+    @Test
+    void parseCommandLine_ShouldSplitJvmOptionsMainClassAndArguments_WhenLaunchedWithClassPath() {
+        // When
+        JavaProcess process = ProcfsJavaProcessDiscovery.parseCommandLine(42, List.of(
+                "/usr/bin/java", "-Xmx1g", "-cp", "/app/lib/*", "--add-opens", "java.base/java.lang=ALL-UNNAMED",
+                "-Dfile.encoding=UTF-8", "com.example.OrderService", "--port", "8080"));
+
+        // Then
+        assertThat(process.pid()).isEqualTo(42);
+        assertThat(process.mainClass()).isEqualTo("com.example.OrderService");
+        assertThat(process.displayName()).isEqualTo("com.example.OrderService");
+        assertThat(process.jvmArguments())
+                .isEqualTo("-Xmx1g --add-opens java.base/java.lang=ALL-UNNAMED -Dfile.encoding=UTF-8");
+        assertThat(process.applicationArguments()).isEqualTo("--port 8080");
+    }
+
+    @Test
+    void parseCommandLine_ShouldUseJarName_WhenLaunchedWithJar() {
+        // When
+        JavaProcess process = ProcfsJavaProcessDiscovery.parseCommandLine(7, List.of(
+                "java", "-XX:+UseG1GC", "-jar", "/opt/app/orders.jar", "-jar-like-argument"));
+
+        // Then
+        assertThat(process.mainClass()).isEqualTo("/opt/app/orders.jar");
+        assertThat(process.displayName()).isEqualTo("orders.jar");
+        assertThat(process.jvmArguments()).isEqualTo("-XX:+UseG1GC");
+        assertThat(process.applicationArguments()).isEqualTo("-jar-like-argument");
+    }
+
+    @Test
+    void discover_ShouldFindCurrentJvm_WhenProcIsAvailable() {
+        // Given
+        ProcfsJavaProcessDiscovery discovery = new ProcfsJavaProcessDiscovery();
+        assumeTrue(discovery.isAvailable(), "/proc is not available");
+
+        // When
+        List<JavaProcess> processes = discovery.discover();
+
+        // Then
+        assertThat(processes).extracting(JavaProcess::pid).contains(ProcessHandle.current().pid());
+    }
+
+    @Test
+    void discover_ShouldIgnorePerfDataPid_WhenPidWasReusedByAnotherProcess(@TempDir Path root) throws IOException {
+        // Given
+        Path proc = root.resolve("proc");
+        Path perfData = Files.createDirectories(root.resolve("tmp").resolve("hsperfdata_app"));
+        fakeProcess(proc, 100, "java", "/usr/bin/java", "-jar", "orders.jar");
+        fakeProcess(proc, 200, "launcher", "/opt/app/bin/java", "com.example.Billing");
+        fakeProcess(proc, 300, "nginx", "nginx", "-g", "daemon off;");
+        for (String pid : List.of("100", "200", "300", "400")) {
+            Files.createFile(perfData.resolve(pid));
+        }
+        ProcfsJavaProcessDiscovery discovery = new ProcfsJavaProcessDiscovery(true, proc, root.resolve("tmp"));
+
+        // When
+        List<JavaProcess> processes = discovery.discover();
+
+        // Then
+        assertThat(processes).extracting(JavaProcess::pid, JavaProcess::mainClass)
+                .containsExactly(tuple(100L, "orders.jar"), tuple(200L, "com.example.Billing"));
+    }
+
+    private static void fakeProcess(Path proc, long pid, String comm, String... commandLine) throws IOException {
+        Path process = Files.createDirectories(proc.resolve(Long.toString(pid)));
+        Files.writeString(process.resolve("comm"), comm + "\n");
+        Files.writeString(process.resolve("cmdline"), String.join("\0", commandLine) + "\0");
+    }
+}
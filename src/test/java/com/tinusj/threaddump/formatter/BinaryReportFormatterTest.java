@@ -0,0 +1,84 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the CBOR and Smile report formatters.
+ */
+class BinaryReportFormatterTest {
+
+    private final DiagnosticReport report = new DiagnosticReport(
+            "test-id",
+            LocalDateTime.of(2023, 1, 1, 12, 0),
+            "test-source",
+            null,
+            List.of(new DiagnosticFinding("BLOCKED_THREADS", "Threads are blocked", Severity.HIGH,
+                    List.of("worker-1", "worker-2"), "Reduce lock contention", null)),
+            List.of("Reduce lock contention"),
+            ReportStatus.COMPLETED,
+            "Test summary"
+    );
+
+    @Test
+    void writeTo_ShouldWriteReadableCbor_WhenFormattingAsCbor() throws IOException {
+        // Given
+        CborReportFormatter formatter = new CborReportFormatter();
+
+        // When
+        JsonNode tree = readBack(formatter, new CBORMapper());
+
+        // Then
+        assertThat(formatter.getFormat()).isEqualTo(ReportFormat.CBOR);
+        assertThat(tree.get("id").asText()).isEqualTo("test-id");
+        assertThat(tree.get("timestamp").asText()).isEqualTo("2023-01-01 12:00:00");
+        assertThat(tree.at("/findings/0/affectedThreads/1").asText()).isEqualTo("worker-2");
+    }
+
+    @Test
+    void writeTo_ShouldWriteReadableSmile_WhenFormattingAsSmile() throws IOException {
+        // Given
+        SmileReportFormatter formatter = new SmileReportFormatter();
+
+        // When
+        JsonNode tree = readBack(formatter, new SmileMapper());
+
+        // Then
+        assertThat(formatter.getFormat()).isEqualTo(ReportFormat.SMILE);
+        assertThat(tree.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(tree.at("/findings/0/severity").asText()).isEqualTo("HIGH");
+    }
+
+    @Test
+    void format_ShouldThrowUnsupportedOperationException_WhenFormatIsBinary() {
+        // Given
+        CborReportFormatter formatter = new CborReportFormatter();
+
+        // When / Then
+        assertThat(ReportFormat.CBOR.isBinary()).isTrue();
+        assertThatThrownBy(() -> formatter.format(report))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private JsonNode readBack(ReportFormatter formatter, ObjectMapper reader) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        formatter.writeTo(report, out);
+        return reader.readTree(out.toByteArray());
+    }
+}
@@ -0,0 +1,113 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.ReportCacheProperties;
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.store.DumpFingerprint;
+import com.tinusj.threaddump.store.ReportCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CachingReportFormatter.
+ */
+class CachingReportFormatterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportCache cache = newCache(new ReportCacheProperties(), meterRegistry);
+    private final JsonReportFormatter json = spy(new JsonReportFormatter());
+    private final CachingReportFormatter formatter = new CachingReportFormatter(json, cache);
+
+    @Test
+    void writeTo_ShouldRenderOnce_WhenCachedReportIsRequestedAgain() throws IOException {
+        // Given
+        DiagnosticReport report = report("cached-id");
+        cache.put(DumpFingerprint.of("dump"), "test-source", RuleConfiguration.DEFAULTS, report,
+                ParsedThreadDump.of(List.of(), thread -> "Other"));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        // When
+        formatter.writeTo(report, first);
+        formatter.writeTo(report, second);
+        String asString = formatter.format(report);
+
+        // Then
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+        assertThat(asString).isEqualTo(first.toString(StandardCharsets.UTF_8)).contains("\"id\" : \"cached-id\"");
+        verify(json, times(1)).writeTo(any(), any(OutputStream.class));
+        assertThat(meterRegistry.get("thread_dump.reports.cache.gets").tags("result", "hit", "content", "formatted")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void writeTo_ShouldStreamWithoutKeeping_WhenReportExceedsMaxFormattedSize() throws IOException {
+        // Given
+        ReportCacheProperties properties = new ReportCacheProperties();
+        properties.setMaxFormattedSize(DataSize.ofBytes(16));
+        ReportCache limitedCache = newCache(properties, new SimpleMeterRegistry());
+        CachingReportFormatter limited = new CachingReportFormatter(json, limitedCache);
+        DiagnosticReport report = report("large-id");
+        limitedCache.put(DumpFingerprint.of("dump"), "test-source", RuleConfiguration.DEFAULTS, report,
+                ParsedThreadDump.of(List.of(), thread -> "Other"));
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        // When
+        limited.writeTo(report, first);
+        limited.writeTo(report, second);
+
+        // Then
+        assertThat(first.toString(StandardCharsets.UTF_8)).contains("\"id\" : \"large-id\"");
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+        assertThat(limitedCache.getByReportId("large-id")).get()
+                .satisfies(cached -> assertThat(cached.formatted()).isEmpty());
+        verify(json, times(2)).writeTo(any(), any(OutputStream.class));
+    }
+
+    @Test
+    void writeTo_ShouldDelegate_WhenReportIsNotCached() throws IOException {
+        // Given
+        DiagnosticReport report = report("diff-id");
+
+        // When
+        formatter.writeTo(report, new ByteArrayOutputStream());
+        formatter.writeTo(report, new ByteArrayOutputStream());
+
+        // Then
+        verify(json, times(2)).writeTo(any(), any(OutputStream.class));
+    }
+
+    /**
+     * Each cache registers its meters in its own registry, so meters of different caches do not clash.
+     */
+    private static ReportCache newCache(ReportCacheProperties properties, SimpleMeterRegistry registry) {
+        RuleConfigurationProvider configurationProvider = mock(RuleConfigurationProvider.class);
+        when(configurationProvider.current()).thenReturn(RuleConfiguration.DEFAULTS);
+        return new ReportCache(properties, configurationProvider, registry);
+    }
+
+    private static DiagnosticReport report(String id) {
+        return new DiagnosticReport(id, LocalDateTime.of(2023, 1, 1, 12, 0), "test-source", null, List.of(),
+                List.of(), ReportStatus.COMPLETED, "Test summary");
+    }
+}
@@ -0,0 +1,49 @@
+package com.tinusj.threaddump.formatter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CompactJsonReportFormatter.
+ */
+class CompactJsonReportFormatterTest {
+
+    @Test
+    void format_ShouldWriteSameJsonAsIndentedFormatter_WithoutWhitespace() throws IOException {
+        // Given
+        DiagnosticReport report = new DiagnosticReport(
+                "test-id",
+                LocalDateTime.of(2023, 1, 1, 12, 0),
+                "test-source",
+                null,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                ReportStatus.COMPLETED,
+                "Test summary"
+        );
+        CompactJsonReportFormatter formatter = new CompactJsonReportFormatter();
+        ObjectMapper reader = new ObjectMapper();
+
+        // When
+        String result = formatter.format(report);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        formatter.writeTo(report, out);
+
+        // Then
+        assertThat(formatter.getFormat()).isEqualTo(ReportFormat.JSON_COMPACT);
+        assertThat(result).startsWith("{\"id\":\"test-id\",").doesNotContain("\n");
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(result);
+        assertThat(reader.readTree(result)).isEqualTo(reader.readTree(new JsonReportFormatter().format(report)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.parser.ThreadDumpFixtures;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for folding and rendering the stacks of a 10,000-thread dump as collapsed stacks and as a
+ * flame graph. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FlameGraphReportFormatterBenchmarkTest {
+
+    private static final int THREAD_COUNT = 10_000;
+    private static final int STACK_DEPTH = 25;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    void writeStacks_ShouldRenderInUnderASecond_WhenDumpHasTenThousandThreads() throws IOException {
+        // Given
+        ParsedDumpStore store = new ParsedDumpStore();
+        store.put("benchmark", "benchmark", ParsedThreadDump.of(
+                new ThreadDumpParser().parse(ThreadDumpFixtures.largeDump(THREAD_COUNT, STACK_DEPTH)),
+                thread -> "pool"));
+
+        // When
+        long collapsedMillis = measure(new CollapsedStackReportFormatter(store));
+        long flameGraphMillis = measure(new FlameGraphReportFormatter(store));
+
+        // Then
+        assertThat(collapsedMillis).isLessThan(1000);
+        assertThat(flameGraphMillis).isLessThan(1000);
+    }
+
+    private static long measure(StackReportFormatter formatter) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long coldStart = System.nanoTime();
+        formatter.writeStacks("benchmark", null, null, buffer);
+        long coldMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - coldStart);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            formatter.writeStacks("benchmark", null, null, new ByteArrayOutputStream());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            formatter.writeStacks("benchmark", null, null, new ByteArrayOutputStream());
+        }
+        double averageMillis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / MEASURED_ROUNDS;
+        System.out.printf("%-10s %,9d bytes for %d threads: first in %d ms, then %.2f ms on average%n",
+                formatter.getFormat(), buffer.size(), THREAD_COUNT, coldMillis, averageMillis);
+        return coldMillis;
+    }
+}
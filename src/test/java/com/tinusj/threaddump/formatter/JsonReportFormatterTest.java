@@ -6,6 +6,9 @@ import com.tinusj.threaddump.model.DiagnosticReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
@@ -47,6 +50,35 @@ class JsonReportFormatterTest {
         assertThat(result).contains("\"status\" : \"COMPLETED\"");
     }
     
+    @Test
+    void writeTo_ShouldWriteSameJsonAsFormat_AndLeaveStreamOpen() throws IOException {
+        // Given
+        DiagnosticReport report = new DiagnosticReport(
+                "test-id",
+                LocalDateTime.of(2023, 1, 1, 12, 0),
+                "test-source",
+                null,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                ReportStatus.COMPLETED,
+                "Test summary"
+        );
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        
+        // When
+        formatter.writeTo(report, out);
+        
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(formatter.format(report));
+        assertThat(closed[0]).isFalse();
+    }
+    
     @Test
     void getFormat_ShouldReturnJson() {
         // When
@@ -0,0 +1,102 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.parser.ThreadCategoryClassifier;
+import com.tinusj.threaddump.parser.ThreadDumpFixtures;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.rule.BlockedThreadsRule;
+import com.tinusj.threaddump.rule.DeadlockRule;
+import com.tinusj.threaddump.rule.DiagnosticRule;
+import com.tinusj.threaddump.rule.DiagnosticRuleEngine;
+import com.tinusj.threaddump.rule.HotspotRule;
+import com.tinusj.threaddump.rule.SuspiciousPatternRule;
+import com.tinusj.threaddump.rule.ThreadCountRule;
+import com.tinusj.threaddump.rule.ThreadGroupRule;
+import com.tinusj.threaddump.rule.WaitingThreadsRule;
+import com.tinusj.threaddump.service.impl.DiagnosticServiceImpl;
+import com.tinusj.threaddump.service.impl.ThreadDumpAnalyzerImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size and serialization time of a 10,000-thread report in each Jackson-based format, compared with
+ * the indented JSON. Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ReportFormatterBenchmarkTest {
+
+    private static final int THREAD_COUNT = 10_000;
+    private static final int STACK_DEPTH = 25;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    void writeTo_ShouldBeSmallerThanIndentedJson_WhenFormatIsCompactOrBinary() throws IOException {
+        // Given
+        DiagnosticReport report = analyzeLargeDump();
+        List<ReportFormatter> formatters = List.of(new JsonReportFormatter(), new CompactJsonReportFormatter(),
+                new CborReportFormatter(), new SmileReportFormatter());
+
+        // When
+        long[] sizes = new long[formatters.size()];
+        for (int i = 0; i < formatters.size(); i++) {
+            sizes[i] = measure(formatters.get(i), report, sizes[0]);
+        }
+
+        // Then
+        assertThat(sizes[1]).isLessThan(sizes[0]);
+        assertThat(sizes[2]).isLessThan(sizes[0]);
+        assertThat(sizes[3]).isLessThan(sizes[0]);
+    }
+
+    private static long measure(ReportFormatter formatter, DiagnosticReport report, long jsonSize)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        formatter.writeTo(report, buffer);
+        long size = buffer.size();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            formatter.writeTo(report, OutputStream.nullOutputStream());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            formatter.writeTo(report, OutputStream.nullOutputStream());
+        }
+        double averageMillis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / MEASURED_ROUNDS;
+        System.out.printf("%-12s %,10d bytes (%5.1f%% of JSON) in %6.2f ms on average%n", formatter.getFormat(),
+                size, jsonSize > 0 ? 100.0 * size / jsonSize : 100.0, averageMillis);
+        return size;
+    }
+
+    static DiagnosticReport analyzeLargeDump() {
+        List<DiagnosticRule> rules = List.of(new DeadlockRule(), new ThreadCountRule(), new BlockedThreadsRule(),
+                new WaitingThreadsRule(), new HotspotRule(), new ThreadGroupRule(), new SuspiciousPatternRule());
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        RuleConfigurationProvider configurationProvider = new RuleConfigurationProvider(properties,
+                new MockEnvironment(), Validation.buildDefaultValidatorFactory().getValidator());
+        DiagnosticRuleEngine ruleEngine = new DiagnosticRuleEngine(rules, configurationProvider, properties,
+                new SimpleMeterRegistry());
+        try {
+            DiagnosticServiceImpl diagnosticService = new DiagnosticServiceImpl(new ThreadDumpAnalyzerImpl(
+                    new ThreadDumpParser(), ruleEngine, new ThreadCategoryClassifier()));
+            DiagnosticReport report = diagnosticService.analyzeThreadDump(
+                    ThreadDumpFixtures.largeDump(THREAD_COUNT, STACK_DEPTH), "benchmark");
+            assertThat(report.statistics().totalThreads()).isEqualTo(THREAD_COUNT);
+            return report;
+        } finally {
+            ruleEngine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.parser.ThreadDumpFixtures;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the collapsed-stack and flame graph formatters.
+ */
+class StackReportFormatterTest {
+
+    private final ParsedDumpStore store = new ParsedDumpStore();
+    private final CollapsedStackReportFormatter collapsedFormatter = new CollapsedStackReportFormatter(store);
+    private final FlameGraphReportFormatter flameGraphFormatter = new FlameGraphReportFormatter(store);
+
+    @BeforeEach
+    void setUp() {
+        // Threads 0..7 cycle through BLOCKED, RUNNABLE, WAITING and TIMED_WAITING and run Service(i % 7)
+        ParsedThreadDump dump = ParsedThreadDump.of(new ThreadDumpParser().parse(ThreadDumpFixtures.largeDump(8, 2)),
+                thread -> thread.name().endsWith("-exec-1") ? "special" : "pool");
+        store.put("test-id", "test-source", dump);
+    }
+
+    @Test
+    void format_ShouldWriteOneLinePerCallPath_WhenFormattingAsCollapsedStacks() {
+        // When
+        String collapsed = collapsedFormatter.format(report("test-id"));
+
+        // Then
+        assertThat(collapsed.lines()).hasSize(7).contains(
+                "com.example.layer1.Service0.handle1;com.example.layer0.Service0.handle0 2",
+                "com.example.layer1.Service6.handle1;com.example.layer0.Service6.handle0 1");
+    }
+
+    @Test
+    void writeStacks_ShouldFoldOnlyMatchingThreads_WhenFilteredByStateOrGroup() throws IOException {
+        // Given
+        ByteArrayOutputStream blocked = new ByteArrayOutputStream();
+        ByteArrayOutputStream special = new ByteArrayOutputStream();
+
+        // When
+        collapsedFormatter.writeStacks("test-id", ThreadState.BLOCKED, null, blocked);
+        collapsedFormatter.writeStacks("test-id", null, "special", special);
+
+        // Then
+        assertThat(blocked.toString(StandardCharsets.UTF_8).lines()).containsExactlyInAnyOrder(
+                "com.example.layer1.Service0.handle1;com.example.layer0.Service0.handle0 1",
+                "com.example.layer1.Service4.handle1;com.example.layer0.Service4.handle0 1");
+        assertThat(special.toString(StandardCharsets.UTF_8))
+                .isEqualTo("com.example.layer1.Service1.handle1;com.example.layer0.Service1.handle0 1\n");
+    }
+
+    @Test
+    void format_ShouldRenderBoxPerCallPathNode_WhenFormattingAsFlameGraph() {
+        // When
+        String svg = flameGraphFormatter.format(report("test-id"));
+
+        // Then
+        assertThat(svg).startsWith("<?xml").endsWith("</svg>\n")
+                .contains("Flame Graph: Report test-id (test-source)")
+                .contains("<title>all (8 threads, 100%)</title>")
+                .contains("<title>com.example.layer1.Service0.handle1 (2 threads, 25%)</title>")
+                .contains("<title>com.example.layer0.Service3.handle0 (1 thread, 12.5%)</title>");
+        // Background, root and 2 methods for each of the 7 services
+        assertThat(svg.split("<rect ", -1)).hasSize(1 + 1 + 1 + 14);
+    }
+
+    @Test
+    void format_ShouldWriteNoStacks_WhenDumpOfReportIsNotStored() {
+        // When
+        String collapsed = collapsedFormatter.format(report("evicted-id"));
+        String svg = flameGraphFormatter.format(report("evicted-id"));
+
+        // Then
+        assertThat(collapsed).isEmpty();
+        assertThat(svg).contains("Report evicted-id, stacks not available").contains(">No stacks</text>");
+    }
+
+    private static DiagnosticReport report(String id) {
+        return new DiagnosticReport(id, LocalDateTime.of(2023, 1, 1, 12, 0), "test-source", null, List.of(),
+                List.of(), ReportStatus.COMPLETED, "Test summary");
+    }
+}
@@ -0,0 +1,126 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.TextReportProperties;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ThreadStatistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Memory allocated and time taken to render a 10,000-thread report as text, compared with the previous
+ * renderer built on {@code String.format} and {@code String.join}. Excluded from the default build;
+ * run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TextReportFormatterBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void format_ShouldAllocateLessThanStringFormatRenderer_WhenReportIsLarge() {
+        // Given
+        DiagnosticReport report = ReportFormatterBenchmarkTest.analyzeLargeDump();
+        TextReportProperties unlimited = new TextReportProperties();
+        unlimited.setMaxAffectedThreads(0);
+        TextReportFormatter allThreads = new TextReportFormatter(unlimited);
+        TextReportFormatter truncated = new TextReportFormatter();
+
+        // When
+        long legacyBytes = measure("String.format", TextReportFormatterBenchmarkTest::legacyFormat, report);
+        long allThreadsBytes = measure("all threads", allThreads::format, report);
+        long truncatedBytes = measure("truncated", truncated::format, report);
+
+        // Then
+        assertThat(allThreads.format(report)).isEqualTo(legacyFormat(report));
+        assertThat(allThreadsBytes).isLessThan(legacyBytes);
+        assertThat(truncatedBytes).isLessThan(allThreadsBytes);
+    }
+
+    private long measure(String name, Function<DiagnosticReport, String> renderer, DiagnosticReport report) {
+        int length = renderer.apply(report).length();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            renderer.apply(report);
+        }
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            renderer.apply(report);
+        }
+        double averageMillis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / MEASURED_ROUNDS;
+        long bytesPerReport = (threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / MEASURED_ROUNDS;
+        System.out.printf("%-14s %,9d chars, %,10d bytes allocated in %6.3f ms on average%n",
+                name, length, bytesPerReport, averageMillis);
+        return bytesPerReport;
+    }
+
+    /**
+     * The text renderer as it was before it was rewritten, as a baseline.
+     */
+    private static String legacyFormat(DiagnosticReport report) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("THREAD DUMP DIAGNOSTIC REPORT\n");
+        sb.append("============================\n\n");
+        sb.append("Report ID: ").append(report.id()).append("\n");
+        sb.append("Timestamp: ").append(report.timestamp().format(DATE_FORMATTER)).append("\n");
+        sb.append("Source: ").append(report.source()).append("\n");
+        sb.append("Status: ").append(report.status()).append("\n\n");
+        sb.append("SUMMARY\n");
+        sb.append("-------\n");
+        sb.append(report.summary()).append("\n\n");
+        if (report.statistics() != null) {
+            ThreadStatistics stats = report.statistics();
+            sb.append("THREAD STATISTICS\n");
+            sb.append("-----------------\n");
+            sb.append("Total Threads: ").append(stats.totalThreads()).append("\n");
+            sb.append("Daemon Threads: ").append(stats.daemonThreads()).append("\n");
+            sb.append("Runnable Threads: ").append(stats.runnableThreads()).append("\n");
+            sb.append("Blocked Threads: ").append(stats.blockedThreads()).append("\n");
+            sb.append("Waiting Threads: ").append(stats.waitingThreads()).append("\n\n");
+            if (stats.threadsByState() != null && !stats.threadsByState().isEmpty()) {
+                sb.append("Threads by State:\n");
+                stats.threadsByState().forEach((state, count) ->
+                        sb.append("  ").append(state).append(": ").append(count).append("\n"));
+                sb.append("\n");
+            }
+        }
+        if (report.findings() != null && !report.findings().isEmpty()) {
+            sb.append("DIAGNOSTIC FINDINGS\n");
+            sb.append("-------------------\n");
+            for (int i = 0; i < report.findings().size(); i++) {
+                DiagnosticFinding finding = report.findings().get(i);
+                sb.append(String.format("%d. %s [%s]\n", i + 1, finding.type(), finding.severity()));
+                sb.append("   Description: ").append(finding.description()).append("\n");
+                if (finding.affectedThreads() != null && !finding.affectedThreads().isEmpty()) {
+                    sb.append("   Affected Threads: ").append(String.join(", ", finding.affectedThreads())).append("\n");
+                }
+                if (finding.recommendation() != null) {
+                    sb.append("   Recommendation: ").append(finding.recommendation()).append("\n");
+                }
+                sb.append("\n");
+            }
+        }
+        if (report.suggestedFixes() != null && !report.suggestedFixes().isEmpty()) {
+            sb.append("SUGGESTED FIXES\n");
+            sb.append("---------------\n");
+            for (int i = 0; i < report.suggestedFixes().size(); i++) {
+                sb.append(String.format("%d. %s\n", i + 1, report.suggestedFixes().get(i)));
+            }
+            sb.append("\n");
+        }
+        sb.append("End of Report\n");
+        return sb.toString();
+    }
+}
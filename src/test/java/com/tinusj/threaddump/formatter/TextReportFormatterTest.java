@@ -0,0 +1,85 @@
+package com.tinusj.threaddump.formatter;
+
+import com.tinusj.threaddump.config.TextReportProperties;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ThreadStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TextReportFormatter.
+ */
+class TextReportFormatterTest {
+
+    private final DiagnosticReport report = new DiagnosticReport(
+            "test-id",
+            LocalDateTime.of(2023, 1, 1, 12, 0),
+            "test-source",
+            // Reports of a diff carry negative deltas
+            new ThreadStatistics(120, Map.of(ThreadState.BLOCKED, -3), 40, -3, 0, 1234567890, Map.of()),
+            List.of(new DiagnosticFinding("BLOCKED_THREADS", "Threads are blocked", Severity.HIGH,
+                    List.of("worker-1", "worker-2", "worker-3", "worker-4"), "Reduce lock contention", null)),
+            List.of("Reduce lock contention", "Use a concurrent map"),
+            ReportStatus.COMPLETED,
+            "Test summary"
+    );
+
+    @Test
+    void format_ShouldSummarizeRemainingThreads_WhenFindingHasMoreThreadsThanLimit() {
+        // Given
+        TextReportProperties properties = new TextReportProperties();
+        properties.setMaxAffectedThreads(2);
+        TextReportFormatter formatter = new TextReportFormatter(properties);
+
+        // When
+        String text = formatter.format(report);
+
+        // Then
+        assertThat(text).contains("1. BLOCKED_THREADS [HIGH]\n")
+                .contains("   Affected Threads: worker-1, worker-2, +2 more\n")
+                .contains("2. Use a concurrent map\n");
+    }
+
+    @Test
+    void writeTo_ShouldWriteSameTextAsFormat_WhenNumbersAreNegativeOrLarge() throws IOException {
+        // Given
+        TextReportFormatter formatter = new TextReportFormatter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        formatter.writeTo(report, out);
+
+        // Then
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertThat(text).isEqualTo(formatter.format(report))
+                .contains("Timestamp: 2023-01-01 12:00:00\n")
+                .contains("Runnable Threads: 1234567890\n")
+                .contains("Blocked Threads: -3\n")
+                .contains("  BLOCKED: -3\n")
+                .contains("   Affected Threads: worker-1, worker-2, worker-3, worker-4\n");
+    }
+
+    @Test
+    void estimateLength_ShouldNotBeExceeded_WhenReportIsRendered() {
+        // Given
+        TextReportFormatter formatter = new TextReportFormatter();
+
+        // When
+        int estimate = formatter.estimateLength(report);
+
+        // Then
+        assertThat(formatter.format(report).length()).isLessThanOrEqualTo(estimate);
+    }
+}
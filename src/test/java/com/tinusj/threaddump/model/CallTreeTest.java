@@ -0,0 +1,112 @@
+package com.tinusj.threaddump.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for CallTree.
+ */
+class CallTreeTest {
+
+    @Test
+    void writeCollapsed_ShouldMergeStacksByMethod_WhenSamplesShareCallPaths() throws IOException {
+        // Given
+        CallTree tree = new CallTree(100);
+        tree.add(stack("com.example.Cache.get", "com.example.Worker.run", "java.lang.Thread.run"));
+        tree.add(stack("com.example.Cache.get", "com.example.Worker.run", "java.lang.Thread.run"));
+        // Same methods on different lines of a separately parsed dump
+        tree.add(FrameStack.copyOf(List.of("at com.example.Cache.get(Cache.java:99)",
+                "at com.example.Worker.run(Worker.java:7)", "at java.lang.Thread.run(Thread.java:1)")));
+        tree.add(stack("com.example.Worker.run", "java.lang.Thread.run"));
+        tree.add(stack("com.example.Db.query", "com.example.Worker.run", "java.lang.Thread.run"));
+        StringBuilder collapsed = new StringBuilder();
+
+        // When
+        tree.writeCollapsed(collapsed);
+
+        // Then
+        assertThat(collapsed.toString().lines()).containsExactlyInAnyOrder(
+                "java.lang.Thread.run;com.example.Worker.run 1",
+                "java.lang.Thread.run;com.example.Worker.run;com.example.Cache.get 3",
+                "java.lang.Thread.run;com.example.Worker.run;com.example.Db.query 1");
+        assertThat(tree.stackCount()).isEqualTo(5);
+        assertThat(tree.nodeCount()).isEqualTo(5);
+        assertThat(tree.methodCount()).isEqualTo(4);
+    }
+
+    @Test
+    void methodSamples_ShouldCountRecursionOnce_WhenMethodAppearsTwiceInAStack() {
+        // Given
+        CallTree tree = new CallTree(100);
+        tree.add(stack("com.example.Tree.visit", "com.example.Tree.visit", "com.example.App.main"));
+        tree.add(stack("com.example.Tree.leaf", "com.example.Tree.visit", "com.example.App.main"));
+
+        // When
+        List<CallTree.MethodSamples> samples = tree.methodSamples();
+
+        // Then
+        assertThat(samples)
+                .extracting(CallTree.MethodSamples::method, CallTree.MethodSamples::selfSamples,
+                        CallTree.MethodSamples::totalSamples)
+                .containsExactly(
+                        tuple("com.example.Tree.visit", 1L, 2L),
+                        tuple("com.example.Tree.leaf", 1L, 1L),
+                        tuple("com.example.App.main", 0L, 2L));
+    }
+
+    @Test
+    void add_ShouldCountStackAtLongestKnownPath_WhenTreeIsFull() throws IOException {
+        // Given
+        CallTree tree = new CallTree(3);
+        tree.add(stack("com.example.Worker.run", "java.lang.Thread.run"));
+
+        // When
+        boolean added = tree.add(stack("com.example.Db.query", "com.example.Worker.run", "java.lang.Thread.run"));
+        StringBuilder collapsed = new StringBuilder();
+        tree.writeCollapsed(collapsed);
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(tree.truncatedStacks()).isEqualTo(1);
+        assertThat(tree.nodeCount()).isEqualTo(3);
+        assertThat(collapsed.toString()).isEqualTo("java.lang.Thread.run;com.example.Worker.run 2\n");
+    }
+
+    @Test
+    void visit_ShouldVisitCallersBeforeCallees_WhenChildrenAreNotSkipped() {
+        // Given
+        CallTree tree = new CallTree(100);
+        tree.add(stack("com.example.Cache.get", "com.example.Worker.run", "java.lang.Thread.run"));
+        tree.add(stack("com.example.Db.query", "com.example.Worker.run", "java.lang.Thread.run"));
+        tree.add(stack("com.example.Db.query", "com.example.Worker.run", "java.lang.Thread.run"));
+        tree.add(stack("com.example.Idle.park"));
+        List<String> visited = new ArrayList<>();
+
+        // When
+        tree.visit((depth, method, totalSamples, selfSamples) -> {
+            visited.add(depth + " " + method + " " + totalSamples + "/" + selfSamples);
+            return !method.equals("com.example.Worker.run");
+        });
+
+        // Then
+        assertThat(visited).containsExactlyInAnyOrder(
+                "0 java.lang.Thread.run 3/0",
+                "1 com.example.Worker.run 3/0",
+                "0 com.example.Idle.park 1/1");
+        assertThat(visited.indexOf("1 com.example.Worker.run 3/0"))
+                .isEqualTo(visited.indexOf("0 java.lang.Thread.run 3/0") + 1);
+    }
+
+    private static FrameStack stack(String... methods) {
+        return FrameStack.copyOf(Arrays.stream(methods)
+                .map(method -> "at " + method + "(Source.java:" + method.length() + ")")
+                .toList());
+    }
+}
@@ -0,0 +1,48 @@
+package com.tinusj.threaddump.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StackFrame.
+ */
+class StackFrameTest {
+
+    @Test
+    void parse_ShouldSplitMethodAndLocation_WhenFrameHasPrefix() {
+        // When
+        StackFrame frame = StackFrame.parse("at java.base/java.lang.Thread.run(Thread.java:840)");
+
+        // Then
+        assertThat(frame.methodKey()).isEqualTo("java.base/java.lang.Thread.run");
+        assertThat(frame.className()).isEqualTo("java.lang.Thread");
+        assertThat(frame.methodName()).isEqualTo("run");
+        assertThat(frame.fileName()).isEqualTo("Thread.java");
+        assertThat(frame.lineNumber()).isEqualTo(840);
+    }
+
+    @Test
+    void parse_ShouldKeepWholeMethod_WhenFrameHasNoPrefix() {
+        // When
+        StackFrame frame = StackFrame.parse("com.example.Worker.run(Worker.java:7)");
+
+        // Then
+        assertThat(frame.methodKey()).isEqualTo("com.example.Worker.run");
+        assertThat(frame.className()).isEqualTo("com.example.Worker");
+        assertThat(frame.methodName()).isEqualTo("run");
+        assertThat(frame.fileName()).isEqualTo("Worker.java");
+        assertThat(frame.lineNumber()).isEqualTo(7);
+    }
+
+    @Test
+    void parse_ShouldMarkNativeMethod_WhenFrameHasNoPrefix() {
+        // When
+        StackFrame frame = StackFrame.parse("java.lang.Object.wait0(Native Method)");
+
+        // Then
+        assertThat(frame.methodKey()).isEqualTo("java.lang.Object.wait0");
+        assertThat(frame.fileName()).isNull();
+        assertThat(frame.lineNumber()).isEqualTo(-2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tinusj.threaddump.parser;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ThreadCategoryClassifier.
+ */
+class ThreadCategoryClassifierTest {
+
+    @Test
+    void classify_ShouldPreferFirstListedCategory_WhenKeywordsOfSeveralCategoriesOccur() {
+        // Given
+        ThreadCategoryClassifier classifier = new ThreadCategoryClassifier();
+
+        // When / Then
+        assertThat(classifier.classify("http-nio-8080-exec-1")).isEqualTo("HTTP/Web");
+        assertThat(classifier.classify("HikariPool-1 housekeeper")).isEqualTo("Database");
+        assertThat(classifier.classify("ForkJoinPool.commonPool-worker-3")).isEqualTo("Thread Pool");
+        assertThat(classifier.classify("Service Thread")).isEqualTo("Application");
+        assertThat(classifier.classify("Reference Handler")).isEqualTo("JVM Internal");
+        assertThat(classifier.classify("sql-executor-gc-helper")).isEqualTo("GC");
+        assertThat(classifier.classify("G1 Conc#0")).isEqualTo("GC");
+        assertThat(classifier.classify("Signal Dispatcher")).isEqualTo(ThreadCategoryClassifier.OTHER);
+        assertThat(classifier.classify((CharSequence) null)).isEqualTo(ThreadCategoryClassifier.UNKNOWN);
+    }
+
+    @Test
+    void classify_ShouldMatchKeywordsOverlappingFailureLinks_WhenNameRepeatsPrefixes() {
+        // Given
+        ThreadCategoryClassifier classifier = new ThreadCategoryClassifier();
+
+        // When / Then
+        assertThat(classifier.classify("httttp-ddb")).isEqualTo("Database");
+        assertThat(classifier.classify("CONCURRENT CONCURRENT MARK")).isEqualTo("GC");
+        assertThat(classifier.classify("mainmai")).isEqualTo("Application");
+        assertThat(classifier.classify("Überwachung-NIO")).isEqualTo("HTTP/Web");
+    }
+
+    @Test
+    void classify_ShouldUseConfiguredCategoriesFirst_WhenCategoriesAreConfigured() {
+        // Given
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getClassifier().getCategories().put("Order Processing", List.of("ord-exec-"));
+        properties.getClassifier().getCategories().put("Messaging", List.of("MQ-Consumer-", "jms", "Überwachung"));
+        properties.getClassifier().getCategories().put("Database", List.of("postgres"));
+        ThreadCategoryClassifier classifier = new ThreadCategoryClassifier(properties);
+
+        // When / Then
+        assertThat(classifier.categories()).startsWith("Order Processing", "Messaging", "Database", "GC");
+        assertThat(classifier.classify("ord-exec-12")).isEqualTo("Order Processing");
+        assertThat(classifier.classify("mq-consumer-pool-3")).isEqualTo("Messaging");
+        assertThat(classifier.classify("ÜBERWACHUNG-1")).isEqualTo("Messaging");
+        assertThat(classifier.classify("postgres-notify")).isEqualTo("Database");
+        assertThat(classifier.classify("hikari-housekeeper")).isEqualTo("Database");
+        assertThat(classifier.classify("http-nio-1")).isEqualTo("HTTP/Web");
+    }
+
+    @Test
+    void classify_ShouldOnlyUseConfiguredCategories_WhenBuiltInCategoriesAreDisabled() {
+        // Given
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getClassifier().setCategories(Map.of("Messaging", List.of("mq-consumer-")));
+        properties.getClassifier().setBuiltInCategories(false);
+        ThreadCategoryClassifier classifier = new ThreadCategoryClassifier(properties);
+
+        // When / Then
+        assertThat(classifier.classify("mq-consumer-1")).isEqualTo("Messaging");
+        assertThat(classifier.classify("http-nio-1")).isEqualTo(ThreadCategoryClassifier.OTHER);
+    }
+}
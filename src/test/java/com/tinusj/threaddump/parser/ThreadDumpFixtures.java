@@ -0,0 +1,45 @@
+package com.tinusj.threaddump.parser;
+
+/**
+ * Builds synthetic jstack-style thread dumps for parser tests and benchmarks.
+ */
+public final class ThreadDumpFixtures {
+
+    private static final String[] STATES = {
+            "BLOCKED (on object monitor)", "RUNNABLE", "WAITING (parking)", "TIMED_WAITING (sleeping)"
+    };
+
+    private ThreadDumpFixtures() {
+    }
+
+    /**
+     * Builds a dump with the given number of threads, each with a stack of the given depth.
+     * Threads cycle through the BLOCKED, RUNNABLE, WAITING and TIMED_WAITING states and share
+     * a small set of frames, as threads of the same pool do in real dumps.
+     */
+    public static String largeDump(int threadCount, int stackDepth) {
+        StringBuilder dump = new StringBuilder(threadCount * stackDepth * 60);
+        dump.append("2024-01-01 12:00:00\n");
+        dump.append("Full thread dump OpenJDK 64-Bit Server VM (21+35-LTS mixed mode, sharing):\n\n");
+        for (int i = 0; i < threadCount; i++) {
+            dump.append("\"http-nio-8080-exec-").append(i).append("\" #").append(i + 20)
+                    .append(i % 2 == 0 ? " daemon" : "")
+                    .append(" prio=5 os_prio=0 cpu=12.50ms elapsed=300.10s tid=0x00007f8c2c00a000 nid=0x")
+                    .append(Integer.toHexString(i + 0x2a00)).append(" waiting for monitor entry  [0x00007f8c1a7f6000]\n");
+            dump.append("   java.lang.Thread.State: ").append(STATES[i % STATES.length]).append('\n');
+            for (int depth = 0; depth < stackDepth; depth++) {
+                dump.append("\tat com.example.layer").append(depth).append(".Service").append(i % 7)
+                        .append(".handle").append(depth).append("(Service.java:").append(depth * 3 + 10).append(")\n");
+                if (depth == 1 && i % 4 == 0) {
+                    dump.append("\t- waiting to lock <0x00000000d5a0b1c").append(i % 5).append("> (a java.lang.Object)\n");
+                }
+                if (depth == 3) {
+                    dump.append("\t- locked <0x00000000e").append(Integer.toHexString(i)).append("> (a java.lang.Object)\n");
+                }
+            }
+            dump.append("\n   Locked ownable synchronizers:\n\t- None\n\n");
+        }
+        dump.append("JNI global refs: 15, weak refs: 0\n");
+        return dump.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.tinusj.threaddump.parser;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.model.ThreadInfo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark for ThreadDumpParser on a large synthetic dump.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ThreadDumpParserBenchmarkTest {
+
+    private static final int THREAD_COUNT = 30_000;
+    private static final int STACK_DEPTH = 25;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void parse_ShouldParseLargeDump_WhenReadingFromReader() {
+        // Given
+        String threadDump = ThreadDumpFixtures.largeDump(THREAD_COUNT, STACK_DEPTH);
+        ThreadDumpParser parser = new ThreadDumpParser();
+
+        // When
+        List<ThreadInfo> threads = measure("sequentially", threadDump,
+                dump -> parser.parse(new StringReader(dump)));
+
+        // Then
+        assertThat(threads).hasSize(THREAD_COUNT);
+    }
+
+    @Test
+    void parse_ShouldParseLargeDump_WhenParsingInParallel() {
+        // Given
+        String threadDump = ThreadDumpFixtures.largeDump(THREAD_COUNT, STACK_DEPTH);
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getParser().setParallelThreshold(DataSize.ofBytes(1));
+        ThreadDumpParser parser = new ThreadDumpParser(properties);
+
+        try {
+            // When
+            List<ThreadInfo> threads = measure("in parallel", threadDump, parser::parse);
+
+            // Then
+            assertThat(threads).hasSize(THREAD_COUNT);
+        } finally {
+            parser.shutdown();
+        }
+    }
+
+    private static List<ThreadInfo> measure(String mode, String threadDump, Function<String, List<ThreadInfo>> parse) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            parse.apply(threadDump);
+        }
+        long start = System.nanoTime();
+        List<ThreadInfo> threads = null;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            threads = parse.apply(threadDump);
+        }
+        long averageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / MEASURED_ROUNDS;
+        System.out.printf("Parsed %.1f MB (%d threads) %s in %d ms on average%n",
+                threadDump.length() / 1_000_000.0, threads.size(), mode, averageMillis);
+        return threads;
+    }
+}
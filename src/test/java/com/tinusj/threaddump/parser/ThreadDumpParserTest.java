@@ -1,12 +1,26 @@
 package com.tinusj.threaddump.parser;
 
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.FrameStack;
+import com.tinusj.threaddump.model.StackFrame;
 import com.tinusj.threaddump.model.ThreadInfo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 /**
  * Unit tests for ThreadDumpParser.
@@ -62,4 +76,233 @@ class ThreadDumpParserTest {
         assertThat(thread.id()).isEqualTo(1);
         assertThat(thread.priority()).isEqualTo(5);
     }
-}
\ No newline at end of file
+    
+    @Test
+    void parse_ShouldExtractStateLocksAndStack_WhenGivenMultipleThreads() {
+        // Given
+        String threadDump = SAMPLE_DUMP;
+        
+        // When
+        List<ThreadInfo> result = parser.parse(threadDump);
+        
+        // Then
+        assertThat(result).hasSize(3);
+        
+        ThreadInfo worker = result.get(0);
+        assertThat(worker.name()).isEqualTo("worker-1");
+        assertThat(worker.id()).isEqualTo(12);
+        assertThat(worker.daemon()).isTrue();
+        assertThat(worker.state()).isEqualTo(ThreadState.BLOCKED);
+        assertThat(worker.lockName()).isEqualTo("0x00000000d5a0b1c8");
+        assertThat(worker.lockOwner()).isEqualTo("0x00000000d5a0b1d0");
+        assertThat(worker.stackTrace()).containsExactly(
+                "at com.example.Service.update(Service.java:42)",
+                "at com.example.Worker.run(Worker.java:17)");
+        
+        ThreadInfo waiter = result.get(1);
+        assertThat(waiter.name()).isEqualTo("pool-1-thread-1");
+        assertThat(waiter.daemon()).isFalse();
+        assertThat(waiter.state()).isEqualTo(ThreadState.WAITING);
+        assertThat(waiter.lockName()).isEqualTo("0x00000000d5a0c000");
+        
+        ThreadInfo vmThread = result.get(2);
+        assertThat(vmThread.name()).isEqualTo("C2 CompilerThread0");
+        assertThat(vmThread.state()).isEqualTo(ThreadState.UNKNOWN);
+        assertThat(vmThread.stackTrace()).isEmpty();
+    }
+    
+    @Test
+    void parse_ShouldIgnorePreambleAndTrailer_WhenGivenFullJstackOutput() {
+        // Given
+        String threadDump = "2024-01-01 12:00:00\n" +
+                "Full thread dump OpenJDK 64-Bit Server VM (21+35 mixed mode, sharing):\n\n" +
+                SAMPLE_DUMP +
+                "\nJNI global refs: 15, weak refs: 0\n";
+        
+        // When
+        List<ThreadInfo> result = parser.parse(threadDump);
+        
+        // Then
+        assertThat(result).extracting(ThreadInfo::name)
+                .containsExactly("worker-1", "pool-1-thread-1", "C2 CompilerThread0");
+    }
+    
+    @Test
+    void parse_ShouldProduceSameResult_WhenReadFromStreamWithCrLfLineEndings() {
+        // Given
+        String crlfDump = SAMPLE_DUMP.replace("\n", "\r\n");
+        
+        // When
+        List<ThreadInfo> fromString = parser.parse(SAMPLE_DUMP);
+        List<ThreadInfo> fromStream = parser.parse(
+                new ByteArrayInputStream(crlfDump.getBytes(StandardCharsets.UTF_8)));
+        
+        // Then
+        assertThat(fromStream).isEqualTo(fromString);
+    }
+    
+    @Test
+    void parse_ShouldEmitThreadsIncrementally_WhenGivenConsumer() {
+        // Given
+        List<String> names = new ArrayList<>();
+        
+        // When
+        parser.parse(new StringReader(SAMPLE_DUMP), thread -> names.add(thread.name()));
+        
+        // Then
+        assertThat(names).containsExactly("worker-1", "pool-1-thread-1", "C2 CompilerThread0");
+    }
+    
+    @Test
+    void parse_ShouldMatchTextParsing_WhenMemoryMappingDumpFile(@TempDir Path tempDir) throws IOException {
+        // Given
+        String threadDump = SAMPLE_DUMP + "\"ÜberWorker-€\" #40 prio=5 os_prio=0 tid=0x1 nid=0x2 runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n" +
+                "\tat com.example.Straße.run(Straße.java:1)";
+        Path dumpFile = tempDir.resolve("dump.txt");
+        Files.writeString(dumpFile, threadDump.replace("\n", "\r\n"), StandardCharsets.UTF_8);
+        
+        // When
+        List<ThreadInfo> mapped = parser.parse(dumpFile);
+        List<ThreadInfo> mappedInSmallWindows = parser.parse(dumpFile, 256);
+        
+        // Then
+        assertThat(mapped).isEqualTo(parser.parse(threadDump));
+        assertThat(mappedInSmallWindows).isEqualTo(mapped);
+        assertThat(mapped.get(3).name()).isEqualTo("ÜberWorker-€");
+        assertThat(mapped.get(3).stackTrace()).containsExactly("at com.example.Straße.run(Straße.java:1)");
+    }
+    
+    @Test
+    void parse_ShouldMatchSequentialParsing_WhenParsingInParallel(@TempDir Path tempDir) throws IOException {
+        // Given
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getParser().setParallelism(4);
+        properties.getParser().setParallelThreshold(DataSize.ofBytes(1));
+        ThreadDumpParser parallelParser = new ThreadDumpParser(properties);
+        String threadDump = ThreadDumpFixtures.largeDump(500, 12);
+        Path dumpFile = tempDir.resolve("dump.txt");
+        Files.writeString(dumpFile, threadDump.replace("\n", "\r\n"), StandardCharsets.UTF_8);
+        
+        try {
+            // When
+            List<ThreadInfo> parallel = parallelParser.parse(threadDump);
+            List<ThreadInfo> parallelMapped = parallelParser.parse(dumpFile);
+            
+            // Then
+            assertThat(parallel).hasSize(500).isEqualTo(parser.parse(threadDump));
+            assertThat(parallelMapped).isEqualTo(parallel);
+            assertThat(parallel).extracting(thread -> thread.frames().table()).containsOnly(parallel.get(0).frames().table());
+            assertThat(parallelParser.parse(SAMPLE_DUMP)).isEqualTo(parser.parse(SAMPLE_DUMP));
+        } finally {
+            parallelParser.shutdown();
+        }
+    }
+    
+    @Test
+    void parse_ShouldInternSharedFrames_WhenThreadsHaveCommonStackFrames() {
+        // Given
+        String threadDump = ThreadDumpFixtures.largeDump(14, 4);
+        
+        // When
+        List<ThreadInfo> threads = parser.parse(threadDump);
+        
+        // Then
+        FrameStack first = threads.get(0).frames();
+        FrameStack eighth = threads.get(7).frames();
+        assertThat(eighth.table()).isSameAs(first.table());
+        assertThat(first.table().size()).isEqualTo(7 * 4);
+        assertThat(eighth.frameIds()).isEqualTo(first.frameIds());
+        assertThat(eighth.get(0)).isSameAs(first.get(0));
+        assertThat(first.frame(1)).isEqualTo(new StackFrame("at com.example.layer1.Service0.handle1(Service.java:13)",
+                "com.example.layer1.Service0.handle1", "com.example.layer1.Service0", "handle1", "Service.java", 13));
+        assertThat(threads.get(1).frames().frame(0).methodKey()).isEqualTo("com.example.layer0.Service1.handle0");
+    }
+    
+    @Test
+    void parse_ShouldRecordAllHeldAndAwaitedLocks_WhenThreadHoldsSeveralLocks() {
+        // Given
+        String threadDump = "\"worker-7\" #30 prio=5 os_prio=0 tid=0x1 nid=0x2 waiting on condition\n" +
+                "   java.lang.Thread.State: WAITING (parking)\n" +
+                "\tat jdk.internal.misc.Unsafe.park(java.base@21/Native Method)\n" +
+                "\t- parking to wait for  <0x00000000c1> (a java.util.concurrent.locks.ReentrantLock$NonfairSync)\n" +
+                "\tat com.example.Cache.refresh(Cache.java:12)\n" +
+                "\t- locked <0x00000000a1> (a java.lang.Object)\n" +
+                "\tat com.example.Cache.get(Cache.java:8)\n" +
+                "\t- locked <0x00000000a2> (a java.util.HashMap)\n" +
+                "\n" +
+                "   Locked ownable synchronizers:\n" +
+                "\t- <0x00000000b1> (a java.util.concurrent.locks.ReentrantReadWriteLock$NonfairSync)\n" +
+                "\n";
+        
+        // When
+        ThreadInfo thread = parser.parse(threadDump).get(0);
+        
+        // Then
+        assertThat(thread.heldLocks()).containsExactly("0x00000000a1", "0x00000000a2", "0x00000000b1");
+        assertThat(thread.awaitedLocks()).containsExactly("0x00000000c1");
+        assertThat(thread.lockOwner()).isEqualTo("0x00000000a1");
+        assertThat(thread.lockName()).isNull();
+        assertThat(thread.stackTrace()).hasSize(3);
+    }
+    
+    @Test
+    void parse_ShouldExtractTidAndNid_WhenNidIsHexadecimalOrDecimal() {
+        // Given
+        String threadDump = "\"old\" #1 prio=5 os_prio=0 tid=0x00007f8c2c009000 nid=0x1a2b runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n" +
+                "\n" +
+                "\"new\" #2 [9446] prio=5 os_prio=0 cpu=763.79ms elapsed=3.49s tid=0x00007f8980028080 nid=9446 runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n" +
+                "\n" +
+                "\"none\" #3 prio=5 runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n";
+        
+        // When
+        List<ThreadInfo> threads = parser.parse(threadDump);
+        
+        // Then
+        assertThat(threads).extracting(ThreadInfo::tid).containsExactly(0x00007f8c2c009000L, 0x00007f8980028080L, 0L);
+        assertThat(threads).extracting(ThreadInfo::nid).containsExactly(0x1a2bL, 9446L, 0L);
+    }
+    
+    @Test
+    void parse_ShouldExtractCpuAndElapsedTime_WhenHeaderShowsThem() {
+        // Given
+        String threadDump = "\"new\" #2 [9446] prio=5 os_prio=0 cpu=763.79ms elapsed=3.49s tid=0x00007f8980028080 nid=9446 runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n" +
+                "\n" +
+                "\"old\" #1 prio=5 os_prio=0 tid=0x00007f8c2c009000 nid=0x1a2b runnable\n" +
+                "   java.lang.Thread.State: RUNNABLE\n";
+        
+        // When
+        List<ThreadInfo> threads = parser.parse(threadDump);
+        
+        // Then
+        assertThat(threads.get(0).cpuMillis()).isCloseTo(763.79, within(1e-9));
+        assertThat(threads.get(0).elapsedMillis()).isCloseTo(3490.0, within(1e-9));
+        assertThat(threads.get(0).cpuDeltaMillis()).isEqualTo(-1);
+        assertThat(threads.get(1).cpuMillis()).isEqualTo(-1);
+        assertThat(threads.get(1).elapsedMillis()).isEqualTo(-1);
+    }
+    
+    private static final String SAMPLE_DUMP =
+            "\"worker-1\" #12 daemon prio=5 os_prio=0 cpu=1.20ms elapsed=10.01s tid=0x00007f8c2c00a000 nid=0x2a03 waiting for monitor entry  [0x00007f8c1a7f6000]\n" +
+            "   java.lang.Thread.State: BLOCKED (on object monitor)\n" +
+            "\tat com.example.Service.update(Service.java:42)\n" +
+            "\t- waiting to lock <0x00000000d5a0b1c8> (a java.lang.Object)\n" +
+            "\t- locked <0x00000000d5a0b1d0> (a java.lang.Object)\n" +
+            "\tat com.example.Worker.run(Worker.java:17)\n" +
+            "\n" +
+            "   Locked ownable synchronizers:\n" +
+            "\t- None\n" +
+            "\n" +
+            "\"pool-1-thread-1\" #13 prio=5 os_prio=0 tid=0x00007f8c2c00b000 nid=0x2a04 in Object.wait()  [0x00007f8c1a6f5000]\n" +
+            "   java.lang.Thread.State: WAITING (on object monitor)\n" +
+            "\tat java.lang.Object.wait(Native Method)\n" +
+            "\t- waiting on <0x00000000d5a0c000> (a java.util.LinkedList)\n" +
+            "\tat java.lang.Object.wait(Object.java:502)\n" +
+            "\n" +
+            "\"C2 CompilerThread0\" #5 daemon prio=9 os_prio=0 tid=0x00007f8c2c00c000 nid=0x2a05 waiting on condition  [0x0000000000000000]\n" +
+            "\n";
+}
@@ -0,0 +1,268 @@
+package com.tinusj.threaddump.rule;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.RuleEvaluation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for DiagnosticRuleEngine.
+ */
+class DiagnosticRuleEngineTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private RuleConfigurationProvider configurationProvider;
+    private DiagnosticRuleEngine engine;
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        engine.shutdown();
+    }
+    
+    @Test
+    void evaluate_ShouldReturnFindingsAndTimingsInRuleOrder_WhenAllRulesComplete() {
+        // Given
+        engine = engine(Duration.ofSeconds(5),
+                rule("first", (dump, config) -> List.of(finding("FIRST"))),
+                rule("second", (dump, config) -> List.of(finding("SECOND"), finding("THIRD"))));
+        
+        // When
+        RuleEvaluation evaluation = engine.evaluate(emptyDump());
+        
+        // Then
+        assertThat(evaluation.findings()).extracting(DiagnosticFinding::type).containsExactly("FIRST", "SECOND", "THIRD");
+        assertThat(evaluation.ruleMillis()).containsOnlyKeys("first", "second");
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "second").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void evaluate_ShouldDropFindingsOfRule_WhenRuleTimesOutOrFails() {
+        // Given
+        engine = engine(Duration.ofMillis(200),
+                rule("slow", (dump, config) -> {
+                    awaitRelease();
+                    return List.of(finding("SLOW"));
+                }),
+                rule("broken", (dump, config) -> {
+                    throw new IllegalStateException("broken rule");
+                }),
+                rule("fast", (dump, config) -> List.of(finding("FAST"))));
+        
+        // When
+        RuleEvaluation evaluation = engine.evaluate(emptyDump());
+        
+        // Then
+        assertThat(evaluation.findings()).extracting(DiagnosticFinding::type).containsExactly("FAST");
+        assertThat(evaluation.ruleMillis()).containsEntry("slow", 200L).containsKeys("broken", "fast");
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "slow").tag("outcome", "timeout")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "broken").tag("outcome", "failure")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void evaluate_ShouldStartTimeoutWhenRuleRuns_WhenConcurrentAnalysesQueueRules() throws Exception {
+        // Given: one worker, so the rules of four analyses queue for far longer than the timeout
+        DiagnosticRule[] rules = new DiagnosticRule[3];
+        for (int i = 0; i < rules.length; i++) {
+            String type = "RULE_" + i;
+            rules[i] = rule("rule-" + i, (dump, config) -> {
+                sleep(60);
+                return List.of(finding(type));
+            });
+        }
+        engine = engine(Duration.ofMillis(300), 1, rules);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        
+        // When
+        List<Future<RuleEvaluation>> evaluations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            evaluations.add(callers.submit(() -> engine.evaluate(emptyDump())));
+        }
+        
+        // Then
+        try {
+            for (Future<RuleEvaluation> evaluation : evaluations) {
+                assertThat(evaluation.get(10, TimeUnit.SECONDS).findings()).extracting(DiagnosticFinding::type)
+                        .containsExactly("RULE_0", "RULE_1", "RULE_2");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(meterRegistry.find(DiagnosticRuleEngine.RULE_TIMER).tag("outcome", "timeout").timers()).isEmpty();
+    }
+    
+    @Test
+    void evaluate_ShouldSkipQueuedRule_WhenWorkersAreHeldByRulesIgnoringCancellation() {
+        // Given: the only worker is held by a rule that keeps running after it is cancelled
+        engine = engine(Duration.ofMillis(100), 1,
+                rule("stuck", (dump, config) -> {
+                    awaitReleaseIgnoringInterrupts();
+                    return List.of(finding("STUCK"));
+                }),
+                rule("queued", (dump, config) -> List.of(finding("QUEUED"))));
+        
+        // When
+        long start = System.nanoTime();
+        RuleEvaluation evaluation = engine.evaluate(emptyDump());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // Then
+        assertThat(evaluation.findings()).isEmpty();
+        assertThat(elapsedMillis).isLessThan(5000);
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "stuck").tag("outcome", "timeout")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "queued").tag("outcome", "skipped")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void evaluate_ShouldRejectRule_WhenRuleQueueIsFull() {
+        // Given: one worker and no queue, so the second rule cannot be accepted while the first runs
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getRules().setTimeout(Duration.ofMillis(200));
+        properties.getRules().setPoolSize(1);
+        properties.getRules().setQueueCapacity(0);
+        engine = engine(properties,
+                rule("slow", (dump, config) -> {
+                    awaitRelease();
+                    return List.of(finding("SLOW"));
+                }),
+                rule("fast", (dump, config) -> List.of(finding("FAST"))));
+        
+        // When
+        RuleEvaluation evaluation = engine.evaluate(emptyDump());
+        
+        // Then
+        assertThat(evaluation.findings()).isEmpty();
+        assertThat(evaluation.ruleMillis()).containsOnlyKeys("slow", "fast");
+        assertThat(meterRegistry.get(DiagnosticRuleEngine.RULE_TIMER).tag("rule", "fast").tag("outcome", "rejected")
+                .timer().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void evaluate_ShouldApplyRefreshedConfiguration_WhenPropertiesChange() {
+        // Given
+        engine = engine(Duration.ofSeconds(5),
+                rule("thread-count", (dump, config) -> List.of(finding("MAX_" + config.maxThreadsWarning()))),
+                rule("hotspots", (dump, config) -> List.of(finding("HOTSPOT"))));
+        RuleEvaluation before = engine.evaluate(emptyDump());
+        environment.setProperty("thread-dump.analysis.max-threads-warning", "250");
+        environment.setProperty("thread-dump.analysis.disabled-rules", "hotspots");
+        
+        // When
+        RuleConfiguration refreshed = configurationProvider.refresh();
+        RuleEvaluation after = engine.evaluate(emptyDump());
+        
+        // Then
+        assertThat(before.findings()).extracting(DiagnosticFinding::type).containsExactly("MAX_1000", "HOTSPOT");
+        assertThat(after.findings()).extracting(DiagnosticFinding::type).containsExactly("MAX_250");
+        assertThat(after.ruleMillis()).containsOnlyKeys("thread-count");
+        assertThat(after.configuration()).isSameAs(refreshed);
+    }
+    
+    @Test
+    void refresh_ShouldKeepCurrentConfiguration_WhenPropertiesAreInvalid() {
+        // Given
+        engine = engine(Duration.ofSeconds(5));
+        RuleConfiguration current = configurationProvider.current();
+        environment.setProperty("thread-dump.analysis.blocking-ratio-threshold", "1.5");
+        
+        // When / Then
+        assertThatThrownBy(() -> configurationProvider.refresh()).isInstanceOf(BindException.class);
+        assertThat(configurationProvider.current()).isSameAs(current);
+    }
+    
+    private DiagnosticRuleEngine engine(Duration timeout, DiagnosticRule... rules) {
+        return engine(timeout, new ThreadDumpAnalysisProperties().getRules().getPoolSize(), rules);
+    }
+    
+    private DiagnosticRuleEngine engine(Duration timeout, int poolSize, DiagnosticRule... rules) {
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getRules().setTimeout(timeout);
+        properties.getRules().setPoolSize(poolSize);
+        return engine(properties, rules);
+    }
+    
+    private DiagnosticRuleEngine engine(ThreadDumpAnalysisProperties properties, DiagnosticRule... rules) {
+        configurationProvider = new RuleConfigurationProvider(properties, environment,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        return new DiagnosticRuleEngine(List.of(rules), configurationProvider, properties, meterRegistry);
+    }
+    
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void awaitReleaseIgnoringInterrupts() {
+        while (true) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                return;
+            } catch (InterruptedException e) {
+                // Keeps running after cancellation, like a rule stuck in non-interruptible I/O
+            }
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static ParsedThreadDump emptyDump() {
+        return ParsedThreadDump.of(List.of(), thread -> "Other");
+    }
+    
+    private static DiagnosticFinding finding(String type) {
+        return new DiagnosticFinding(type, type, Severity.LOW, List.of(), null, null);
+    }
+    
+    private static DiagnosticRule rule(String name,
+                                       BiFunction<ParsedThreadDump, RuleConfiguration, List<DiagnosticFinding>> evaluation) {
+        return new DiagnosticRule() {
+            @Override
+            public String name() {
+                return name;
+            }
+            
+            @Override
+            public List<DiagnosticFinding> evaluate(ParsedThreadDump threadDump, RuleConfiguration configuration) {
+                return evaluation.apply(threadDump, configuration);
+            }
+        };
+    }
+}
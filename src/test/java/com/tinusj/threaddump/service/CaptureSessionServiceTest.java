@@ -0,0 +1,195 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.CaptureSessionProperties;
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+import com.tinusj.threaddump.model.CaptureSessionRequest;
+import com.tinusj.threaddump.model.CaptureSessionSummary;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.impl.CaptureSessionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CaptureSessionServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class CaptureSessionServiceTest {
+
+    private static final long PID = ProcessHandle.current().pid();
+    private static final long INTERVAL_MILLIS = 100;
+    private static final String DUMP = """
+            "main" #1 prio=5 os_prio=0 tid=0x00007f8b8c00a800 nid=0x1 runnable [0x00007f8b94a5e000]
+               java.lang.Thread.State: RUNNABLE
+                    at com.example.App.main(App.java:10)
+            """;
+
+    @Mock
+    private ThreadDumpGenerationService generationService;
+
+    @Mock
+    private ThreadDumpAnalyzer analyzer;
+
+    private final CaptureSessionProperties properties = new CaptureSessionProperties();
+    private CaptureSessionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(analyzer.parse(any(Reader.class))).thenAnswer(invocation ->
+                ParsedThreadDump.of(new ThreadDumpParser().parse((Reader) invocation.getArgument(0)),
+                        thread -> "Other"));
+        service = new CaptureSessionServiceImpl(generationService, analyzer, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void startSession_ShouldCaptureSamplesAtFixedRate_WhenProcessExists() throws InterruptedException {
+        // Given
+        when(generationService.generateThreadDump(eq(PID), any())).thenAnswer(CaptureSessionServiceTest::streamDump);
+
+        // When
+        CaptureSessionSummary started = service.startSession(new CaptureSessionRequest(PID, 3, INTERVAL_MILLIS));
+        CaptureSessionSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(started.status()).isEqualTo(CaptureSessionStatus.RUNNING);
+        assertThat(finished.status()).isEqualTo(CaptureSessionStatus.COMPLETED);
+        assertThat(finished.finishedAt()).isNotNull();
+        assertThat(finished.errors()).isEmpty();
+        assertThat(finished.samples()).extracting(CaptureSessionSummary.Sample::sequence).containsExactly(0, 1, 2);
+        assertThat(finished.samples()).extracting(CaptureSessionSummary.Sample::threadCount).containsOnly(1);
+        for (CaptureSessionSummary.Sample sample : finished.samples()) {
+            assertThat(sample.scheduledAt())
+                    .isEqualTo(finished.startedAt().plusMillis(sample.sequence() * INTERVAL_MILLIS));
+            assertThat(sample.capturedAt()).isAfterOrEqualTo(sample.scheduledAt());
+        }
+
+        List<ThreadDumpSample> samples = service.getSamples(started.id()).orElseThrow();
+        assertThat(samples).hasSize(3);
+        assertThat(samples.get(0).dump().threads().get(0).name()).isEqualTo("main");
+    }
+
+    @Test
+    void startSession_ShouldSkipSample_WhenPreviousCaptureIsStillRunning() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(generationService.generateThreadDump(eq(PID), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return streamDump(invocation);
+        });
+
+        // When
+        CaptureSessionSummary started = service.startSession(new CaptureSessionRequest(PID, 2, INTERVAL_MILLIS));
+        Thread.sleep(INTERVAL_MILLIS * 3);
+        release.countDown();
+        CaptureSessionSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(finished.status()).isEqualTo(CaptureSessionStatus.COMPLETED);
+        assertThat(finished.samples()).extracting(CaptureSessionSummary.Sample::sequence).containsExactly(0);
+        assertThat(finished.errors()).containsExactly("Sample 1 skipped: previous capture still running");
+    }
+
+    @Test
+    void startSession_ShouldFail_WhenNoSampleCanBeCaptured() throws InterruptedException {
+        // Given
+        when(generationService.generateThreadDump(eq(PID), any())).thenThrow(new RuntimeException("jstack not found"));
+
+        // When
+        CaptureSessionSummary started = service.startSession(new CaptureSessionRequest(PID, 2, INTERVAL_MILLIS));
+        CaptureSessionSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(finished.status()).isEqualTo(CaptureSessionStatus.FAILED);
+        assertThat(finished.samples()).isEmpty();
+        assertThat(finished.errors()).containsExactly("Sample 0 failed: jstack not found",
+                "Sample 1 failed: jstack not found");
+    }
+
+    @Test
+    void cancelSession_ShouldStopSamplingAndKeepSamples_WhenSessionIsRunning() throws InterruptedException {
+        // Given
+        when(generationService.generateThreadDump(anyLong(), any())).thenAnswer(CaptureSessionServiceTest::streamDump);
+        CaptureSessionSummary started = service.startSession(
+                new CaptureSessionRequest(PID, properties.getMaxSamples(), INTERVAL_MILLIS));
+        Thread.sleep(INTERVAL_MILLIS * 2);
+
+        // When
+        CaptureSessionSummary cancelled = service.cancelSession(started.id()).orElseThrow();
+        Thread.sleep(INTERVAL_MILLIS * 3);
+
+        // Then
+        CaptureSessionSummary after = service.getSession(started.id()).orElseThrow();
+        assertThat(cancelled.status()).isEqualTo(CaptureSessionStatus.CANCELLED);
+        assertThat(after.samples()).isNotEmpty().hasSizeLessThan(properties.getMaxSamples());
+        assertThat(after.samples().size()).isLessThanOrEqualTo(cancelled.samples().size() + 1);
+        assertThat(service.cancelSession("unknown")).isEmpty();
+    }
+
+    @Test
+    void startSession_ShouldRejectRequest_WhenRequestIsInvalidOrLimitIsReached() {
+        // Given
+        properties.setMaxActiveSessions(1);
+        lenient().when(generationService.generateThreadDump(eq(PID), any()))
+                .thenAnswer(CaptureSessionServiceTest::streamDump);
+
+        // When / Then
+        assertThatThrownBy(() -> service.startSession(new CaptureSessionRequest(PID, 0, INTERVAL_MILLIS)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.startSession(new CaptureSessionRequest(PID, 2, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.startSession(new CaptureSessionRequest(Long.MAX_VALUE, 2, INTERVAL_MILLIS)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        service.startSession(new CaptureSessionRequest(PID, properties.getMaxSamples(), INTERVAL_MILLIS));
+        assertThatThrownBy(() -> service.startSession(new CaptureSessionRequest(PID, 2, INTERVAL_MILLIS)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Hands the dump to the consumer passed to the streaming generateThreadDump, as jstack output would be.
+     */
+    private static Object streamDump(InvocationOnMock invocation) {
+        Function<Reader, ?> consumer = invocation.getArgument(1);
+        return consumer.apply(new StringReader(DUMP));
+    }
+
+    private CaptureSessionSummary awaitFinished(String sessionId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            CaptureSessionSummary summary = service.getSession(sessionId).orElseThrow();
+            if (summary.status() != CaptureSessionStatus.RUNNING) {
+                return summary;
+            }
+            Thread.sleep(INTERVAL_MILLIS / 10);
+        }
+        throw new AssertionError("Session " + sessionId + " did not finish");
+    }
+}
@@ -1,22 +1,46 @@
 package com.tinusj.threaddump.service;
 
+import com.tinusj.threaddump.config.ReportCacheProperties;
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
 import com.tinusj.threaddump.enums.Severity;
 import com.tinusj.threaddump.model.DiagnosticFinding;
 import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import com.tinusj.threaddump.model.RuleEvaluation;
 import com.tinusj.threaddump.model.ThreadStatistics;
+import com.tinusj.threaddump.parser.ThreadCategoryClassifier;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.rule.DiagnosticRuleEngine;
+import com.tinusj.threaddump.rule.ThreadCountRule;
 import com.tinusj.threaddump.service.impl.DiagnosticServiceImpl;
+import com.tinusj.threaddump.service.impl.ThreadDumpAnalyzerImpl;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import com.tinusj.threaddump.store.ReportCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -61,8 +85,12 @@ class DiagnosticServiceTest {
                 null
         ));
         
-        when(threadDumpAnalyzer.analyzeStatistics(anyString())).thenReturn(mockStats);
-        when(threadDumpAnalyzer.analyzeFindings(anyString())).thenReturn(mockFindings);
+        ParsedThreadDump parsedDump = ParsedThreadDump.of(List.of(), thread -> "Other");
+        
+        when(threadDumpAnalyzer.parse(threadDumpContent)).thenReturn(parsedDump);
+        when(threadDumpAnalyzer.analyzeStatistics(parsedDump)).thenReturn(mockStats);
+        when(threadDumpAnalyzer.evaluateRules(parsedDump))
+                .thenReturn(new RuleEvaluation(mockFindings, Map.of("test-rule", 3L), RuleConfiguration.DEFAULTS));
         
         // When
         DiagnosticReport report = diagnosticService.analyzeThreadDump(threadDumpContent, source);
@@ -76,6 +104,9 @@ class DiagnosticServiceTest {
         assertThat(report.findings()).hasSize(1);
         assertThat(report.suggestedFixes()).isNotEmpty();
         assertThat(report.summary()).isNotNull();
+        assertThat(report.timings()).isNotNull();
+        assertThat(report.timings().ruleMillis()).containsEntry("test-rule", 3L);
+        verify(threadDumpAnalyzer, times(1)).parse(threadDumpContent);
     }
     
     @Test
@@ -84,7 +115,7 @@ class DiagnosticServiceTest {
         String threadDumpContent = "Invalid content";
         String source = "test-source";
         
-        when(threadDumpAnalyzer.analyzeStatistics(anyString()))
+        when(threadDumpAnalyzer.parse(anyString()))
                 .thenThrow(new RuntimeException("Analysis failed"));
         
         // When
@@ -95,4 +126,71 @@ class DiagnosticServiceTest {
         assertThat(report.status().toString()).isEqualTo("ERROR");
         assertThat(report.summary()).contains("Analysis failed");
     }
-}
\ No newline at end of file
+    
+    @Test
+    void analyzeThreadDump_ShouldReturnCachedReport_WhenSameDumpIsSubmittedWithNewTimestamp() {
+        // Given
+        RuleConfigurationProvider configurationProvider = mock(RuleConfigurationProvider.class);
+        when(configurationProvider.current()).thenReturn(RuleConfiguration.DEFAULTS);
+        ParsedDumpStore parsedDumpStore = new ParsedDumpStore();
+        DiagnosticService cachingService = new DiagnosticServiceImpl(threadDumpAnalyzer, parsedDumpStore,
+                new ReportCache(new ReportCacheProperties(), configurationProvider, new SimpleMeterRegistry()));
+        String body = "\"main\" #1 prio=5 tid=0x1 nid=0x2 runnable\n   java.lang.Thread.State: RUNNABLE\n";
+        String firstDump = "2024-01-01 12:00:00\nFull thread dump:\n\n" + body;
+        String retriedDump = "2024-01-01 12:05:00\nFull thread dump:\n\n" + body;
+        
+        ParsedThreadDump parsedDump = ParsedThreadDump.of(List.of(), thread -> "Other");
+        when(threadDumpAnalyzer.parse(firstDump)).thenReturn(parsedDump);
+        when(threadDumpAnalyzer.analyzeStatistics(parsedDump))
+                .thenReturn(new ThreadStatistics(0, null, 0, 0, 0, 0, Map.of()));
+        when(threadDumpAnalyzer.evaluateRules(parsedDump))
+                .thenReturn(new RuleEvaluation(List.of(), Map.of(), RuleConfiguration.DEFAULTS));
+        
+        // When
+        DiagnosticReport first = cachingService.analyzeThreadDump(firstDump, "test-source");
+        DiagnosticReport retried = cachingService.analyzeThreadDump(retriedDump, "test-source");
+        DiagnosticReport otherSource = cachingService.analyzeThreadDump(firstDump, "other-source");
+        
+        // Then
+        assertThat(retried).isSameAs(first);
+        assertThat(otherSource.id()).isNotEqualTo(first.id());
+        assertThat(parsedDumpStore.get(first.id())).isPresent();
+        verify(threadDumpAnalyzer, times(2)).parse(firstDump);
+        verify(threadDumpAnalyzer, never()).parse(retriedDump);
+    }
+    
+    @Test
+    void generateSuggestedFixes_ShouldUseNewThreshold_WhenRuleConfigFileChanges(@TempDir Path directory)
+            throws IOException {
+        // Given
+        Path configFile = directory.resolve("rules.properties");
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        properties.getRules().setConfigFile(configFile);
+        RuleConfigurationProvider configurationProvider = new RuleConfigurationProvider(properties,
+                new MockEnvironment(), Validation.buildDefaultValidatorFactory().getValidator());
+        DiagnosticRuleEngine ruleEngine = new DiagnosticRuleEngine(List.of(new ThreadCountRule()),
+                configurationProvider, properties, new SimpleMeterRegistry());
+        DiagnosticService realService = new DiagnosticServiceImpl(new ThreadDumpAnalyzerImpl(
+                new ThreadDumpParser(), ruleEngine, new ThreadCategoryClassifier()));
+        String threadDump = "\"main\" #1 prio=5 tid=0x1 nid=0x1 runnable\n   java.lang.Thread.State: RUNNABLE\n\n" +
+                "\"worker\" #2 prio=5 tid=0x2 nid=0x2 runnable\n   java.lang.Thread.State: RUNNABLE\n\n" +
+                "\"reaper\" #3 prio=5 tid=0x3 nid=0x3 runnable\n   java.lang.Thread.State: RUNNABLE\n\n";
+        String threadPoolingFix = "Consider implementing thread pooling to reduce the total number of threads";
+        
+        try {
+            DiagnosticReport before = realService.analyzeThreadDump(threadDump, "test-source");
+            Files.writeString(configFile, "thread-dump.analysis.max-threads-warning=2\n");
+            
+            // When
+            configurationProvider.checkConfigFile();
+            DiagnosticReport after = realService.analyzeThreadDump(threadDump, "test-source");
+            
+            // Then
+            assertThat(before.suggestedFixes()).doesNotContain(threadPoolingFix);
+            assertThat(after.suggestedFixes()).contains(threadPoolingFix);
+            assertThat(configurationProvider.current().maxThreadsWarning()).isEqualTo(2);
+        } finally {
+            ruleEngine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.FleetCaptureProperties;
+import com.tinusj.threaddump.enums.FleetCaptureOutcome;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.CapturedThreadDump;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.FleetCaptureRequest;
+import com.tinusj.threaddump.model.FleetCaptureSummary;
+import com.tinusj.threaddump.model.JavaProcess;
+import com.tinusj.threaddump.model.ThreadStatistics;
+import com.tinusj.threaddump.service.impl.FleetCaptureServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for FleetCaptureServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class FleetCaptureServiceTest {
+
+    private static final long CAPTURE_MILLIS = 300;
+
+    @Mock
+    private JavaProcessService javaProcessService;
+
+    @Mock
+    private ThreadDumpGenerationService generationService;
+
+    @Mock
+    private DiagnosticService diagnosticService;
+
+    private final FleetCaptureProperties properties = new FleetCaptureProperties();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private FleetCaptureServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(generationService.isAvailable()).thenReturn(true);
+        lenient().when(javaProcessService.getJavaProcessByPid(anyLong()))
+                .thenAnswer(invocation -> process(invocation.getArgument(0), "com.example.App"));
+        lenient().when(diagnosticService.analyzeThreadDump(any(CapturedThreadDump.class), anyString()))
+                .thenAnswer(invocation -> report(invocation.getArgument(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void captureAll_ShouldTakeAboutOneCapture_WhenProcessesAreCapturedConcurrently() throws Exception {
+        // Given
+        when(generationService.captureThreadDump(anyLong())).thenAnswer(invocation -> slowCapture());
+        service = newService();
+
+        // When
+        FleetCaptureSummary summary = service.captureAll(new FleetCaptureRequest(List.of(1L, 2L, 3L, 4L, 5L), null, 0));
+
+        // Then
+        assertThat(summary.processCount()).isEqualTo(5);
+        assertThat(summary.succeeded()).isEqualTo(5);
+        assertThat(summary.processes()).extracting(FleetCaptureSummary.ProcessResult::pid)
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(summary.processes()).extracting(FleetCaptureSummary.ProcessResult::reportId)
+                .containsExactly("pid-1", "pid-2", "pid-3", "pid-4", "pid-5");
+        assertThat(summary.wallMillis()).isLessThan(5 * CAPTURE_MILLIS);
+        assertThat(summary.processesBySeverity()).isEqualTo(Map.of(Severity.HIGH, 5));
+        assertThat(summary.processesByFindingType()).isEqualTo(Map.of("BLOCKED_THREADS", 5));
+        assertThat(maxRunning.get()).isEqualTo(5);
+    }
+
+    @Test
+    void captureAll_ShouldNotExceedConcurrencyLimit_WhenMoreProcessesAreSelected() throws Exception {
+        // Given
+        properties.setMaxConcurrency(2);
+        when(generationService.captureThreadDump(anyLong())).thenAnswer(invocation -> slowCapture());
+        service = newService();
+
+        // When
+        FleetCaptureSummary summary = service.captureAll(new FleetCaptureRequest(List.of(1L, 2L, 3L, 4L, 5L, 6L), null, 0));
+
+        // Then
+        assertThat(summary.succeeded()).isEqualTo(6);
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(summary.wallMillis()).isGreaterThanOrEqualTo(3 * CAPTURE_MILLIS);
+    }
+
+    @Test
+    void captureAll_ShouldReportTimeoutAndFailure_WhenSomeProcessesDoNotFinish() throws Exception {
+        // Given
+        when(javaProcessService.getJavaProcessByPid(3L)).thenReturn(null);
+        when(generationService.captureThreadDump(anyLong())).thenAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) == 2L) {
+                Thread.sleep(10_000);
+            }
+            return new CapturedThreadDump("dump", null);
+        });
+        service = newService();
+
+        // When
+        FleetCaptureSummary summary = service.captureAll(new FleetCaptureRequest(List.of(1L, 2L, 3L), null, 200));
+
+        // Then
+        assertThat(summary.processes()).extracting(FleetCaptureSummary.ProcessResult::outcome)
+                .containsExactly(FleetCaptureOutcome.SUCCEEDED, FleetCaptureOutcome.TIMED_OUT,
+                        FleetCaptureOutcome.FAILED);
+        assertThat(summary.processes().get(1).error()).contains("200 ms");
+        assertThat(summary.processes().get(2).error()).isEqualTo("Not a running Java process");
+        assertThat(summary.succeeded()).isEqualTo(1);
+        assertThat(summary.timedOut()).isEqualTo(1);
+        assertThat(summary.failed()).isEqualTo(1);
+        assertThat(summary.wallMillis()).isLessThan(5_000);
+    }
+
+    @Test
+    void captureAll_ShouldSelectMatchingProcesses_WhenNoPidsAreGiven() throws Exception {
+        // Given
+        when(javaProcessService.getRunningJavaProcesses()).thenReturn(List.of(
+                process(11, "com.example.OrderService"),
+                process(12, "/opt/billing/billing.jar"),
+                process(13, "com.example.OrderWorker"),
+                process(ProcessHandle.current().pid(), "com.example.OrderAgent")));
+        when(generationService.captureThreadDump(anyLong())).thenReturn(new CapturedThreadDump("dump", null));
+        service = newService();
+
+        // When
+        FleetCaptureSummary summary = service.captureAll(new FleetCaptureRequest(null, "Order", 0));
+
+        // Then
+        assertThat(summary.processes()).extracting(FleetCaptureSummary.ProcessResult::pid)
+                .containsExactly(11L, 13L);
+        assertThat(summary.processes()).extracting(FleetCaptureSummary.ProcessResult::mainClass)
+                .containsExactly("com.example.OrderService", "com.example.OrderWorker");
+    }
+
+    @Test
+    void captureAll_ShouldThrowIllegalArgumentException_WhenPatternIsInvalid() throws Exception {
+        // Given
+        service = newService();
+
+        // When / Then
+        assertThatThrownBy(() -> service.captureAll(new FleetCaptureRequest(null, "Order(", 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("main class pattern");
+        verify(generationService, never()).captureThreadDump(anyLong());
+    }
+
+    private FleetCaptureServiceImpl newService() {
+        return new FleetCaptureServiceImpl(javaProcessService, generationService, diagnosticService, properties);
+    }
+
+    private CapturedThreadDump slowCapture() throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(CAPTURE_MILLIS);
+        } finally {
+            running.decrementAndGet();
+        }
+        return new CapturedThreadDump("dump", null);
+    }
+
+    private static JavaProcess process(long pid, String mainClass) {
+        return new JavaProcess(pid, mainClass, JavaProcess.displayNameOf(mainClass), "", "");
+    }
+
+    private static DiagnosticReport report(String source) {
+        DiagnosticFinding finding = new DiagnosticFinding("BLOCKED_THREADS", "Threads are blocked", Severity.HIGH,
+                List.of("worker-1"), "Reduce lock contention", null);
+        ThreadStatistics statistics = new ThreadStatistics(10, Map.of(), 2, 1, 3, 4, Map.of());
+        return new DiagnosticReport(source, LocalDateTime.now(), source, statistics, List.of(finding), List.of(),
+                ReportStatus.COMPLETED, "1 finding", null);
+    }
+}
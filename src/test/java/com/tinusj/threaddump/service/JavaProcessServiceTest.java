@@ -1,11 +1,15 @@
 package com.tinusj.threaddump.service;
 
+import com.tinusj.threaddump.discovery.JavaProcessDiscovery;
 import com.tinusj.threaddump.model.JavaProcess;
 import com.tinusj.threaddump.service.impl.JavaProcessServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,4 +56,70 @@ class JavaProcessServiceTest {
         JavaProcess nonExistentProcess = javaProcessService.getJavaProcessByPid(999999L);
         assertNull(nonExistentProcess);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProcessTableIsCachedAndIndexedByPid() {
+        // Given
+        long currentPid = ProcessHandle.current().pid();
+        CountingDiscovery discovery = new CountingDiscovery(true, currentPid);
+        JavaProcessService service = new JavaProcessServiceImpl(discovery, new CountingDiscovery(true), Duration.ofMinutes(1));
+
+        // When
+        List<JavaProcess> processes = service.getRunningJavaProcesses();
+        JavaProcess current = service.getJavaProcessByPid(currentPid);
+        JavaProcess notJava = service.getJavaProcessByPid(999999L);
+
+        // Then
+        assertEquals(1, processes.size());
+        assertEquals(currentPid, current.pid());
+        assertNull(notJava);
+        assertEquals(1, discovery.calls.get());
+    }
+
+    @Test
+    void testFallbackDiscoveryIsUsedWhenPrimaryIsUnavailable() {
+        // Given
+        long currentPid = ProcessHandle.current().pid();
+        CountingDiscovery unavailable = new CountingDiscovery(false, currentPid);
+        CountingDiscovery fallback = new CountingDiscovery(true, currentPid);
+        JavaProcessService service = new JavaProcessServiceImpl(unavailable, fallback, Duration.ZERO);
+
+        // When
+        service.getRunningJavaProcesses();
+        service.getRunningJavaProcesses();
+
+        // Then
+        assertEquals(0, unavailable.calls.get());
+        assertEquals(2, fallback.calls.get());
+    }
+
+    private static final class CountingDiscovery implements JavaProcessDiscovery {
+
+        private final boolean available;
+        private final long[] pids;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingDiscovery(boolean available, long... pids) {
+            this.available = available;
+            this.pids = pids;
+        }
+
+        @Override
+        public String name() {
+            return "counting";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+        @Override
+        public List<JavaProcess> discover() {
+            calls.incrementAndGet();
+            return Arrays.stream(pids)
+                    .mapToObj(pid -> new JavaProcess(pid, "com.example.App", "com.example.App", "", ""))
+                    .toList();
+        }
+    }
+}
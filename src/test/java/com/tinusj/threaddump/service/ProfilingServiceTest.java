@@ -0,0 +1,170 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.capture.AttachThreadDumpCapture;
+import com.tinusj.threaddump.capture.ThreadDumpCaptureException;
+import com.tinusj.threaddump.config.ProfilingProperties;
+import com.tinusj.threaddump.enums.CaptureSessionStatus;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ProfileRequest;
+import com.tinusj.threaddump.model.ProfileSummary;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.impl.ProfilingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ProfilingServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProfilingServiceTest {
+
+    private static final long PID = ProcessHandle.current().pid();
+    private static final long INTERVAL_MILLIS = 20;
+    private static final String DUMP = """
+            "worker-1" #21 prio=5 os_prio=0 tid=0x1 nid=0x15 runnable
+               java.lang.Thread.State: RUNNABLE
+                    at com.example.Cache.get(Cache.java:42)
+                    at com.example.Worker.run(Worker.java:10)
+
+            "worker-2" #22 prio=5 os_prio=0 tid=0x2 nid=0x16 runnable
+               java.lang.Thread.State: RUNNABLE
+                    at com.example.Db.query(Db.java:7)
+                    at com.example.Worker.run(Worker.java:12)
+
+            "worker-3" #23 prio=5 os_prio=0 tid=0x3 nid=0x17 runnable
+               java.lang.Thread.State: RUNNABLE
+                    at com.example.Cache.get(Cache.java:44)
+                    at com.example.Worker.run(Worker.java:10)
+
+            "idle" #24 prio=5 os_prio=0 tid=0x4 nid=0x18 waiting on condition
+               java.lang.Thread.State: WAITING (parking)
+                    at jdk.internal.misc.Unsafe.park(Native Method)
+                    at com.example.Worker.run(Worker.java:20)
+            """;
+
+    @Mock
+    private AttachThreadDumpCapture capture;
+
+    private final ProfilingProperties properties = new ProfilingProperties();
+    private ProfilingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(capture.isAvailable()).thenReturn(true);
+        service = new ProfilingServiceImpl(capture, new ThreadDumpParser(), properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void startProfile_ShouldFoldRunnableStacksIntoCallTree_WhenSamplingForDuration() throws InterruptedException {
+        // Given
+        when(capture.capture(PID)).thenReturn(DUMP);
+
+        // When
+        ProfileSummary started = service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS, 200, false));
+        ProfileSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(started.status()).isEqualTo(CaptureSessionStatus.RUNNING);
+        assertThat(finished.status()).isEqualTo(CaptureSessionStatus.COMPLETED);
+        assertThat(finished.samples()).isPositive();
+        assertThat(finished.stacks()).isEqualTo(3L * finished.samples());
+        assertThat(finished.nodes()).isEqualTo(4);
+
+        String collapsed = service.getCollapsedStacks(started.id()).orElseThrow();
+        assertThat(collapsed.lines()).containsExactlyInAnyOrder(
+                "com.example.Worker.run;com.example.Cache.get " + 2 * finished.samples(),
+                "com.example.Worker.run;com.example.Db.query " + finished.samples());
+
+        List<DiagnosticFinding> hotspots = service.getHotspots(started.id()).orElseThrow();
+        assertThat(hotspots).extracting(DiagnosticFinding::type).containsOnly("SAMPLED_HOTSPOT");
+        assertThat(hotspots).extracting(finding -> (Object) ((Map<?, ?>) finding.details()).get("method"))
+                .containsExactly("com.example.Cache.get", "com.example.Db.query");
+        assertThat(hotspots.get(0).severity()).isEqualTo(Severity.HIGH);
+        assertThat(hotspots.get(1).severity()).isEqualTo(Severity.MEDIUM);
+    }
+
+    @Test
+    void startProfile_ShouldIncludeWaitingThreads_WhenAllThreadsAreRequested() throws InterruptedException {
+        // Given
+        when(capture.capture(PID)).thenReturn(DUMP);
+
+        // When
+        ProfileSummary started = service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS, 100, true));
+        ProfileSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(finished.stacks()).isEqualTo(4L * finished.samples());
+        assertThat(service.getCollapsedStacks(started.id()).orElseThrow())
+                .contains("com.example.Worker.run;jdk.internal.misc.Unsafe.park " + finished.samples());
+    }
+
+    @Test
+    void startProfile_ShouldStopAndFail_WhenCapturesKeepFailing() throws InterruptedException {
+        // Given
+        when(capture.capture(PID)).thenThrow(new ThreadDumpCaptureException("target exited"));
+
+        // When
+        ProfileSummary started = service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS, 5_000, false));
+        ProfileSummary finished = awaitFinished(started.id());
+
+        // Then
+        assertThat(finished.status()).isEqualTo(CaptureSessionStatus.FAILED);
+        assertThat(finished.failedSamples()).isEqualTo(5);
+        assertThat(finished.lastError()).isEqualTo("target exited");
+        assertThat(service.getHotspots(started.id()).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void startProfile_ShouldRejectRequest_WhenRequestIsInvalidOrLimitIsReached() {
+        // Given
+        properties.setMaxActiveProfiles(1);
+        lenient().when(capture.capture(PID)).thenReturn(DUMP);
+
+        // When / Then
+        assertThatThrownBy(() -> service.startProfile(new ProfileRequest(PID, 1, 1_000, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS,
+                properties.getMaxDuration().toMillis() + 1, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.startProfile(new ProfileRequest(Long.MAX_VALUE, INTERVAL_MILLIS, 1_000, false)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        ProfileSummary running = service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS, 60_000, false));
+        assertThatThrownBy(() -> service.startProfile(new ProfileRequest(PID, INTERVAL_MILLIS, 1_000, false)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.stopProfile(running.id()).orElseThrow().status()).isEqualTo(CaptureSessionStatus.CANCELLED);
+        assertThat(service.stopProfile("unknown")).isEmpty();
+    }
+
+    private ProfileSummary awaitFinished(String profileId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            ProfileSummary summary = service.getProfile(profileId).orElseThrow();
+            if (summary.status() != CaptureSessionStatus.RUNNING) {
+                return summary;
+            }
+            Thread.sleep(INTERVAL_MILLIS);
+        }
+        throw new AssertionError("Profile " + profileId + " did not finish");
+    }
+}
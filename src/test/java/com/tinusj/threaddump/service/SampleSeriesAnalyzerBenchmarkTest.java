@@ -0,0 +1,66 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.SeriesAnalysis;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+import com.tinusj.threaddump.parser.ThreadDumpFixtures;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.impl.SampleSeriesAnalyzerImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark for SampleSeriesAnalyzer on a long series of large dumps.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SampleSeriesAnalyzerBenchmarkTest {
+
+    private static final int SAMPLE_COUNT = 20;
+    private static final int THREAD_COUNT = 10_000;
+    private static final int STACK_DEPTH = 25;
+    private static final long INTERVAL_MILLIS = 2000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void analyze_ShouldJoinLargeSeries_WhenThreadsRepeatAcrossSamples() {
+        // Given
+        ThreadDumpParser parser = new ThreadDumpParser();
+        String dump = ThreadDumpFixtures.largeDump(THREAD_COUNT, STACK_DEPTH);
+        Instant start = Instant.now();
+        List<ThreadDumpSample> samples = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            // Each sample is parsed separately, so stacks of different samples refer to different frame tables
+            ParsedThreadDump parsed = ParsedThreadDump.of(parser.parse(dump), thread -> "Other");
+            Instant capturedAt = start.plusMillis(i * INTERVAL_MILLIS);
+            samples.add(new ThreadDumpSample(i, capturedAt, capturedAt, 0, parsed));
+        }
+        SampleSeriesAnalyzer analyzer = new SampleSeriesAnalyzerImpl(new ThreadDumpAnalysisProperties());
+
+        // When
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            analyzer.analyze(samples);
+        }
+        long begin = System.nanoTime();
+        SeriesAnalysis analysis = null;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            analysis = analyzer.analyze(samples);
+        }
+        long averageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) / MEASURED_ROUNDS;
+        System.out.printf("Analyzed %d samples of %d threads in %d ms on average%n",
+                SAMPLE_COUNT, THREAD_COUNT, averageMillis);
+
+        // Then
+        assertThat(analysis.threads()).hasSize(THREAD_COUNT);
+        assertThat(analysis.threads()).allMatch(thread -> thread.samplesSeen() == SAMPLE_COUNT);
+    }
+}
@@ -0,0 +1,159 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.SeriesAnalysis;
+import com.tinusj.threaddump.model.ThreadDumpSample;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.service.impl.SampleSeriesAnalyzerImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SampleSeriesAnalyzerImpl.
+ */
+class SampleSeriesAnalyzerTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T12:00:00Z");
+    private static final long INTERVAL_MILLIS = 2000;
+
+    private final ThreadDumpParser parser = new ThreadDumpParser();
+    private final SampleSeriesAnalyzer analyzer = new SampleSeriesAnalyzerImpl(new ThreadDumpAnalysisProperties());
+
+    @Test
+    void analyze_ShouldReportStuckThread_WhenRunnableStackDoesNotChange() {
+        // Given
+        List<ThreadDumpSample> samples = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            samples.add(sample(i,
+                    thread("stuck-worker", 20, 0x101, "RUNNABLE",
+                            "at java.net.SocketInputStream.read(SocketInputStream.java:141)",
+                            "at com.example.Client.call(Client.java:10)") +
+                    thread("busy-worker", 21, 0x102, "RUNNABLE",
+                            "at com.example.Batch.step" + i + "(Batch.java:" + i + ")") +
+                    thread("idle-worker", 22, 0x103, "WAITING (parking)",
+                            "at jdk.internal.misc.Unsafe.park(Native Method)")));
+        }
+
+        // When
+        SeriesAnalysis analysis = analyzer.analyze(samples);
+
+        // Then
+        assertThat(analysis.sampleCount()).isEqualTo(4);
+        assertThat(analysis.spanMillis()).isEqualTo(3 * INTERVAL_MILLIS);
+        assertThat(analysis.threads()).extracting(SeriesAnalysis.ThreadProgress::name)
+                .containsExactly("idle-worker", "stuck-worker", "busy-worker");
+
+        SeriesAnalysis.ThreadProgress stuck = progress(analysis, "stuck-worker");
+        assertThat(stuck.stuck()).isTrue();
+        assertThat(stuck.stackStability()).isEqualTo(1.0);
+        assertThat(stuck.unchangedSamples()).isEqualTo(4);
+        assertThat(stuck.unchangedMillis()).isEqualTo(3 * INTERVAL_MILLIS);
+        assertThat(stuck.topFrame()).isEqualTo("at java.net.SocketInputStream.read(SocketInputStream.java:141)");
+        assertThat(stuck.nid()).isEqualTo(0x101);
+
+        SeriesAnalysis.ThreadProgress busy = progress(analysis, "busy-worker");
+        assertThat(busy.stuck()).isFalse();
+        assertThat(busy.stackStability()).isZero();
+        assertThat(busy.unchangedSamples()).isEqualTo(1);
+
+        SeriesAnalysis.ThreadProgress idle = progress(analysis, "idle-worker");
+        assertThat(idle.stuck()).isFalse();
+        assertThat(idle.state()).isEqualTo(ThreadState.WAITING);
+
+        assertThat(analysis.findings()).hasSize(1);
+        DiagnosticFinding finding = analysis.findings().get(0);
+        assertThat(finding.type()).isEqualTo("STUCK_THREAD");
+        assertThat(finding.severity()).isEqualTo(Severity.MEDIUM);
+        assertThat(finding.affectedThreads()).containsExactly("stuck-worker (RUNNABLE, 6000 ms)");
+    }
+
+    @Test
+    void analyze_ShouldReportLongHeldLock_WhenOtherThreadsWaitForIt() {
+        // Given
+        String owner = thread("owner", 20, 0x101, "RUNNABLE",
+                "at com.example.Cache.reload(Cache.java:10)",
+                "- locked <0x00000000a1> (a java.lang.Object)",
+                "at com.example.Cache.get(Cache.java:5)",
+                "- locked <0x00000000a2> (a java.lang.Object)");
+        String waiter = thread("waiter", 21, 0x102, "BLOCKED (on object monitor)",
+                "at com.example.Cache.get(Cache.java:5)",
+                "- waiting to lock <0x00000000a1> (a java.lang.Object)");
+        List<ThreadDumpSample> samples = List.of(
+                sample(0, owner),
+                sample(1, owner),
+                sample(2, owner + waiter),
+                sample(3, owner + waiter));
+
+        // When
+        SeriesAnalysis analysis = analyzer.analyze(samples);
+
+        // Then
+        assertThat(analysis.heldLocks()).extracting(SeriesAnalysis.HeldLock::lock)
+                .containsExactly("0x00000000a1", "0x00000000a2");
+        SeriesAnalysis.HeldLock contended = analysis.heldLocks().get(0);
+        assertThat(contended.owner()).isEqualTo("owner");
+        assertThat(contended.samples()).isEqualTo(4);
+        assertThat(contended.heldMillis()).isEqualTo(3 * INTERVAL_MILLIS);
+        assertThat(contended.maxWaiters()).isEqualTo(1);
+        assertThat(contended.waitingThreads()).containsExactly("waiter");
+
+        // The owner itself never left its frame, so it is also reported as stuck
+        assertThat(analysis.findings()).extracting(DiagnosticFinding::type)
+                .containsExactly("STUCK_THREAD", "LONG_HELD_LOCK");
+        DiagnosticFinding finding = analysis.findings().get(1);
+        assertThat(finding.affectedThreads()).containsExactly("owner", "waiter");
+        assertThat(finding.severity()).isEqualTo(Severity.HIGH);
+    }
+
+    @Test
+    void analyze_ShouldTreatThreadsAsDistinct_WhenNativeIdChanges() {
+        // Given
+        List<ThreadDumpSample> samples = List.of(
+                sample(0, thread("worker", 20, 0x101, "RUNNABLE", "at com.example.Job.run(Job.java:1)")),
+                sample(1, thread("worker", 20, 0x101, "RUNNABLE", "at com.example.Job.run(Job.java:1)")),
+                sample(2, thread("worker", 20, 0x202, "RUNNABLE", "at com.example.Job.run(Job.java:1)")));
+
+        // When
+        SeriesAnalysis analysis = analyzer.analyze(samples);
+
+        // Then
+        assertThat(analysis.threads()).hasSize(2);
+        assertThat(analysis.threads()).extracting(SeriesAnalysis.ThreadProgress::samplesSeen)
+                .containsExactly(2, 1);
+        assertThat(analysis.findings()).isEmpty();
+    }
+
+    private SeriesAnalysis.ThreadProgress progress(SeriesAnalysis analysis, String name) {
+        return analysis.threads().stream()
+                .filter(thread -> thread.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private ThreadDumpSample sample(int sequence, String dump) {
+        Instant capturedAt = START.plusMillis(sequence * INTERVAL_MILLIS);
+        ParsedThreadDump parsed = ParsedThreadDump.of(parser.parse(dump), thread -> "Other");
+        return new ThreadDumpSample(sequence, capturedAt, capturedAt, 0, parsed);
+    }
+
+    private static String thread(String name, int id, int nid, String state, String... lines) {
+        StringBuilder block = new StringBuilder();
+        block.append('"').append(name).append("\" #").append(id)
+                .append(" prio=5 os_prio=0 tid=0x00007f8c2c00a000 nid=0x").append(Integer.toHexString(nid))
+                .append(" runnable\n");
+        block.append("   java.lang.Thread.State: ").append(state).append('\n');
+        for (String line : lines) {
+            block.append('\t').append(line).append('\n');
+        }
+        return block.append('\n').toString();
+    }
+}
@@ -0,0 +1,240 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.ThreadCpuSample;
+import com.tinusj.threaddump.model.ThreadInfo;
+import com.tinusj.threaddump.parser.ThreadCategoryClassifier;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.rule.BlockedThreadsRule;
+import com.tinusj.threaddump.rule.DeadlockRule;
+import com.tinusj.threaddump.rule.DiagnosticRule;
+import com.tinusj.threaddump.rule.DiagnosticRuleEngine;
+import com.tinusj.threaddump.rule.HotspotRule;
+import com.tinusj.threaddump.rule.SuspiciousPatternRule;
+import com.tinusj.threaddump.rule.ThreadCountRule;
+import com.tinusj.threaddump.rule.ThreadGroupRule;
+import com.tinusj.threaddump.rule.WaitingThreadsRule;
+import com.tinusj.threaddump.service.impl.ThreadDumpAnalyzerImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for ThreadDumpAnalyzerImpl, using the real parser.
+ */
+class ThreadDumpAnalyzerTest {
+    
+    private DiagnosticRuleEngine ruleEngine;
+    private ThreadDumpAnalyzer analyzer;
+    
+    @BeforeEach
+    void setUp() {
+        List<DiagnosticRule> rules = List.of(new DeadlockRule(), new ThreadCountRule(), new BlockedThreadsRule(),
+                new WaitingThreadsRule(), new HotspotRule(), new ThreadGroupRule(), new SuspiciousPatternRule());
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        RuleConfigurationProvider configurationProvider = new RuleConfigurationProvider(properties,
+                new MockEnvironment(), Validation.buildDefaultValidatorFactory().getValidator());
+        ruleEngine = new DiagnosticRuleEngine(rules, configurationProvider, properties, new SimpleMeterRegistry());
+        analyzer = new ThreadDumpAnalyzerImpl(new ThreadDumpParser(), ruleEngine, new ThreadCategoryClassifier());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ruleEngine.shutdown();
+    }
+    
+    @Test
+    void parse_ShouldIndexThreadsByMethod_WhenStacksShareMethods() {
+        // Given
+        String threadDump = thread("worker-1", 1, "RUNNABLE", "com.example.Codec.encode", "com.example.Worker.run") +
+                thread("worker-2", 2, "RUNNABLE", "com.example.Codec.encode", "com.example.Codec.encode") +
+                thread("worker-3", 3, "BLOCKED (on object monitor)", "com.example.Worker.run");
+        
+        // When
+        ParsedThreadDump parsed = analyzer.parse(threadDump);
+        
+        // Then
+        assertThat(parsed.threadsWithMethod("com.example.Codec.encode"))
+                .extracting("name").containsExactly("worker-1", "worker-2");
+        assertThat(parsed.threadsWithMethod("com.example.Worker.run"))
+                .extracting("name").containsExactly("worker-1", "worker-3");
+        assertThat(parsed.methodOccurrences(ThreadState.RUNNABLE))
+                .containsExactly(Map.entry("com.example.Codec.encode", 3L), Map.entry("com.example.Worker.run", 1L));
+    }
+    
+    @Test
+    void analyzeFindings_ShouldReportHotspotsAndIdenticalStacks_WhenRunnableThreadsShareStack() {
+        // Given
+        StringBuilder threadDump = new StringBuilder();
+        for (int i = 1; i <= 4; i++) {
+            threadDump.append(thread("worker-" + i, i, "RUNNABLE", "com.example.Codec.encode", "com.example.Worker.run"));
+        }
+        threadDump.append(thread("idle-1", 9, "RUNNABLE", "com.example.Idle.poll"));
+        
+        // When
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(threadDump.toString());
+        
+        // Then
+        assertThat(findings).filteredOn(finding -> finding.type().equals("CPU_HOTSPOT"))
+                .extracting(DiagnosticFinding::details)
+                .containsExactly(
+                        Map.of("method", "com.example.Codec.encode", "occurrences", 4L, "threadCount", 4),
+                        Map.of("method", "com.example.Worker.run", "occurrences", 4L, "threadCount", 4));
+        assertThat(findings).filteredOn(finding -> finding.type().equals("IDENTICAL_STACK_TRACES"))
+                .singleElement()
+                .satisfies(finding -> assertThat(finding.affectedThreads())
+                        .containsExactly("worker-1", "worker-2", "worker-3", "worker-4"));
+    }
+    
+    @Test
+    void analyzeFindings_ShouldRankCpuHotspotsByMeasuredCpu_WhenDumpHasCpuSample() {
+        // Given
+        StringBuilder threadDump = new StringBuilder();
+        for (int i = 1; i <= 4; i++) {
+            threadDump.append(thread("worker-" + i, i, "RUNNABLE", "com.example.Codec.encode", "com.example.Worker.run"));
+        }
+        threadDump.append(thread("spinner", 5, "RUNNABLE", "com.example.Spin.loop", "com.example.Worker.run"));
+        threadDump.append(thread("hasher", 6, "RUNNABLE", "com.example.Hash.compute", "com.example.Worker.run"));
+        ThreadCpuSample sample = ThreadCpuSample.of(new long[] {1, 2, 3, 4, 5, 6},
+                new double[] {0, 0, 0, 0, 90, 10}, 100);
+        
+        // When
+        ParsedThreadDump parsed = analyzer.parse(threadDump.toString()).withCpuSample(sample);
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(parsed);
+        
+        // Then
+        assertThat(parsed.threads()).extracting(ThreadInfo::cpuDeltaMillis).containsExactly(0.0, 0.0, 0.0, 0.0, 90.0, 10.0);
+        assertThat(findings).filteredOn(finding -> finding.type().equals("CPU_HOTSPOT"))
+                .extracting(DiagnosticFinding::severity, DiagnosticFinding::affectedThreads, DiagnosticFinding::details)
+                .containsExactly(
+                        tuple(Severity.HIGH, List.of("spinner"), Map.of("method", "com.example.Spin.loop",
+                                "cpuMillis", 90.0, "cpuShare", 0.9, "windowMillis", 100L, "threadCount", 1)),
+                        tuple(Severity.MEDIUM, List.of("hasher"), Map.of("method", "com.example.Hash.compute",
+                                "cpuMillis", 10.0, "cpuShare", 0.1, "windowMillis", 100L, "threadCount", 1)));
+    }
+    
+    @Test
+    void analyzeFindings_ShouldListWaitingThreadsInDumpOrder_WhenWaitingAndTimedWaitingInterleave() {
+        // Given
+        StringBuilder threadDump = new StringBuilder();
+        for (int i = 1; i <= 60; i++) {
+            threadDump.append(i % 2 == 1
+                    ? thread("waiter-" + i, i, "WAITING (on object monitor)", "java.lang.Object.wait")
+                    : thread("waiter-" + i, i, "TIMED_WAITING (sleeping)", "java.lang.Thread.sleep"));
+        }
+        
+        // When
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(threadDump.toString());
+        
+        // Then
+        assertThat(findings).filteredOn(finding -> finding.type().equals("HIGH_WAITING_THREADS"))
+                .singleElement()
+                .satisfies(finding -> assertThat(finding.affectedThreads()).containsExactly(
+                        "waiter-1 (WAITING)", "waiter-2 (TIMED_WAITING)", "waiter-3 (WAITING)",
+                        "waiter-4 (TIMED_WAITING)", "waiter-5 (WAITING)", "waiter-6 (TIMED_WAITING)",
+                        "waiter-7 (WAITING)", "waiter-8 (TIMED_WAITING)", "waiter-9 (WAITING)",
+                        "waiter-10 (TIMED_WAITING)"));
+    }
+    
+    @Test
+    void analyzeFindings_ShouldReportDeadlockCycle_WhenMonitorsAndSynchronizersFormCycle() {
+        // Given
+        String threadDump = lockingThread("a", 1, "BLOCKED (on object monitor)",
+                        "\t- waiting to lock <0x1> (a java.lang.Object)\n\t- locked <0x2> (a java.lang.Object)\n", "") +
+                lockingThread("b", 2, "WAITING (parking)",
+                        "\t- parking to wait for  <0x3> (a java.util.concurrent.locks.ReentrantLock$NonfairSync)\n",
+                        "\t- <0x1> (a java.util.concurrent.locks.ReentrantLock$NonfairSync)\n") +
+                lockingThread("c", 3, "BLOCKED (on object monitor)",
+                        "\t- waiting to lock <0x2> (a java.lang.Object)\n\t- locked <0x3> (a java.lang.Object)\n", "") +
+                lockingThread("bystander", 4, "BLOCKED (on object monitor)",
+                        "\t- waiting to lock <0x2> (a java.lang.Object)\n", "");
+        
+        // When
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(threadDump);
+        
+        // Then
+        assertThat(findings).filteredOn(finding -> finding.type().equals("DEADLOCK"))
+                .singleElement()
+                .satisfies(finding -> {
+                    assertThat(finding.affectedThreads()).containsExactly("a", "b", "c");
+                    assertThat(finding.details()).isEqualTo(Map.of(
+                            "threadCount", 3,
+                            "cycle", List.of(
+                                    "\"a\" waits for <0x1> held by \"b\"",
+                                    "\"b\" waits for <0x3> held by \"c\"",
+                                    "\"c\" waits for <0x2> held by \"a\""),
+                            "locks", List.of("0x1", "0x3", "0x2")));
+                });
+    }
+    
+    @Test
+    void analyzeFindings_ShouldNotReportDeadlock_WhenThreadsOnlyContendForSameLock() {
+        // Given
+        String threadDump = lockingThread("owner", 1, "RUNNABLE", "\t- locked <0x1> (a java.lang.Object)\n", "") +
+                lockingThread("waiter-1", 2, "BLOCKED (on object monitor)", "\t- waiting to lock <0x1> (a java.lang.Object)\n", "") +
+                lockingThread("waiter-2", 3, "BLOCKED (on object monitor)", "\t- waiting to lock <0x1> (a java.lang.Object)\n", "");
+        
+        // When
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(threadDump);
+        
+        // Then
+        assertThat(findings).extracting(DiagnosticFinding::type).doesNotContain("DEADLOCK", "POTENTIAL_DEADLOCK");
+    }
+    
+    @Test
+    void analyzeFindings_ShouldFindCycle_WhenTwentyThousandThreadsWaitInOneRing() {
+        // Given
+        int threadCount = 20_000;
+        StringBuilder threadDump = new StringBuilder();
+        for (int i = 0; i < threadCount; i++) {
+            threadDump.append(lockingThread("ring-" + i, i, "BLOCKED (on object monitor)",
+                    "\t- waiting to lock <0x" + Integer.toHexString((i + 1) % threadCount) + "> (a java.lang.Object)\n" +
+                    "\t- locked <0x" + Integer.toHexString(i) + "> (a java.lang.Object)\n", ""));
+        }
+        
+        // When
+        List<DiagnosticFinding> findings = analyzer.analyzeFindings(threadDump.toString());
+        
+        // Then
+        assertThat(findings).filteredOn(finding -> finding.type().equals("DEADLOCK"))
+                .singleElement()
+                .satisfies(finding -> assertThat(finding.affectedThreads()).hasSize(threadCount));
+    }
+    
+    private static String lockingThread(String name, int id, String state, String lockLines, String synchronizers) {
+        return "\"" + name + "\" #" + id + " prio=5 os_prio=0 tid=0x1 nid=0x1 waiting for monitor entry\n" +
+                "   java.lang.Thread.State: " + state + "\n" +
+                "\tat com.example.Resource.use(Resource.java:10)\n" +
+                lockLines +
+                "\tat com.example.Worker.run(Worker.java:20)\n" +
+                "\n" +
+                "   Locked ownable synchronizers:\n" +
+                (synchronizers.isEmpty() ? "\t- None\n" : synchronizers) +
+                "\n";
+    }
+    
+    private static String thread(String name, int id, String state, String... methods) {
+        StringBuilder thread = new StringBuilder()
+                .append('"').append(name).append("\" #").append(id)
+                .append(" prio=5 os_prio=0 tid=0x1 nid=0x").append(Integer.toHexString(id)).append(" runnable\n")
+                .append("   java.lang.Thread.State: ").append(state).append('\n');
+        for (String method : methods) {
+            thread.append("\tat ").append(method).append("(Source.java:").append(method.length()).append(")\n");
+        }
+        return thread.append('\n').toString();
+    }
+}
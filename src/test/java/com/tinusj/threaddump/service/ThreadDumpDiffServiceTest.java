@@ -0,0 +1,171 @@
+package com.tinusj.threaddump.service;
+
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.config.ThreadDumpAnalysisProperties;
+import com.tinusj.threaddump.enums.Severity;
+import com.tinusj.threaddump.enums.ThreadState;
+import com.tinusj.threaddump.model.DiagnosticFinding;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ThreadDumpDiffRequest;
+import com.tinusj.threaddump.parser.ThreadCategoryClassifier;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
+import com.tinusj.threaddump.rule.BlockedThreadsRule;
+import com.tinusj.threaddump.rule.DiagnosticRuleEngine;
+import com.tinusj.threaddump.service.impl.ThreadDumpAnalyzerImpl;
+import com.tinusj.threaddump.service.impl.ThreadDumpDiffServiceImpl;
+import com.tinusj.threaddump.store.ParsedDumpStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ThreadDumpDiffServiceImpl, using the real parser.
+ */
+class ThreadDumpDiffServiceTest {
+
+    private DiagnosticRuleEngine ruleEngine;
+    private ThreadDumpAnalyzer analyzer;
+    private ParsedDumpStore store;
+    private ThreadDumpDiffService diffService;
+
+    @BeforeEach
+    void setUp() {
+        ThreadDumpAnalysisProperties properties = new ThreadDumpAnalysisProperties();
+        RuleConfigurationProvider configurationProvider = new RuleConfigurationProvider(properties,
+                new MockEnvironment(), Validation.buildDefaultValidatorFactory().getValidator());
+        ruleEngine = new DiagnosticRuleEngine(List.of(new BlockedThreadsRule()), configurationProvider, properties,
+                new SimpleMeterRegistry());
+        analyzer = new ThreadDumpAnalyzerImpl(new ThreadDumpParser(), ruleEngine, new ThreadCategoryClassifier());
+        store = new ParsedDumpStore();
+        diffService = new ThreadDumpDiffServiceImpl(analyzer, store, configurationProvider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ruleEngine.shutdown();
+    }
+
+    @Test
+    void diff_ShouldReportDeltasAndChanges_WhenWorkersBecomeBlocked() {
+        // Given
+        String baseline = thread("main", 1, "RUNNABLE", "com.example.App.main") +
+                thread("worker-1", 2, "RUNNABLE", "com.example.Cache.get", "com.example.Worker.run") +
+                thread("worker-2", 3, "RUNNABLE", "com.example.Cache.get", "com.example.Worker.run") +
+                thread("scheduler-1", 4, "TIMED_WAITING (sleeping)", "java.lang.Thread.sleep");
+        String current = thread("main", 1, "RUNNABLE", "com.example.App.main") +
+                thread("worker-1", 2, "BLOCKED (on object monitor)", "com.example.Cache.reload",
+                        "com.example.Worker.run") +
+                thread("worker-2", 3, "BLOCKED (on object monitor)", "com.example.Cache.reload",
+                        "com.example.Worker.run") +
+                thread("worker-3", 5, "BLOCKED (on object monitor)", "com.example.Cache.reload",
+                        "com.example.Worker.run") +
+                thread("http-nio-1", 6, "RUNNABLE", "com.example.Handler.handle");
+
+        // When
+        DiagnosticReport report = diffService.diff(new ThreadDumpDiffRequest(baseline, current, null, null));
+
+        // Then
+        assertThat(report.source()).isEqualTo("baseline-text -> current-text");
+        assertThat(report.statistics().totalThreads()).isEqualTo(1);
+        assertThat(report.statistics().blockedThreads()).isEqualTo(3);
+        assertThat(report.statistics().runnableThreads()).isEqualTo(-1);
+        assertThat(report.statistics().threadsByState())
+                .containsEntry(ThreadState.BLOCKED, 3)
+                .containsEntry(ThreadState.TIMED_WAITING, -1);
+
+        assertThat(report.findings()).extracting(DiagnosticFinding::type).containsExactly(
+                "NEW_THREAD_POOLS", "REMOVED_THREAD_POOLS", "THREAD_STATE_CHANGES",
+                "NEW_STACK_SIGNATURES", "VANISHED_STACK_SIGNATURES", "LOCK_CONTENTION_INCREASED");
+
+        DiagnosticFinding pools = finding(report, "NEW_THREAD_POOLS");
+        assertThat(pools.affectedThreads()).containsExactly("http-nio-");
+
+        DiagnosticFinding stateChanges = finding(report, "THREAD_STATE_CHANGES");
+        assertThat(stateChanges.severity()).isEqualTo(Severity.MEDIUM);
+        assertThat(stateChanges.affectedThreads()).containsExactly("worker-1 (was RUNNABLE)", "worker-2 (was RUNNABLE)");
+        assertThat(stateChanges.details()).isEqualTo(Map.of(
+                "transitions", Map.of("RUNNABLE -> BLOCKED", 2),
+                "newlyBlockedCount", 2));
+
+        DiagnosticFinding newSignatures = finding(report, "NEW_STACK_SIGNATURES");
+        assertThat(newSignatures.affectedThreads()).containsExactly(
+                "at com.example.Cache.reload(Source.java:24) (3 threads)",
+                "at com.example.Handler.handle(Source.java:26) (1 threads)");
+
+        DiagnosticFinding contention = finding(report, "LOCK_CONTENTION_INCREASED");
+        assertThat(contention.severity()).isEqualTo(Severity.MEDIUM);
+        assertThat(contention.affectedThreads()).containsExactly("com.example.Cache.reload");
+    }
+
+    @Test
+    void diff_ShouldReportNoChanges_WhenDumpsAreEquivalent() {
+        // Given
+        String dump = thread("worker-1", 2, "RUNNABLE", "com.example.Worker.run") +
+                thread("worker-2", 3, "WAITING (parking)", "jdk.internal.misc.Unsafe.park");
+
+        // When
+        DiagnosticReport report = diffService.diff(new ThreadDumpDiffRequest(dump, dump, null, null));
+
+        // Then
+        assertThat(report.findings()).isEmpty();
+        assertThat(report.statistics().totalThreads()).isZero();
+        assertThat(report.statistics().threadsByState()).allSatisfy((state, delta) -> assertThat(delta).isZero());
+        assertThat(report.suggestedFixes()).containsExactly("No regressions detected between the two thread dumps");
+    }
+
+    @Test
+    void diff_ShouldUseStoredDumps_WhenReportIdsAreGiven() {
+        // Given
+        store.put("report-1", "before.txt", analyzer.parse(thread("worker-1", 2, "RUNNABLE", "com.example.Worker.run")));
+        store.put("report-2", "after.txt", analyzer.parse(thread("worker-1", 2, "WAITING (parking)",
+                "jdk.internal.misc.Unsafe.park")));
+
+        // When
+        DiagnosticReport report = diffService.diff(new ThreadDumpDiffRequest(null, null, "report-1", "report-2"));
+
+        // Then
+        assertThat(report.source()).isEqualTo("before.txt -> after.txt");
+        assertThat(finding(report, "THREAD_STATE_CHANGES").severity()).isEqualTo(Severity.LOW);
+    }
+
+    @Test
+    void diff_ShouldThrow_WhenSideIsMissingOrReportIsUnknown() {
+        // Given
+        String dump = thread("worker-1", 2, "RUNNABLE", "com.example.Worker.run");
+
+        // When / Then
+        assertThatThrownBy(() -> diffService.diff(new ThreadDumpDiffRequest(dump, null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("current");
+        assertThatThrownBy(() -> diffService.diff(new ThreadDumpDiffRequest(null, dump, "missing", null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+    }
+
+    private static DiagnosticFinding finding(DiagnosticReport report, String type) {
+        return report.findings().stream()
+                .filter(finding -> finding.type().equals(type))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static String thread(String name, int id, String state, String... methods) {
+        StringBuilder thread = new StringBuilder()
+                .append('"').append(name).append("\" #").append(id)
+                .append(" prio=5 os_prio=0 tid=0x1 nid=0x").append(Integer.toHexString(id)).append(" runnable\n")
+                .append("   java.lang.Thread.State: ").append(state).append('\n');
+        for (String method : methods) {
+            thread.append("\tat ").append(method).append("(Source.java:").append(method.length()).append(")\n");
+        }
+        return thread.append('\n').toString();
+    }
+}
@@ -1,6 +1,14 @@
 package com.tinusj.threaddump.service;
 
+import com.tinusj.threaddump.capture.AttachThreadDumpCapture;
+import com.tinusj.threaddump.capture.JstackThreadDumpCapture;
+import com.tinusj.threaddump.capture.ThreadCpuSampler;
+import com.tinusj.threaddump.capture.ThreadDumpCaptureException;
+import com.tinusj.threaddump.config.ThreadDumpCaptureProperties;
+import com.tinusj.threaddump.model.CapturedThreadDump;
 import com.tinusj.threaddump.model.JavaProcess;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.parser.ThreadDumpParser;
 import com.tinusj.threaddump.service.impl.ThreadDumpGenerationServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,20 +16,37 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.function.Function;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ThreadDumpGenerationServiceTest {
 
+    private static final long PID = 4242L;
+    private static final String DUMP = """
+            "main" #1 prio=5 os_prio=0 tid=0x1 nid=0x1 runnable
+               java.lang.Thread.State: RUNNABLE
+                    at com.example.App.main(App.java:10)
+            """;
+
     @Mock
     private JavaProcessService javaProcessService;
 
+    @Mock
+    private ThreadDumpAnalyzer threadDumpAnalyzer;
+
     private ThreadDumpGenerationService threadDumpGenerationService;
 
     @BeforeEach
     void setUp() {
-        threadDumpGenerationService = new ThreadDumpGenerationServiceImpl(javaProcessService);
+        threadDumpGenerationService = new ThreadDumpGenerationServiceImpl(javaProcessService, threadDumpAnalyzer);
     }
 
     @Test
@@ -81,4 +106,75 @@ class ThreadDumpGenerationServiceTest {
         // This test just ensures the method doesn't throw an exception
         assertTrue(available || !available); // Always passes, just tests no exception
     }
-}
\ No newline at end of file
+
+    @Test
+    void captureThreadDump_ShouldParseWhileCapturingAndDropText_WhenContentIsNotRequested() {
+        // Given
+        ThreadDumpGenerationService service = serviceWithBackends(
+                (pid, reader) -> { throw new ThreadDumpCaptureException("attach unavailable"); },
+                (pid, reader) -> reader.apply(new StringReader(DUMP)));
+        when(javaProcessService.getJavaProcessByPid(PID))
+                .thenReturn(new JavaProcess(PID, "com.example.App", "App", "", ""));
+
+        // When
+        CapturedThreadDump capture = service.captureThreadDump(PID);
+
+        // Then
+        assertNull(capture.content());
+        assertEquals(1, capture.dump().size());
+        assertEquals("main", capture.dump().threads().get(0).name());
+    }
+
+    @Test
+    void captureThreadDump_ShouldKeepTextOfSuccessfulBackendOnly_WhenFirstBackendFailsPartWay() {
+        // Given
+        ThreadDumpGenerationService service = serviceWithBackends(
+                (pid, reader) -> reader.apply(new StringReader("\"main\" #1 prio=5") {
+                    @Override
+                    public int read(char[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read < 0) {
+                            throw new ThreadDumpCaptureException("connection lost");
+                        }
+                        return read;
+                    }
+                }),
+                (pid, reader) -> reader.apply(new StringReader(DUMP)));
+        when(javaProcessService.getJavaProcessByPid(PID))
+                .thenReturn(new JavaProcess(PID, "com.example.App", "App", "", ""));
+
+        // When
+        CapturedThreadDump capture = service.captureThreadDump(PID, true);
+
+        // Then
+        assertEquals(DUMP, capture.content());
+        assertEquals(1, capture.dump().size());
+    }
+
+    private ThreadDumpGenerationService serviceWithBackends(StreamingCapture attach, StreamingCapture jstack) {
+        when(threadDumpAnalyzer.parse(any(Reader.class))).thenAnswer(invocation ->
+                ParsedThreadDump.of(new ThreadDumpParser().parse((Reader) invocation.getArgument(0)),
+                        thread -> "Other"));
+        AttachThreadDumpCapture attachCapture = mock(AttachThreadDumpCapture.class);
+        JstackThreadDumpCapture jstackCapture = mock(JstackThreadDumpCapture.class);
+        when(attachCapture.isAvailable()).thenReturn(true);
+        lenient().when(attachCapture.name()).thenReturn("attach");
+        lenient().when(jstackCapture.name()).thenReturn("jstack");
+        when(attachCapture.capture(eq(PID), any())).thenAnswer(invocation ->
+                attach.capture(PID, invocation.getArgument(1)));
+        when(jstackCapture.capture(eq(PID), any())).thenAnswer(invocation ->
+                jstack.capture(PID, invocation.getArgument(1)));
+        ThreadDumpCaptureProperties captureProperties = new ThreadDumpCaptureProperties();
+        captureProperties.setCpuSamplingEnabled(false);
+        return new ThreadDumpGenerationServiceImpl(javaProcessService, threadDumpAnalyzer, attachCapture,
+                jstackCapture, new ThreadCpuSampler(captureProperties));
+    }
+
+    /**
+     * A capture backend's streaming capture, as stubbed by the tests.
+     */
+    @FunctionalInterface
+    private interface StreamingCapture {
+        Object capture(long pid, Function<Reader, ?> reader) throws IOException;
+    }
+}
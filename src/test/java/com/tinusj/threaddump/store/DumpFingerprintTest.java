@@ -0,0 +1,66 @@
+package com.tinusj.threaddump.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for DumpFingerprint.
+ */
+class DumpFingerprintTest {
+
+    private static final String THREADS = """
+            "main" #1 prio=5 os_prio=0 tid=0x00007f8c2c009000 nid=0x1234 runnable
+               java.lang.Thread.State: RUNNABLE
+            \tat com.example.Café.run(Café.java:10)
+            """;
+
+    @Test
+    void of_ShouldIgnoreHeaderTimestampAndLineEndings_WhenSameThreadsAreCapturedAgain() {
+        // Given
+        String first = "2024-01-01 12:00:00\nFull thread dump OpenJDK:\n\n" + THREADS;
+        String second = "12345:\r\n2024-01-01 12:05:00\r\nFull thread dump OpenJDK:\r\n\r\n"
+                + THREADS.replace("\n", "\r\n");
+
+        // When / Then
+        assertThat(DumpFingerprint.of(second)).isEqualTo(DumpFingerprint.of(first));
+    }
+
+    @Test
+    void of_ShouldDiffer_WhenThreadsDiffer() {
+        // Given
+        String dump = "2024-01-01 12:00:00\n" + THREADS;
+        String changed = "2024-01-01 12:00:00\n" + THREADS.replace("RUNNABLE", "BLOCKED (on object monitor)");
+        // Digits at the start of a line only count as header before the first thread
+        String trailing = dump + "42 more lines\n";
+
+        // When
+        DumpFingerprint fingerprint = DumpFingerprint.of(dump);
+
+        // Then
+        assertThat(DumpFingerprint.of(changed)).isNotEqualTo(fingerprint);
+        assertThat(DumpFingerprint.of(trailing)).isNotEqualTo(fingerprint);
+        assertThat(DumpFingerprint.of(dump + "x")).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    void of_ShouldMatchText_WhenSameDumpIsReadFromFile(@TempDir Path directory) throws IOException {
+        // Given
+        String dump = "2024-01-01 12:00:00\n" + THREADS;
+        Path dumpFile = directory.resolve("dump.txt");
+        Files.writeString(dumpFile, dump, StandardCharsets.UTF_8);
+
+        // When
+        DumpFingerprint fromFile = DumpFingerprint.of(dumpFile);
+
+        // Then
+        assertThat(fromFile).isEqualTo(DumpFingerprint.of(dump));
+        assertThat(fromFile.length()).isEqualTo(THREADS.getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -0,0 +1,156 @@
+package com.tinusj.threaddump.store;
+
+import com.tinusj.threaddump.config.ReportCacheProperties;
+import com.tinusj.threaddump.config.RuleConfigurationProvider;
+import com.tinusj.threaddump.enums.ReportFormat;
+import com.tinusj.threaddump.enums.ReportStatus;
+import com.tinusj.threaddump.model.DiagnosticReport;
+import com.tinusj.threaddump.model.ParsedThreadDump;
+import com.tinusj.threaddump.model.RuleConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReportCache.
+ */
+class ReportCacheTest {
+
+    private static final DumpFingerprint FINGERPRINT = DumpFingerprint.of("\"main\" #1 runnable\n");
+
+    private final RuleConfigurationProvider configurationProvider = mock(RuleConfigurationProvider.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ParsedThreadDump dump = ParsedThreadDump.of(List.of(), thread -> "Other");
+    private final DiagnosticReport report = new DiagnosticReport("test-id", LocalDateTime.of(2023, 1, 1, 12, 0),
+            "test-source", null, List.of(), List.of(), ReportStatus.COMPLETED, "Test summary");
+    private ReportCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(configurationProvider.current()).thenReturn(RuleConfiguration.DEFAULTS);
+        cache = new ReportCache(new ReportCacheProperties(), configurationProvider, meterRegistry);
+    }
+
+    @Test
+    void get_ShouldReturnReportAndCountLookups_WhenSameDumpAndSourceWereCached() {
+        // Given
+        cache.put(FINGERPRINT, "test-source", RuleConfiguration.DEFAULTS, report, dump);
+
+        // When
+        boolean hit = cache.get(FINGERPRINT, "test-source").isPresent();
+        boolean otherSourceHit = cache.get(FINGERPRINT, "other-source").isPresent();
+
+        // Then
+        assertThat(hit).isTrue();
+        assertThat(otherSourceHit).isFalse();
+        assertThat(cache.getByReportId("test-id")).get()
+                .satisfies(cached -> assertThat(cached.dump()).isSameAs(dump));
+        assertThat(gets("hit", "report")).isEqualTo(1.0);
+        assertThat(gets("miss", "report")).isEqualTo(1.0);
+        assertThat(meterRegistry.get(ReportCache.HIT_RATIO_GAUGE).gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void get_ShouldMiss_WhenRuleConfigurationWasRefreshed() {
+        // Given
+        cache.put(FINGERPRINT, "test-source", RuleConfiguration.DEFAULTS, report, dump);
+        when(configurationProvider.current()).thenReturn(new RuleConfiguration(5, 10, 50, 50, 200, 200, 0.3, Set.of()));
+
+        // When / Then
+        assertThat(cache.get(FINGERPRINT, "test-source")).isEmpty();
+    }
+
+    @Test
+    void put_ShouldKeyOnAnalysisConfiguration_WhenConfigurationWasRefreshedDuringAnalysis() {
+        // Given: the analysis ran with the defaults, but the configuration was refreshed before it finished
+        RuleConfiguration refreshed = new RuleConfiguration(5, 10, 50, 50, 200, 200, 0.3, Set.of());
+        when(configurationProvider.current()).thenReturn(refreshed);
+        cache.put(FINGERPRINT, "test-source", RuleConfiguration.DEFAULTS, report, dump);
+
+        // When
+        boolean refreshedHit = cache.get(FINGERPRINT, "test-source").isPresent();
+        when(configurationProvider.current()).thenReturn(RuleConfiguration.DEFAULTS);
+        boolean analysisConfigurationHit = cache.get(FINGERPRINT, "test-source").isPresent();
+
+        // Then
+        assertThat(refreshedHit).isFalse();
+        assertThat(analysisConfigurationHit).isTrue();
+    }
+
+    @Test
+    void putFormatted_ShouldEvict_WhenFormattedReportsExceedMaxSize() {
+        // Given: two small dumps in a 100 KB cache
+        ReportCacheProperties properties = new ReportCacheProperties();
+        properties.setMaxSize(DataSize.ofKilobytes(100));
+        SimpleMeterRegistry smallRegistry = new SimpleMeterRegistry();
+        ReportCache small = new ReportCache(properties, configurationProvider, smallRegistry);
+        small.put(DumpFingerprint.of("first dump"), "test-source", RuleConfiguration.DEFAULTS, report("first-id"),
+                dump);
+        small.put(DumpFingerprint.of("second dump"), "test-source", RuleConfiguration.DEFAULTS, report("second-id"),
+                dump);
+
+        // When
+        small.putFormatted("first-id", ReportFormat.JSON, new byte[60 * 1024]);
+        small.cleanUp();
+        double sizeWithinLimit = smallRegistry.get(ReportCache.SIZE_GAUGE).gauge().value();
+        small.putFormatted("second-id", ReportFormat.JSON, new byte[60 * 1024]);
+        small.cleanUp();
+
+        // Then
+        assertThat(sizeWithinLimit).isEqualTo(2.0);
+        assertThat(smallRegistry.get(ReportCache.SIZE_GAUGE).gauge().value()).isEqualTo(1.0);
+        assertThat(smallRegistry.get(ReportCache.EVICTIONS_COUNTER).functionCounter().count()).isEqualTo(1.0);
+        assertThat(small.getByReportId("first-id").isPresent() ^ small.getByReportId("second-id").isPresent())
+                .isTrue();
+    }
+
+    @Test
+    void putFormatted_ShouldNotKeepBytes_WhenLargerThanMaxFormattedSize() {
+        // Given
+        ReportCacheProperties properties = new ReportCacheProperties();
+        properties.setMaxFormattedSize(DataSize.ofKilobytes(1));
+        ReportCache limited = new ReportCache(properties, configurationProvider, meterRegistry);
+        limited.put(FINGERPRINT, "test-source", RuleConfiguration.DEFAULTS, report, dump);
+
+        // When
+        limited.putFormatted("test-id", ReportFormat.JSON, new byte[1024]);
+        limited.putFormatted("test-id", ReportFormat.TEXT, new byte[1025]);
+
+        // Then
+        assertThat(limited.getByReportId("test-id")).get()
+                .satisfies(cached -> assertThat(cached.formatted()).containsOnlyKeys(ReportFormat.JSON));
+    }
+
+    @Test
+    void get_ShouldNeverHit_WhenCacheIsDisabled() {
+        // Given
+        ReportCacheProperties properties = new ReportCacheProperties();
+        properties.setEnabled(false);
+        ReportCache disabled = new ReportCache(properties, configurationProvider, meterRegistry);
+        disabled.put(FINGERPRINT, "test-source", RuleConfiguration.DEFAULTS, report, dump);
+
+        // When / Then
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.get(FINGERPRINT, "test-source")).isEmpty();
+        assertThat(disabled.getByReportId("test-id")).isEmpty();
+    }
+
+    private static DiagnosticReport report(String id) {
+        return new DiagnosticReport(id, LocalDateTime.of(2023, 1, 1, 12, 0), "test-source", null, List.of(),
+                List.of(), ReportStatus.COMPLETED, "Test summary");
+    }
+
+    private double gets(String result, String content) {
+        return meterRegistry.get(ReportCache.GETS_COUNTER).tags("result", result, "content", content)
+                .functionCounter().count();
+    }
+}